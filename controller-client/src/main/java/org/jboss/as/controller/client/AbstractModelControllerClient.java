@@ -33,7 +33,9 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Condition;
@@ -51,8 +53,19 @@ import org.jboss.dmr.ModelNode;
 * @version $Revision: 1.1 $
 */
 abstract class AbstractModelControllerClient implements ModelControllerClient {
+
+    /**
+     * System property setting the maximum number of threads used to run asynchronous operations, and
+     * separately the maximum number used to read responses. Further work is queued.
+     */
+    static final String MAX_THREADS_PROPERTY = "jboss.as.management.client.max-threads";
+
+    private static final int MAX_THREADS = Integer.getInteger(MAX_THREADS_PROPERTY, 16).intValue();
+
     final ThreadFactory threadFactory = Executors.defaultThreadFactory();
-    final ExecutorService executorService = Executors.newCachedThreadPool(threadFactory);
+    final ExecutorService executorService = createExecutor(threadFactory);
+    /** Runs the message handlers of the connections, kept apart so that waiting operations cannot starve them */
+    final ExecutorService readExecutor = createExecutor(threadFactory);
 
     public AbstractModelControllerClient() {
     }
@@ -116,6 +129,8 @@ abstract class AbstractModelControllerClient implements ModelControllerClient {
         }
         try {
             return new ExecuteSynchronousRequest(operation).executeForResult(getConnectionStrategy());
+        } catch (CancellationException e) {
+            throw e;
         } catch (ExecutionException e) {
             if (e.getCause() instanceof IOException) {
                 throw new IOException(e);
@@ -132,6 +147,14 @@ abstract class AbstractModelControllerClient implements ModelControllerClient {
     @Override
     public void close() throws IOException {
         executorService.shutdown();
+        readExecutor.shutdown();
+    }
+
+    private static ExecutorService createExecutor(final ThreadFactory threadFactory) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     abstract ManagementRequestConnectionStrategy getConnectionStrategy();
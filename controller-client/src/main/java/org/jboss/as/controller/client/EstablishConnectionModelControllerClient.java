@@ -21,28 +21,51 @@
 */
 package org.jboss.as.controller.client;
 
+import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.util.concurrent.TimeUnit;
 
+import javax.net.SocketFactory;
+
+import org.jboss.as.protocol.ProtocolClient;
+import org.jboss.as.protocol.mgmt.ManagementConnectionPool;
 import org.jboss.as.protocol.mgmt.ManagementRequestConnectionStrategy;
 
 /**
+ * A client which connects to the given address and port. Requests share a pool of keep-alive connections, each
+ * of which carries concurrent requests on separate channels. The pool can be tuned with the
+ * {@code jboss.as.management.client.max-connections}, {@code jboss.as.management.client.requests-per-connection}
+ * and {@code jboss.as.management.client.idle-timeout} (in milliseconds) system properties.
  *
  * @author <a href="kabir.khan@jboss.com">Kabir Khan</a>
  * @version $Revision: 1.1 $
  */
 public class EstablishConnectionModelControllerClient extends AbstractModelControllerClient {
     private static final long CONNECTION_TIMEOUT = TimeUnit.SECONDS.toMillis(5L);
-    private final InetAddress address;
-    private final int port;
+    private static final int MAX_CONNECTIONS = Integer.getInteger("jboss.as.management.client.max-connections", 4).intValue();
+    private static final int REQUESTS_PER_CONNECTION = Integer.getInteger("jboss.as.management.client.requests-per-connection", 16).intValue();
+    private static final long IDLE_TIMEOUT = Long.getLong("jboss.as.management.client.idle-timeout", TimeUnit.SECONDS.toMillis(60L)).longValue();
+
+    private final ManagementConnectionPool pool;
 
     public EstablishConnectionModelControllerClient(InetAddress address, int port) {
-        this.address = address;
-        this.port = port;
+        final ProtocolClient.Configuration config = new ProtocolClient.Configuration();
+        config.setConnectTimeout((int) CONNECTION_TIMEOUT);
+        config.setReadExecutor(readExecutor);
+        config.setSocketFactory(SocketFactory.getDefault());
+        config.setServerAddress(new InetSocketAddress(address, port));
+        config.setThreadFactory(threadFactory);
+        pool = new ManagementConnectionPool(config, MAX_CONNECTIONS, REQUESTS_PER_CONNECTION, IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
     }
 
     ManagementRequestConnectionStrategy getConnectionStrategy() {
-        return new ManagementRequestConnectionStrategy.EstablishConnectingStrategy(address, port, CONNECTION_TIMEOUT, executorService, threadFactory);
+        return new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool);
     }
 
+    @Override
+    public void close() throws IOException {
+        pool.close();
+        super.close();
+    }
 }
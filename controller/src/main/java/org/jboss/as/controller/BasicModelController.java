@@ -50,6 +50,9 @@ import java.util.NoSuchElementException;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.jboss.as.controller.client.Operation;
 import org.jboss.as.controller.client.OperationBuilder;
@@ -62,6 +65,7 @@ import org.jboss.as.controller.operations.validation.ParameterValidator;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ConfigurationPersister;
 import org.jboss.as.controller.persistence.ConfigurationPersisterProvider;
+import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.as.controller.registry.ModelNodeRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.dmr.ModelNode;
@@ -80,12 +84,18 @@ public class BasicModelController extends AbstractModelController implements Mod
 
     private final ModelNodeRegistration registry;
     private final ModelNode model;
+    private final ReadWriteLock modelLock = new ReentrantReadWriteLock();
     private final ConfigurationPersister configurationPersister;
     private final ModelProvider modelSource = new ModelProvider() {
         @Override
         public ModelNode getModel() {
             return BasicModelController.this.model;
         }
+
+        @Override
+        public ReadWriteLock getModelLock() {
+            return modelLock;
+        }
     };
     private final OperationContextFactory contextFactory = new OperationContextFactory() {
         @Override
@@ -261,8 +271,12 @@ public class BasicModelController extends AbstractModelController implements Mod
         } else if (operationHandler instanceof ModelQueryOperationHandler) {
             // or model update operation handler...
             final ModelNode model = modelSource.getModel();
-            synchronized (model) {
+            final Lock lock = modelSource.getModelLock().readLock();
+            lock.lock();
+            try {
                 subModel = address.navigate(model, false).clone();
+            } finally {
+                lock.unlock();
             }
         } else {
             subModel = null;
@@ -346,13 +360,23 @@ public class BasicModelController extends AbstractModelController implements Mod
         final OperationResult result = operationHandler.execute(context, operation.getOperation(), resultHandler);
         if (operationHandler instanceof ModelUpdateOperationHandler) {
             final ModelNode model = modelProvider.getModel();
-            synchronized (model) {
+            final ReadWriteLock lock = modelProvider.getModelLock();
+            lock.writeLock().lock();
+            try {
                 if (operationHandler instanceof ModelRemoveOperationHandler) {
                     address.remove(model);
                 } else {
                     address.navigate(model, true).set(context.getSubModel());
                 }
-                persistConfiguration(model, configurationPersisterFactory);
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // Reads may proceed while the change is persisted, but further changes wait until it has been
+            try {
+                persistConfiguration(model, new ChangedAddressPersisterProvider(configurationPersisterFactory, address));
+            } finally {
+                lock.readLock().unlock();
             }
         }
         return result;
@@ -366,6 +390,16 @@ public class BasicModelController extends AbstractModelController implements Mod
         return model;
     }
 
+    /**
+     * Get the lock guarding the model returned by {@link #getModel()}. Reads of the model must hold the read lock
+     * and changes to it the write lock.
+     *
+     * @return the model lock
+     */
+    protected ReadWriteLock getModelLock() {
+        return modelLock;
+    }
+
     /**
      * Validates that it is valid to add a resource to the model at the given
      * address. Confirms that:
@@ -475,6 +509,8 @@ public class BasicModelController extends AbstractModelController implements Mod
         protected final ModelProvider modelSource;
         /** Our clone of the model provided by modelSource -- steps read or modify this */
         protected final ModelNode localModel;
+        /** Guards localModel */
+        protected final ReadWriteLock localModelLock = new ReentrantReadWriteLock();
         /** Flag indicating a step has modified the model */
         protected boolean modelUpdated;
         /** Index of the operation currently being executed */
@@ -514,7 +550,13 @@ public class BasicModelController extends AbstractModelController implements Mod
             this.unfinishedCount.set(steps.size());
             this.rollbackOnRuntimeFailure = (!operation.hasDefined(ROLLBACK_ON_RUNTIME_FAILURE) || operation.get(ROLLBACK_ON_RUNTIME_FAILURE).asBoolean());
             this.modelSource = modelSource;
-            this.localModel = this.modelSource.getModel().clone();
+            final Lock lock = modelSource.getModelLock().readLock();
+            lock.lock();
+            try {
+                this.localModel = this.modelSource.getModel().clone();
+            } finally {
+                lock.unlock();
+            }
             this.injectedConfigPersisterProvider = injectedConfigPersisterProvider;
             // Ensure the outcome and result fields come first for each result
             for (int i = 0; i < unfinishedCount.get(); i++) {
@@ -598,10 +640,19 @@ public class BasicModelController extends AbstractModelController implements Mod
 
         protected void updateModelAndPersist() {
             final ModelNode model = modelSource.getModel();
-            synchronized (model) {
+            final ReadWriteLock lock = modelSource.getModelLock();
+            lock.writeLock().lock();
+            try {
                 model.set(localModel);
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                BasicModelController.this.persistConfiguration(model, injectedConfigPersisterProvider);
+            } finally {
+                lock.readLock().unlock();
             }
-            BasicModelController.this.persistConfiguration(model, injectedConfigPersisterProvider);
         }
 
         protected final String getStepKey(int id) {
@@ -782,6 +833,11 @@ public class BasicModelController extends AbstractModelController implements Mod
         public ModelNode getModel() {
             return localModel;
         }
+
+        @Override
+        public ReadWriteLock getModelLock() {
+            return localModelLock;
+        }
     }
 
     private static class StepResultHandler implements ResultHandler {
@@ -919,4 +975,43 @@ public class BasicModelController extends AbstractModelController implements Mod
 
 
     }
+
+    /**
+     * Passes the address an operation changed on to an {@link ExtensibleConfigurationPersister}, so it only
+     * needs to re-marshal the part of the configuration that changed.
+     */
+    private static class ChangedAddressPersisterProvider implements ConfigurationPersisterProvider {
+        private final ConfigurationPersisterProvider delegate;
+        private final PathAddress address;
+
+        ChangedAddressPersisterProvider(final ConfigurationPersisterProvider delegate, final PathAddress address) {
+            this.delegate = delegate;
+            this.address = address;
+        }
+
+        @Override
+        public ConfigurationPersister getConfigurationPersister() {
+            final ConfigurationPersister persister = delegate.getConfigurationPersister();
+            if (!(persister instanceof ExtensibleConfigurationPersister)) {
+                return persister;
+            }
+            final ExtensibleConfigurationPersister extensible = (ExtensibleConfigurationPersister) persister;
+            return new ConfigurationPersister() {
+                @Override
+                public void store(final ModelNode model) throws ConfigurationPersistenceException {
+                    extensible.store(model, address);
+                }
+
+                @Override
+                public void marshallAsXml(final ModelNode model, final OutputStream output) throws ConfigurationPersistenceException {
+                    extensible.marshallAsXml(model, output);
+                }
+
+                @Override
+                public List<ModelNode> load() throws ConfigurationPersistenceException {
+                    return extensible.load();
+                }
+            };
+        }
+    }
 }
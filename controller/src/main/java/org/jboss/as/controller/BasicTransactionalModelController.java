@@ -25,6 +25,8 @@ package org.jboss.as.controller;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 
+import java.util.concurrent.locks.ReadWriteLock;
+
 import org.jboss.as.controller.client.Operation;
 import org.jboss.as.controller.descriptions.DescriptionProvider;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
@@ -217,13 +219,22 @@ public class BasicTransactionalModelController extends BasicModelController impl
         public void commit() {
             if (address != null) {
                 final ModelNode model = modelProvider.getModel();
-                synchronized (model) {
+                final ReadWriteLock lock = modelProvider.getModelLock();
+                lock.writeLock().lock();
+                try {
                     if (isRemove) {
                         address.remove(model);
                     } else {
                         address.navigate(model, true).set(subModel);
                     }
+                    lock.readLock().lock();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                try {
                     persistConfiguration(model, persisterProvider);
+                } finally {
+                    lock.readLock().unlock();
                 }
             }
         }
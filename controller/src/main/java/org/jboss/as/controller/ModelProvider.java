@@ -3,6 +3,8 @@
  */
 package org.jboss.as.controller;
 
+import java.util.concurrent.locks.ReadWriteLock;
+
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -18,4 +20,12 @@ public interface ModelProvider {
      * @return the model. Will not return {@code null}
      */
     ModelNode getModel();
+
+    /**
+     * Gets the lock guarding the model. Reads of the model must hold the read lock and changes to it the write
+     * lock.
+     *
+     * @return the lock. Will not return {@code null}
+     */
+    ReadWriteLock getModelLock();
 }
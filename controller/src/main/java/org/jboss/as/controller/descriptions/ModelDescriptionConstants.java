@@ -37,6 +37,7 @@ public class ModelDescriptionConstants {
     public static final String ADD = "add";
     public static final String ADD_OPERATION = "add-operation";
     public static final String ADDRESS = "address";
+    public static final String ANNOTATION_INDEX_STATISTICS = "annotation-index-statistics";
     public static final String ANY = "any";
     public static final String ANY_ADDRESS = "any-address";
     public static final String ANY_IPV4_ADDRESS = "any-ipv4-address";
@@ -48,6 +49,8 @@ public class ModelDescriptionConstants {
     public static final String CHILDREN = "children";
     public static final String COMPOSITE = "composite";
     public static final String CONCURRENT_GROUPS = "concurrent-groups";
+    public static final String CONFIG_PENDING_VERSION = "config-pending-version";
+    public static final String CONFIG_PERSISTED_VERSION = "config-persisted-version";
     public static final String CPU_AFFINITY = "cpu-affinity";
     public static final String CRITERIA = "criteria";
     public static final String COMPENSATING_OPERATION = "compensating-operation";
@@ -55,6 +58,8 @@ public class ModelDescriptionConstants {
     public static final String DESCRIBE = "describe";
     public static final String DEFAULT_INTERFACE = "default-interface";
     public static final String DEPLOYMENT = "deployment";
+    public static final String DESCRIPTION_CACHE_HITS = "description-cache-hits";
+    public static final String DESCRIPTION_CACHE_MISSES = "description-cache-misses";
     public static final String DESCRIPTION = "description";
     public static final String DOMAIN_CONTROLLER = "domain-controller";
     public static final String DOMAIN_FAILURE_DESCRIPTION = "domain-failure-description";
@@ -119,6 +124,7 @@ public class ModelDescriptionConstants {
     public static final String PRIORITY = "priority";
     public static final String PROFILE = "profile";
     public static final String PROFILE_NAME = "profile-name";
+    public static final String PROXY_TIMEOUT = "proxy-timeout";
     public static final String READ_ATTRIBUTE_OPERATION = "read-attribute";
     public static final String READ_CHILDREN_NAMES_OPERATION = "read-children-names";
     public static final String READ_CHILDREN_TYPES_OPERATION = "read-children-types";
@@ -164,6 +170,7 @@ public class ModelDescriptionConstants {
     /** The key for {@link AttributeAccess.Storage} fields. */
     public static final String STORAGE = "storage";
     public static final String SUBSYSTEM = "subsystem";
+    public static final String SUBSYSTEM_BOOT_TIMES = "subsystem-boot-times";
     public static final String SUCCESS = "success";
     public static final String SYSTEM_PROPERTY = "system-property";
     public static final String SYSTEM_PROPERTIES = "system-properties";
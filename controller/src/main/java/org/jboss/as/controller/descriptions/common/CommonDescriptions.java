@@ -82,6 +82,31 @@ public class CommonDescriptions {
         return root;
     }
 
+    public static ModelNode getConfigPendingVersionAttribute(final Locale locale) {
+        return getLongAttribute(locale, "config-pending-version");
+    }
+
+    public static ModelNode getConfigPersistedVersionAttribute(final Locale locale) {
+        return getLongAttribute(locale, "config-persisted-version");
+    }
+
+    public static ModelNode getDescriptionCacheHitsAttribute(final Locale locale) {
+        return getLongAttribute(locale, "description-cache-hits");
+    }
+
+    public static ModelNode getDescriptionCacheMissesAttribute(final Locale locale) {
+        return getLongAttribute(locale, "description-cache-misses");
+    }
+
+    private static ModelNode getLongAttribute(final Locale locale, final String name) {
+        final ResourceBundle bundle = getResourceBundle(locale);
+        final ModelNode root = new ModelNode();
+        root.get(TYPE).set(ModelType.LONG);
+        root.get(DESCRIPTION).set(bundle.getString(name));
+        root.get(REQUIRED).set(false);
+        return root;
+    }
+
     public static ModelNode getAddNamespaceOperation(final Locale locale) {
         final ResourceBundle bundle = getResourceBundle(locale);
         final ModelNode root = new ModelNode();
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.operations.common;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONFIG_PENDING_VERSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONFIG_PERSISTED_VERSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelQueryOperationHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.persistence.AsyncConfigurationPersister;
+import org.jboss.as.controller.persistence.ConfigurationPersister;
+import org.jboss.as.controller.registry.ModelNodeRegistration;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Handler for the metrics reporting how far the configuration persister has got with writing the changes made to
+ * the model. Both versions are {@code 0} unless asynchronous persistence is enabled.
+ */
+public class ConfigurationPersistenceMetricHandler implements ModelQueryOperationHandler {
+
+    private final ConfigurationPersister persister;
+
+    /**
+     * Registers the metrics on the given root resource.
+     *
+     * @param root the registration of the root resource
+     * @param persister the persister storing the root resource's model
+     */
+    public static void registerMetrics(final ModelNodeRegistration root, final ConfigurationPersister persister) {
+        final ConfigurationPersistenceMetricHandler handler = new ConfigurationPersistenceMetricHandler(persister);
+        root.registerMetric(CONFIG_PENDING_VERSION, handler);
+        root.registerMetric(CONFIG_PERSISTED_VERSION, handler);
+    }
+
+    private ConfigurationPersistenceMetricHandler(final ConfigurationPersister persister) {
+        this.persister = persister;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+        long value = 0;
+        if (persister instanceof AsyncConfigurationPersister) {
+            final AsyncConfigurationPersister async = (AsyncConfigurationPersister) persister;
+            if (CONFIG_PENDING_VERSION.equals(attributeName)) {
+                value = async.getPendingVersion();
+            } else if (CONFIG_PERSISTED_VERSION.equals(attributeName)) {
+                value = async.getPersistedVersion();
+            } else {
+                throw new OperationFailedException(new ModelNode().set("Unknown metric " + attributeName));
+            }
+        }
+        resultHandler.handleResultFragment(Util.NO_LOCATION, new ModelNode().set(value));
+        resultHandler.handleResultComplete();
+        return new BasicOperationResult();
+    }
+}
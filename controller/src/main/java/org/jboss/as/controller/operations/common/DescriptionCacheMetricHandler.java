@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.operations.common;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION_CACHE_HITS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION_CACHE_MISSES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelQueryOperationHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.registry.DescriptionCache;
+import org.jboss.as.controller.registry.ModelNodeRegistration;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Handler for the metrics reporting how many description requests the {@link DescriptionCache} of a registration
+ * tree could and could not serve.
+ */
+public class DescriptionCacheMetricHandler implements ModelQueryOperationHandler {
+
+    private final DescriptionCache cache;
+
+    /**
+     * Registers the metrics on the given root resource.
+     *
+     * @param root the registration of the root resource
+     */
+    public static void registerMetrics(final ModelNodeRegistration root) {
+        final DescriptionCacheMetricHandler handler = new DescriptionCacheMetricHandler(root.getDescriptionCache());
+        root.registerMetric(DESCRIPTION_CACHE_HITS, handler);
+        root.registerMetric(DESCRIPTION_CACHE_MISSES, handler);
+    }
+
+    private DescriptionCacheMetricHandler(final DescriptionCache cache) {
+        this.cache = cache;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+        final long value;
+        if (DESCRIPTION_CACHE_HITS.equals(attributeName)) {
+            value = cache.getHitCount();
+        } else if (DESCRIPTION_CACHE_MISSES.equals(attributeName)) {
+            value = cache.getMissCount();
+        } else {
+            throw new OperationFailedException(new ModelNode().set("Unknown metric " + attributeName));
+        }
+        resultHandler.handleResultFragment(Util.NO_LOCATION, new ModelNode().set(value));
+        resultHandler.handleResultComplete();
+        return new BasicOperationResult();
+    }
+}
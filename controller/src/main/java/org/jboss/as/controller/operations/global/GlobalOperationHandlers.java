@@ -25,6 +25,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ACC
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILDREN;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILD_TYPE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INCLUDE_RUNTIME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.LOCALE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MODEL_DESCRIPTION;
@@ -32,19 +33,29 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAM
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATIONS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROXY_TIMEOUT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_DESCRIPTION_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STORAGE;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.jboss.as.controller.BasicOperationResult;
 import org.jboss.as.controller.ModelAddOperationHandler;
@@ -65,6 +76,7 @@ import org.jboss.as.controller.operations.common.Util;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.AttributeAccess.AccessType;
 import org.jboss.as.controller.registry.AttributeAccess.Storage;
+import org.jboss.as.controller.registry.DescriptionCache;
 import org.jboss.as.controller.registry.ModelNodeRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.dmr.ModelNode;
@@ -90,8 +102,35 @@ public class GlobalOperationHandlers {
      * excluding all addressable children and runtime attributes. Setting the request parameter "recursive" to "true" will recursively include
      * all children and configuration attributes. Non-recursive queries can include runtime attributes by setting the request parameter
      * "include-runtime" to "true".
+     * <p>
+     * If the handler is given an executor, the parts of the model held by proxy controllers are read concurrently on it;
+     * proxies it rejects are read on the requesting thread. The optional request parameter "proxy-timeout" limits, in ms,
+     * how long a recursive read waits for them; the read of a proxy which does not respond in time is cancelled, its
+     * node holds a "failure-description" instead of its model, and the rest of the result is returned as usual. Without
+     * an executor, proxies are read one after another on the requesting thread.
+     * </p>
      */
     public static class ReadResourceHandler implements ModelQueryOperationHandler {
+
+        private final Executor proxyReadExecutor;
+
+        /**
+         * Create a handler which reads proxy controllers on the requesting thread.
+         */
+        public ReadResourceHandler() {
+            this(null);
+        }
+
+        /**
+         * Create a handler which reads proxy controllers concurrently.
+         *
+         * @param proxyReadExecutor the executor used to read proxy controllers, or {@code null} to read them on the
+         *        requesting thread
+         */
+        public ReadResourceHandler(final Executor proxyReadExecutor) {
+            this.proxyReadExecutor = proxyReadExecutor;
+        }
+
         @Override
         public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
             try {
@@ -100,7 +139,7 @@ public class GlobalOperationHandlers {
                 if (operation.get(RECURSIVE).asBoolean(false)) {
                     // FIXME security checks JBAS-8842
                     result = context.getSubModel().clone();
-                    addProxyNodes(context, address, result, context.getRegistry());
+                    addProxyNodes(context, address, result, context.getRegistry(), operation.get(PROXY_TIMEOUT).asLong(0));
 
                 } else {
                     result = new ModelNode();
@@ -173,17 +212,65 @@ public class GlobalOperationHandlers {
             return new BasicOperationResult();
         }
 
-        void addProxyNodes(final OperationContext context, final PathAddress address, final ModelNode result, final ModelNodeRegistration registry) throws Exception {
+        void addProxyNodes(final OperationContext context, final PathAddress address, final ModelNode result, final ModelNodeRegistration registry, final long timeout) throws Exception {
             Set<ProxyController> proxyControllers = registry.getProxyControllers(address);
             if (proxyControllers.size() > 0) {
                 final ModelNode operation = new ModelNode();
                 operation.get(OP).set(READ_RESOURCE_OPERATION);
                 operation.get(RECURSIVE).set(true);
                 operation.get(OP_ADDR).set(new ModelNode());
+                if (timeout > 0) {
+                    operation.get(PROXY_TIMEOUT).set(timeout);
+                }
 
-                for (ProxyController proxyController : proxyControllers) {
-                    final ModelNode proxyResult = proxyController.execute(OperationBuilder.Factory.copy(context, operation).build());
-                    addProxyResultToMainResult(proxyController.getProxyNodeAddress(), result, proxyResult);
+                final long deadline = System.currentTimeMillis() + timeout;
+                final List<ProxyController> proxies = new ArrayList<ProxyController>(proxyControllers);
+                final List<FutureTask<ModelNode>> tasks = new ArrayList<FutureTask<ModelNode>>(proxies.size());
+                final Set<FutureTask<ModelNode>> rejected = new HashSet<FutureTask<ModelNode>>();
+                for (final ProxyController proxyController : proxies) {
+                    final Operation proxyOperation = OperationBuilder.Factory.copy(context, operation).build();
+                    final FutureTask<ModelNode> task = new FutureTask<ModelNode>(new Callable<ModelNode>() {
+                        @Override
+                        public ModelNode call() throws Exception {
+                            return proxyController.execute(proxyOperation);
+                        }
+                    });
+                    tasks.add(task);
+                    if (proxyReadExecutor == null) {
+                        rejected.add(task);
+                        continue;
+                    }
+                    try {
+                        proxyReadExecutor.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        rejected.add(task);
+                    }
+                }
+
+                try {
+                    for (int i = 0; i < tasks.size(); i++) {
+                        final FutureTask<ModelNode> task = tasks.get(i);
+                        if (rejected.contains(task)) {
+                            task.run();
+                        }
+                        final PathAddress proxyAddress = proxies.get(i).getProxyNodeAddress();
+                        try {
+                            final ModelNode proxyResult = timeout > 0 ? task.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS) : task.get();
+                            addProxyResultToMainResult(proxyAddress, result, proxyResult);
+                        } catch (TimeoutException e) {
+                            task.cancel(true);
+                            final ModelNode failure = new ModelNode();
+                            failure.get(RESULT, FAILURE_DESCRIPTION).set("No response from " + proxyAddress + " within " + timeout + " ms");
+                            addProxyResultToMainResult(proxyAddress, result, failure);
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                } finally {
+                    for (FutureTask<ModelNode> task : tasks) {
+                        task.cancel(true);
+                    }
                 }
             }
         }
@@ -380,9 +467,17 @@ public class GlobalOperationHandlers {
                 String operationName = operation.require(NAME).asString();
 
                 final ModelNodeRegistration registry = context.getRegistry();
-                final DescriptionProvider descriptionProvider = registry.getOperationDescription(PathAddress.pathAddress(operation.get(OP_ADDR)), operationName);
-
-                final ModelNode result = descriptionProvider == null ? new ModelNode() : descriptionProvider.getModelDescription(getLocale(operation));
+                final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+                final Locale locale = getLocale(operation);
+                final DescriptionCache cache = registry.getDescriptionCache();
+                final String variant = "operation:" + operationName;
+                ModelNode result = cache.get(address, locale, variant);
+                if (result == null) {
+                    final long version = cache.getVersion();
+                    final DescriptionProvider descriptionProvider = registry.getOperationDescription(address, operationName);
+                    result = descriptionProvider == null ? new ModelNode() : descriptionProvider.getModelDescription(locale);
+                    cache.put(address, locale, variant, result, version);
+                }
 
                 resultHandler.handleResultFragment(Util.NO_LOCATION, result);
                 resultHandler.handleResultComplete();
@@ -406,11 +501,22 @@ public class GlobalOperationHandlers {
 
                 final ModelNodeRegistration registry = context.getRegistry();
                 final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
-                final DescriptionProvider descriptionProvider = registry.getModelDescription(address);
                 final Locale locale = getLocale(operation);
-                final ModelNode result = descriptionProvider.getModelDescription(locale);
-
-                addDescription(context, result, recursive, operations, registry, address, locale);
+                final DescriptionCache cache = registry.getDescriptionCache();
+                final String variant = "resource:" + recursive + ":" + operations;
+                ModelNode result = cache.get(address, locale, variant);
+                if (result == null) {
+                    final long version = cache.getVersion();
+                    final DescriptionProvider descriptionProvider = registry.getModelDescription(address);
+                    result = descriptionProvider.getModelDescription(locale);
+
+                    addDescription(context, result, recursive, operations, registry, address, locale);
+
+                    // Proxied descriptions can change without our registry changing
+                    if (!recursive || registry.getProxyControllers(address).isEmpty()) {
+                        cache.put(address, locale, variant, result, version);
+                    }
+                }
 
                 resultHandler.handleResultFragment(Util.NO_LOCATION, result);
                 resultHandler.handleResultComplete();
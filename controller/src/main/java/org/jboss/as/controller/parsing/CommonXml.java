@@ -77,6 +77,12 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.xml.stream.XMLStreamException;
 
@@ -131,10 +137,21 @@ public abstract class CommonXml implements XMLElementReader<List<ModelNode>>, XM
 
     protected final ModuleLoader moduleLoader;
 
+    private volatile Executor extensionLoadExecutor;
+
     protected CommonXml(final ModuleLoader loader) {
         moduleLoader = loader;
     }
 
+    /**
+     * Set the executor used to load the extension modules while a document is parsed.
+     *
+     * @param executor the executor, or {@code null} to load the modules on the parsing thread
+     */
+    public void setExtensionLoadExecutor(final Executor executor) {
+        extensionLoadExecutor = executor;
+    }
+
     protected String getDefaultName() {
         try {
             return InetAddress.getLocalHost().getHostName();
@@ -242,6 +259,7 @@ public abstract class CommonXml implements XMLElementReader<List<ModelNode>>, XM
         requireNoAttributes(reader);
 
         final Set<String> found = new HashSet<String>();
+        final List<String> moduleNames = new ArrayList<String>();
 
         final ExtensionParsingContextImpl context = new ExtensionParsingContextImpl(reader.getXMLMapper());
 
@@ -253,27 +271,78 @@ public abstract class CommonXml implements XMLElementReader<List<ModelNode>>, XM
                 // duplicate module name
                 throw invalidAttributeValue(reader, 0);
             }
+            moduleNames.add(moduleName);
+        }
 
-            // Register element handlers for this extension
+        // Load the extension modules concurrently, then register their element handlers in document order
+        final List<Future<List<Extension>>> loaded = loadExtensions(moduleNames);
+        for (int i = 0; i < moduleNames.size(); i++) {
+            final String moduleName = moduleNames.get(i);
+            final List<Extension> extensions;
             try {
-                final Module module = moduleLoader.loadModule(ModuleIdentifier.fromString(moduleName));
-                boolean initialized = false;
-                for (final Extension extension : module.loadService(Extension.class)) {
-                    extension.initializeParsers(context);
-                    if (!initialized) {
-                        initialized = true;
-                    }
-                }
-                if (!initialized) {
-                    throw new IllegalStateException("No META-INF/services/" + Extension.class.getName() + " found for " + module.getIdentifier());
+                extensions = loaded.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new XMLStreamException("Interrupted loading module " + moduleName, e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof ModuleLoadException) {
+                    throw new XMLStreamException("Failed to load module", (ModuleLoadException) cause);
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
                 }
-                final ModelNode add = new ModelNode();
-                add.get(OP_ADDR).set(address).add(EXTENSION, moduleName);
-                add.get(OP).set(ADD);
-                list.add(add);
-            } catch (final ModuleLoadException e) {
                 throw new XMLStreamException("Failed to load module", e);
             }
+            if (extensions.isEmpty()) {
+                throw new IllegalStateException("No META-INF/services/" + Extension.class.getName() + " found for " + ModuleIdentifier.fromString(moduleName));
+            }
+            for (final Extension extension : extensions) {
+                extension.initializeParsers(context);
+            }
+            final ModelNode add = new ModelNode();
+            add.get(OP_ADDR).set(address).add(EXTENSION, moduleName);
+            add.get(OP).set(ADD);
+            list.add(add);
+        }
+    }
+
+    private List<Future<List<Extension>>> loadExtensions(final List<String> moduleNames) {
+        final List<Future<List<Extension>>> result = new ArrayList<Future<List<Extension>>>(moduleNames.size());
+        final Executor executor = moduleNames.size() > 1 ? extensionLoadExecutor : null;
+        for (String moduleName : moduleNames) {
+            final FutureTask<List<Extension>> task = new FutureTask<List<Extension>>(new ExtensionLoader(moduleName));
+            if (executor == null) {
+                task.run();
+            } else {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.run();
+                }
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    /** Loads an extension module and instantiates the extensions it provides. */
+    private class ExtensionLoader implements Callable<List<Extension>> {
+        private final String moduleName;
+
+        private ExtensionLoader(final String moduleName) {
+            this.moduleName = moduleName;
+        }
+
+        @Override
+        public List<Extension> call() throws ModuleLoadException {
+            final Module module = moduleLoader.loadModule(ModuleIdentifier.fromString(moduleName));
+            final List<Extension> extensions = new ArrayList<Extension>();
+            for (final Extension extension : module.loadService(Extension.class)) {
+                extensions.add(extension);
+            }
+            return extensions;
         }
     }
 
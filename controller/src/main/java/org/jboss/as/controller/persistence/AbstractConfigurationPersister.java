@@ -29,6 +29,7 @@ import java.util.Map;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
 import org.jboss.staxmapper.XMLElementWriter;
@@ -46,6 +47,7 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
     private final XMLElementWriter<ModelMarshallingContext> rootDeparser;
     private final Map<String, XMLElementWriter<SubsystemMarshallingContext>> subsystemWriters = new HashMap<String, XMLElementWriter<SubsystemMarshallingContext>>();
     private final Map<String, XMLElementWriter<SubsystemMarshallingContext>> subsystemDeploymentWriters = new HashMap<String, XMLElementWriter<SubsystemMarshallingContext>>();
+    private final SubsystemFragmentCache fragmentCache = new SubsystemFragmentCache();
 
     /**
      * Construct a new instance.
@@ -61,6 +63,7 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
         synchronized (subsystemWriters) {
             subsystemWriters.put(name, deparser);
         }
+        fragmentCache.invalidate(name);
     }
 
     @Override
@@ -70,9 +73,51 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
         }
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation stores the whole model. Subclasses which marshal the model to store it should
+     * override this and use {@link #marshallAsXml(ModelNode, PathAddress, OutputStream)}.
+     * </p>
+     */
+    @Override
+    public void store(final ModelNode model, final PathAddress changedAddress) throws ConfigurationPersistenceException {
+        store(model);
+    }
+
     @Override
     public void marshallAsXml(final ModelNode model, final OutputStream output) throws ConfigurationPersistenceException {
+        marshallAsXml(model, output, null);
+    }
+
+    /**
+     * Marshals the given configuration model to XML for storing it. Subsystems outside the changed address are
+     * written from what they produced the last time this method was called, so every call must be for a model
+     * which is the previously stored one with at most the given change.
+     *
+     * @param model the model to persist
+     * @param changedAddress the address of the resource which changed since the previous call, or {@code null} if
+     *      that is not known and every subsystem has to be marshalled
+     * @param output the stream
+     * @throws ConfigurationPersistenceException if the model cannot be marshalled
+     */
+    protected void marshallAsXml(final ModelNode model, final PathAddress changedAddress, final OutputStream output) throws ConfigurationPersistenceException {
+        synchronized (fragmentCache) {
+            final SubsystemFragmentCache.Pass pass = fragmentCache.startPass(changedAddress);
+            boolean ok = false;
+            try {
+                marshallAsXml(model, output, pass);
+                fragmentCache.endPass(pass);
+                ok = true;
+            } finally {
+                if (!ok) {
+                    fragmentCache.clear();
+                }
+            }
+        }
+    }
+
+    private void marshallAsXml(final ModelNode model, final OutputStream output, final SubsystemFragmentCache.Pass pass) throws ConfigurationPersistenceException {
         final XMLMapper mapper = XMLMapper.Factory.create();
         try {
             XMLStreamWriter streamWriter = null;
@@ -87,9 +132,11 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
 
                     @Override
                     public XMLElementWriter<SubsystemMarshallingContext> getSubsystemWriter(String extensionName) {
+                        final XMLElementWriter<SubsystemMarshallingContext> writer;
                         synchronized (subsystemWriters) {
-                            return subsystemWriters.get(extensionName);
+                            writer = subsystemWriters.get(extensionName);
                         }
+                        return writer == null || pass == null ? writer : pass.wrap(extensionName, writer);
                     }
 
                     @Override
@@ -0,0 +1,372 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.dmr.ModelNode;
+import org.jboss.logging.Logger;
+import org.jboss.staxmapper.XMLElementWriter;
+
+/**
+ * A configuration persister which hands the model off to a background writer instead of storing it on the
+ * calling thread. If several changes are stored while a write is in progress, only the most recent model is
+ * written once the current write completes, so a burst of changes results in a single write.
+ * <p>
+ * Each call to {@link #store(ModelNode)} is assigned a version. Callers which need to know that their change
+ * has reached the disk can call {@link #flush()}, which waits until the version current at the time of the
+ * call has been persisted. The controller owning the persister calls {@link #shutdown()} when it stops, so
+ * changes still queued are not lost.
+ * </p>
+ */
+public class AsyncConfigurationPersister implements ExtensibleConfigurationPersister {
+
+    /**
+     * System property which, when set to {@code true}, makes the server and host controller persist
+     * configuration changes asynchronously.
+     */
+    public static final String ASYNC_PERSISTENCE_PROPERTY = "jboss.as.config.async-persistence";
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.controller");
+
+    private final ExtensibleConfigurationPersister delegate;
+    private final Executor executor;
+    /** The executor this persister created and must shut down, or {@code null} if it was supplied. */
+    private final ExecutorService ownExecutor;
+    private final Object lock = new Object();
+
+    /** The model waiting to be written, or {@code null} if there is none. Guarded by {@code lock}. */
+    private ModelNode pendingModel;
+    /**
+     * The only address changed in the pending model since the model before it, or {@code null} if that is not
+     * known. Guarded by {@code lock}.
+     */
+    private PathAddress pendingAddress;
+    /** The version of the most recently stored model. Guarded by {@code lock}. */
+    private long pendingVersion;
+    /** The version of the most recently written model. Guarded by {@code lock}. */
+    private long persistedVersion;
+    /** The version whose write last failed, or {@code 0}. Guarded by {@code lock}. */
+    private long failedVersion;
+    private ConfigurationPersistenceException failure;
+    /** Whether a write task is queued or running. Guarded by {@code lock}. */
+    private boolean writing;
+    /** Whether {@link #shutdown()} has been called. Guarded by {@code lock}. */
+    private boolean shutdown;
+
+    /**
+     * Wraps the given persister if asynchronous persistence has been enabled via the
+     * {@link #ASYNC_PERSISTENCE_PROPERTY} system property.
+     *
+     * @param delegate the persister to wrap
+     * @return the persister to use
+     */
+    public static ExtensibleConfigurationPersister wrapIfEnabled(final ExtensibleConfigurationPersister delegate) {
+        return Boolean.getBoolean(ASYNC_PERSISTENCE_PROPERTY) ? new AsyncConfigurationPersister(delegate) : delegate;
+    }
+
+    /**
+     * Construct a new instance which writes on its own background thread.
+     *
+     * @param delegate the persister which actually writes the configuration
+     */
+    public AsyncConfigurationPersister(final ExtensibleConfigurationPersister delegate) {
+        this(delegate, Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "Configuration Persister");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }), true);
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param delegate the persister which actually writes the configuration
+     * @param executor the executor used to run the writes
+     */
+    public AsyncConfigurationPersister(final ExtensibleConfigurationPersister delegate, final Executor executor) {
+        this(delegate, executor, false);
+    }
+
+    private AsyncConfigurationPersister(final ExtensibleConfigurationPersister delegate, final Executor executor, final boolean ownExecutor) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate is null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor is null");
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor ? (ExecutorService) executor : null;
+    }
+
+    /**
+     * Queues the model for writing and returns immediately. The model is copied, so the caller may keep
+     * modifying it.
+     *
+     * @param model the model to persist
+     * @throws ConfigurationPersistenceException if this persister has been shut down or the write could not be
+     *      scheduled
+     */
+    @Override
+    public void store(final ModelNode model) throws ConfigurationPersistenceException {
+        enqueue(model, null);
+    }
+
+    /**
+     * Queues the model for writing and returns immediately. The model is copied, so the caller may keep
+     * modifying it. If other models are still queued and changed a different address, the whole model is
+     * written.
+     *
+     * @param model the model to persist
+     * @param changedAddress the address of the changed resource
+     * @throws ConfigurationPersistenceException if this persister has been shut down or the write could not be
+     *      scheduled
+     */
+    @Override
+    public void store(final ModelNode model, final PathAddress changedAddress) throws ConfigurationPersistenceException {
+        enqueue(model, changedAddress);
+    }
+
+    private void enqueue(final ModelNode model, final PathAddress changedAddress) throws ConfigurationPersistenceException {
+        final ModelNode copy = model.clone();
+        final boolean schedule;
+        synchronized (lock) {
+            if (shutdown) {
+                throw new ConfigurationPersistenceException("Configuration persister has been shut down");
+            }
+            if (pendingModel == null) {
+                pendingAddress = changedAddress;
+            } else if (pendingAddress == null || !pendingAddress.equals(changedAddress)) {
+                pendingAddress = null;
+            }
+            pendingModel = copy;
+            pendingVersion++;
+            schedule = !writing;
+            writing = true;
+        }
+        if (schedule) {
+            try {
+                executor.execute(new WriteTask());
+            } catch (RuntimeException e) {
+                final ConfigurationPersistenceException failure = new ConfigurationPersistenceException("Failed to schedule configuration write", e);
+                synchronized (lock) {
+                    // Nothing will write this model or any stored while we were scheduling, so fail them all
+                    // rather than leave flush() waiting for them
+                    pendingModel = null;
+                    failedVersion = pendingVersion;
+                    this.failure = failure;
+                    writing = false;
+                    lock.notifyAll();
+                }
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Waits until every model stored before this call has been written.
+     *
+     * @throws ConfigurationPersistenceException if the write of the latest of those models failed
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void flush() throws ConfigurationPersistenceException, InterruptedException {
+        synchronized (lock) {
+            final long version = pendingVersion;
+            while (persistedVersion < version && failedVersion < version) {
+                lock.wait();
+            }
+            checkFailure(version);
+        }
+    }
+
+    /**
+     * Waits until every model stored before this call has been written, or until the timeout elapses.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of {@code timeout}
+     * @return {@code true} if the models were written, {@code false} if the timeout elapsed first
+     * @throws ConfigurationPersistenceException if the write of the latest of those models failed
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean flush(final long timeout, final TimeUnit unit) throws ConfigurationPersistenceException, InterruptedException {
+        final long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        synchronized (lock) {
+            final long version = pendingVersion;
+            while (persistedVersion < version && failedVersion < version) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                lock.wait(remaining);
+            }
+            checkFailure(version);
+            return true;
+        }
+    }
+
+    /**
+     * Writes every model stored so far and stops the background thread, if this persister created it. Called by
+     * the owning controller when it stops; failures are logged rather than thrown, as there is no caller left to
+     * report them to. Models stored after this call are rejected.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+        }
+        try {
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ConfigurationPersistenceException e) {
+            log.errorf(e, "Failed to persist configuration on shutdown");
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Gets the version of the most recently stored model.
+     *
+     * @return the version, or {@code 0} if nothing has been stored
+     */
+    public long getPendingVersion() {
+        synchronized (lock) {
+            return pendingVersion;
+        }
+    }
+
+    /**
+     * Gets the version of the most recently written model.
+     *
+     * @return the version, or {@code 0} if nothing has been written
+     */
+    public long getPersistedVersion() {
+        synchronized (lock) {
+            return persistedVersion;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void marshallAsXml(final ModelNode model, final OutputStream output) throws ConfigurationPersistenceException {
+        delegate.marshallAsXml(model, output);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Waits for pending writes first, so the configuration read reflects every stored change.
+     * </p>
+     */
+    @Override
+    public List<ModelNode> load() throws ConfigurationPersistenceException {
+        try {
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigurationPersistenceException("Interrupted waiting for pending configuration writes", e);
+        }
+        return delegate.load();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void registerSubsystemWriter(final String name, final XMLElementWriter<SubsystemMarshallingContext> writer) {
+        delegate.registerSubsystemWriter(name, writer);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void registerSubsystemDeploymentWriter(final String name, final XMLElementWriter<SubsystemMarshallingContext> writer) {
+        delegate.registerSubsystemDeploymentWriter(name, writer);
+    }
+
+    private void checkFailure(final long version) throws ConfigurationPersistenceException {
+        if (persistedVersion < version && failure != null) {
+            throw failure;
+        }
+    }
+
+    private class WriteTask implements Runnable {
+
+        @Override
+        public void run() {
+            for (;;) {
+                final ModelNode model;
+                final PathAddress changedAddress;
+                final long version;
+                synchronized (lock) {
+                    model = pendingModel;
+                    changedAddress = pendingAddress;
+                    version = pendingVersion;
+                    pendingModel = null;
+                    pendingAddress = null;
+                    if (model == null) {
+                        writing = false;
+                        return;
+                    }
+                }
+                try {
+                    if (changedAddress != null) {
+                        delegate.store(model, changedAddress);
+                    } else {
+                        delegate.store(model);
+                    }
+                    synchronized (lock) {
+                        persistedVersion = version;
+                        failure = null;
+                        lock.notifyAll();
+                    }
+                    log.tracef("Persisted configuration version %d", version);
+                } catch (ConfigurationPersistenceException e) {
+                    log.warnf(e, "Failed to persist configuration change: %s", e);
+                    synchronized (lock) {
+                        failedVersion = version;
+                        failure = e;
+                        lock.notifyAll();
+                    }
+                } catch (Throwable t) {
+                    log.errorf(t, "Failed to persist configuration change");
+                    synchronized (lock) {
+                        failedVersion = version;
+                        failure = new ConfigurationPersistenceException("Failed to persist configuration change", t);
+                        lock.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+}
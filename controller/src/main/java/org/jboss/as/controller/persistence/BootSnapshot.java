@@ -0,0 +1,360 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+import org.jboss.logging.Logger;
+import org.jboss.modules.ModuleIdentifier;
+
+/**
+ * A binary snapshot of the boot operations parsed from a configuration file, stored next to that file.
+ * <p>
+ * The snapshot starts with a header identifying the configuration it was parsed from: the root element, the
+ * local host name (the parsers use it as the default server or host name), and the length, modification time
+ * and SHA-1 hash of the file, and the module and version of each extension the configuration adds, since the
+ * operations are produced by the parsers of those extensions. The operations follow, each in the DMR binary
+ * encoding. A snapshot is only used if its header matches the configuration file and the extension modules as
+ * they are now; anything else means the file has to be parsed again.
+ * </p>
+ */
+final class BootSnapshot {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.controller");
+
+    private static final int MAGIC = 0x4a424f53;
+    private static final int VERSION = 2;
+
+    /**
+     * Identifies the version of an extension module.
+     */
+    interface ExtensionVersions {
+
+        /**
+         * Get the version of an extension module.
+         *
+         * @param moduleName the name of the module
+         * @return a string which changes whenever the extensions provided by the module change
+         * @throws Exception if the module cannot be found
+         */
+        String getVersion(String moduleName) throws Exception;
+    }
+
+    /**
+     * Identifies the version of an extension module by the names, lengths and modification times of the files in
+     * the module's directory on the module path, so that validating a snapshot does not have to load any module.
+     */
+    static final class ModulePathVersions implements ExtensionVersions {
+
+        private final File[] roots;
+
+        /**
+         * Construct a new instance.
+         *
+         * @param modulePath the module path, as a list of directories separated by {@link File#pathSeparator}
+         */
+        ModulePathVersions(final String modulePath) {
+            final String[] paths = modulePath.split(File.pathSeparator);
+            roots = new File[paths.length];
+            for (int i = 0; i < paths.length; i++) {
+                roots[i] = new File(paths[i]);
+            }
+        }
+
+        public String getVersion(final String moduleName) throws Exception {
+            final ModuleIdentifier identifier = ModuleIdentifier.fromString(moduleName);
+            final String path = identifier.getName().replace('.', File.separatorChar) + File.separator + identifier.getSlot();
+            for (File root : roots) {
+                final File moduleDir = new File(root, path);
+                if (moduleDir.isDirectory()) {
+                    final StringBuilder version = new StringBuilder(moduleDir.getAbsolutePath());
+                    appendFiles(moduleDir, "", version);
+                    return version.toString();
+                }
+            }
+            throw new FileNotFoundException("Module " + moduleName + " not found on module path " + Arrays.asList(roots));
+        }
+
+        private static void appendFiles(final File dir, final String prefix, final StringBuilder version) throws IOException {
+            final String[] names = dir.list();
+            if (names == null) {
+                throw new IOException("Failed to list " + dir);
+            }
+            Arrays.sort(names);
+            for (String name : names) {
+                final File file = new File(dir, name);
+                if (file.isDirectory()) {
+                    appendFiles(file, prefix + name + '/', version);
+                } else {
+                    version.append(';').append(prefix).append(name).append(' ').append(file.length()).append(' ').append(file.lastModified());
+                }
+            }
+        }
+    }
+
+    private final File snapshotFile;
+    private final File configFile;
+    private final String key;
+    private final ExtensionVersions extensionVersions;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param snapshotFile the snapshot file
+     * @param configFile the configuration file the snapshot is parsed from
+     * @param rootElement the root element of the configuration file
+     * @param extensionVersions the versions of the extension modules
+     */
+    BootSnapshot(final File snapshotFile, final File configFile, final QName rootElement, final ExtensionVersions extensionVersions) {
+        this.snapshotFile = snapshotFile;
+        this.configFile = configFile;
+        this.key = rootElement + " " + getLocalHostName();
+        this.extensionVersions = extensionVersions;
+    }
+
+    /**
+     * Reads the configuration file.
+     *
+     * @return the contents of the configuration file, along with the information needed to validate a snapshot
+     * @throws IOException if the file cannot be read
+     */
+    Content readConfig() throws IOException {
+        final long lastModified = configFile.lastModified();
+        final byte[] bytes = readFully(configFile);
+        return new Content(bytes, lastModified);
+    }
+
+    /**
+     * Reads the snapshot, if there is one and it matches the configuration file.
+     *
+     * @return the boot operations, or {@code null} if the configuration file needs to be parsed
+     */
+    List<ModelNode> read() {
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        try {
+            final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+            try {
+                if (input.readInt() != MAGIC || input.readInt() != VERSION || !key.equals(input.readUTF())) {
+                    log.debugf("Ignoring boot snapshot %s written for a different configuration", snapshotFile);
+                    return null;
+                }
+                final long length = input.readLong();
+                final long lastModified = input.readLong();
+                final byte[] hash = new byte[input.readUnsignedByte()];
+                input.readFully(hash);
+                // Cheap checks first; only hash the file if they pass
+                if (length != configFile.length() || lastModified != configFile.lastModified()
+                        || !Arrays.equals(hash, readConfig().getHash())) {
+                    log.debugf("Ignoring stale boot snapshot %s", snapshotFile);
+                    return null;
+                }
+                final int extensionCount = input.readInt();
+                for (int i = 0; i < extensionCount; i++) {
+                    final String moduleName = input.readUTF();
+                    if (!input.readUTF().equals(extensionVersions.getVersion(moduleName))) {
+                        log.debugf("Ignoring boot snapshot %s written for a different version of extension %s", snapshotFile, moduleName);
+                        return null;
+                    }
+                }
+                final int count = input.readInt();
+                final List<ModelNode> operations = new ArrayList<ModelNode>(count);
+                for (int i = 0; i < count; i++) {
+                    final ModelNode operation = new ModelNode();
+                    operation.readExternal(input);
+                    operations.add(operation);
+                }
+                return operations;
+            } finally {
+                safeClose(input);
+            }
+        } catch (Exception e) {
+            log.debugf(e, "Failed to read boot snapshot %s", snapshotFile);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given operations. Failures are logged and otherwise ignored, since the
+     * configuration file can always be parsed again.
+     *
+     * @param config the configuration file contents the operations were parsed from
+     * @param operations the boot operations
+     */
+    void write(final Content config, final List<ModelNode> operations) {
+        final File tempFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+        try {
+            final Map<String, String> extensions = getExtensionVersions(operations);
+            final FileOutputStream fos = new FileOutputStream(tempFile);
+            try {
+                final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fos));
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeUTF(key);
+                output.writeLong(config.bytes.length);
+                output.writeLong(config.lastModified);
+                final byte[] hash = config.getHash();
+                output.writeByte(hash.length);
+                output.write(hash);
+                output.writeInt(extensions.size());
+                for (Map.Entry<String, String> extension : extensions.entrySet()) {
+                    output.writeUTF(extension.getKey());
+                    output.writeUTF(extension.getValue());
+                }
+                output.writeInt(operations.size());
+                for (ModelNode operation : operations) {
+                    operation.writeExternal(output);
+                }
+                output.close();
+            } finally {
+                safeClose(fos);
+            }
+            if (!tempFile.renameTo(snapshotFile)) {
+                snapshotFile.delete();
+                if (!tempFile.renameTo(snapshotFile)) {
+                    throw new IOException("Failed to rename " + tempFile + " to " + snapshotFile);
+                }
+            }
+        } catch (Exception e) {
+            tempFile.delete();
+            log.debugf(e, "Failed to write boot snapshot %s", snapshotFile);
+        }
+    }
+
+    /**
+     * Deletes the snapshot.
+     */
+    void delete() {
+        if (snapshotFile.exists() && !snapshotFile.delete()) {
+            log.debugf("Failed to delete boot snapshot %s", snapshotFile);
+        }
+    }
+
+    /**
+     * Gets the version of the module of each extension added by the given operations.
+     */
+    private Map<String, String> getExtensionVersions(final List<ModelNode> operations) throws Exception {
+        final Map<String, String> versions = new LinkedHashMap<String, String>();
+        for (ModelNode operation : operations) {
+            if (!operation.hasDefined(OP) || !ADD.equals(operation.get(OP).asString()) || !operation.hasDefined(OP_ADDR)) {
+                continue;
+            }
+            final List<Property> address = operation.get(OP_ADDR).asPropertyList();
+            if (address.size() == 1 && EXTENSION.equals(address.get(0).getName())) {
+                final String moduleName = address.get(0).getValue().asString();
+                if (!versions.containsKey(moduleName)) {
+                    versions.put(moduleName, extensionVersions.getVersion(moduleName));
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static byte[] readFully(final File file) throws IOException {
+        final InputStream input = new FileInputStream(file);
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(file.length(), Integer.MAX_VALUE - 1) + 1);
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        } finally {
+            safeClose(input);
+        }
+    }
+
+    private static String getLocalHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        if (closeable != null) try {
+            closeable.close();
+        } catch (Throwable t) {
+            log.errorf(t, "Failed to close resource %s", closeable);
+        }
+    }
+
+    /** The contents of a configuration file as read at a given time. */
+    static final class Content {
+        private final byte[] bytes;
+        private final long lastModified;
+        private byte[] hash;
+
+        private Content(final byte[] bytes, final long lastModified) {
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+        }
+
+        InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        private byte[] getHash() {
+            if (hash == null) {
+                try {
+                    hash = MessageDigest.getInstance("SHA-1").digest(bytes);
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return hash;
+        }
+    }
+}
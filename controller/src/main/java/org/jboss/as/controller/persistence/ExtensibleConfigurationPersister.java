@@ -18,6 +18,9 @@
  */
 package org.jboss.as.controller.persistence;
 
+import org.jboss.as.controller.PathAddress;
+import org.jboss.dmr.ModelNode;
+
 /**
  * Combines {@link ConfigurationPersister} and {@link SubsystemXmlWriterRegistry}.
  *
@@ -25,4 +28,13 @@ package org.jboss.as.controller.persistence;
  */
 public interface ExtensibleConfigurationPersister extends ConfigurationPersister, SubsystemXmlWriterRegistry {
 
+    /**
+     * Persist the given configuration model after a change which only affected the resource at the given address
+     * and its children. Parts of the configuration the change cannot have affected may be written from what was
+     * marshalled when the model was last stored.
+     *
+     * @param model the model to persist
+     * @param changedAddress the address of the changed resource
+     */
+    void store(ModelNode model, PathAddress changedAddress) throws ConfigurationPersistenceException;
 }
@@ -0,0 +1,255 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROFILE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.staxmapper.XMLElementWriter;
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+
+/**
+ * Caches the marshalled form of each subsystem so that subsystems which were not touched by a change are not
+ * marshalled again when the model is next stored.
+ * <p>
+ * Each time a subsystem is marshalled, the calls its {@link XMLElementWriter} makes on the stream writer are
+ * passed through to the real writer and recorded. When the model is stored after a change at a known address,
+ * the recorded calls of every subsystem outside that address are replayed instead of running the subsystem
+ * writer. Recording calls rather than text keeps the output identical, including namespace handling and
+ * indentation, which depend on the state of the enclosing document.
+ * </p>
+ * <p>
+ * A pass is delimited by {@link #startPass(PathAddress)} and {@link #endPass(Pass)}, and passes must not overlap.
+ * The fragments of a pass replace those of the previous one only if it completes, so removed subsystems do not
+ * linger. A pass which fails must be followed by {@link #clear()}, since the change it was started for has not
+ * been recorded.
+ * </p>
+ */
+final class SubsystemFragmentCache {
+
+    private Map<String, List<Fragment>> fragments = Collections.emptyMap();
+
+    /**
+     * Starts a marshalling pass for the model as changed at the given address since the previous pass.
+     *
+     * @param changedAddress the address of the only resource which changed, along with its children, since the
+     *      previous pass, or {@code null} if that is not known
+     * @return the pass, to be passed to {@link #endPass(Pass)} once marshalling completes
+     */
+    synchronized Pass startPass(final PathAddress changedAddress) {
+        if (changedAddress == null) {
+            return new Pass(Collections.<String, List<Fragment>>emptyMap());
+        }
+        for (PathElement element : changedAddress) {
+            if (SUBSYSTEM.equals(element.getKey())) {
+                final Map<String, List<Fragment>> previous = new HashMap<String, List<Fragment>>(fragments);
+                previous.remove(element.getValue());
+                return new Pass(previous);
+            }
+        }
+        if (changedAddress.size() == 0 || PROFILE.equals(changedAddress.getElement(0).getKey())) {
+            // the change may contain subsystems
+            return new Pass(Collections.<String, List<Fragment>>emptyMap());
+        }
+        return new Pass(fragments);
+    }
+
+    /**
+     * Completes a marshalling pass, making the fragments it used or produced available to the next pass.
+     *
+     * @param pass the pass
+     */
+    synchronized void endPass(final Pass pass) {
+        fragments = pass.used;
+    }
+
+    /**
+     * Drops all fragments produced for the given subsystem.
+     *
+     * @param subsystemName the name of the subsystem
+     */
+    synchronized void invalidate(final String subsystemName) {
+        final Map<String, List<Fragment>> current = new HashMap<String, List<Fragment>>(fragments);
+        current.remove(subsystemName);
+        fragments = current;
+    }
+
+    /**
+     * Drops all fragments.
+     */
+    synchronized void clear() {
+        fragments = Collections.emptyMap();
+    }
+
+    /** A single marshalling pass. */
+    final class Pass {
+        private final Map<String, List<Fragment>> previous;
+        private final Map<String, List<Fragment>> used = new HashMap<String, List<Fragment>>();
+
+        private Pass(final Map<String, List<Fragment>> previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * Wraps the writer for the given subsystem so its output is served from, or added to, the cache.
+         *
+         * @param subsystemName the name of the subsystem
+         * @param writer the subsystem's writer
+         * @return the caching writer
+         */
+        XMLElementWriter<SubsystemMarshallingContext> wrap(final String subsystemName, final XMLElementWriter<SubsystemMarshallingContext> writer) {
+            return new XMLElementWriter<SubsystemMarshallingContext>() {
+                @Override
+                public void writeContent(final XMLExtendedStreamWriter streamWriter, final SubsystemMarshallingContext context) throws XMLStreamException {
+                    List<Fragment> list = used.get(subsystemName);
+                    if (list == null) {
+                        list = new ArrayList<Fragment>(1);
+                        used.put(subsystemName, list);
+                    }
+                    // A domain writes the same subsystem once per profile, always in the same order
+                    Fragment fragment = find(subsystemName, writer, list.size());
+                    if (fragment != null) {
+                        fragment.replay(streamWriter);
+                    } else {
+                        final Recorder recorder = new Recorder(streamWriter);
+                        final XMLExtendedStreamWriter recordingWriter = (XMLExtendedStreamWriter) Proxy.newProxyInstance(
+                                XMLExtendedStreamWriter.class.getClassLoader(), new Class<?>[] { XMLExtendedStreamWriter.class }, recorder);
+                        writer.writeContent(recordingWriter, new SubsystemMarshallingContext(context.getModelNode(), recordingWriter));
+                        fragment = new Fragment(writer, recorder.invocations);
+                    }
+                    list.add(fragment);
+                }
+            };
+        }
+
+        private Fragment find(final String subsystemName, final XMLElementWriter<SubsystemMarshallingContext> writer, final int index) {
+            final List<Fragment> candidates = previous.get(subsystemName);
+            if (candidates != null && index < candidates.size()) {
+                final Fragment fragment = candidates.get(index);
+                if (fragment.writer == writer) {
+                    return fragment;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Fragment {
+        private final XMLElementWriter<SubsystemMarshallingContext> writer;
+        private final List<Invocation> invocations;
+
+        private Fragment(final XMLElementWriter<SubsystemMarshallingContext> writer, final List<Invocation> invocations) {
+            this.writer = writer;
+            this.invocations = invocations;
+        }
+
+        private void replay(final XMLExtendedStreamWriter streamWriter) throws XMLStreamException {
+            for (Invocation invocation : invocations) {
+                invocation.invoke(streamWriter);
+            }
+        }
+    }
+
+    private static final class Invocation {
+        private final Method method;
+        private final Object[] args;
+
+        private Invocation(final Method method, final Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+
+        private Object invoke(final XMLExtendedStreamWriter target) throws XMLStreamException {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof XMLStreamException) {
+                    throw (XMLStreamException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new XMLStreamException(cause);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Passes every call through to the real writer, recording the ones that write or change writer state.
+     * Queries (methods with a return value) are not recorded; their results depend only on the state of the
+     * enclosing document, which is the same when the fragment is replayed.
+     */
+    private static final class Recorder implements InvocationHandler {
+        private final XMLExtendedStreamWriter target;
+        private final List<Invocation> invocations = new ArrayList<Invocation>();
+
+        private Recorder(final XMLExtendedStreamWriter target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(this, args);
+            }
+            final Invocation invocation = new Invocation(method, copy(args));
+            if (method.getReturnType() == void.class) {
+                invocations.add(invocation);
+            }
+            return invocation.invoke(target);
+        }
+
+        private static Object[] copy(final Object[] args) {
+            if (args == null) {
+                return null;
+            }
+            final Object[] copy = args.clone();
+            for (int i = 0; i < copy.length; i++) {
+                if (copy[i] instanceof String[]) {
+                    copy[i] = ((String[]) copy[i]).clone();
+                } else if (copy[i] instanceof char[]) {
+                    copy[i] = ((char[]) copy[i]).clone();
+                }
+            }
+            return copy;
+        }
+    }
+}
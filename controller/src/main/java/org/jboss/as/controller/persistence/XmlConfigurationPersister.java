@@ -28,6 +28,7 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,6 +36,7 @@ import javax.xml.namespace.QName;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamReader;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
 import org.jboss.staxmapper.XMLElementReader;
@@ -48,11 +50,25 @@ import org.jboss.staxmapper.XMLMapper;
  */
 public class XmlConfigurationPersister extends AbstractConfigurationPersister {
 
+    /**
+     * System property which, when set to {@code false}, disables the binary snapshot of the boot operations
+     * which is otherwise written next to the configuration file and used on restart in place of parsing it.
+     * The snapshot is also disabled if the {@code module.path} system property, which locates the extension
+     * modules the snapshot is checked against, is not set.
+     */
+    public static final String BOOT_SNAPSHOT_PROPERTY = "jboss.as.config.boot-snapshot";
+
+    /**
+     * The suffix appended to the name of the configuration file to get the name of its boot snapshot.
+     */
+    public static final String BOOT_SNAPSHOT_SUFFIX = ".dmr";
+
     private static final Logger log = Logger.getLogger("org.jboss.as.controller");
 
     private final File fileName;
     private final QName rootElement;
     private final XMLElementReader<List<ModelNode>> rootParser;
+    private final BootSnapshot snapshot;
 
     /**
      * Construct a new instance.
@@ -67,6 +83,9 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
         this.fileName = fileName;
         this.rootElement = rootElement;
         this.rootParser = rootParser;
+        final String modulePath = System.getProperty("module.path");
+        final boolean useSnapshot = modulePath != null && Boolean.parseBoolean(System.getProperty(BOOT_SNAPSHOT_PROPERTY, "true"));
+        this.snapshot = useSnapshot ? new BootSnapshot(new File(fileName.getPath() + BOOT_SNAPSHOT_SUFFIX), fileName, rootElement, new BootSnapshot.ModulePathVersions(modulePath)) : null;
     }
 
     /**
@@ -79,43 +98,117 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
         // todo - either provide a default impl or keep this pluggable
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The configuration is first written to a temporary file next to the configuration file, which then
+     * replaces the configuration file, so a failure while marshalling never leaves a truncated file behind.
+     * The boot snapshot of the previous configuration is deleted; the next {@link #load()} writes a new one.
+     * </p>
+     */
     @Override
     public void store(final ModelNode model) throws ConfigurationPersistenceException {
-        backup(fileName);
+        write(model, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the subsystems under the changed address are marshalled again.
+     * </p>
+     */
+    @Override
+    public void store(final ModelNode model, final PathAddress changedAddress) throws ConfigurationPersistenceException {
+        write(model, changedAddress);
+    }
+
+    private void write(final ModelNode model, final PathAddress changedAddress) throws ConfigurationPersistenceException {
+        final File tempFile = new File(fileName.getParentFile(), fileName.getName() + ".tmp");
         try {
-            final FileOutputStream fos = new FileOutputStream(fileName);
+            final FileOutputStream fos = new FileOutputStream(tempFile);
             try {
                 BufferedOutputStream output = new BufferedOutputStream(fos);
-                marshallAsXml(model, output);
+                marshallAsXml(model, changedAddress, output);
+                output.flush();
+                fos.getFD().sync();
                 output.close();
                 fos.close();
             } finally {
                 safeClose(fos);
             }
         } catch (Exception e) {
+            tempFile.delete();
             throw new ConfigurationPersistenceException("Failed to store configuration", e);
         }
+        if (snapshot != null) {
+            snapshot.delete();
+        }
+        try {
+            backup(fileName);
+            if (!tempFile.renameTo(fileName)) {
+                // Some platforms won't rename over an existing file
+                fileName.delete();
+                if (!tempFile.renameTo(fileName)) {
+                    throw new ConfigurationPersistenceException("Failed to rename " + tempFile + " to " + fileName);
+                }
+            }
+        } catch (ConfigurationPersistenceException e) {
+            tempFile.delete();
+            throw e;
+        }
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the boot snapshot next to the configuration file was written from the file as it is now, the
+     * operations are read from the snapshot. Otherwise the file is parsed and a new snapshot is written.
+     * </p>
+     */
     @Override
     public List<ModelNode> load() throws ConfigurationPersistenceException {
+        if (snapshot == null) {
+            return parse();
+        }
+        final List<ModelNode> snapshotUpdates = snapshot.read();
+        if (snapshotUpdates != null) {
+            log.debugf("Loaded %d boot operations from snapshot of %s", Integer.valueOf(snapshotUpdates.size()), fileName);
+            return snapshotUpdates;
+        }
+        final BootSnapshot.Content content;
+        try {
+            content = snapshot.readConfig();
+        } catch (Exception e) {
+            throw new ConfigurationPersistenceException("Failed to parse configuration", e);
+        }
+        final List<ModelNode> updates = parse(content.getInputStream());
+        snapshot.write(content, updates);
+        return updates;
+    }
+
+    private List<ModelNode> parse() throws ConfigurationPersistenceException {
+        final FileInputStream fis;
+        try {
+            fis = new FileInputStream(fileName);
+        } catch (Exception e) {
+            throw new ConfigurationPersistenceException("Failed to parse configuration", e);
+        }
+        try {
+            return parse(new BufferedInputStream(fis));
+        } finally {
+            safeClose(fis);
+        }
+    }
+
+    private List<ModelNode> parse(final InputStream input) throws ConfigurationPersistenceException {
         final XMLMapper mapper = XMLMapper.Factory.create();
         mapper.registerRootElement(rootElement, rootParser);
         final List<ModelNode> updates = new ArrayList<ModelNode>();
         try {
-            final FileInputStream fis = new FileInputStream(fileName);
-            try {
-                BufferedInputStream input = new BufferedInputStream(fis);
-                XMLStreamReader streamReader = XMLInputFactory.newInstance().createXMLStreamReader(input);
-                mapper.parseDocument(updates, streamReader);
-                streamReader.close();
-                input.close();
-                fis.close();
-            } finally {
-                safeClose(fis);
-            }
+            XMLStreamReader streamReader = XMLInputFactory.newInstance().createXMLStreamReader(input);
+            mapper.parseDocument(updates, streamReader);
+            streamReader.close();
+            input.close();
         } catch (Exception e) {
             throw new ConfigurationPersistenceException("Failed to parse configuration", e);
         }
@@ -24,6 +24,7 @@ package org.jboss.as.controller.registry;
 
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
@@ -45,10 +46,13 @@ abstract class AbstractNodeRegistration implements ModelNodeRegistration {
 
     private final String valueString;
     private final NodeSubregistry parent;
+    /** The cache of descriptions built from this tree; only the root of a tree has one. */
+    private final DescriptionCache descriptionCache;
 
     AbstractNodeRegistration(final String valueString, final NodeSubregistry parent) {
         this.valueString = valueString;
         this.parent = parent;
+        this.descriptionCache = parent == null ? new DescriptionCache(this) : null;
     }
 
     /** {@inheritDoc} */
@@ -177,6 +181,51 @@ abstract class AbstractNodeRegistration implements ModelNodeRegistration {
 
     abstract void resolveAddress(final PathAddress address, final PathAddress base, Set<PathAddress> addresses);
 
+    /** {@inheritDoc} */
+    @Override
+    public DescriptionCache getDescriptionCache() {
+        return getRootRegistration().descriptionCache;
+    }
+
+    /**
+     * Resolves the remaining elements of an address to the registrations they match, adding to {@code pattern}
+     * the element each registration was registered under.
+     *
+     * @param iterator the remaining address elements
+     * @param pattern the list to add the pattern elements to
+     * @return {@code false} if the address does not match a registration, or matches a proxy controller
+     */
+    abstract boolean getPattern(Iterator<PathElement> iterator, List<PathElement> pattern);
+
+    /**
+     * Must be called after any change to the registrations of this node, so descriptions built from them are
+     * no longer served.
+     */
+    final void registryChanged() {
+        getRootRegistration().descriptionCache.invalidate();
+    }
+
+    /**
+     * Makes changes to the tree rooted at the given registration invalidate the descriptions of this tree too.
+     * Used when a separately created registration is registered as a child of this tree.
+     *
+     * @param registration the root of the grafted tree
+     */
+    final void graft(final AbstractNodeRegistration registration) {
+        final AbstractNodeRegistration root = registration.getRootRegistration();
+        if (root.descriptionCache != null) {
+            root.descriptionCache.addDependent(getRootRegistration().descriptionCache);
+        }
+    }
+
+    private AbstractNodeRegistration getRootRegistration() {
+        AbstractNodeRegistration current = this;
+        while (current.parent != null) {
+            current = current.parent.getParent();
+        }
+        return current;
+    }
+
     final String getLocationString() {
         if (parent == null) {
             return "";
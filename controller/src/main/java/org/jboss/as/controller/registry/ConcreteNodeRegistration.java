@@ -27,6 +27,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATT
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
@@ -141,6 +142,7 @@ final class ConcreteNodeRegistration extends AbstractNodeRegistration {
         if (operationsUpdater.putIfAbsent(this, operationName, new OperationEntry(handler, descriptionProvider, inherited, entryType)) != null) {
             throw new IllegalArgumentException("A handler named '" + operationName + "' is already registered at location '" + getLocationString() + "'");
         }
+        registryChanged();
     }
 
     @Override
@@ -148,6 +150,7 @@ final class ConcreteNodeRegistration extends AbstractNodeRegistration {
         if (attributesUpdater.putIfAbsent(this, attributeName, new AttributeAccess(AccessType.READ_WRITE, storage, readHandler, writeHandler)) != null) {
             throw new IllegalArgumentException("An attribute named '" + attributeName + "' is already registered at location '" + getLocationString() + "'");
         }
+        registryChanged();
     }
 
     @Override
@@ -155,6 +158,7 @@ final class ConcreteNodeRegistration extends AbstractNodeRegistration {
         if (attributesUpdater.putIfAbsent(this, attributeName, new AttributeAccess(AccessType.READ_ONLY, storage, readHandler, null)) != null) {
             throw new IllegalArgumentException("An attribute named '" + attributeName + "' is already registered at location '" + getLocationString() + "'");
         }
+        registryChanged();
     }
 
     @Override
@@ -162,6 +166,7 @@ final class ConcreteNodeRegistration extends AbstractNodeRegistration {
         if (attributesUpdater.putIfAbsent(this, attributeName, new AttributeAccess(AccessType.METRIC, AttributeAccess.Storage.RUNTIME, metricHandler, null)) != null) {
             throw new IllegalArgumentException("An attribute named '" + attributeName + "' is already registered at location '" + getLocationString() + "'");
         }
+        registryChanged();
     }
 
     @Override
@@ -360,6 +365,19 @@ final class ConcreteNodeRegistration extends AbstractNodeRegistration {
         }
     }
 
+    @Override
+    boolean getPattern(final Iterator<PathElement> iterator, final List<PathElement> pattern) {
+        if (!iterator.hasNext()) {
+            return true;
+        }
+        final PathElement next = iterator.next();
+        if (next.isMultiTarget()) {
+            return false;
+        }
+        final NodeSubregistry subregistry = childrenUpdater.get(this).get(next.getKey());
+        return subregistry != null && subregistry.getPattern(iterator, next.getValue(), pattern);
+    }
+
     @Override
     void resolveAddress(PathAddress address, PathAddress base, Set<PathAddress> addresses) {
         final PathAddress current = address.subAddress(base.size());
@@ -0,0 +1,200 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Caches descriptions built from the {@link DescriptionProvider}s of a {@link ModelNodeRegistration} tree.
+ * <p>
+ * Descriptions are keyed by the address pattern they were built for, i.e. the address with each element replaced by
+ * the registration it matched, so all resources registered under the same wildcard share one entry. Entries are
+ * further keyed by locale and by a caller defined variant (e.g. the operation parameters that shaped the
+ * description). Any change to the registrations of the tree discards all entries.
+ * </p>
+ * <p>
+ * Descriptions are stored as copies and handed out as copies, so callers may modify what they get. Descriptions
+ * involving {@link org.jboss.as.controller.ProxyController proxy controllers} cannot be cached, as they may change
+ * without the local registry changing.
+ * </p>
+ */
+public final class DescriptionCache {
+
+    private final AbstractNodeRegistration root;
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    /** Caches of registries this tree is grafted into, which must be invalidated along with this one. */
+    private final List<DescriptionCache> dependents = new CopyOnWriteArrayList<DescriptionCache>();
+
+    DescriptionCache(final AbstractNodeRegistration root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets the current version of the registrations. Callers building a description must read it before they
+     * start, and pass it to {@link #put(PathAddress, Locale, String, ModelNode, long)}.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gets a cached description.
+     *
+     * @param address the address the description is for
+     * @param locale the locale of the description, or {@code null} for the default locale
+     * @param variant the variant of the description
+     * @return a copy of the description, or {@code null} if it is not cached
+     */
+    public ModelNode get(final PathAddress address, final Locale locale, final String variant) {
+        final Key key = createKey(address, locale, variant);
+        final Entry entry = key == null ? null : entries.get(key);
+        if (entry == null || entry.version != version.get()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.description.clone();
+    }
+
+    /**
+     * Caches a description, unless the registrations changed since the given version.
+     *
+     * @param address the address the description is for
+     * @param locale the locale of the description, or {@code null} for the default locale
+     * @param variant the variant of the description
+     * @param description the description
+     * @param version the {@link #getVersion() version} read before the description was built
+     */
+    public void put(final PathAddress address, final Locale locale, final String variant, final ModelNode description, final long version) {
+        final Key key = createKey(address, locale, variant);
+        if (key != null && version == this.version.get()) {
+            entries.put(key, new Entry(description.clone(), version));
+            if (version != this.version.get()) {
+                // raced with a change; don't let the entry linger
+                entries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of requests served from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of requests the cache could not serve.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of cached descriptions.
+     *
+     * @return the number of descriptions
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    void invalidate() {
+        version.incrementAndGet();
+        entries.clear();
+        for (DescriptionCache dependent : dependents) {
+            dependent.invalidate();
+        }
+    }
+
+    void addDependent(final DescriptionCache dependent) {
+        if (dependent != this) {
+            dependents.add(dependent);
+        }
+    }
+
+    private Key createKey(final PathAddress address, final Locale locale, final String variant) {
+        final List<PathElement> pattern = new ArrayList<PathElement>(address.size());
+        if (!root.getPattern(address.iterator(), pattern)) {
+            return null;
+        }
+        return new Key(PathAddress.pathAddress(pattern), locale == null ? Locale.getDefault() : locale, variant);
+    }
+
+    private static final class Key {
+        private final PathAddress pattern;
+        private final Locale locale;
+        private final String variant;
+        private final int hashCode;
+
+        private Key(final PathAddress pattern, final Locale locale, final String variant) {
+            this.pattern = pattern;
+            this.locale = locale;
+            this.variant = variant;
+            this.hashCode = (pattern.hashCode() * 31 + locale.hashCode()) * 31 + variant.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hashCode == other.hashCode && pattern.equals(other.pattern) && locale.equals(other.locale) && variant.equals(other.variant);
+        }
+    }
+
+    private static final class Entry {
+        private final ModelNode description;
+        private final long version;
+
+        private Entry(final ModelNode description, final long version) {
+            this.description = description;
+            this.version = version;
+        }
+    }
+}
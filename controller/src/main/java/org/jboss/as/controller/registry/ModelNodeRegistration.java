@@ -245,6 +245,13 @@ public interface ModelNodeRegistration {
      */
     Set<PathAddress> resolveAddress(PathAddress address);
 
+    /**
+     * Gets the cache of descriptions built from the registrations of the tree this registration belongs to.
+     *
+     * @return the description cache. Will not return {@code null}
+     */
+    DescriptionCache getDescriptionCache();
+
     /**
      * A factory for creating a new, root model node registration.
      */
@@ -25,6 +25,7 @@ package org.jboss.as.controller.registry;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
@@ -54,6 +55,10 @@ final class NodeSubregistry {
         childRegistriesUpdater.clear(this);
     }
 
+    ConcreteNodeRegistration getParent() {
+        return parent;
+    }
+
     Set<String> getChildNames(){
         final Map<String, AbstractNodeRegistration> snapshot = this.childRegistries;
         if (snapshot == null) {
@@ -80,6 +85,10 @@ final class NodeSubregistry {
         if (appearingRegistry != null) {
             throw new IllegalArgumentException("A node is already registered at '" + getLocationString() + elementValue + ")'");
         }
+        if (newRegistry != null && newRegistry.getDescriptionCache() != parent.getDescriptionCache()) {
+            parent.graft(newRegistry);
+        }
+        parent.registryChanged();
     }
 
     void registerProxyController(final String elementValue, final ProxyController proxyController) {
@@ -88,10 +97,27 @@ final class NodeSubregistry {
         if (appearingRegistry != null) {
             throw new IllegalArgumentException("A node is already registered at '" + getLocationString() + elementValue + ")'");
         }
+        parent.registryChanged();
     }
 
     void unregisterProxyController(final String elementValue) {
         childRegistriesUpdater.remove(this, elementValue);
+        parent.registryChanged();
+    }
+
+    boolean getPattern(final Iterator<PathElement> iterator, final String child, final List<PathElement> pattern) {
+        final Map<String, AbstractNodeRegistration> snapshot = childRegistriesUpdater.get(this);
+        AbstractNodeRegistration childRegistry = snapshot.get(child);
+        if (childRegistry != null) {
+            pattern.add(PathElement.pathElement(keyName, child));
+        } else {
+            childRegistry = snapshot.get("*");
+            if (childRegistry == null) {
+                return false;
+            }
+            pattern.add(PathElement.pathElement(keyName));
+        }
+        return childRegistry.getPattern(iterator, pattern);
     }
 
     OperationHandler getHandler(final ListIterator<PathElement> iterator, final String child, final String operationName) {
@@ -24,6 +24,7 @@ package org.jboss.as.controller.registry;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
@@ -137,6 +138,11 @@ final class ProxyControllerRegistration extends AbstractNodeRegistration {
         controllers.add(proxyController);
     }
 
+    @Override
+    boolean getPattern(final Iterator<PathElement> iterator, final List<PathElement> pattern) {
+        return false;
+    }
+
     /** {@inheritDoc} */
     @Override
     void resolveAddress(final PathAddress address, final PathAddress base, final Set<PathAddress> addresses) {
@@ -0,0 +1,209 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.logging.Logger;
+
+/**
+ * Compares the concurrent read throughput and the longest read of the model access {@link BasicModelController}
+ * used to do, where reads and writes, including persisting the change, all synchronize on the model, with its
+ * read/write locked access, where reads only wait while the model is being changed. A writer continuously updates
+ * the model and spends {@code persistMillis} persisting each change.
+ * <p>
+ * This is not a unit test; run it manually with the test classpath:
+ * {@code java org.jboss.as.controller.ModelReadBenchmark [readers] [seconds] [persistMillis]}
+ * </p>
+ */
+public class ModelReadBenchmark {
+
+    private static final Logger log = Logger.getLogger(ModelReadBenchmark.class);
+
+    private static final int SUBSYSTEMS = 20;
+    private static final int RESOURCES = 50;
+    private static final PathAddress READ_ADDRESS = PathAddress.pathAddress(PathElement.pathElement("subsystem", "s0"),
+            PathElement.pathElement("resource", "r0"));
+
+    public static void main(final String[] args) throws Exception {
+        final int readers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final long persistMillis = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        // warm up both paths once before measuring
+        run(new SynchronizedAccess(createModel(), persistMillis), readers, 2);
+        run(new LockedAccess(createModel(), persistMillis), readers, 2);
+
+        final Result synchronizedResult = run(new SynchronizedAccess(createModel(), persistMillis), readers, seconds);
+        final Result lockedResult = run(new LockedAccess(createModel(), persistMillis), readers, seconds);
+        log.infof("readers=%d persist=%d ms synchronized=%d reads/s, longest %d us read-write-locked=%d reads/s, longest %d us",
+                readers, persistMillis, synchronizedResult.reads / seconds, synchronizedResult.longestNanos / 1000L,
+                lockedResult.reads / seconds, lockedResult.longestNanos / 1000L);
+    }
+
+    private static Result run(final Access access, final int readers, final int seconds) throws InterruptedException {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong longest = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(readers + 1);
+        for (int i = 0; i < readers; i++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    long count = 0;
+                    long max = 0;
+                    while (running.get()) {
+                        final long start = System.nanoTime();
+                        access.read(READ_ADDRESS);
+                        max = Math.max(max, System.nanoTime() - start);
+                        count++;
+                    }
+                    reads.addAndGet(count);
+                    long current;
+                    while ((current = longest.get()) < max && !longest.compareAndSet(current, max)) {
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        new Thread(new Runnable() {
+            public void run() {
+                int i = 0;
+                while (running.get()) {
+                    final ModelNode value = new ModelNode();
+                    value.get("attr").set(i);
+                    access.write(PathAddress.pathAddress(PathElement.pathElement("subsystem", "s" + (i % SUBSYSTEMS)),
+                            PathElement.pathElement("resource", "r" + (i % RESOURCES))), value);
+                    i++;
+                }
+                done.countDown();
+            }
+        }).start();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        running.set(false);
+        done.await();
+        return new Result(reads.get(), longest.get());
+    }
+
+    private static ModelNode createModel() {
+        final ModelNode model = new ModelNode();
+        for (int i = 0; i < SUBSYSTEMS; i++) {
+            for (int j = 0; j < RESOURCES; j++) {
+                final ModelNode resource = model.get("subsystem", "s" + i, "resource", "r" + j);
+                for (int k = 0; k < 10; k++) {
+                    resource.get("attr" + k).set("value" + k);
+                }
+            }
+        }
+        return model;
+    }
+
+    private static void persist(final long persistMillis) {
+        try {
+            Thread.sleep(persistMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Result {
+        private final long reads;
+        private final long longestNanos;
+
+        Result(final long reads, final long longestNanos) {
+            this.reads = reads;
+            this.longestNanos = longestNanos;
+        }
+    }
+
+    private interface Access {
+        ModelNode read(PathAddress address);
+
+        void write(PathAddress address, ModelNode value);
+    }
+
+    /** The access BasicModelController used before the model lock was introduced. */
+    private static class SynchronizedAccess implements Access {
+        private final ModelNode model;
+        private final long persistMillis;
+
+        SynchronizedAccess(final ModelNode model, final long persistMillis) {
+            this.model = model;
+            this.persistMillis = persistMillis;
+        }
+
+        public ModelNode read(final PathAddress address) {
+            synchronized (model) {
+                return address.navigate(model, false).clone();
+            }
+        }
+
+        public void write(final PathAddress address, final ModelNode value) {
+            synchronized (model) {
+                address.navigate(model, true).set(value);
+                persist(persistMillis);
+            }
+        }
+    }
+
+    /** The access of {@link BasicModelController#getOperationSubModel} and {@link BasicModelController#doExecute}. */
+    private static class LockedAccess implements Access {
+        private final ModelNode model;
+        private final long persistMillis;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        LockedAccess(final ModelNode model, final long persistMillis) {
+            this.model = model;
+            this.persistMillis = persistMillis;
+        }
+
+        public ModelNode read(final PathAddress address) {
+            lock.readLock().lock();
+            try {
+                return address.navigate(model, false).clone();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        public void write(final PathAddress address, final ModelNode value) {
+            lock.writeLock().lock();
+            try {
+                address.navigate(model, true).set(value);
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                persist(persistMillis);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link AsyncConfigurationPersister}.
+ */
+public class AsyncConfigurationPersisterUnitTestCase {
+
+    @Test
+    public void testBurstIsCoalesced() throws Exception {
+        final BlockingPersister delegate = new BlockingPersister();
+        final AsyncConfigurationPersister persister = new AsyncConfigurationPersister(delegate);
+
+        persister.store(createModel(1));
+        // The first write is now blocked; these should be merged into a single write
+        assertTrue(delegate.started.await(10, TimeUnit.SECONDS));
+        for (int i = 2; i <= 10; i++) {
+            persister.store(createModel(i));
+        }
+        assertEquals(10, persister.getPendingVersion());
+        delegate.release.countDown();
+
+        assertTrue(persister.flush(10, TimeUnit.SECONDS));
+        assertEquals(10, persister.getPersistedVersion());
+        assertEquals(2, delegate.stored.size());
+        assertEquals(1, delegate.stored.get(0).get("value").asInt());
+        assertEquals(10, delegate.stored.get(1).get("value").asInt());
+    }
+
+    @Test
+    public void testStoreCopiesModel() throws Exception {
+        final BlockingPersister delegate = new BlockingPersister();
+        delegate.release.countDown();
+        final AsyncConfigurationPersister persister = new AsyncConfigurationPersister(delegate);
+
+        final ModelNode model = createModel(1);
+        persister.store(model);
+        model.get("value").set(2);
+        persister.flush();
+
+        assertEquals(1, delegate.stored.get(0).get("value").asInt());
+    }
+
+    @Test
+    public void testFlushReportsFailure() throws Exception {
+        final BlockingPersister delegate = new BlockingPersister();
+        delegate.release.countDown();
+        delegate.fail = true;
+        final AsyncConfigurationPersister persister = new AsyncConfigurationPersister(delegate);
+
+        persister.store(createModel(1));
+        try {
+            persister.flush();
+            fail("flush should have reported the failed write");
+        } catch (ConfigurationPersistenceException good) {
+            // expected
+        }
+
+        delegate.fail = false;
+        persister.store(createModel(2));
+        persister.flush();
+        assertEquals(2, persister.getPersistedVersion());
+    }
+
+    @Test
+    public void testShutdownWritesPendingChanges() throws Exception {
+        final BlockingPersister delegate = new BlockingPersister();
+        final AsyncConfigurationPersister persister = new AsyncConfigurationPersister(delegate);
+
+        persister.store(createModel(1));
+        assertTrue(delegate.started.await(10, TimeUnit.SECONDS));
+        persister.store(createModel(2));
+        delegate.release.countDown();
+        persister.shutdown();
+
+        assertEquals(2, persister.getPersistedVersion());
+        assertEquals(2, delegate.stored.get(delegate.stored.size() - 1).get("value").asInt());
+        try {
+            persister.store(createModel(3));
+            fail("store should be rejected after shutdown");
+        } catch (ConfigurationPersistenceException good) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testShutdownRejectsStoreWithSuppliedExecutor() throws Exception {
+        final BlockingPersister delegate = new BlockingPersister();
+        delegate.release.countDown();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final AsyncConfigurationPersister persister = new AsyncConfigurationPersister(delegate, executor);
+            persister.store(createModel(1));
+            persister.shutdown();
+            assertEquals(1, persister.getPersistedVersion());
+            try {
+                persister.store(createModel(2));
+                fail("store should be rejected after shutdown");
+            } catch (ConfigurationPersistenceException good) {
+                // expected
+            }
+            assertEquals(1, persister.getPendingVersion());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectedScheduleFailsFlush() throws Exception {
+        final BlockingPersister delegate = new BlockingPersister();
+        final AsyncConfigurationPersister persister = new AsyncConfigurationPersister(delegate, new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        });
+
+        try {
+            persister.store(createModel(1));
+            fail("store should report the rejected write");
+        } catch (ConfigurationPersistenceException good) {
+            // expected
+        }
+        try {
+            persister.flush(10, TimeUnit.SECONDS);
+            fail("flush should report the unscheduled write");
+        } catch (ConfigurationPersistenceException good) {
+            // expected
+        }
+        assertEquals(0, delegate.stored.size());
+    }
+
+    private static ModelNode createModel(final int value) {
+        final ModelNode model = new ModelNode();
+        model.get("value").set(value);
+        return model;
+    }
+
+    private static class BlockingPersister extends AbstractConfigurationPersister {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<ModelNode> stored = new CopyOnWriteArrayList<ModelNode>();
+        private volatile boolean fail;
+
+        BlockingPersister() {
+            super(null);
+        }
+
+        @Override
+        public void store(final ModelNode model) throws ConfigurationPersistenceException {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConfigurationPersistenceException(e);
+            }
+            if (fail) {
+                throw new ConfigurationPersistenceException("failed");
+            }
+            stored.add(model);
+        }
+
+        @Override
+        public List<ModelNode> load() throws ConfigurationPersistenceException {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import org.jboss.dmr.ModelNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link BootSnapshot}.
+ */
+public class BootSnapshotUnitTestCase {
+
+    private static final QName ROOT = new QName("urn:jboss:domain:1.0", "server");
+
+    private File configFile;
+    private File snapshotFile;
+    private final Map<String, String> moduleVersions = new HashMap<String, String>();
+    private final BootSnapshot.ExtensionVersions versions = new BootSnapshot.ExtensionVersions() {
+        public String getVersion(final String moduleName) throws Exception {
+            final String version = moduleVersions.get(moduleName);
+            if (version == null) {
+                throw new IllegalArgumentException("No module " + moduleName);
+            }
+            return version;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        configFile = File.createTempFile("boot-snapshot", ".xml");
+        snapshotFile = new File(configFile.getPath() + XmlConfigurationPersister.BOOT_SNAPSHOT_SUFFIX);
+        writeConfig("<server/>");
+        moduleVersions.put("org.jboss.as.logging", "1.0");
+    }
+
+    @After
+    public void tearDown() {
+        configFile.delete();
+        snapshotFile.delete();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final BootSnapshot snapshot = new BootSnapshot(snapshotFile, configFile, ROOT, versions);
+        assertNull(snapshot.read());
+
+        final List<ModelNode> operations = createOperations();
+        snapshot.write(snapshot.readConfig(), operations);
+
+        final List<ModelNode> read = new BootSnapshot(snapshotFile, configFile, ROOT, versions).read();
+        assertNotNull(read);
+        assertEquals(operations, read);
+    }
+
+    @Test
+    public void testChangedContentIsStale() throws Exception {
+        final BootSnapshot snapshot = new BootSnapshot(snapshotFile, configFile, ROOT, versions);
+        snapshot.write(snapshot.readConfig(), createOperations());
+
+        // Same length and modification time, different content
+        final long lastModified = configFile.lastModified();
+        writeConfig("<serveR/>");
+        configFile.setLastModified(lastModified);
+        assertNull(snapshot.read());
+    }
+
+    @Test
+    public void testTouchedFileIsStale() throws Exception {
+        final BootSnapshot snapshot = new BootSnapshot(snapshotFile, configFile, ROOT, versions);
+        snapshot.write(snapshot.readConfig(), createOperations());
+
+        configFile.setLastModified(configFile.lastModified() - 10000);
+        assertNull(snapshot.read());
+    }
+
+    @Test
+    public void testDifferentRootElementIsIgnored() throws Exception {
+        final BootSnapshot snapshot = new BootSnapshot(snapshotFile, configFile, ROOT, versions);
+        snapshot.write(snapshot.readConfig(), createOperations());
+
+        assertNull(new BootSnapshot(snapshotFile, configFile, new QName("urn:jboss:domain:1.0", "host"), versions).read());
+    }
+
+    @Test
+    public void testChangedExtensionIsStale() throws Exception {
+        final BootSnapshot snapshot = new BootSnapshot(snapshotFile, configFile, ROOT, versions);
+        snapshot.write(snapshot.readConfig(), createOperations());
+        assertNotNull(snapshot.read());
+
+        moduleVersions.put("org.jboss.as.logging", "1.1");
+        assertNull(snapshot.read());
+        moduleVersions.remove("org.jboss.as.logging");
+        assertNull(snapshot.read());
+    }
+
+    @Test
+    public void testUnavailableExtensionIsNotWritten() throws Exception {
+        moduleVersions.clear();
+        final BootSnapshot snapshot = new BootSnapshot(snapshotFile, configFile, ROOT, versions);
+        snapshot.write(snapshot.readConfig(), createOperations());
+        assertFalse(snapshotFile.exists());
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        final BootSnapshot snapshot = new BootSnapshot(snapshotFile, configFile, ROOT, versions);
+        snapshot.write(snapshot.readConfig(), createOperations());
+        snapshot.delete();
+        assertFalse(snapshotFile.exists());
+        assertNull(snapshot.read());
+    }
+
+    @Test
+    public void testModulePathVersions() throws Exception {
+        final File modulePath = File.createTempFile("boot-snapshot", "-modules");
+        modulePath.delete();
+        final File moduleDir = new File(modulePath, "org/jboss/as/logging/main".replace('/', File.separatorChar));
+        moduleDir.mkdirs();
+        final File jar = new File(moduleDir, "jboss-as-logging.jar");
+        try {
+            writeFile(new File(moduleDir, "module.xml"), "<module/>");
+            writeFile(jar, "classes");
+            final BootSnapshot.ExtensionVersions versions = new BootSnapshot.ModulePathVersions(new File(modulePath, "missing").getPath() + File.pathSeparator + modulePath.getPath());
+            final String version = versions.getVersion("org.jboss.as.logging");
+            assertEquals(version, versions.getVersion("org.jboss.as.logging:main"));
+
+            writeFile(jar, "changed classes");
+            assertFalse(version.equals(versions.getVersion("org.jboss.as.logging")));
+
+            try {
+                versions.getVersion("org.jboss.as.web");
+                fail("Missing module should not have a version");
+            } catch (FileNotFoundException expected) {
+            }
+        } finally {
+            for (File file : moduleDir.listFiles()) {
+                file.delete();
+            }
+            for (File dir = moduleDir; !dir.equals(modulePath.getParentFile()); dir = dir.getParentFile()) {
+                dir.delete();
+            }
+        }
+    }
+
+    private void writeConfig(final String content) throws Exception {
+        writeFile(configFile, content);
+    }
+
+    private static void writeFile(final File file, final String content) throws Exception {
+        final FileOutputStream output = new FileOutputStream(file);
+        try {
+            output.write(content.getBytes("UTF-8"));
+        } finally {
+            output.close();
+        }
+    }
+
+    private static List<ModelNode> createOperations() {
+        final List<ModelNode> operations = new ArrayList<ModelNode>();
+        final ModelNode extension = new ModelNode();
+        extension.get("operation").set("add");
+        extension.get("address").add("extension", "org.jboss.as.logging");
+        operations.add(extension);
+        final ModelNode subsystem = new ModelNode();
+        subsystem.get("operation").set("add");
+        subsystem.get("address").add("subsystem", "logging");
+        subsystem.get("level").setExpression("${jboss.log.level:INFO}");
+        subsystem.get("timeout").set(30000L);
+        operations.add(subsystem);
+        return operations;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROFILE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLElementWriter;
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of the subsystem fragment caching done by {@link AbstractConfigurationPersister}.
+ */
+public class SubsystemFragmentCacheUnitTestCase {
+
+    private final Map<String, Integer> writes = new HashMap<String, Integer>();
+    private NullConfigurationPersister persister;
+
+    @Before
+    public void setup() {
+        persister = new NullConfigurationPersister(new RootWriter());
+        persister.registerSubsystemWriter("one", new CountingSubsystemWriter("one"));
+        persister.registerSubsystemWriter("two", new CountingSubsystemWriter("two"));
+    }
+
+    @Test
+    public void testOnlyChangedSubsystemIsRemarshalled() throws Exception {
+        final ModelNode model = createModel();
+
+        final String first = marshall(model, null);
+        assertWrites(1, 1);
+
+        model.get(SUBSYSTEM, "two", "value").set("c");
+        final String second = marshall(model, PathAddress.pathAddress(PathElement.pathElement(SUBSYSTEM, "two")));
+        assertWrites(1, 2);
+        assertTrue(second.contains("value=\"c\""));
+        assertTrue(second.contains("value=\"a\""));
+        assertEquals(first.replace("value=\"b\"", "value=\"c\""), second);
+    }
+
+    @Test
+    public void testNonSubsystemChangeReplaysAllSubsystems() throws Exception {
+        final ModelNode model = createModel();
+
+        final String first = marshall(model, null);
+        model.get("path", "x", "path").set("/tmp");
+        final String second = marshall(model, PathAddress.pathAddress(PathElement.pathElement("path", "x")));
+        assertWrites(1, 1);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testUnknownRootOrProfileChangeRemarshalsAll() throws Exception {
+        final ModelNode model = createModel();
+
+        marshall(model, null);
+        marshall(model, null);
+        assertWrites(2, 2);
+        marshall(model, PathAddress.EMPTY_ADDRESS);
+        assertWrites(3, 3);
+        marshall(model, PathAddress.pathAddress(PathElement.pathElement(PROFILE, "default")));
+        assertWrites(4, 4);
+    }
+
+    @Test
+    public void testReadMarshallingBypassesCache() throws Exception {
+        final ModelNode model = createModel();
+
+        final String stored = marshall(model, null);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        persister.marshallAsXml(model, baos);
+        assertEquals(stored, new String(baos.toByteArray(), "UTF-8"));
+        assertWrites(2, 2);
+
+        marshall(model, PathAddress.pathAddress(PathElement.pathElement("path", "x")));
+        assertWrites(2, 2);
+    }
+
+    @Test
+    public void testReregisteredWriterInvalidates() throws Exception {
+        final ModelNode model = createModel();
+
+        marshall(model, null);
+        persister.registerSubsystemWriter("one", new CountingSubsystemWriter("one"));
+        marshall(model, PathAddress.pathAddress(PathElement.pathElement("path", "x")));
+        assertWrites(2, 1);
+    }
+
+    private ModelNode createModel() {
+        final ModelNode model = new ModelNode();
+        model.get(SUBSYSTEM, "one", "value").set("a");
+        model.get(SUBSYSTEM, "two", "value").set("b");
+        return model;
+    }
+
+    private void assertWrites(final int one, final int two) {
+        assertEquals(Integer.valueOf(one), writes.get("one"));
+        assertEquals(Integer.valueOf(two), writes.get("two"));
+    }
+
+    private String marshall(final ModelNode model, final PathAddress changedAddress) throws Exception {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        persister.marshallAsXml(model, changedAddress, baos);
+        return new String(baos.toByteArray(), "UTF-8");
+    }
+
+    private static class RootWriter implements XMLElementWriter<ModelMarshallingContext> {
+        @Override
+        public void writeContent(final XMLExtendedStreamWriter writer, final ModelMarshallingContext context) throws XMLStreamException {
+            writer.writeStartDocument();
+            writer.writeStartElement("root");
+            final ModelNode subsystems = context.getModelNode().get(SUBSYSTEM);
+            for (String name : subsystems.keys()) {
+                context.getSubsystemWriter(name).writeContent(writer, new SubsystemMarshallingContext(subsystems.get(name), writer));
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+        }
+    }
+
+    private class CountingSubsystemWriter implements XMLElementWriter<SubsystemMarshallingContext> {
+        private final String name;
+
+        CountingSubsystemWriter(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void writeContent(final XMLExtendedStreamWriter writer, final SubsystemMarshallingContext context) throws XMLStreamException {
+            final Integer count = writes.get(name);
+            writes.put(name, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+            context.startSubsystemElement("urn:test:" + name, true);
+            writer.writeAttribute("value", context.getModelNode().get("value").asString());
+        }
+    }
+}
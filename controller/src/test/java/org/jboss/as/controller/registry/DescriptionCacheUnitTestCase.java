@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Locale;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.dmr.ModelNode;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link DescriptionCache}.
+ */
+public class DescriptionCacheUnitTestCase {
+
+    private static final DescriptionProvider PROVIDER = new DescriptionProvider() {
+        @Override
+        public ModelNode getModelDescription(final Locale locale) {
+            return new ModelNode();
+        }
+    };
+
+    private static final PathAddress ONE = PathAddress.pathAddress(PathElement.pathElement("subsystem", "one"), PathElement.pathElement("child", "a"));
+    private static final PathAddress TWO = PathAddress.pathAddress(PathElement.pathElement("subsystem", "one"), PathElement.pathElement("child", "b"));
+    private static final PathAddress SPECIFIC = PathAddress.pathAddress(PathElement.pathElement("subsystem", "one"), PathElement.pathElement("child", "special"));
+
+    private ModelNodeRegistration root;
+    private ModelNodeRegistration subsystem;
+    private DescriptionCache cache;
+
+    @Before
+    public void setup() {
+        root = ModelNodeRegistration.Factory.create(PROVIDER);
+        subsystem = root.registerSubModel(PathElement.pathElement("subsystem", "one"), PROVIDER);
+        subsystem.registerSubModel(PathElement.pathElement("child"), PROVIDER);
+        cache = root.getDescriptionCache();
+    }
+
+    @Test
+    public void testAddressesMatchingTheSameRegistrationShareEntries() {
+        assertNull(cache.get(ONE, null, "test"));
+        cache.put(ONE, null, "test", description("a"), cache.getVersion());
+
+        assertEquals("a", cache.get(TWO, null, "test").get("value").asString());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testLocaleAndVariantAreSeparateEntries() {
+        cache.put(ONE, Locale.FRENCH, "test", description("fr"), cache.getVersion());
+
+        assertNull(cache.get(ONE, Locale.GERMAN, "test"));
+        assertNull(cache.get(ONE, Locale.FRENCH, "other"));
+        assertEquals("fr", cache.get(ONE, Locale.FRENCH, "test").get("value").asString());
+    }
+
+    @Test
+    public void testReturnedDescriptionsAreCopies() {
+        final ModelNode description = description("a");
+        cache.put(ONE, null, "test", description, cache.getVersion());
+        description.get("value").set("changed");
+        cache.get(ONE, null, "test").get("value").set("changed");
+
+        assertEquals("a", cache.get(ONE, null, "test").get("value").asString());
+    }
+
+    @Test
+    public void testRegistrationChangesInvalidate() {
+        cache.put(ONE, null, "test", description("a"), cache.getVersion());
+        subsystem.registerReadOnlyAttribute("attr", null, AttributeAccess.Storage.CONFIGURATION);
+        assertNull(cache.get(ONE, null, "test"));
+
+        // A more specific registration changes the pattern the address resolves to
+        cache.put(SPECIFIC, null, "test", description("a"), cache.getVersion());
+        subsystem.registerSubModel(PathElement.pathElement("child", "special"), PROVIDER);
+        cache.put(ONE, null, "test", description("wildcard"), cache.getVersion());
+        assertNull(cache.get(SPECIFIC, null, "test"));
+        assertEquals("wildcard", cache.get(ONE, null, "test").get("value").asString());
+    }
+
+    @Test
+    public void testStaleDescriptionsAreNotCached() {
+        final long version = cache.getVersion();
+        subsystem.registerOperationHandler("op", null, PROVIDER);
+        cache.put(ONE, null, "test", description("a"), version);
+
+        assertNull(cache.get(ONE, null, "test"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testGraftedRegistrationChangesInvalidate() {
+        final ModelNodeRegistration grafted = ModelNodeRegistration.Factory.create(PROVIDER);
+        root.registerSubModel(PathElement.pathElement("host", "local"), grafted);
+        final PathAddress host = PathAddress.pathAddress(PathElement.pathElement("host", "local"));
+        cache.put(host, null, "test", description("a"), cache.getVersion());
+        assertNotNull(cache.get(host, null, "test"));
+
+        grafted.registerOperationHandler("op", null, PROVIDER);
+        assertNull(cache.get(host, null, "test"));
+    }
+
+    @Test
+    public void testUnregisteredAddressesAreNotCached() {
+        final PathAddress unknown = PathAddress.pathAddress(PathElement.pathElement("subsystem", "unknown"));
+        cache.put(unknown, null, "test", description("a"), cache.getVersion());
+
+        assertNull(cache.get(unknown, null, "test"));
+        assertEquals(0, cache.size());
+    }
+
+    private static ModelNode description(final String value) {
+        final ModelNode description = new ModelNode();
+        description.get("value").set(value);
+        return description;
+    }
+}
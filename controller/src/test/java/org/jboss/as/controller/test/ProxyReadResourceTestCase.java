@@ -0,0 +1,223 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADDRESS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HOST;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROXY_TIMEOUT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.BasicModelController;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ProxyController;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.as.controller.descriptions.common.CommonProviders;
+import org.jboss.as.controller.operations.global.GlobalOperationHandlers;
+import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
+import org.jboss.as.controller.persistence.ConfigurationPersister;
+import org.jboss.dmr.ModelNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that a recursive read-resource reads proxy controllers concurrently and honours the proxy-timeout parameter.
+ */
+public class ProxyReadResourceTestCase {
+
+    private static final int HOSTS = 8;
+    private static final long DELAY = 500;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testProxiesAreReadConcurrently() throws Exception {
+        final TestController controller = new TestController(executor);
+        for (int i = 0; i < HOSTS; i++) {
+            controller.registerHost("host" + i, DELAY);
+        }
+
+        final long start = System.currentTimeMillis();
+        final ModelNode result = controller.execute(createReadResource(0));
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(SUCCESS, result.get(OUTCOME).asString());
+        for (int i = 0; i < HOSTS; i++) {
+            assertEquals("host" + i, result.get(RESULT, HOST, "host" + i, NAME).asString());
+        }
+        assertTrue("Proxies were read one after another: " + elapsed + " ms", elapsed < HOSTS * DELAY / 2);
+    }
+
+    @Test
+    public void testProxiesAreReadInTurnWithoutExecutor() throws Exception {
+        final TestController controller = new TestController(null);
+        controller.registerHost("host0", 0);
+        controller.registerHost("host1", 0);
+
+        final ModelNode result = controller.execute(createReadResource(0));
+
+        assertEquals(SUCCESS, result.get(OUTCOME).asString());
+        assertEquals("host0", result.get(RESULT, HOST, "host0", NAME).asString());
+        assertEquals("host1", result.get(RESULT, HOST, "host1", NAME).asString());
+    }
+
+    @Test
+    public void testSlowProxyIsReportedAsPartialResult() throws Exception {
+        final TestController controller = new TestController(executor);
+        controller.registerHost("fast", 0);
+        final SlowProxyController slow = controller.registerHost("slow", 60000);
+
+        final long start = System.currentTimeMillis();
+        final ModelNode result = controller.execute(createReadResource(DELAY));
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(SUCCESS, result.get(OUTCOME).asString());
+        assertEquals("fast", result.get(RESULT, HOST, "fast", NAME).asString());
+        assertFalse(result.get(RESULT, HOST, "slow").has(NAME));
+        assertTrue(result.get(RESULT, HOST, "slow", FAILURE_DESCRIPTION).isDefined());
+        assertTrue("Did not give up on the slow proxy: " + elapsed + " ms", elapsed < 10 * DELAY);
+        assertTrue("The read of the slow proxy was not cancelled", slow.cancelled.await(10, TimeUnit.SECONDS));
+    }
+
+    private static Operation createReadResource(final long timeout) {
+        final ModelNode operation = new ModelNode();
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+        operation.get(ADDRESS).setEmptyList();
+        operation.get(RECURSIVE).set(true);
+        if (timeout > 0) {
+            operation.get(PROXY_TIMEOUT).set(timeout);
+        }
+        return OperationBuilder.Factory.create(operation).build();
+    }
+
+    static class TestController extends BasicModelController {
+        TestController(final ExecutorService executor) {
+            super(new ModelNode().setEmptyObject(), new NullConfigurationPersister(), new DescriptionProvider() {
+                @Override
+                public ModelNode getModelDescription(final Locale locale) {
+                    final ModelNode node = new ModelNode();
+                    node.get(DESCRIPTION).set("The root node of the test management API");
+                    return node;
+                }
+            });
+            getRegistry().registerOperationHandler(READ_RESOURCE_OPERATION, new GlobalOperationHandlers.ReadResourceHandler(executor), CommonProviders.READ_RESOURCE_PROVIDER, true);
+        }
+
+        SlowProxyController registerHost(final String name, final long delay) {
+            final PathElement element = PathElement.pathElement(HOST, name);
+            final SlowProxyController proxy = new SlowProxyController(PathAddress.pathAddress(element), delay);
+            getRegistry().registerProxyController(element, proxy);
+            return proxy;
+        }
+    }
+
+    /**
+     * Responds to every operation with a model holding the name of its host, after the given delay.
+     */
+    static class SlowProxyController implements ProxyController {
+        private final PathAddress address;
+        private final long delay;
+        final CountDownLatch cancelled = new CountDownLatch(1);
+
+        SlowProxyController(final PathAddress address, final long delay) {
+            this.address = address;
+            this.delay = delay;
+        }
+
+        @Override
+        public PathAddress getProxyNodeAddress() {
+            return address;
+        }
+
+        @Override
+        public OperationResult execute(final Operation operation, final ResultHandler handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ModelNode execute(final Operation operation) throws CancellationException {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                cancelled.countDown();
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+            final ModelNode response = new ModelNode();
+            response.get(OUTCOME).set(SUCCESS);
+            response.get(RESULT, NAME).set(address.getLastElement().getValue());
+            return response;
+        }
+    }
+
+    private static class NullConfigurationPersister implements ConfigurationPersister {
+
+        @Override
+        public void store(final ModelNode model) throws ConfigurationPersistenceException {
+        }
+
+        @Override
+        public void marshallAsXml(final ModelNode model, final OutputStream output) throws ConfigurationPersistenceException {
+        }
+
+        @Override
+        public List<ModelNode> load() throws ConfigurationPersistenceException {
+            return null;
+        }
+    }
+}
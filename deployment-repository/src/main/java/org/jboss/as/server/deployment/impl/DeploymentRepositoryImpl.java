@@ -22,14 +22,13 @@
 
 package org.jboss.as.server.deployment.impl;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.DigestOutputStream;
+import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -44,8 +43,10 @@ public class DeploymentRepositoryImpl implements DeploymentRepository {
     private static final Logger log = Logger.getLogger("org.jboss.as.server.deployment");
 
     protected static final String CONTENT = "content";
+    private static final int BUFFER_SIZE = 65536;
     private final File repoRoot;
-    private final MessageDigest messageDigest;
+    /** Never used directly; each call to {@link #addDeploymentContent} works on a clone, so uploads hash in parallel. */
+    private final MessageDigest messageDigestPrototype;
 
     protected DeploymentRepositoryImpl(File repoRoot) {
         if (repoRoot == null)
@@ -64,7 +65,7 @@ public class DeploymentRepositoryImpl implements DeploymentRepository {
         this.repoRoot = repoRoot;
 
         try {
-            this.messageDigest = MessageDigest.getInstance("SHA-1");
+            this.messageDigestPrototype = MessageDigest.getInstance("SHA-1");
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalStateException("Cannot obtain SHA-1 " + MessageDigest.class.getSimpleName(), e);
         }
@@ -75,34 +76,29 @@ public class DeploymentRepositoryImpl implements DeploymentRepository {
 
         log.debugf("Adding content with name %s", name);
 
-        byte[] sha1Bytes = null;
-        File tmp = File.createTempFile(name, "tmp", repoRoot);
-        FileOutputStream fos = new FileOutputStream(tmp);
-        synchronized (messageDigest) {
-            messageDigest.reset();
-            try {
-                DigestOutputStream dos = new DigestOutputStream(fos, messageDigest);
-                BufferedInputStream bis = new BufferedInputStream(stream);
-                byte[] bytes = new byte[8192];
-                int read;
-                while ((read = bis.read(bytes)) > -1) {
-                    dos.write(bytes, 0, read);
-                }
+        final MessageDigest messageDigest = createMessageDigest();
+        final File tmp = File.createTempFile(name, "tmp", repoRoot);
+        final FileOutputStream fos = new FileOutputStream(tmp);
+        boolean copied = false;
+        try {
+            final byte[] bytes = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = stream.read(bytes)) > -1) {
+                messageDigest.update(bytes, 0, read);
+                fos.write(bytes, 0, read);
             }
-            finally {
-                try {
-                    fos.close();
-                } catch (Exception ignored) {
-                }
+            copied = true;
+        } finally {
+            safeClose(fos);
+            if (!copied) {
+                deleteTemp(tmp);
             }
-            sha1Bytes = messageDigest.digest();
         }
+        final byte[] sha1Bytes = messageDigest.digest();
         File realFile = getDeploymentContentFile(sha1Bytes, true);
         if (realFile.exists()) {
             // we've already got this content
-            if (!tmp.delete()) {
-                tmp.deleteOnExit();
-            }
+            deleteTemp(tmp);
             log.debugf("Content with name %s was already present in repository at location %s", name, realFile.getAbsolutePath());
         } else {
             moveTempToPermanent(tmp, realFile);
@@ -112,6 +108,18 @@ public class DeploymentRepositoryImpl implements DeploymentRepository {
         return sha1Bytes;
     }
 
+    private MessageDigest createMessageDigest() {
+        try {
+            return (MessageDigest) messageDigestPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            try {
+                return MessageDigest.getInstance(messageDigestPrototype.getAlgorithm());
+            } catch (NoSuchAlgorithmException nsae) {
+                throw new IllegalStateException("Cannot obtain SHA-1 " + MessageDigest.class.getSimpleName(), nsae);
+            }
+        }
+    }
+
     @Override
     public boolean hasDeploymentContent(byte[] hash) {
         return getDeploymentContentFile(hash).exists();
@@ -135,7 +143,8 @@ public class DeploymentRepositoryImpl implements DeploymentRepository {
             validateDir(base);
         }
         File hashDir = new File(base, partB);
-        if (validate && !hashDir.exists() && !hashDir.mkdirs()) {
+        // another upload of the same content may create the directory concurrently
+        if (validate && !hashDir.mkdirs() && !hashDir.isDirectory()) {
             throw new IllegalStateException("Cannot create directory " + hashDir.getAbsolutePath());
         }
         File content = new File(hashDir, CONTENT);
@@ -145,7 +154,7 @@ public class DeploymentRepositoryImpl implements DeploymentRepository {
 
     private void validateDir(File dir) {
         if (!dir.exists()) {
-            if (!dir.mkdirs()) {
+            if (!dir.mkdirs() && !dir.isDirectory()) {
                 throw new IllegalStateException("Cannot create directory " + dir.getAbsolutePath());
             }
         } else if (!dir.isDirectory()) {
@@ -158,44 +167,42 @@ public class DeploymentRepositoryImpl implements DeploymentRepository {
     private void moveTempToPermanent(File tmpFile, File permanentFile) throws IOException {
 
         if (!tmpFile.renameTo(permanentFile)) {
-            FileOutputStream fos = null;
-            BufferedOutputStream bos = null;
+            if (permanentFile.exists()) {
+                // a concurrent upload of the same content got there first
+                deleteTemp(tmpFile);
+                return;
+            }
             FileInputStream fis = null;
+            FileOutputStream fos = null;
             try {
-                fos = new FileOutputStream(permanentFile);
-                bos = new BufferedOutputStream(fos);
                 fis = new FileInputStream(tmpFile);
-                BufferedInputStream bis = new BufferedInputStream(fis);
-                byte[] bytes = new byte[8192];
-                int read;
-                while ((read = bis.read(bytes)) > -1) {
-                    bos.write(bytes, 0, read);
+                fos = new FileOutputStream(permanentFile);
+                final FileChannel in = fis.getChannel();
+                final FileChannel out = fos.getChannel();
+                final long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
                 }
             }
             finally {
-                try {
-                    if (bos != null) {
-                        bos.close();
-                    }
-                } catch (Exception ignored) {
-                }
-                try {
-                    if (fos != null) {
-                        fos.close();
-                    }
-                } catch (Exception ignored) {
-                }
-                try {
-                    if (fis != null) {
-                        fis.close();
-                    }
-                } catch (Exception ignored) {
-                }
-
-                if (!tmpFile.delete()) {
-                    tmpFile.deleteOnExit();
-                }
+                safeClose(fos);
+                safeClose(fis);
+                deleteTemp(tmpFile);
             }
         }
     }
+
+    private static void deleteTemp(File tmpFile) {
+        if (!tmpFile.delete()) {
+            tmpFile.deleteOnExit();
+        }
+    }
+
+    private static void safeClose(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+        }
+    }
 }
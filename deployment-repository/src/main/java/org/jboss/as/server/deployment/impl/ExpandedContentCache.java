@@ -0,0 +1,466 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.as.server.deployment.impl;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jboss.logging.Logger;
+
+/**
+ * A persistent cache of expanded deployment archives, keyed by the hash of the archive in the repository, so that
+ * redeploying or restarting with the same archive does not expand it again.
+ * <p>
+ * Each archive is expanded into a directory named after its hash. Once the expansion is complete, a marker file
+ * recording the expanded size and the length and modification time of every expanded file is written next to it;
+ * directories without a marker are leftovers of an interrupted expansion and are removed. The expanded content is
+ * mounted as a real directory, so a deployment can modify it; before an expansion that is not in use is handed out
+ * again it is checked against its marker, and expanded anew if it no longer matches. Callers {@link #acquire(byte[], File) acquire} a reference to an expanded archive and
+ * close it when the content is no longer mounted. When the expanded archives take up more than the configured
+ * budget, the least recently used ones that are not referenced are deleted.
+ * </p>
+ */
+final class ExpandedContentCache {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.server.deployment");
+
+    private static final String MARKER_SUFFIX = ".expanded";
+    private static final int BUFFER_SIZE = 65536;
+
+    private final File dir;
+    private final long maxSize;
+    /** Known expanded archives, by hex hash. Guarded by {@code this}. */
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    /** The total size of the complete expansions. Guarded by {@code this}. */
+    private long totalSize;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param dir the directory holding the expanded archives
+     * @param maxSize the number of bytes the expanded archives may take up before unused ones are deleted
+     */
+    ExpandedContentCache(final File dir, final long maxSize) {
+        if (dir == null) {
+            throw new IllegalArgumentException("dir is null");
+        }
+        this.dir = dir;
+        this.maxSize = maxSize;
+        load();
+    }
+
+    /**
+     * Gets a reference to the expanded form of an archive, expanding it if it is not cached.
+     *
+     * @param hash the hash of the archive in the repository
+     * @param archive the archive
+     * @return the reference, which must be closed once the expanded content is no longer used
+     * @throws IOException if the archive cannot be expanded
+     */
+    Reference acquire(final byte[] hash, final File archive) throws IOException {
+        final String key = HashUtil.bytesToHexString(hash);
+        final Entry entry;
+        synchronized (this) {
+            Entry existing = entries.get(key);
+            if (existing == null) {
+                existing = new Entry(key);
+                entries.put(key, existing);
+            }
+            existing.refCount++;
+            entry = existing;
+        }
+        boolean ok = false;
+        try {
+            entry.expand(archive);
+            ok = true;
+        } finally {
+            if (!ok) {
+                release(entry);
+            }
+        }
+        // the new expansion may have taken the cache over its budget
+        evict();
+        return new Reference(entry);
+    }
+
+    /**
+     * Gets the total size of the complete expansions in the cache.
+     *
+     * @return the size in bytes
+     */
+    synchronized long getTotalSize() {
+        return totalSize;
+    }
+
+    private void release(final Entry entry) {
+        final long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (--entry.refCount == 0) {
+                // whoever used the content may have changed it
+                entry.verified = false;
+            }
+            entry.lastUsed = now;
+        }
+        // record the use on disk too, so the order survives a restart
+        entry.marker().setLastModified(now);
+        evict();
+    }
+
+    private void evict() {
+        final List<File> victims = new ArrayList<File>();
+        synchronized (this) {
+            if (totalSize <= maxSize) {
+                return;
+            }
+            final List<Entry> candidates = new ArrayList<Entry>();
+            for (Entry entry : entries.values()) {
+                if (entry.refCount == 0 && entry.size >= 0) {
+                    candidates.add(entry);
+                }
+            }
+            Collections.sort(candidates, new Comparator<Entry>() {
+                public int compare(final Entry o1, final Entry o2) {
+                    return o1.lastUsed < o2.lastUsed ? -1 : (o1.lastUsed == o2.lastUsed ? 0 : 1);
+                }
+            });
+            long size = totalSize;
+            for (Entry entry : candidates) {
+                if (size <= maxSize) {
+                    break;
+                }
+                size -= entry.size;
+                totalSize -= entry.size;
+                entries.remove(entry.key);
+                log.debugf("Removing expanded content %s from the cache", entry.key);
+                // Remove the marker and move the directory aside while holding the lock, so that a new expansion of
+                // the same content cannot collide with the deletion. Anything left over is removed on the next start.
+                entry.marker().delete();
+                final File victim = new File(dir, entry.key + ".evicted");
+                if (entry.directory().renameTo(victim)) {
+                    victims.add(victim);
+                }
+            }
+        }
+        for (File victim : victims) {
+            delete(victim);
+        }
+    }
+
+    /**
+     * Reads the markers of previous expansions and removes incomplete ones.
+     */
+    private synchronized void load() {
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            final String name = file.getName();
+            if (file.isDirectory()) {
+                if (!new File(dir, name + MARKER_SUFFIX).exists()) {
+                    delete(file);
+                }
+            } else if (name.endsWith(MARKER_SUFFIX)) {
+                final String key = name.substring(0, name.length() - MARKER_SUFFIX.length());
+                final long size = readSize(file);
+                if (size < 0 || !new File(dir, key).isDirectory()) {
+                    file.delete();
+                    delete(new File(dir, key));
+                    continue;
+                }
+                final Entry entry = new Entry(key);
+                entry.size = size;
+                entry.lastUsed = file.lastModified();
+                entries.put(key, entry);
+                totalSize += size;
+            }
+        }
+    }
+
+    /**
+     * Lists the files below a directory with their lengths and modification times, in the format of the marker.
+     */
+    private static List<String> describe(final File directory) {
+        final List<String> files = new ArrayList<String>();
+        describe(directory, "", files);
+        Collections.sort(files);
+        return files;
+    }
+
+    private static void describe(final File directory, final String prefix, final List<String> files) {
+        final File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                describe(child, prefix + child.getName() + "/", files);
+            } else {
+                files.add(prefix + child.getName() + "\t" + child.length() + "\t" + child.lastModified());
+            }
+        }
+    }
+
+    /**
+     * Reads the file list of a marker, skipping the size on its first line.
+     */
+    private static List<String> readFiles(final File marker) {
+        final List<String> files = new ArrayList<String>();
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(marker));
+            if (reader.readLine() == null) {
+                return null;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                files.add(line);
+            }
+            return files;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            safeClose(reader);
+        }
+    }
+
+    private static long readSize(final File marker) {
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(marker));
+            final String line = reader.readLine();
+            return line == null ? -1 : Long.parseLong(line.trim());
+        } catch (IOException e) {
+            return -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        } finally {
+            safeClose(reader);
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    /**
+     * A reference to an expanded archive.
+     */
+    final class Reference implements Closeable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Reference(final Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * Gets the directory holding the expanded archive.
+         *
+         * @return the directory
+         */
+        File getDirectory() {
+            return entry.directory();
+        }
+
+        /**
+         * Releases the reference, allowing the expanded archive to be evicted.
+         */
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            release(entry);
+        }
+    }
+
+    private final class Entry {
+        private final String key;
+        /** The number of open references. Guarded by the cache. */
+        private int refCount;
+        /** The time the entry was last released, for eviction. Guarded by the cache. */
+        private long lastUsed;
+        /** The expanded size, or {@code -1} if not yet expanded. Guarded by the cache. */
+        private long size = -1;
+        /** Whether the expansion is known to match its marker. Guarded by the cache. */
+        private boolean verified;
+
+        private Entry(final String key) {
+            this.key = key;
+        }
+
+        private File directory() {
+            return new File(dir, key);
+        }
+
+        private File marker() {
+            return new File(dir, key + MARKER_SUFFIX);
+        }
+
+        /**
+         * Expands the archive unless an expansion matching the marker exists. Concurrent acquirers of the same
+         * archive wait for the first one to finish.
+         */
+        private synchronized void expand(final File archive) throws IOException {
+            final long existingSize;
+            synchronized (ExpandedContentCache.this) {
+                if (size >= 0 && verified) {
+                    return;
+                }
+                existingSize = size;
+            }
+            if (existingSize >= 0) {
+                if (describe(directory()).equals(readFiles(marker()))) {
+                    synchronized (ExpandedContentCache.this) {
+                        verified = true;
+                    }
+                    return;
+                }
+                log.debugf("Expanded content %s no longer matches %s, expanding it again", key, archive);
+                marker().delete();
+                synchronized (ExpandedContentCache.this) {
+                    totalSize -= size;
+                    size = -1;
+                }
+            }
+            if (!dir.exists() && !dir.mkdirs() && !dir.isDirectory()) {
+                throw new IOException("Cannot create directory " + dir.getAbsolutePath());
+            }
+            final File target = directory();
+            delete(target);
+            final File tmp = new File(dir, key + ".tmp");
+            delete(tmp);
+            final long start = System.currentTimeMillis();
+            final long expandedSize;
+            try {
+                expandedSize = unzip(archive, tmp);
+                if (!tmp.renameTo(target)) {
+                    throw new IOException("Cannot rename " + tmp + " to " + target);
+                }
+            } catch (IOException e) {
+                delete(tmp);
+                throw e;
+            }
+            final FileWriter writer = new FileWriter(marker());
+            try {
+                writer.write(Long.toString(expandedSize));
+                for (String file : describe(target)) {
+                    writer.write('\n');
+                    writer.write(file);
+                }
+            } finally {
+                safeClose(writer);
+            }
+            log.debugf("Expanded %s (%d bytes) in %d ms", archive, Long.valueOf(expandedSize), Long.valueOf(System.currentTimeMillis() - start));
+            synchronized (ExpandedContentCache.this) {
+                size = expandedSize;
+                verified = true;
+                totalSize += expandedSize;
+            }
+        }
+    }
+
+    private static long unzip(final File archive, final File target) throws IOException {
+        final String targetPath = target.getCanonicalPath() + File.separator;
+        long total = 0;
+        final ZipFile zip = new ZipFile(archive);
+        try {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            final Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+            while (zipEntries.hasMoreElements()) {
+                final ZipEntry zipEntry = zipEntries.nextElement();
+                final File file = new File(target, zipEntry.getName());
+                if (!file.getCanonicalPath().startsWith(targetPath)) {
+                    throw new IOException("Entry " + zipEntry.getName() + " of " + archive + " is outside the archive");
+                }
+                if (zipEntry.isDirectory()) {
+                    if (!file.mkdirs() && !file.isDirectory()) {
+                        throw new IOException("Cannot create directory " + file);
+                    }
+                    continue;
+                }
+                final File parent = file.getParentFile();
+                if (!parent.mkdirs() && !parent.isDirectory()) {
+                    throw new IOException("Cannot create directory " + parent);
+                }
+                final InputStream in = zip.getInputStream(zipEntry);
+                try {
+                    final OutputStream out = new FileOutputStream(file);
+                    try {
+                        int read;
+                        while ((read = in.read(buffer)) > -1) {
+                            out.write(buffer, 0, read);
+                            total += read;
+                        }
+                    } finally {
+                        safeClose(out);
+                    }
+                } finally {
+                    safeClose(in);
+                }
+                if (zipEntry.getTime() != -1) {
+                    file.setLastModified(zipEntry.getTime());
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return total;
+    }
+}
@@ -45,15 +45,28 @@ import org.jboss.vfs.VirtualFile;
  */
 public class ServerDeploymentRepositoryImpl extends DeploymentRepositoryImpl implements ServerDeploymentRepository, Service<ServerDeploymentRepository> {
 
+    /**
+     * System property setting how many megabytes expanded deployment archives may take up in the data directory
+     * before the least recently used ones are removed.
+     */
+    public static final String EXPANDED_CONTENT_MAX_SIZE_PROPERTY = "jboss.as.deployment.expanded-content.max-size";
+
+    private static final long DEFAULT_EXPANDED_CONTENT_MAX_SIZE = 2048;
+
     private static final Logger log = Logger.getLogger("org.jboss.as.server.deployment");
 
     private final File systemDeployDir;
+    private final ExpandedContentCache expandedContentCache;
     private TempFileProvider tempFileProvider;
 
 
     public static void addService(final ServiceTarget serviceTarget, final File repoRoot, final File systemDeployDir) {
+        addService(serviceTarget, repoRoot, systemDeployDir, null);
+    }
+
+    public static void addService(final ServiceTarget serviceTarget, final File repoRoot, final File systemDeployDir, final File expandedContentDir) {
         serviceTarget.addService(ServerDeploymentRepository.SERVICE_NAME,
-                new ServerDeploymentRepositoryImpl(repoRoot, systemDeployDir))
+                new ServerDeploymentRepositoryImpl(repoRoot, systemDeployDir, expandedContentDir))
                 .install();
     }
 
@@ -61,8 +74,27 @@ public class ServerDeploymentRepositoryImpl extends DeploymentRepositoryImpl imp
      * Creates a new ServerDeploymentRepositoryImpl.
      */
     public ServerDeploymentRepositoryImpl(final File repoRoot, final File systemDeployDir) {
+        this(repoRoot, systemDeployDir, null);
+    }
+
+    /**
+     * Creates a new ServerDeploymentRepositoryImpl which keeps expanded archives for reuse across redeployments and
+     * restarts.
+     *
+     * @param repoRoot the root of the repository
+     * @param systemDeployDir the directory holding internal deployments
+     * @param expandedContentDir the directory holding expanded archives, or {@code null} to expand archives into
+     *                           temporary space on every mount
+     */
+    public ServerDeploymentRepositoryImpl(final File repoRoot, final File systemDeployDir, final File expandedContentDir) {
         super(repoRoot);
         this.systemDeployDir = systemDeployDir;
+        if (expandedContentDir == null) {
+            expandedContentCache = null;
+        } else {
+            final long maxSize = Long.getLong(EXPANDED_CONTENT_MAX_SIZE_PROPERTY, DEFAULT_EXPANDED_CONTENT_MAX_SIZE).longValue();
+            expandedContentCache = new ExpandedContentCache(expandedContentDir, maxSize * 1024 * 1024);
+        }
     }
 
     @Override
@@ -76,12 +108,36 @@ public class ServerDeploymentRepositoryImpl extends DeploymentRepositoryImpl imp
         File content = getDeploymentContentFile(deploymentHash);
         // FIXME
         if(name.endsWith("war")) {
-            return VFS.mountZipExpanded(content, mountPoint, tempFileProvider);
+            if (expandedContentCache == null) {
+                return VFS.mountZipExpanded(content, mountPoint, tempFileProvider);
+            }
+            return mountExpanded(deploymentHash, content, mountPoint);
         } else {
             return VFS.mountZip(content, mountPoint, tempFileProvider);
         }
     }
 
+    private Closeable mountExpanded(final byte[] deploymentHash, final File content, final VirtualFile mountPoint) throws IOException {
+        final ExpandedContentCache.Reference reference = expandedContentCache.acquire(deploymentHash, content);
+        final Closeable mount;
+        try {
+            mount = VFS.mountReal(reference.getDirectory(), mountPoint);
+        } catch (IOException e) {
+            reference.close();
+            throw e;
+        }
+        return new Closeable() {
+            @Override
+            public void close() throws IOException {
+                try {
+                    mount.close();
+                } finally {
+                    reference.close();
+                }
+            }
+        };
+    }
+
     @Override
     public void start(StartContext context) throws StartException {
         try {
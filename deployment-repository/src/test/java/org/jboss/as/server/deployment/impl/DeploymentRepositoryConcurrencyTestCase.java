@@ -0,0 +1,155 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.server.deployment.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Uploads many deployments to a {@link DeploymentRepositoryImpl} concurrently and checks that each one is stored
+ * under its SHA-1 hash.  Doubles as a benchmark: the number of uploads, their size and the number of uploading
+ * threads can be set with the {@code jboss.as.repository.test.uploads}, {@code jboss.as.repository.test.size}
+ * and {@code jboss.as.repository.test.threads} system properties.
+ */
+public class DeploymentRepositoryConcurrencyTestCase {
+
+    private static final int UPLOADS = Integer.getInteger("jboss.as.repository.test.uploads", 32).intValue();
+    private static final int SIZE = Integer.getInteger("jboss.as.repository.test.size", 1024 * 1024).intValue();
+    private static final int THREADS = Integer.getInteger("jboss.as.repository.test.threads", 8).intValue();
+
+    private File root;
+    private DeploymentRepositoryImpl repository;
+
+    @Before
+    public void setUp() throws IOException {
+        root = File.createTempFile("repository", "test");
+        root.delete();
+        repository = new DeploymentRepositoryImpl(root);
+    }
+
+    @After
+    public void tearDown() {
+        delete(root);
+    }
+
+    @Test
+    public void testConcurrentUploads() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<byte[]>> results = new ArrayList<Future<byte[]>>(UPLOADS);
+            for (int i = 0; i < UPLOADS; i++) {
+                // every seed is uploaded twice, to exercise concurrent uploads of identical content
+                final int seed = i / 2;
+                results.add(executor.submit(new Callable<byte[]>() {
+                    public byte[] call() throws Exception {
+                        return repository.addDeploymentContent("test-" + seed + ".war", "test-" + seed + ".war", new ContentStream(seed, SIZE));
+                    }
+                }));
+            }
+            for (int i = 0; i < UPLOADS; i++) {
+                final byte[] hash = results.get(i).get();
+                assertArrayEquals(expectedHash(i / 2, SIZE), hash);
+                assertTrue(repository.hasDeploymentContent(hash));
+                assertEquals(SIZE, repository.getDeploymentContentFile(hash).length());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // no temp files are left behind
+        for (File file : root.listFiles()) {
+            assertTrue(file.getName() + " is not a directory", file.isDirectory());
+        }
+    }
+
+    private static byte[] expectedHash(final int seed, final int size) throws Exception {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        final InputStream stream = new ContentStream(seed, size);
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = stream.read(buffer)) > -1) {
+            digest.update(buffer, 0, read);
+        }
+        return digest.digest();
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Produces {@code size} pseudo-random bytes without holding them in memory.
+     */
+    private static class ContentStream extends InputStream {
+        private final Random random;
+        private int remaining;
+
+        ContentStream(final int seed, final int size) {
+            this.random = new Random(seed);
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return random.nextInt(256);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (remaining == 0) {
+                return -1;
+            }
+            final int count = Math.min(len, remaining);
+            for (int i = 0; i < count; i++) {
+                b[off + i] = (byte) random.nextInt(256);
+            }
+            remaining -= count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.as.server.deployment.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ExpandedContentCache}.
+ */
+public class ExpandedContentCacheTestCase {
+
+    private static final byte[] HASH_A = new byte[] { 1 };
+    private static final byte[] HASH_B = new byte[] { 2 };
+
+    private File root;
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        root = File.createTempFile("expanded", "test");
+        root.delete();
+        root.mkdirs();
+        cacheDir = new File(root, "cache");
+    }
+
+    @After
+    public void tearDown() {
+        delete(root);
+    }
+
+    @Test
+    public void testExpandedContentReused() throws Exception {
+        final File archive = createArchive("a.war", 100);
+        final ExpandedContentCache cache = new ExpandedContentCache(cacheDir, Long.MAX_VALUE);
+
+        final ExpandedContentCache.Reference first = cache.acquire(HASH_A, archive);
+        final File expanded = new File(first.getDirectory(), "WEB-INF/classes/Entry0.class");
+        assertTrue(expanded.exists());
+        assertEquals(100, cache.getTotalSize());
+        first.close();
+
+        // mark a directory, which is not checked against the marker, so a second expansion would be noticed
+        new File(first.getDirectory(), "WEB-INF").setLastModified(0);
+        final ExpandedContentCache.Reference second = cache.acquire(HASH_A, archive);
+        assertEquals(0, new File(second.getDirectory(), "WEB-INF").lastModified());
+        second.close();
+
+        // and the expansion survives a restart
+        final ExpandedContentCache restarted = new ExpandedContentCache(cacheDir, Long.MAX_VALUE);
+        assertEquals(100, restarted.getTotalSize());
+        final ExpandedContentCache.Reference third = restarted.acquire(HASH_A, archive);
+        assertEquals(0, new File(third.getDirectory(), "WEB-INF").lastModified());
+        third.close();
+    }
+
+    @Test
+    public void testModifiedExpansionReplaced() throws Exception {
+        final File archive = createArchive("a.war", 100);
+        final ExpandedContentCache cache = new ExpandedContentCache(cacheDir, Long.MAX_VALUE);
+
+        final ExpandedContentCache.Reference first = cache.acquire(HASH_A, archive);
+        final File expanded = new File(first.getDirectory(), "WEB-INF/classes/Entry0.class");
+        final long lastModified = expanded.lastModified();
+        // a deployment writing to its content
+        write(expanded, 10);
+        write(new File(first.getDirectory(), "WEB-INF/classes/Added.class"), 10);
+        first.close();
+
+        final ExpandedContentCache.Reference second = cache.acquire(HASH_A, archive);
+        assertEquals(100, expanded.length());
+        assertEquals(lastModified, expanded.lastModified());
+        assertFalse(new File(second.getDirectory(), "WEB-INF/classes/Added.class").exists());
+        assertEquals(100, cache.getTotalSize());
+        second.close();
+
+        // a change that keeps the length is noticed after a restart too
+        expanded.setLastModified(lastModified - 60000);
+        final ExpandedContentCache restarted = new ExpandedContentCache(cacheDir, Long.MAX_VALUE);
+        final ExpandedContentCache.Reference third = restarted.acquire(HASH_A, archive);
+        assertEquals(lastModified, expanded.lastModified());
+        assertEquals(100, restarted.getTotalSize());
+        third.close();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        final File archiveA = createArchive("a.war", 100);
+        final File archiveB = createArchive("b.war", 100);
+        final ExpandedContentCache cache = new ExpandedContentCache(cacheDir, 150);
+
+        final ExpandedContentCache.Reference a = cache.acquire(HASH_A, archiveA);
+        final File dirA = a.getDirectory();
+        final ExpandedContentCache.Reference b = cache.acquire(HASH_B, archiveB);
+        // both are in use, so neither may be evicted
+        assertTrue(dirA.exists());
+        assertTrue(b.getDirectory().exists());
+        assertEquals(200, cache.getTotalSize());
+
+        a.close();
+        assertFalse(dirA.exists());
+        assertEquals(100, cache.getTotalSize());
+        assertTrue(b.getDirectory().exists());
+        b.close();
+    }
+
+    @Test
+    public void testIncompleteExpansionDiscarded() throws Exception {
+        final File archive = createArchive("a.war", 100);
+        final ExpandedContentCache cache = new ExpandedContentCache(cacheDir, Long.MAX_VALUE);
+        final ExpandedContentCache.Reference reference = cache.acquire(HASH_A, archive);
+        final File dir = reference.getDirectory();
+        reference.close();
+
+        // simulate a crash during expansion
+        new File(cacheDir, dir.getName() + ".expanded").delete();
+        final ExpandedContentCache restarted = new ExpandedContentCache(cacheDir, Long.MAX_VALUE);
+        assertFalse(dir.exists());
+        assertEquals(0, restarted.getTotalSize());
+    }
+
+    @Test(expected = IOException.class)
+    public void testEntryOutsideArchiveRejected() throws Exception {
+        final File archive = new File(root, "evil.war");
+        final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        try {
+            out.putNextEntry(new ZipEntry("../outside.txt"));
+            out.write(1);
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+        new ExpandedContentCache(cacheDir, Long.MAX_VALUE).acquire(HASH_A, archive);
+    }
+
+    private File createArchive(final String name, final int size) throws IOException {
+        final File archive = new File(root, name);
+        final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        try {
+            out.putNextEntry(new ZipEntry("WEB-INF/classes/"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("WEB-INF/classes/Entry0.class"));
+            out.write(new byte[size]);
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+        return archive;
+    }
+
+    private static void write(final File file, final int size) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -33,5 +33,9 @@ interface CommonAttributes {
     String SCAN_ENABLED = "scan-enabled";
     String SCAN_INTERVAL = "scan-interval";
     String DEPLOYMENT_SCANNER = "deployment-scanner";
+    String HASHED_FILE_COUNT = "hashed-file-count";
+    String LAST_SCAN_DURATION = "last-scan-duration";
+    String LAST_SCAN_FILE_COUNT = "last-scan-file-count";
+    String SCAN_COUNT = "scan-count";
 
 }
@@ -85,6 +85,9 @@ public class DeploymentScannerExtension implements Extension {
         scanners.registerOperationHandler(REMOVE, DeploymentScannerRemove.INSTANCE, DeploymentSubsystemProviders.SCANNER_REMOVE, false);
         scanners.registerOperationHandler("enable", DeploymentScannerEnable.INSTANCE, DeploymentSubsystemProviders.SCANNER_ENABLE, false);
         scanners.registerOperationHandler("disable", DeploymentScannerDisable.INSTANCE, DeploymentSubsystemProviders.SCANNER_DISABLE, false);
+        for (final String attributeName : DeploymentScannerMetrics.ATTRIBUTES) {
+            scanners.registerMetric(attributeName, DeploymentScannerMetrics.INSTANCE);
+        }
     }
 
     /** {@inheritDoc} */
@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.scanner;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelQueryOperationHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.RuntimeTask;
+import org.jboss.as.controller.RuntimeTaskContext;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reports the statistics of a deployment scanner.
+ */
+class DeploymentScannerMetrics implements ModelQueryOperationHandler {
+
+    static final DeploymentScannerMetrics INSTANCE = new DeploymentScannerMetrics();
+
+    static final String[] NO_LOCATION = new String[0];
+    static final String[] ATTRIBUTES = new String[] {CommonAttributes.HASHED_FILE_COUNT, CommonAttributes.LAST_SCAN_DURATION,
+            CommonAttributes.LAST_SCAN_FILE_COUNT, CommonAttributes.SCAN_COUNT};
+
+    private DeploymentScannerMetrics() {
+        //
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
+
+        if (context.getRuntimeContext() != null) {
+            context.getRuntimeContext().setRuntimeTask(new RuntimeTask() {
+                public void execute(RuntimeTaskContext context) throws OperationFailedException {
+                    final String attributeName = operation.require(NAME).asString();
+                    final String name = PathAddress.pathAddress(operation.require(OP_ADDR)).getLastElement().getValue();
+                    final ServiceController<?> controller = context.getServiceRegistry().getService(DeploymentScannerService.getServiceName(name));
+                    long value = 0;
+                    if (controller != null && controller.getValue() instanceof FileSystemDeploymentService) {
+                        value = getMetric((FileSystemDeploymentService) controller.getValue(), attributeName);
+                    }
+                    resultHandler.handleResultFragment(NO_LOCATION, new ModelNode().set(value));
+                    resultHandler.handleResultComplete();
+                }
+            });
+        } else {
+            resultHandler.handleResultFragment(NO_LOCATION, new ModelNode().set("no metrics available"));
+            resultHandler.handleResultComplete();
+        }
+        return new BasicOperationResult();
+    }
+
+    static long getMetric(final FileSystemDeploymentService scanner, final String attributeName) throws OperationFailedException {
+        if (CommonAttributes.HASHED_FILE_COUNT.equals(attributeName)) {
+            return scanner.getHashedFileCount();
+        } else if (CommonAttributes.LAST_SCAN_DURATION.equals(attributeName)) {
+            return scanner.getLastScanDuration();
+        } else if (CommonAttributes.LAST_SCAN_FILE_COUNT.equals(attributeName)) {
+            return scanner.getLastScanFileCount();
+        } else if (CommonAttributes.SCAN_COUNT.equals(attributeName)) {
+            return scanner.getScanCount();
+        }
+        throw new OperationFailedException(new ModelNode().set("Unknown metric " + attributeName));
+    }
+}
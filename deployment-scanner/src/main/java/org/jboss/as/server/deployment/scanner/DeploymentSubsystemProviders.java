@@ -22,11 +22,23 @@
 
 package org.jboss.as.server.deployment.scanner;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILDREN;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEFAULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REMOVE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUEST_PROPERTIES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUIRED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
+
 import java.util.Locale;
 import java.util.ResourceBundle;
 
 import org.jboss.as.controller.descriptions.DescriptionProvider;
 import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
 
 /**
  * @author Emanuel Muckenhuber
@@ -42,7 +54,9 @@ public class DeploymentSubsystemProviders {
             final ResourceBundle bundle = getResourceBundle(locale);
 
             final ModelNode node = new ModelNode();
-            // TODO
+            node.get(DESCRIPTION).set(bundle.getString("deployment.scanner"));
+            node.get(CHILDREN, CommonAttributes.DEPLOYMENT_SCANNER, DESCRIPTION).set(bundle.getString("scanner"));
+            node.get(CHILDREN, CommonAttributes.DEPLOYMENT_SCANNER, REQUIRED).set(false);
             return node;
         }
     };
@@ -53,7 +67,8 @@ public class DeploymentSubsystemProviders {
             final ResourceBundle bundle = getResourceBundle(locale);
 
             final ModelNode node = new ModelNode();
-            // TODO
+            node.get(OPERATION_NAME).set(ADD);
+            node.get(DESCRIPTION).set(bundle.getString("deployment.scanner.add"));
             return node;
         }
     };
@@ -64,7 +79,14 @@ public class DeploymentSubsystemProviders {
             final ResourceBundle bundle = getResourceBundle(locale);
 
             final ModelNode node = new ModelNode();
-            // TODO
+            node.get(DESCRIPTION).set(bundle.getString("scanner"));
+            addScannerAttributes(node.get(ATTRIBUTES), bundle);
+
+            for (final String metric : DeploymentScannerMetrics.ATTRIBUTES) {
+                node.get(ATTRIBUTES, metric, TYPE).set(ModelType.LONG);
+                node.get(ATTRIBUTES, metric, DESCRIPTION).set(bundle.getString("scanner." + metric));
+                node.get(ATTRIBUTES, metric, REQUIRED).set(false);
+            }
             return node;
         }
     };
@@ -75,7 +97,9 @@ public class DeploymentSubsystemProviders {
             final ResourceBundle bundle = getResourceBundle(locale);
 
             final ModelNode node = new ModelNode();
-            // TODO
+            node.get(OPERATION_NAME).set(ADD);
+            node.get(DESCRIPTION).set(bundle.getString("scanner.add"));
+            addScannerAttributes(node.get(REQUEST_PROPERTIES), bundle);
             return node;
         }
     };
@@ -86,7 +110,8 @@ public class DeploymentSubsystemProviders {
             final ResourceBundle bundle = getResourceBundle(locale);
 
             final ModelNode node = new ModelNode();
-            // TODO
+            node.get(OPERATION_NAME).set(REMOVE);
+            node.get(DESCRIPTION).set(bundle.getString("scanner.remove"));
             return node;
         }
     };
@@ -98,7 +123,8 @@ public class DeploymentSubsystemProviders {
             final ResourceBundle bundle = getResourceBundle(locale);
 
             final ModelNode node = new ModelNode();
-            // TODO
+            node.get(OPERATION_NAME).set("enable");
+            node.get(DESCRIPTION).set(bundle.getString("scanner.enable"));
             return node;
         }
     };
@@ -109,11 +135,32 @@ public class DeploymentSubsystemProviders {
             final ResourceBundle bundle = getResourceBundle(locale);
 
             final ModelNode node = new ModelNode();
-            // TODO
+            node.get(OPERATION_NAME).set("disable");
+            node.get(DESCRIPTION).set(bundle.getString("scanner.disable"));
             return node;
         }
     };
 
+    private static void addScannerAttributes(final ModelNode attributes, final ResourceBundle bundle) {
+        attributes.get(CommonAttributes.PATH, TYPE).set(ModelType.STRING);
+        attributes.get(CommonAttributes.PATH, DESCRIPTION).set(bundle.getString("scanner.path"));
+        attributes.get(CommonAttributes.PATH, REQUIRED).set(true);
+
+        attributes.get(CommonAttributes.RELATIVE_TO, TYPE).set(ModelType.STRING);
+        attributes.get(CommonAttributes.RELATIVE_TO, DESCRIPTION).set(bundle.getString("scanner.relative-to"));
+        attributes.get(CommonAttributes.RELATIVE_TO, REQUIRED).set(false);
+
+        attributes.get(CommonAttributes.SCAN_ENABLED, TYPE).set(ModelType.BOOLEAN);
+        attributes.get(CommonAttributes.SCAN_ENABLED, DESCRIPTION).set(bundle.getString("scanner.scan-enabled"));
+        attributes.get(CommonAttributes.SCAN_ENABLED, REQUIRED).set(false);
+        attributes.get(CommonAttributes.SCAN_ENABLED, DEFAULT).set(true);
+
+        attributes.get(CommonAttributes.SCAN_INTERVAL, TYPE).set(ModelType.INT);
+        attributes.get(CommonAttributes.SCAN_INTERVAL, DESCRIPTION).set(bundle.getString("scanner.scan-interval"));
+        attributes.get(CommonAttributes.SCAN_INTERVAL, REQUIRED).set(false);
+        attributes.get(CommonAttributes.SCAN_INTERVAL, DEFAULT).set(5000);
+    }
+
     private static ResourceBundle getResourceBundle(Locale locale) {
         if (locale == null) {
             locale = Locale.getDefault();
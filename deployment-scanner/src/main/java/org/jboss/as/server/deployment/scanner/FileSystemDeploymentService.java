@@ -42,6 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -82,6 +83,11 @@ class FileSystemDeploymentService implements DeploymentScanner {
     private final Lock scanLock = new ReentrantLock();
     private Set<String> deployed = new HashSet<String>();
 
+    private final AtomicLong scanCount = new AtomicLong();
+    private final AtomicLong hashedFileCount = new AtomicLong();
+    private volatile long lastScanDuration;
+    private volatile int lastScanFileCount;
+
 //    private final ServerModel serverModel;
     private final ScheduledExecutorService scheduledExecutor;
     private final ServerController serverController;
@@ -148,6 +154,42 @@ class FileSystemDeploymentService implements DeploymentScanner {
         return scanEnabled;
     }
 
+    /**
+     * Gets the number of scans performed.
+     *
+     * @return the number of scans
+     */
+    long getScanCount() {
+        return scanCount.get();
+    }
+
+    /**
+     * Gets how long the most recent scan took.
+     *
+     * @return the duration in ms
+     */
+    long getLastScanDuration() {
+        return lastScanDuration;
+    }
+
+    /**
+     * Gets the number of files examined by the most recent scan.
+     *
+     * @return the number of files
+     */
+    int getLastScanFileCount() {
+        return lastScanFileCount;
+    }
+
+    /**
+     * Gets the number of files read and added to the deployment repository.
+     *
+     * @return the number of files
+     */
+    long getHashedFileCount() {
+        return hashedFileCount.get();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -215,13 +257,14 @@ class FileSystemDeploymentService implements DeploymentScanner {
             if (scanEnabled) { // confirm the scan is still wanted
 
                 log.tracef("Scanning directory %s for deployment content changes", deploymentDir.getAbsolutePath());
+                final long start = System.currentTimeMillis();
 
                 final List<ModelNode> updates = new ArrayList<ModelNode>();
 
                 Map<String, File> foundDeployed = new HashMap<String, File>();
                 Set<String> newlyAdded = new HashSet<String>();
                 Set<String> registeredDeployments = getDeploymentNames();
-                scanDirectory(deploymentDir, updates, foundDeployed, newlyAdded, registeredDeployments);
+                final int fileCount = scanDirectory(deploymentDir, updates, foundDeployed, newlyAdded, registeredDeployments);
 
                 // Add remove actions to the plan for anything we count as
                 // deployed that we didn't find on the scan
@@ -251,7 +294,10 @@ class FileSystemDeploymentService implements DeploymentScanner {
                 validFinds.addAll(newlyAdded);
                 this.deployed = validFinds;
 
-                log.tracef("Scan complete");
+                lastScanFileCount = fileCount;
+                lastScanDuration = System.currentTimeMillis() - start;
+                scanCount.incrementAndGet();
+                log.tracef("Scan complete; examined %d files in %d ms", Integer.valueOf(fileCount), Long.valueOf(lastScanDuration));
             }
         } finally {
             scanLock.unlock();
@@ -281,16 +327,17 @@ class FileSystemDeploymentService implements DeploymentScanner {
      *                      of the deployment, value is the marker file
      * @param newlyAdded    place to store names of newly added content
      * @param registeredDeployments TODO
-     * @return the builder the current builder following any changes
+     * @return the number of files examined
      */
-    private void scanDirectory(File directory, final List<ModelNode> updates, Map<String, File> foundDeployed, Set<String> newlyAdded, Set<String> registeredDeployments) {
+    private int scanDirectory(File directory, final List<ModelNode> updates, Map<String, File> foundDeployed, Set<String> newlyAdded, Set<String> registeredDeployments) {
 
         //TODO externalize config of filter?
         File[] children = directory.listFiles(filter);
         if (children == null) {
-            return;
+            return 0;
         }
 
+        int fileCount = children.length;
         for (File child : children) {
 
             String fileName = child.getName();
@@ -305,42 +352,52 @@ class FileSystemDeploymentService implements DeploymentScanner {
                     log.warnf("%s is an exploded deployment and exploded deployments are not currently handled by %s", child.getName(), getClass().getSimpleName());
                 } else {
                     // It's just a dir for organizing content. Recurse
-                    scanDirectory(child, updates, foundDeployed, newlyAdded, registeredDeployments);
+                    fileCount += scanDirectory(child, updates, foundDeployed, newlyAdded, registeredDeployments);
                 }
             } else {
                 // Found a single non-marker file
-                boolean uploaded = false;
+                final byte[] hash;
+                try {
+                    hash = addToRepository(child);
+                } catch (IOException e) {
+                    log.error("Failed to add content to deployment repository for [" + fileName + "]", e);
+                    continue;
+                }
                 if (registeredDeployments.contains(fileName)) {
-
-                    byte[] hash = new byte[0];
-                    try {
-                        final InputStream inputStream = new FileInputStream(child);
-                        hash = deploymentRepository.addDeploymentContent(fileName, fileName, inputStream);
-                    } catch (IOException e) {
-                        log.error("Failed to add content to deployment repository for [" + fileName + "]", e);
-                        continue;
-                    }
                     updates.add(getFullReplaceOperation(fileName, hash));
-                    uploaded = true;
                 } else {
-                    byte[] hash = new byte[0];
-                    try {
-                        final InputStream inputStream = new FileInputStream(child);
-                        hash = deploymentRepository.addDeploymentContent(fileName, fileName, inputStream);
-                    } catch (IOException e) {
-                        log.error("Failed to add content to deployment repository for [" + fileName + "]", e);
-                        continue;
-                    }
                     updates.add(getAddOperation(fileName, hash));
                     updates.add(getDeployOperation(fileName));
-                    uploaded = true;
                 }
 
-                if (uploaded && replaceWithDeployedMarker(child)) {
+                if (replaceWithDeployedMarker(child)) {
                     newlyAdded.add(fileName);
                 }
             }
         }
+        return fileCount;
+    }
+
+    /**
+     * Adds the content of the given file to the deployment repository.
+     *
+     * @return the hash of the content
+     */
+    private byte[] addToRepository(final File file) throws IOException {
+        final String fileName = file.getName();
+        final InputStream inputStream = new FileInputStream(file);
+        final byte[] hash;
+        try {
+            hash = deploymentRepository.addDeploymentContent(fileName, fileName, inputStream);
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException ignored) {
+                log.warnf("Could not close input stream for deployment content file %s", file.getAbsolutePath());
+            }
+        }
+        hashedFileCount.incrementAndGet();
+        return hash;
     }
 
     /**
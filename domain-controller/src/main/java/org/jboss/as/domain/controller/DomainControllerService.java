@@ -38,6 +38,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jboss.as.controller.ResultHandler;
 import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.as.controller.persistence.AsyncConfigurationPersister;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.as.process.CommandLineConstants;
@@ -93,6 +94,10 @@ public final class DomainControllerService implements Service<DomainController>
     public synchronized void stop(final StopContext context) {
         hostController.getValue().stopServers();
         this.controller = null;
+        if (configurationPersister instanceof AsyncConfigurationPersister) {
+            // Don't lose changes still queued for the background writer
+            ((AsyncConfigurationPersister) configurationPersister).shutdown();
+        }
     }
 
     /** {@inheritDoc} */
@@ -140,7 +145,8 @@ public final class DomainControllerService implements Service<DomainController>
     private DomainControllerSlave startRemoteSlaveDomainController(MasterDomainControllerClient masterClient) throws StartException {
         // By having a remote repo as a secondary content will be synced only if needed
         FallbackRepository fileRepository = new FallbackRepository(localFileRepository, masterClient.getRemoteFileRepository());
-        final DomainModelImpl domainModel = new DomainModelImpl(new ModelNode(), configurationPersister, hostController.getValue(), deploymentRepository, fileRepository);
+        final DomainModelImpl domainModel = new DomainModelImpl(new ModelNode(), configurationPersister, hostController.getValue(), deploymentRepository, fileRepository,
+                scheduledExecutorService.getValue());
         final DomainControllerSlave controller = new DomainControllerImpl(scheduledExecutorService.getValue(), domainModel, localHostName, localFileRepository, masterClient);
         try {
             masterClient.register(hostController.getValue().getName(), controller);
@@ -165,7 +171,8 @@ public final class DomainControllerService implements Service<DomainController>
     }
 
     private DomainModel loadLocalDomainModel() throws StartException {
-        DomainModelImpl domainModel = new DomainModelImpl(configurationPersister, hostController.getValue(), deploymentRepository, localFileRepository);
+        DomainModelImpl domainModel = new DomainModelImpl(configurationPersister, hostController.getValue(), deploymentRepository, localFileRepository,
+                scheduledExecutorService.getValue());
         final List<ModelNode> updates;
         try {
              updates = configurationPersister.load();
@@ -47,6 +47,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 
 import org.jboss.as.controller.BasicTransactionalModelController;
 import org.jboss.as.controller.ControllerResource;
@@ -116,17 +119,17 @@ public class DomainModelImpl extends BasicTransactionalModelController implement
 
     /** Constructor for a master DC. */
     protected DomainModelImpl(final ExtensibleConfigurationPersister configurationPersister, final LocalHostModel localHostProxy,
-            final DeploymentRepository deploymentRepo, final FileRepository fileRepository) {
-        this(null, configurationPersister, localHostProxy, deploymentRepo, fileRepository);
+            final DeploymentRepository deploymentRepo, final FileRepository fileRepository, final Executor executor) {
+        this(null, configurationPersister, localHostProxy, deploymentRepo, fileRepository, executor);
     }
 
     /** Constructor for a slave DC. */
     protected DomainModelImpl(final ModelNode model, final ExtensibleConfigurationPersister configurationPersister, final LocalHostModel localHostProxy,
-            final DeploymentRepository deploymentRepo, final FileRepository fileRepository) {
+            final DeploymentRepository deploymentRepo, final FileRepository fileRepository, final Executor executor) {
         super(getInitialModel(model), configurationPersister, DomainDescriptionProviders.ROOT_PROVIDER);
         this.localHostName = localHostProxy.getName();
         ModelNodeRegistration registry = getRegistry();
-        this.extensionContext = DomainModelUtil.initializeDomainLevel(registry, configurationPersister, deploymentRepo, fileRepository);
+        this.extensionContext = DomainModelUtil.initializeDomainLevel(registry, configurationPersister, deploymentRepo, fileRepository, executor);
         registry.registerSubModel(PathElement.pathElement(HOST, localHostName), localHostProxy.getRegistry());
         registerInternalOperations();
         this.hostModel = localHostProxy.getHostModel();
@@ -143,13 +146,23 @@ public class DomainModelImpl extends BasicTransactionalModelController implement
         return model == null ? DomainModelUtil.createCoreModel() : model;
     }
 
+    private ModelNode cloneModel() {
+        final Lock lock = getModelLock().readLock();
+        lock.lock();
+        try {
+            return super.getModel().clone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public ModelNode getDomainAndHostModel() {
-        return super.getModel().clone();
+        return cloneModel();
     }
 
     @Override
     public ModelNode getDomainModel() {
-        ModelNode model = super.getModel().clone();
+        ModelNode model = cloneModel();
         // trim off the host model
         model.get(HOST).set(new ModelNode());
         return model;
@@ -704,14 +717,23 @@ public class DomainModelImpl extends BasicTransactionalModelController implement
         private void commit() {
 
             final ModelNode model = modelSource.getModel();
-            synchronized (model) {
+            final ReadWriteLock lock = modelSource.getModelLock();
+            lock.writeLock().lock();
+            try {
                 model.set(localModel);
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
             }
-            if (modelUpdated) {
-                DomainModelImpl.this.persistConfiguration(model, injectedConfigPersisterProvider);
-            }
-            if (hostModelUpdated) {
-                DomainModelImpl.this.persistConfiguration(model, hostPersisterProvider);
+            try {
+                if (modelUpdated) {
+                    DomainModelImpl.this.persistConfiguration(model, injectedConfigPersisterProvider);
+                }
+                if (hostModelUpdated) {
+                    DomainModelImpl.this.persistConfiguration(model, hostPersisterProvider);
+                }
+            } finally {
+                lock.readLock().unlock();
             }
         }
 
@@ -728,9 +750,12 @@ public class DomainModelImpl extends BasicTransactionalModelController implement
         public ModelNode getUncommittedModel() {
             ModelNode model = null;
             if (address != null) {
-                model = modelProvider.getModel();
-                synchronized (model) {
-                    model = model.clone();
+                final Lock lock = modelProvider.getModelLock().readLock();
+                lock.lock();
+                try {
+                    model = modelProvider.getModel().clone();
+                } finally {
+                    lock.unlock();
                 }
                 if (isRemove) {
                     address.remove(model);
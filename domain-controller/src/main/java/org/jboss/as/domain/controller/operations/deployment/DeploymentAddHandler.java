@@ -26,12 +26,9 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RUNTIME_NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.START;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Locale;
 
 import org.jboss.as.controller.BasicOperationResult;
-import org.jboss.as.controller.HashUtil;
 import org.jboss.as.controller.ModelAddOperationHandler;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
@@ -43,8 +40,8 @@ import org.jboss.as.controller.operations.common.Util;
 import org.jboss.as.controller.operations.validation.ModelTypeValidator;
 import org.jboss.as.controller.operations.validation.ParametersValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
-import org.jboss.as.protocol.StreamUtils;
 import org.jboss.as.server.controller.descriptions.DeploymentDescription;
+import org.jboss.as.server.deployment.DeploymentHandlerUtil;
 import org.jboss.as.server.deployment.api.DeploymentRepository;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
@@ -95,57 +92,22 @@ public class DeploymentAddHandler implements ModelAddOperationHandler, Descripti
         String name = address.getLastElement().getValue();
         String runtimeName = operation.hasDefined(RUNTIME_NAME) ? operation.get(RUNTIME_NAME).asString() : name;
 
-        byte[] hash;
-        if (operation.hasDefined(INPUT_STREAM_INDEX) && operation.hasDefined(HASH)) {
-            throw new OperationFailedException(new ModelNode().set("Can't pass in both an input-stream-index and a hash"));
-        } else if (operation.hasDefined(INPUT_STREAM_INDEX)) {
-            InputStream in = getContents(context, operation);
-            try {
-                try {
-                    hash = deploymentRepository.addDeploymentContent(name, runtimeName, in);
-                } catch (IOException e) {
-                    throw new OperationFailedException(new ModelNode().set(e.toString()));
-                }
-
-            } finally {
-                StreamUtils.safeClose(in);
-            }
+        byte[] hash = DeploymentHandlerUtil.addDeploymentContent(operation, context, deploymentRepository, name, runtimeName);
+        if (operation.hasDefined(INPUT_STREAM_INDEX)) {
             // TOTAL HACK!!
             // when we push this to slave DCs, we want to push the hash not the stream
             // So, munge the operation :(
             // Very fragile as this will break in the face of any defensive copying by the controller
             operation.remove(INPUT_STREAM_INDEX);
             operation.get(HASH).set(hash);
-        } else if (operation.hasDefined(HASH)){
-            hash = operation.get(HASH).asBytes();
-        } else {
-            throw new OperationFailedException(new ModelNode().set("Neither an attachment nor a hash were passed in"));
         }
 
-        if (deploymentRepository.hasDeploymentContent(hash)) {
-            ModelNode subModel = context.getSubModel();
-            subModel.get(NAME).set(name);
-            subModel.get(RUNTIME_NAME).set(runtimeName);
-            subModel.get(HASH).set(hash);
-        }
-        else {
-            throw new OperationFailedException(new ModelNode().set(String.format("No deployment content with hash %s is available in the deployment content repository.", HashUtil.bytesToHexString(hash))));
-        }
+        ModelNode subModel = context.getSubModel();
+        subModel.get(NAME).set(name);
+        subModel.get(RUNTIME_NAME).set(runtimeName);
+        subModel.get(HASH).set(hash);
 
         resultHandler.handleResultComplete();
         return new BasicOperationResult(Util.getResourceRemoveOperation(operation.get(OP_ADDR)));
     }
-
-    private InputStream getContents(OperationContext context, ModelNode operation) {
-        int streamIndex = operation.get(INPUT_STREAM_INDEX).asInt();
-        if (streamIndex > context.getInputStreams().size() - 1) {
-            throw new IllegalArgumentException("Invalid " + INPUT_STREAM_INDEX + "=" + streamIndex + ", the maximum index is " + (context.getInputStreams().size() - 1));
-        }
-
-        InputStream in = context.getInputStreams().get(streamIndex);
-        if (in == null) {
-            throw new IllegalStateException("Null stream at index " + streamIndex);
-        }
-        return in;
-    }
 }
@@ -4,25 +4,31 @@ package org.jboss.as.domain.http.server;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
 
 import org.jboss.as.controller.ModelController;
 import org.jboss.as.controller.client.OperationBuilder;
 import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
 import org.jboss.logging.Logger;
 
 import com.sun.net.httpserver.Headers;
@@ -39,6 +45,9 @@ public class DomainHttpServer implements HttpHandler {
 
     private static final String DOMAIN_API_CONTEXT = "/domain-api";
     private static final Logger log = Logger.getLogger("org.jboss.as.domain.http.api");
+    private static final int BUFFER_SIZE = 8192;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
 
 
     /**
@@ -72,6 +81,15 @@ public class DomainHttpServer implements HttpHandler {
 
     @Override
     public void handle(HttpExchange http) throws IOException {
+        try {
+            handleRequest(http);
+        } finally {
+            // Completes the exchange even if no body was written, so the connection can be reused
+            http.close();
+        }
+    }
+
+    private void handleRequest(HttpExchange http) throws IOException {
         URI request = http.getRequestURI();
 
         String requestMethod = http.getRequestMethod();
@@ -104,34 +122,156 @@ public class DomainHttpServer implements HttpHandler {
         }
 
         boolean pretty = dmr.hasDefined("json.pretty") && dmr.get("json.pretty").asBoolean();
-
-        Headers responseHeaders = http.getResponseHeaders();
-        responseHeaders.add("Content-Type", encode ? "application/dmr-encoded" : "application/json");
-        responseHeaders.add("Access-Control-Allow-Origin", "*");
-        http.sendResponseHeaders(status, 0);
-
-        OutputStream out = http.getResponseBody();
-        PrintWriter print = new PrintWriter(out);
+        boolean gzip = acceptsGzip(requestHeaders);
 
         // GET (read) operations will never have a compensating update, and the status is already
         // available via the http response status code, so unwrap them.
         if (isGet && status == 200)
             response = response.get("result");
 
+        Headers responseHeaders = http.getResponseHeaders();
+        responseHeaders.add("Content-Type", encode ? "application/dmr-encoded" : "application/json");
+        responseHeaders.add("Access-Control-Allow-Origin", "*");
+        responseHeaders.add("Vary", "Accept, Accept-Encoding");
+
+        if (isGet && status == 200) {
+            // Let clients polling the same resource skip the transfer if the result did not change
+            String etag = createETag(response, encode, pretty, gzip);
+            responseHeaders.add("ETag", etag);
+            responseHeaders.add("Cache-Control", "no-cache");
+            if (matches(requestHeaders.getFirst("If-None-Match"), etag)) {
+                http.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+
+        if (gzip) {
+            responseHeaders.add("Content-Encoding", "gzip");
+        }
+        http.sendResponseHeaders(status, 0);
+
+        OutputStream out = new BufferedOutputStream(http.getResponseBody(), BUFFER_SIZE);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
         try {
             if (encode) {
                 response.writeBase64(out);
             } else {
-                response.writeJSONString(print, !pretty);
+                Writer writer = new OutputStreamWriter(out, "UTF-8");
+                new JsonModelWriter(writer, !pretty).write(response);
+                writer.flush();
             }
+            out.close();
         } finally {
-            print.flush();
-            out.flush();
-            safeClose(print);
             safeClose(out);
         }
     }
 
+    private boolean acceptsGzip(Headers requestHeaders) {
+        List<String> values = requestHeaders.get("Accept-Encoding");
+        if (values != null) {
+            for (String value : values) {
+                for (String coding : value.split(",")) {
+                    int q = coding.indexOf(';');
+                    String name = (q == -1 ? coding : coding.substring(0, q)).trim();
+                    if ("gzip".equalsIgnoreCase(name)) {
+                        return q == -1 || !coding.substring(q + 1).trim().matches("q=0(\\.0*)?");
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates an entity tag from a 64 bit hash of the response. The hash is computed by walking the response rather
+     * than serializing it. Each representation of the response gets its own tag.
+     */
+    private String createETag(ModelNode response, boolean encode, boolean pretty, boolean gzip) {
+        StringBuilder builder = new StringBuilder(48).append('"').append(Long.toHexString(hash(FNV_OFFSET_BASIS, response)));
+        builder.append(encode ? "-dmr" : pretty ? "-json-pretty" : "-json");
+        if (gzip) {
+            builder.append("-gzip");
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Adds a node to a 64 bit FNV-1a hash. The type of each node, and the length of each string, are included, so
+     * that different models do not run together into the same sequence of values.
+     */
+    private static long hash(long hash, ModelNode node) {
+        ModelType type = node.getType();
+        hash = mix(hash, type.ordinal());
+        switch (type) {
+            case OBJECT:
+                for (String key : node.keys()) {
+                    hash = mix(hash, key);
+                    hash = hash(hash, node.get(key));
+                }
+                break;
+            case LIST:
+                for (ModelNode element : node.asList()) {
+                    hash = hash(hash, element);
+                }
+                break;
+            case PROPERTY:
+                Property property = node.asProperty();
+                hash = mix(hash, property.getName());
+                hash = hash(hash, property.getValue());
+                break;
+            case BOOLEAN:
+                hash = mix(hash, node.asBoolean() ? 1 : 0);
+                break;
+            case INT:
+            case LONG:
+                hash = mix(hash, node.asLong());
+                break;
+            case DOUBLE:
+                hash = mix(hash, Double.doubleToLongBits(node.asDouble()));
+                break;
+            case BYTES:
+                byte[] bytes = node.asBytes();
+                hash = mix(hash, bytes.length);
+                for (byte b : bytes) {
+                    hash = mix(hash, b);
+                }
+                break;
+            case UNDEFINED:
+                break;
+            default:
+                // STRING, EXPRESSION, BIG_DECIMAL, BIG_INTEGER and TYPE
+                hash = mix(hash, node.asString());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String string) {
+        int length = string.length();
+        hash = mix(hash, length);
+        for (int i = 0; i < length; i++) {
+            hash = mix(hash, string.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null)
+            return false;
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals(etag) || candidate.equals("*"))
+                return true;
+        }
+        return false;
+    }
+
     private void safeClose(Closeable close) {
         try {
             close.close();
@@ -201,8 +341,11 @@ public class DomainHttpServer implements HttpHandler {
     }
 
     private String unescape(String string) {
+        // Most segments and parameters contain nothing to decode
+        if (string.indexOf('%') == -1 && string.indexOf('+') == -1)
+            return string;
+
         try {
-            // URLDecoder could be way more efficient, replace it one day
             return URLDecoder.decode(string, "utf-8");
         } catch (UnsupportedEncodingException e) {
             throw new IllegalStateException(e);
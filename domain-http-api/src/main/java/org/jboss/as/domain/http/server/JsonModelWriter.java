@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+
+/**
+ * Writes a {@link ModelNode} as JSON while walking it, so large responses are never held as a single string.
+ * <p>
+ * Objects, lists and properties are written by this class; other values are written in the form used by
+ * {@link ModelNode#toJSONString(boolean)}, so the output can be read back with {@link ModelNode#fromJSONString(String)}.
+ * </p>
+ */
+final class JsonModelWriter {
+
+    private static final String INDENT = "    ";
+
+    private final Writer writer;
+    private final boolean compact;
+
+    /**
+     * Create a new instance.
+     *
+     * @param writer the writer to write to. Should be buffered
+     * @param compact {@code true} to write everything on one line, {@code false} to indent nested values
+     */
+    JsonModelWriter(final Writer writer, final boolean compact) {
+        this.writer = writer;
+        this.compact = compact;
+    }
+
+    /**
+     * Writes the given node.
+     *
+     * @param node the node
+     * @throws IOException if writing fails
+     */
+    void write(final ModelNode node) throws IOException {
+        write(node, 0);
+    }
+
+    private void write(final ModelNode node, final int depth) throws IOException {
+        final ModelType type = node.getType();
+        switch (type) {
+            case OBJECT: {
+                writer.write('{');
+                boolean first = true;
+                for (String key : node.keys()) {
+                    first = separate(first, depth + 1);
+                    writeString(key);
+                    writer.write(" : ");
+                    write(node.get(key), depth + 1);
+                }
+                end('}', first, depth);
+                break;
+            }
+            case LIST: {
+                writer.write('[');
+                boolean first = true;
+                for (ModelNode element : node.asList()) {
+                    first = separate(first, depth + 1);
+                    write(element, depth + 1);
+                }
+                end(']', first, depth);
+                break;
+            }
+            case PROPERTY: {
+                final Property property = node.asProperty();
+                writer.write('{');
+                separate(true, depth + 1);
+                writeString(property.getName());
+                writer.write(" : ");
+                write(property.getValue(), depth + 1);
+                end('}', false, depth);
+                break;
+            }
+            case STRING: {
+                writeString(node.asString());
+                break;
+            }
+            default: {
+                writer.write(node.toJSONString(true));
+            }
+        }
+    }
+
+    private boolean separate(final boolean first, final int depth) throws IOException {
+        if (!first) {
+            writer.write(',');
+        }
+        newLine(depth);
+        return false;
+    }
+
+    private void end(final char c, final boolean empty, final int depth) throws IOException {
+        if (!empty) {
+            newLine(depth);
+        }
+        writer.write(c);
+    }
+
+    private void newLine(final int depth) throws IOException {
+        if (!compact) {
+            writer.write('\n');
+            for (int i = 0; i < depth; i++) {
+                writer.write(INDENT);
+            }
+        }
+    }
+
+    private void writeString(final String string) throws IOException {
+        writer.write('"');
+        final int length = string.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = string.charAt(i);
+            final String escape;
+            switch (c) {
+                case '"': escape = "\\\""; break;
+                case '\\': escape = "\\\\"; break;
+                case '\b': escape = "\\b"; break;
+                case '\f': escape = "\\f"; break;
+                case '\n': escape = "\\n"; break;
+                case '\r': escape = "\\r"; break;
+                case '\t': escape = "\\t"; break;
+                default: {
+                    if (c >= 0x20) {
+                        continue;
+                    }
+                    escape = String.format("\\u%04x", Integer.valueOf(c));
+                }
+            }
+            writer.write(string, start, i - start);
+            writer.write(escape);
+            start = i + 1;
+        }
+        writer.write(string, start, length - start);
+        writer.write('"');
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.junit.Test;
+
+/**
+ * Tests that the output of {@link JsonModelWriter} reads back to the same model as {@link ModelNode#toJSONString(boolean)}.
+ */
+public class JsonModelWriterTestCase {
+
+    private static final String QUOTED = "quote \" backslash \\";
+    private static final String ESCAPES = "quote \" backslash \\ slash / controls \b\f\n\r\t \u0001\u001f unicode \u00e9\u4e2d";
+    private static final byte[] BYTES = new byte[] {0, 1, 2, (byte) 0x7f, (byte) 0x80, (byte) 0xff};
+
+    @Test
+    public void testCompactRoundTrip() throws Exception {
+        assertRoundTrip(createModel(), true);
+    }
+
+    @Test
+    public void testPrettyRoundTrip() throws Exception {
+        assertRoundTrip(createModel(), false);
+    }
+
+    @Test
+    public void testEscapes() throws Exception {
+        final ModelNode node = new ModelNode();
+        node.get(ESCAPES).set(ESCAPES);
+        node.get("list").add(ESCAPES);
+        for (boolean compact : new boolean[] {true, false}) {
+            final ModelNode read = ModelNode.fromJSONString(write(node, compact));
+            assertEquals(ESCAPES, read.get(ESCAPES).asString());
+            assertEquals(ESCAPES, read.get("list").get(0).asString());
+        }
+    }
+
+    @Test
+    public void testExpression() throws Exception {
+        final ModelNode node = new ModelNode();
+        node.get("expression").setExpression("${jboss.home.dir:/opt/jboss}");
+        final ModelNode read = ModelNode.fromJSONString(write(node, true));
+        assertEquals(ModelType.EXPRESSION, read.get("expression").getType());
+        assertEquals("${jboss.home.dir:/opt/jboss}", read.get("expression").asString());
+    }
+
+    @Test
+    public void testBytes() throws Exception {
+        final ModelNode node = new ModelNode();
+        node.get("bytes").set(BYTES);
+        final ModelNode read = ModelNode.fromJSONString(write(node, false));
+        assertEquals(ModelType.BYTES, read.get("bytes").getType());
+        assertArrayEquals(BYTES, read.get("bytes").asBytes());
+    }
+
+    @Test
+    public void testProperties() throws Exception {
+        final ModelNode node = new ModelNode();
+        node.get("property").set("name", new ModelNode().set(QUOTED));
+        node.get("properties").add("first", 1);
+        node.get("properties").add("second", new ModelNode().set("nested", true));
+        assertRoundTrip(node, true);
+        assertRoundTrip(node, false);
+    }
+
+    @Test
+    public void testEmptyContainers() throws Exception {
+        final ModelNode node = new ModelNode();
+        node.get("object").setEmptyObject();
+        node.get("list").setEmptyList();
+        node.get("undefined");
+        assertRoundTrip(node, true);
+        assertRoundTrip(node, false);
+        assertRoundTrip(new ModelNode(), true);
+    }
+
+    private static ModelNode createModel() {
+        final ModelNode node = new ModelNode();
+        node.get("string").set(QUOTED);
+        node.get("int").set(Integer.MIN_VALUE);
+        node.get("long").set(Long.MAX_VALUE);
+        node.get("double").set(1.5d);
+        node.get("boolean").set(true);
+        node.get("big-decimal").set(new BigDecimal("12345678901234567890.123456789"));
+        node.get("big-integer").set(new BigInteger("-123456789012345678901234567890"));
+        node.get("type").set(ModelType.LIST);
+        node.get("expression").setExpression("${foo}");
+        node.get("bytes").set(BYTES);
+        node.get("property").set("key", "value");
+        node.get("undefined");
+        node.get("list").add(1).add("two").add(new ModelNode().set("three", 3)).add(new ModelNode().setEmptyList());
+        node.get("object", "nested", "deeper").set(QUOTED);
+        node.get("object", QUOTED).set(false);
+        return node;
+    }
+
+    private static void assertRoundTrip(final ModelNode node, final boolean compact) throws IOException {
+        final ModelNode expected = ModelNode.fromJSONString(node.toJSONString(compact));
+        assertEquals(expected, ModelNode.fromJSONString(write(node, compact)));
+    }
+
+    private static String write(final ModelNode node, final boolean compact) throws IOException {
+        final StringWriter writer = new StringWriter();
+        new JsonModelWriter(writer, compact).write(node);
+        return writer.toString();
+    }
+}
@@ -35,6 +35,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +76,8 @@ public abstract class AbstractComponent implements Component {
     private final List<ComponentInjector> componentInjectors;
     private final Interceptor componentInterceptor;
     private final Map<Method, InterceptorFactory> interceptorFactoryMap;
+    private final Map<Method, Integer> methodIndexes;
+    private final InterceptorFactory[] methodInterceptorFactories;
     private final InjectedValue<NamespaceContextSelector> namespaceContextSelectorInjector = new InjectedValue<NamespaceContextSelector>();
 
     private volatile boolean gate;
@@ -93,6 +96,15 @@ public abstract class AbstractComponent implements Component {
         preDestroyInterceptorsMethods = configuration.getPreDestroyInterceptorLifecycles();
         componentInterceptor = configuration.getComponentInterceptor();
         interceptorFactoryMap = configuration.getInterceptorFactoryMap();
+        // number the view methods once, so each instance can keep its method interceptors in an array
+        final Map<Method, Integer> methodIndexes = new IdentityHashMap<Method, Integer>(interceptorFactoryMap.size());
+        methodInterceptorFactories = new InterceptorFactory[interceptorFactoryMap.size()];
+        for (Map.Entry<Method, InterceptorFactory> entry : interceptorFactoryMap.entrySet()) {
+            final int index = methodIndexes.size();
+            methodIndexes.put(entry.getKey(), Integer.valueOf(index));
+            methodInterceptorFactories[index] = entry.getValue();
+        }
+        this.methodIndexes = methodIndexes;
         this.componentInjectors = configuration.getComponentInjectors();
     }
 
@@ -327,6 +339,36 @@ public abstract class AbstractComponent implements Component {
         return interceptorFactoryMap;
     }
 
+    /**
+     * Get the number of view methods of this component.
+     *
+     * @return the number of view methods
+     */
+    int getMethodCount() {
+        return methodInterceptorFactories.length;
+    }
+
+    /**
+     * Get the index assigned to a view method when this component was constructed.
+     *
+     * @param method the view method
+     * @return the index, or {@code -1} if the method is not a view method of this component
+     */
+    int getMethodIndex(final Method method) {
+        final Integer index = methodIndexes.get(method);
+        return index == null ? -1 : index.intValue();
+    }
+
+    /**
+     * Get the factory for the per-instance interceptor chain of the view method with the given index.
+     *
+     * @param index the method index
+     * @return the interceptor factory
+     */
+    InterceptorFactory getMethodInterceptorFactory(final int index) {
+        return methodInterceptorFactories[index];
+    }
+
     /**
      * {@inheritDoc}
      */
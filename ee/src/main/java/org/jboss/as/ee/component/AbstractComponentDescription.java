@@ -528,8 +528,20 @@ public abstract class AbstractComponentDescription extends AbstractInjectableDes
 
     private static final AtomicInteger seq = new AtomicInteger();
 
+    private static final String PROXY_NAME_INFIX = "$$ee$proxy";
+
+    /**
+     * Determine whether a class is the proxy class of a component view.
+     *
+     * @param clazz the class
+     * @return {@code true} if instances of the class are component view proxies
+     */
+    public static boolean isViewProxyClass(Class<?> clazz) {
+        return clazz.getName().contains(PROXY_NAME_INFIX);
+    }
+
     private static <T> ProxyFactory<?> getProxyFactory(Class<T> type) {
-        String proxyName = type.getName() + "$$ee$proxy" + seq.getAndIncrement();
+        String proxyName = type.getName() + PROXY_NAME_INFIX + seq.getAndIncrement();
         if (type.isInterface()) {
             return new ProxyFactory<Object>(proxyName, Object.class, type.getClassLoader(), type);
         } else {
@@ -23,13 +23,10 @@
 package org.jboss.as.ee.component;
 
 import org.jboss.invocation.Interceptor;
-import org.jboss.invocation.InterceptorFactory;
 import org.jboss.invocation.InterceptorFactoryContext;
 
 import java.lang.reflect.Method;
-import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * An abstract base component instance.
@@ -45,10 +42,11 @@ public abstract class AbstractComponentInstance implements ComponentInstance {
     private final List<Interceptor> preDestroyInterceptors;
 
     /**
-     * This is an identity map.  This means that only <b>certain</b> {@code Method} objects will
-     * match - specifically, they must equal the objects provided to the proxy.
+     * The interceptor chain of each view method, indexed by {@link AbstractComponent#getMethodIndex(Method)}.  All
+     * chains are created with the instance, as interceptor factories may create interceptor instances whose
+     * construction must not be deferred to an arbitrary invocation.
      */
-    private final Map<Method, Interceptor> methodMap;
+    private final Interceptor[] methodInterceptors;
 
     /**
      * Construct a new instance.
@@ -60,13 +58,12 @@ public abstract class AbstractComponentInstance implements ComponentInstance {
         this.component = component;
         this.instance = instance;
         this.preDestroyInterceptors = preDestroyInterceptors;
-        final Map<Method, InterceptorFactory> factoryMap = component.getInterceptorFactoryMap();
-        final Map<Method, Interceptor> methodMap = new IdentityHashMap<Method, Interceptor>(factoryMap.size());
         factoryContext.getContextData().put(AbstractComponent.INSTANCE_KEY, instance);
-        for (Map.Entry<Method, InterceptorFactory> entry : factoryMap.entrySet()) {
-            methodMap.put(entry.getKey(), entry.getValue().create(factoryContext));
+        final Interceptor[] methodInterceptors = new Interceptor[component.getMethodCount()];
+        for (int i = 0; i < methodInterceptors.length; i++) {
+            methodInterceptors[i] = component.getMethodInterceptorFactory(i).create(factoryContext);
         }
-        this.methodMap = methodMap;
+        this.methodInterceptors = methodInterceptors;
     }
 
     /** {@inheritDoc} */
@@ -86,11 +83,11 @@ public abstract class AbstractComponentInstance implements ComponentInstance {
 
     /** {@inheritDoc} */
     public Interceptor getInterceptor(final Method method) throws IllegalStateException {
-        Interceptor interceptor = methodMap.get(method);
-        if (interceptor == null) {
+        final int index = component.getMethodIndex(method);
+        if (index < 0) {
             throw new IllegalStateException("Method does not exist");
         }
-        return interceptor;
+        return methodInterceptors[index];
     }
 
 }
@@ -24,6 +24,7 @@ package org.jboss.as.ee.component;
 
 import org.jboss.as.naming.ManagedReference;
 import org.jboss.as.naming.ManagedReferenceFactory;
+import org.jboss.invocation.Interceptor;
 import org.jboss.invocation.Interceptors;
 import org.jboss.invocation.proxy.ProxyFactory;
 
@@ -38,6 +39,7 @@ public class ComponentView implements ManagedReferenceFactory {
     private final Class<?> viewClass;
     private final ProxyFactory<?> proxyFactory;
     private final AbstractComponent component;
+    private final Interceptor componentInterceptor;
 
     /**
      * Construct a new instance.
@@ -50,6 +52,7 @@ public class ComponentView implements ManagedReferenceFactory {
         this.viewClass = viewClass;
         this.proxyFactory = proxyFactory;
         this.component = component;
+        componentInterceptor = component.getComponentInterceptor();
     }
 
     @Override
@@ -63,7 +66,7 @@ public class ComponentView implements ManagedReferenceFactory {
             @Override
             public Object getInstance() {
                 try {
-                    return viewClass.cast(proxyFactory.newInstance(new ProxyInvocationHandler(Interceptors.getChainedInterceptor(component.createClientInterceptor(viewClass), component.getComponentInterceptor()))));
+                    return viewClass.cast(proxyFactory.newInstance(new ProxyInvocationHandler(Interceptors.getChainedInterceptor(component.createClientInterceptor(viewClass), componentInterceptor))));
                 } catch (InstantiationException e) {
                     throw new InstantiationError(e.getMessage());
                 } catch (IllegalAccessException e) {
@@ -24,9 +24,6 @@ package org.jboss.as.ee.component;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.IdentityHashMap;
-import java.util.Map;
 import org.jboss.invocation.Interceptor;
 import org.jboss.invocation.InterceptorContext;
 import org.jboss.invocation.InterceptorFactory;
@@ -40,7 +37,7 @@ import org.jboss.invocation.SimpleInterceptorFactoryContext;
 public final class ProxyInvocationHandler implements InvocationHandler {
 
     private final Interceptor interceptor;
-    private volatile Map<Class<?>, Object> initialPrivateData = Collections.emptyMap();
+    private volatile PrivateData initialPrivateData = PrivateData.EMPTY;
 
     /**
      * Construct a new instance.
@@ -65,11 +62,11 @@ public final class ProxyInvocationHandler implements InvocationHandler {
     public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
         final InterceptorContext context = new InterceptorContext();
         // snapshot
-        final Map<Class<?>, Object> privateData = initialPrivateData;
-        for (Map.Entry<Class<?>, Object> entry : privateData.entrySet()) {
-            final Class<?> key = entry.getKey();
-            Object value = entry.getValue();
-            putPrivate(context, key, value);
+        final PrivateData privateData = initialPrivateData;
+        final Class<?>[] keys = privateData.keys;
+        final Object[] values = privateData.values;
+        for (int i = 0; i < keys.length; i++) {
+            putPrivate(context, keys[i], values[i]);
         }
         // special location for original proxy
         context.putPrivateData(Object.class, proxy);
@@ -91,16 +88,17 @@ public final class ProxyInvocationHandler implements InvocationHandler {
             throw new IllegalArgumentException("key is null");
         }
         synchronized (this) {
-            final Map<Class<?>, Object> newMap = new IdentityHashMap<Class<?>, Object>(initialPrivateData);
-            if (value == null) try {
-                return key.cast(newMap.remove(key));
-            } finally {
-                initialPrivateData = newMap;
-            } else try {
-                return key.cast(newMap.put(key, value));
-            } finally {
-                initialPrivateData = newMap;
+            final PrivateData privateData = initialPrivateData;
+            final int index = privateData.indexOf(key);
+            if (index < 0) {
+                if (value != null) {
+                    initialPrivateData = privateData.add(key, value);
+                }
+                return null;
             }
+            final T old = key.cast(privateData.values[index]);
+            initialPrivateData = value == null ? privateData.remove(index) : privateData.replace(index, value);
+            return old;
         }
     }
 
@@ -112,10 +110,65 @@ public final class ProxyInvocationHandler implements InvocationHandler {
      * @return the value
      */
     public <T> T getPrivateData(Class<T> key) {
-        return key.cast(initialPrivateData.get(key));
+        final PrivateData privateData = initialPrivateData;
+        final int index = privateData.indexOf(key);
+        return index < 0 ? null : key.cast(privateData.values[index]);
     }
 
     private static <T> void putPrivate(final InterceptorContext context, final Class<T> key, final Object value) {
         context.putPrivateData(key, key.cast(value));
     }
+
+    /**
+     * An immutable snapshot of the initial private data, held as arrays so that each invocation can copy it into its
+     * context without allocating an iterator or map entries.
+     */
+    private static final class PrivateData {
+        static final PrivateData EMPTY = new PrivateData(new Class<?>[0], new Object[0]);
+
+        private final Class<?>[] keys;
+        private final Object[] values;
+
+        private PrivateData(final Class<?>[] keys, final Object[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        int indexOf(final Class<?> key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        PrivateData add(final Class<?> key, final Object value) {
+            final int length = keys.length;
+            final Class<?>[] newKeys = new Class<?>[length + 1];
+            final Object[] newValues = new Object[length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, length);
+            System.arraycopy(values, 0, newValues, 0, length);
+            newKeys[length] = key;
+            newValues[length] = value;
+            return new PrivateData(newKeys, newValues);
+        }
+
+        PrivateData replace(final int index, final Object value) {
+            final Object[] newValues = values.clone();
+            newValues[index] = value;
+            return new PrivateData(keys, newValues);
+        }
+
+        PrivateData remove(final int index) {
+            final int length = keys.length;
+            final Class<?>[] newKeys = new Class<?>[length - 1];
+            final Object[] newValues = new Object[length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(values, 0, newValues, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, length - index - 1);
+            System.arraycopy(values, index + 1, newValues, index, length - index - 1);
+            return new PrivateData(newKeys, newValues);
+        }
+    }
 }
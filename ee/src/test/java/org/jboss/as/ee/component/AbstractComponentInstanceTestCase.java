@@ -0,0 +1,199 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ee.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.invocation.InterceptorFactory;
+import org.jboss.invocation.InterceptorFactoryContext;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the per-instance interceptor chains of {@link AbstractComponentInstance}.
+ */
+public class AbstractComponentInstanceTestCase {
+
+    private Method size;
+    private Method isEmpty;
+    private Method clear;
+
+    @Before
+    public void setUp() throws Exception {
+        size = ArrayList.class.getMethod("size");
+        isEmpty = ArrayList.class.getMethod("isEmpty");
+        clear = ArrayList.class.getMethod("clear");
+    }
+
+    @Test
+    public void testChainsAreCreatedWithInstance() {
+        final CountingFactory sizeFactory = new CountingFactory();
+        final CountingFactory isEmptyFactory = new CountingFactory();
+        final TestConfiguration configuration = new TestConfiguration();
+        configuration.getInterceptorFactoryMap().put(size, sizeFactory);
+        configuration.getInterceptorFactoryMap().put(isEmpty, isEmptyFactory);
+        final TestComponent component = new TestComponent(configuration);
+        component.start();
+
+        final ComponentInstance instance = component.createInstance();
+        // before any method is invoked
+        assertEquals(1, sizeFactory.created.size());
+        assertEquals(1, isEmptyFactory.created.size());
+
+        assertSame(sizeFactory.created.get(0), instance.getInterceptor(size));
+        assertSame(sizeFactory.created.get(0), instance.getInterceptor(size));
+        assertSame(isEmptyFactory.created.get(0), instance.getInterceptor(isEmpty));
+        assertEquals(1, sizeFactory.created.size());
+
+        final ComponentInstance other = component.createInstance();
+        assertEquals(2, sizeFactory.created.size());
+        assertSame(sizeFactory.created.get(1), other.getInterceptor(size));
+        assertNotSame(instance.getInterceptor(size), other.getInterceptor(size));
+    }
+
+    @Test
+    public void testInterceptorSharedBetweenMethods() {
+        final SharedFactory shared = new SharedFactory();
+        final TestConfiguration configuration = new TestConfiguration();
+        configuration.getInterceptorFactoryMap().put(size, shared);
+        configuration.getInterceptorFactoryMap().put(isEmpty, shared);
+        configuration.getInterceptorFactoryMap().put(clear, shared);
+        final TestComponent component = new TestComponent(configuration);
+        component.start();
+
+        final ComponentInstance instance = component.createInstance();
+        assertEquals(1, shared.created);
+        assertSame(instance.getInterceptor(size), instance.getInterceptor(isEmpty));
+        assertSame(instance.getInterceptor(size), instance.getInterceptor(clear));
+
+        component.createInstance();
+        assertEquals(2, shared.created);
+    }
+
+    @Test
+    public void testFactoriesSeeInstance() {
+        final CountingFactory factory = new CountingFactory();
+        final TestConfiguration configuration = new TestConfiguration();
+        configuration.getInterceptorFactoryMap().put(size, factory);
+        final TestComponent component = new TestComponent(configuration);
+        component.start();
+
+        final ComponentInstance instance = component.createInstance();
+        assertSame(instance.getInstance(), factory.instances.get(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnknownMethod() {
+        final TestConfiguration configuration = new TestConfiguration();
+        configuration.getInterceptorFactoryMap().put(size, new CountingFactory());
+        final TestComponent component = new TestComponent(configuration);
+        component.start();
+
+        component.createInstance().getInterceptor(clear);
+    }
+
+    private static final class TestDescription extends AbstractComponentDescription {
+        private TestDescription() {
+            super("test", ArrayList.class.getName(), "module", "application");
+        }
+
+        protected AbstractComponentConfiguration constructComponentConfiguration() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class TestConfiguration extends AbstractComponentConfiguration {
+        private TestConfiguration() {
+            super(new TestDescription());
+            setComponentClass(ArrayList.class);
+        }
+
+        public AbstractComponent constructComponent() {
+            return new TestComponent(this);
+        }
+    }
+
+    private static final class TestComponent extends AbstractComponent {
+        private TestComponent(final AbstractComponentConfiguration configuration) {
+            super(configuration);
+        }
+
+        protected AbstractComponentInstance constructComponentInstance(final Object instance, final List<Interceptor> preDestroyInterceptors, final InterceptorFactoryContext context) {
+            return new AbstractComponentInstance(this, instance, preDestroyInterceptors, context) {
+                private static final long serialVersionUID = 1L;
+            };
+        }
+
+        public Interceptor createClientInterceptor(final Class<?> view) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Records every interceptor it creates, and the component instance it was created for.
+     */
+    private static final class CountingFactory implements InterceptorFactory {
+        private final List<Interceptor> created = new ArrayList<Interceptor>();
+        private final List<Object> instances = new ArrayList<Object>();
+
+        public Interceptor create(final InterceptorFactoryContext context) {
+            final Interceptor interceptor = new PassingInterceptor();
+            created.add(interceptor);
+            instances.add(context.getContextData().get(AbstractComponent.INSTANCE_KEY));
+            return interceptor;
+        }
+    }
+
+    /**
+     * Creates one interceptor per factory context, as the factories of interceptor instances shared by the methods of
+     * a component instance do.
+     */
+    private static final class SharedFactory implements InterceptorFactory {
+        private final Object key = new Object();
+        private int created;
+
+        public Interceptor create(final InterceptorFactoryContext context) {
+            Interceptor interceptor = (Interceptor) context.getContextData().get(key);
+            if (interceptor == null) {
+                interceptor = new PassingInterceptor();
+                context.getContextData().put(key, interceptor);
+                created++;
+            }
+            return interceptor;
+        }
+    }
+
+    private static final class PassingInterceptor implements Interceptor {
+        public Object processInvocation(final InterceptorContext context) throws Exception {
+            return context.proceed();
+        }
+    }
+}
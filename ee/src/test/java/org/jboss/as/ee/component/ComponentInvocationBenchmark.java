@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ee.component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.invocation.InterceptorFactory;
+import org.jboss.invocation.InterceptorFactoryContext;
+import org.jboss.invocation.Interceptors;
+import org.jboss.logging.Logger;
+
+/**
+ * Measures the bytes allocated on the invoking thread to create a component instance and invoke it through a view,
+ * and to dispatch a call through a {@link ProxyInvocationHandler}.
+ * <p>
+ * The component has one view method per public method of {@link ArrayList}, each with a two interceptor chain.
+ * </p>
+ * <p>
+ * This is not a unit test; run it manually with the test classpath on a HotSpot JVM:
+ * {@code java org.jboss.as.ee.component.ComponentInvocationBenchmark [iterations]}
+ * </p>
+ */
+public class ComponentInvocationBenchmark {
+
+    private static final Logger log = Logger.getLogger(ComponentInvocationBenchmark.class);
+
+    private static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(final String[] args) throws Throwable {
+        final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+        final List<Method> methods = Arrays.asList(ArrayList.class.getMethods());
+        final BenchmarkComponent component = new BenchmarkComponent(new BenchmarkConfiguration(methods));
+        component.start();
+        final Method method = ArrayList.class.getMethod("size");
+
+        // warm up
+        createInstances(component, method, iterations);
+        invoke(method, iterations);
+
+        log.infof("%d view methods, %d iterations", methods.size(), iterations);
+        log.infof("new instance: %d bytes", createInstances(component, method, iterations));
+        log.infof("proxy invocation: %d bytes", invoke(method, iterations));
+    }
+
+    private static long createInstances(final BenchmarkComponent component, final Method method, final int iterations) {
+        final long id = Thread.currentThread().getId();
+        final long start = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < iterations; i++) {
+            component.createInstance().getInterceptor(method);
+        }
+        return (threads.getThreadAllocatedBytes(id) - start) / iterations;
+    }
+
+    private static long invoke(final Method method, final int iterations) throws Throwable {
+        final ProxyInvocationHandler handler = new ProxyInvocationHandler(new Interceptor() {
+            public Object processInvocation(final InterceptorContext context) throws Exception {
+                return context.getPrivateData(String.class);
+            }
+        });
+        handler.putPrivateData(String.class, "value");
+        handler.putPrivateData(Integer.class, Integer.valueOf(1));
+        final Object proxy = new Object();
+        final long id = Thread.currentThread().getId();
+        final long start = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < iterations; i++) {
+            handler.invoke(proxy, method, null);
+        }
+        return (threads.getThreadAllocatedBytes(id) - start) / iterations;
+    }
+
+    private static final class BenchmarkDescription extends AbstractComponentDescription {
+        private BenchmarkDescription() {
+            super("benchmark", ArrayList.class.getName(), "module", "application");
+        }
+
+        protected AbstractComponentConfiguration constructComponentConfiguration() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class BenchmarkConfiguration extends AbstractComponentConfiguration {
+        private BenchmarkConfiguration(final List<Method> methods) {
+            super(new BenchmarkDescription());
+            setComponentClass(ArrayList.class);
+            final Map<Method, InterceptorFactory> factories = getInterceptorFactoryMap();
+            for (Method method : methods) {
+                factories.put(method, Interceptors.getChainedInterceptorFactory(new PassingInterceptorFactory(), new PassingInterceptorFactory()));
+            }
+        }
+
+        public AbstractComponent constructComponent() {
+            return new BenchmarkComponent(this);
+        }
+    }
+
+    private static final class BenchmarkComponent extends AbstractComponent {
+        private BenchmarkComponent(final AbstractComponentConfiguration configuration) {
+            super(configuration);
+        }
+
+        protected AbstractComponentInstance constructComponentInstance(final Object instance, final List<Interceptor> preDestroyInterceptors, final InterceptorFactoryContext context) {
+            return new AbstractComponentInstance(this, instance, preDestroyInterceptors, context) {
+                private static final long serialVersionUID = 1L;
+            };
+        }
+
+        public Interceptor createClientInterceptor(final Class<?> view) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class PassingInterceptorFactory implements InterceptorFactory {
+        public Interceptor create(final InterceptorFactoryContext context) {
+            return new Interceptor() {
+                public Object processInvocation(final InterceptorContext context) throws Exception {
+                    return context.proceed();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3;
+
+interface CommonAttributes {
+
+    String CACHE_ACTIVE_COUNT = "cache-active-count";
+    String CACHE_HIT_COUNT = "cache-hit-count";
+    String CACHE_IDLE_TIMEOUT = "cache-idle-timeout";
+    String CACHE_MISS_COUNT = "cache-miss-count";
+    String CACHE_PASSIVATION_ENABLED = "cache-passivation-enabled";
+    String CACHE_PASSIVATED_COUNT = "cache-passivated-count";
+    String CACHE_PASSIVATION_COUNT = "cache-passivation-count";
+    String CACHE_TIMEOUT_COUNT = "cache-timeout-count";
+    String MAX_CACHE_SIZE = "max-cache-size";
+    String MAX_POOL_SIZE = "max-pool-size";
+    String POOL_AVAILABLE_COUNT = "pool-available-count";
+    String POOL_CREATE_COUNT = "pool-create-count";
+    String POOL_HIT_COUNT = "pool-hit-count";
+    String POOL_MISS_COUNT = "pool-miss-count";
+    String POOL_REMOVE_COUNT = "pool-remove-count";
+    String POOL_TIMEOUT = "pool-timeout";
+    String POOL_TIMEOUT_COUNT = "pool-timeout-count";
+    String POOL_TYPE = "pool-type";
+    String POOL_WAIT_COUNT = "pool-wait-count";
+}
@@ -0,0 +1,94 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelQueryOperationHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.RuntimeTask;
+import org.jboss.as.controller.RuntimeTaskContext;
+import org.jboss.as.ejb3.cache.CacheRegistry;
+import org.jboss.as.ejb3.cache.PassivatingCache;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reports the statistics of the stateful session bean caches, summed over all deployed beans.
+ */
+class EJB3CacheMetrics implements ModelQueryOperationHandler {
+
+    static final EJB3CacheMetrics INSTANCE = new EJB3CacheMetrics();
+
+    static final String[] NO_LOCATION = new String[0];
+    static final String[] ATTRIBUTES = new String[] {CommonAttributes.CACHE_ACTIVE_COUNT, CommonAttributes.CACHE_HIT_COUNT,
+            CommonAttributes.CACHE_MISS_COUNT, CommonAttributes.CACHE_PASSIVATED_COUNT, CommonAttributes.CACHE_PASSIVATION_COUNT,
+            CommonAttributes.CACHE_TIMEOUT_COUNT};
+
+    /** {@inheritDoc} */
+    @Override
+    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
+
+        if (context.getRuntimeContext() != null) {
+            context.getRuntimeContext().setRuntimeTask(new RuntimeTask() {
+                public void execute(RuntimeTaskContext context) throws OperationFailedException {
+                    final String attributeName = operation.require(NAME).asString();
+                    final ServiceController<?> controller = context.getServiceRegistry().getService(CacheRegistry.SERVICE_NAME);
+                    long total = 0;
+                    if (controller != null) {
+                        final CacheRegistry registry = (CacheRegistry) controller.getValue();
+                        for (PassivatingCache<?> cache : registry.getCaches()) {
+                            total += getMetric(cache, attributeName);
+                        }
+                    }
+                    resultHandler.handleResultFragment(NO_LOCATION, new ModelNode().set(total));
+                    resultHandler.handleResultComplete();
+                }
+            });
+        } else {
+            resultHandler.handleResultFragment(NO_LOCATION, new ModelNode().set("no metrics available"));
+            resultHandler.handleResultComplete();
+        }
+        return new BasicOperationResult();
+    }
+
+    static long getMetric(final PassivatingCache<?> cache, final String attributeName) throws OperationFailedException {
+        if (CommonAttributes.CACHE_ACTIVE_COUNT.equals(attributeName)) {
+            return cache.getActiveCount();
+        } else if (CommonAttributes.CACHE_HIT_COUNT.equals(attributeName)) {
+            return cache.getHitCount();
+        } else if (CommonAttributes.CACHE_MISS_COUNT.equals(attributeName)) {
+            return cache.getMissCount();
+        } else if (CommonAttributes.CACHE_PASSIVATED_COUNT.equals(attributeName)) {
+            return cache.getPassivatedCount();
+        } else if (CommonAttributes.CACHE_PASSIVATION_COUNT.equals(attributeName)) {
+            return cache.getPassivationCount();
+        } else if (CommonAttributes.CACHE_TIMEOUT_COUNT.equals(attributeName)) {
+            return cache.getTimeoutCount();
+        }
+        throw new OperationFailedException(new ModelNode().set("Unknown metric " + attributeName));
+    }
+}
@@ -27,6 +27,8 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
 
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+
 import java.util.List;
 
 import javax.xml.stream.XMLStreamException;
@@ -38,6 +40,7 @@ import org.jboss.as.controller.parsing.ExtensionParsingContext;
 import org.jboss.as.controller.parsing.ParseUtils;
 import org.jboss.as.controller.persistence.SubsystemMarshallingContext;
 import org.jboss.as.controller.registry.ModelNodeRegistration;
+import org.jboss.as.ejb3.pool.PoolConfig;
 import org.jboss.dmr.ModelNode;
 import org.jboss.staxmapper.XMLElementReader;
 import org.jboss.staxmapper.XMLElementWriter;
@@ -52,6 +55,14 @@ public class EJB3Extension implements Extension {
     public static final String SUBSYSTEM_NAME = "ejb3";
     public static final String NAMESPACE = "urn:jboss:domain:ejb3:1.0";
 
+    static final String STATELESS_BEAN_POOL = "stateless-bean-pool";
+    static final String STATEFUL_BEAN_CACHE = "stateful-bean-cache";
+    static final String IDLE_TIMEOUT = "idle-timeout";
+    static final String TYPE = "type";
+    static final String MAX_SIZE = "max-size";
+    static final String PASSIVATION_ENABLED = "passivation-enabled";
+    static final String TIMEOUT = "timeout";
+
     private static final EJB3SubsystemParser parser = new EJB3SubsystemParser();
 
     /** {@inheritDoc} */
@@ -60,6 +71,12 @@ public class EJB3Extension implements Extension {
         final SubsystemRegistration subsystem = context.registerSubsystem(SUBSYSTEM_NAME);
         final ModelNodeRegistration registration = subsystem.registerSubsystemModel(EJB3SubsystemProviders.SUBSYSTEM);
         registration.registerOperationHandler(ADD, Ejb3SubsystemAdd.INSTANCE, EJB3SubsystemProviders.SUBSYSTEM_ADD, false);
+        for (final String attributeName : EJB3PoolMetrics.ATTRIBUTES) {
+            registration.registerMetric(attributeName, EJB3PoolMetrics.INSTANCE);
+        }
+        for (final String attributeName : EJB3CacheMetrics.ATTRIBUTES) {
+            registration.registerMetric(attributeName, EJB3CacheMetrics.INSTANCE);
+        }
 
         subsystem.registerXMLElementWriter(parser);
     }
@@ -78,19 +95,107 @@ public class EJB3Extension implements Extension {
             // //TODO seems to be a problem with empty elements cleaning up the queue in FormattingXMLStreamWriter.runAttrQueue
             //context.startSubsystemElement(NewManagedBeansExtension.NAMESPACE, true);
             context.startSubsystemElement(NAMESPACE, false);
+            final ModelNode node = context.getModelNode();
+            if (node.hasDefined(CommonAttributes.POOL_TYPE) || node.hasDefined(CommonAttributes.MAX_POOL_SIZE) || node.hasDefined(CommonAttributes.POOL_TIMEOUT)) {
+                writer.writeEmptyElement(STATELESS_BEAN_POOL);
+                writeAttribute(writer, node, CommonAttributes.POOL_TYPE, TYPE);
+                writeAttribute(writer, node, CommonAttributes.MAX_POOL_SIZE, MAX_SIZE);
+                writeAttribute(writer, node, CommonAttributes.POOL_TIMEOUT, TIMEOUT);
+            }
+            if (node.hasDefined(CommonAttributes.MAX_CACHE_SIZE) || node.hasDefined(CommonAttributes.CACHE_IDLE_TIMEOUT)
+                    || node.hasDefined(CommonAttributes.CACHE_PASSIVATION_ENABLED)) {
+                writer.writeEmptyElement(STATEFUL_BEAN_CACHE);
+                writeAttribute(writer, node, CommonAttributes.MAX_CACHE_SIZE, MAX_SIZE);
+                writeAttribute(writer, node, CommonAttributes.CACHE_IDLE_TIMEOUT, IDLE_TIMEOUT);
+                writeAttribute(writer, node, CommonAttributes.CACHE_PASSIVATION_ENABLED, PASSIVATION_ENABLED);
+            }
             writer.writeEndElement();
         }
 
+        private static void writeAttribute(final XMLExtendedStreamWriter writer, final ModelNode node, final String name, final String attributeName) throws XMLStreamException {
+            if (node.hasDefined(name)) {
+                writer.writeAttribute(attributeName, node.get(name).asString());
+            }
+        }
+
         /** {@inheritDoc} */
         @Override
         public void readElement(final XMLExtendedStreamReader reader, final List<ModelNode> list) throws XMLStreamException {
             ParseUtils.requireNoAttributes(reader);
-            ParseUtils.requireNoContent(reader);
             final ModelNode update = new ModelNode();
             update.get(OP).set(ADD);
             update.get(OP_ADDR).add(SUBSYSTEM, SUBSYSTEM_NAME);
+            boolean poolParsed = false;
+            boolean cacheParsed = false;
+            while (reader.hasNext() && reader.nextTag() != END_ELEMENT) {
+                if (!NAMESPACE.equals(reader.getNamespaceURI())) {
+                    throw ParseUtils.unexpectedElement(reader);
+                }
+                final String localName = reader.getLocalName();
+                if (STATELESS_BEAN_POOL.equals(localName) && !poolParsed && !cacheParsed) {
+                    parseStatelessBeanPool(reader, update);
+                    poolParsed = true;
+                } else if (STATEFUL_BEAN_CACHE.equals(localName) && !cacheParsed) {
+                    parseStatefulBeanCache(reader, update);
+                    cacheParsed = true;
+                } else {
+                    throw ParseUtils.unexpectedElement(reader);
+                }
+            }
             list.add(update);
         }
+
+        private static void parseStatelessBeanPool(final XMLExtendedStreamReader reader, final ModelNode update) throws XMLStreamException {
+            final int count = reader.getAttributeCount();
+            for (int i = 0; i < count; i++) {
+                ParseUtils.requireNoNamespaceAttribute(reader, i);
+                final String name = reader.getAttributeLocalName(i);
+                final String value = reader.getAttributeValue(i);
+                if (TYPE.equals(name)) {
+                    if (PoolConfig.Type.forName(value) == null) {
+                        throw ParseUtils.invalidAttributeValue(reader, i);
+                    }
+                    update.get(CommonAttributes.POOL_TYPE).set(value);
+                } else if (MAX_SIZE.equals(name)) {
+                    update.get(CommonAttributes.MAX_POOL_SIZE).set(ParseUtils.parseBoundedIntegerAttribute(reader, i, 1, Integer.MAX_VALUE));
+                } else if (TIMEOUT.equals(name)) {
+                    update.get(CommonAttributes.POOL_TIMEOUT).set(parseTimeout(reader, i));
+                } else {
+                    throw ParseUtils.unexpectedAttribute(reader, i);
+                }
+            }
+            ParseUtils.requireNoContent(reader);
+        }
+
+        private static void parseStatefulBeanCache(final XMLExtendedStreamReader reader, final ModelNode update) throws XMLStreamException {
+            final int count = reader.getAttributeCount();
+            for (int i = 0; i < count; i++) {
+                ParseUtils.requireNoNamespaceAttribute(reader, i);
+                final String name = reader.getAttributeLocalName(i);
+                if (MAX_SIZE.equals(name)) {
+                    update.get(CommonAttributes.MAX_CACHE_SIZE).set(ParseUtils.parseBoundedIntegerAttribute(reader, i, 1, Integer.MAX_VALUE));
+                } else if (IDLE_TIMEOUT.equals(name)) {
+                    update.get(CommonAttributes.CACHE_IDLE_TIMEOUT).set(parseTimeout(reader, i));
+                } else if (PASSIVATION_ENABLED.equals(name)) {
+                    update.get(CommonAttributes.CACHE_PASSIVATION_ENABLED).set(Boolean.parseBoolean(reader.getAttributeValue(i)));
+                } else {
+                    throw ParseUtils.unexpectedAttribute(reader, i);
+                }
+            }
+            ParseUtils.requireNoContent(reader);
+        }
+
+        private static long parseTimeout(final XMLExtendedStreamReader reader, final int index) throws XMLStreamException {
+            try {
+                final long value = Long.parseLong(reader.getAttributeValue(index));
+                if (value >= 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+            throw ParseUtils.invalidAttributeValue(reader, index);
+        }
     }
 
 }
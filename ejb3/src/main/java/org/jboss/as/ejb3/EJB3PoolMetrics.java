@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelQueryOperationHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.RuntimeTask;
+import org.jboss.as.controller.RuntimeTaskContext;
+import org.jboss.as.ejb3.pool.PoolRegistry;
+import org.jboss.as.ejb3.pool.spi.Pool;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reports the statistics of the stateless session bean pools, summed over all deployed beans.
+ */
+class EJB3PoolMetrics implements ModelQueryOperationHandler {
+
+    static final EJB3PoolMetrics INSTANCE = new EJB3PoolMetrics();
+
+    static final String[] NO_LOCATION = new String[0];
+    static final String[] ATTRIBUTES = new String[] {CommonAttributes.POOL_AVAILABLE_COUNT, CommonAttributes.POOL_CREATE_COUNT,
+            CommonAttributes.POOL_HIT_COUNT, CommonAttributes.POOL_MISS_COUNT, CommonAttributes.POOL_REMOVE_COUNT,
+            CommonAttributes.POOL_TIMEOUT_COUNT, CommonAttributes.POOL_WAIT_COUNT};
+
+    /** {@inheritDoc} */
+    @Override
+    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
+
+        if (context.getRuntimeContext() != null) {
+            context.getRuntimeContext().setRuntimeTask(new RuntimeTask() {
+                public void execute(RuntimeTaskContext context) throws OperationFailedException {
+                    final String attributeName = operation.require(NAME).asString();
+                    final ServiceController<?> controller = context.getServiceRegistry().getService(PoolRegistry.SERVICE_NAME);
+                    long total = 0;
+                    if (controller != null) {
+                        final PoolRegistry registry = (PoolRegistry) controller.getValue();
+                        for (Pool<?> pool : registry.getPools()) {
+                            total += getMetric(pool, attributeName);
+                        }
+                    }
+                    resultHandler.handleResultFragment(NO_LOCATION, new ModelNode().set(total));
+                    resultHandler.handleResultComplete();
+                }
+            });
+        } else {
+            resultHandler.handleResultFragment(NO_LOCATION, new ModelNode().set("no metrics available"));
+            resultHandler.handleResultComplete();
+        }
+        return new BasicOperationResult();
+    }
+
+    static long getMetric(final Pool<?> pool, final String attributeName) throws OperationFailedException {
+        if (CommonAttributes.POOL_AVAILABLE_COUNT.equals(attributeName)) {
+            return pool.getAvailableCount();
+        } else if (CommonAttributes.POOL_CREATE_COUNT.equals(attributeName)) {
+            return pool.getCreateCount();
+        } else if (CommonAttributes.POOL_HIT_COUNT.equals(attributeName)) {
+            return pool.getHitCount();
+        } else if (CommonAttributes.POOL_MISS_COUNT.equals(attributeName)) {
+            return pool.getMissCount();
+        } else if (CommonAttributes.POOL_REMOVE_COUNT.equals(attributeName)) {
+            return pool.getRemoveCount();
+        } else if (CommonAttributes.POOL_TIMEOUT_COUNT.equals(attributeName)) {
+            return pool.getTimeoutCount();
+        } else if (CommonAttributes.POOL_WAIT_COUNT.equals(attributeName)) {
+            return pool.getWaitCount();
+        }
+        throw new OperationFailedException(new ModelNode().set("Unknown metric " + attributeName));
+    }
+}
@@ -25,9 +25,14 @@ package org.jboss.as.ejb3;
 import org.jboss.as.controller.BasicOperationResult;
 import org.jboss.as.controller.ModelAddOperationHandler;
 import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationResult;
 import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.RuntimeTask;
+import org.jboss.as.controller.RuntimeTaskContext;
 import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.ejb3.cache.CacheConfig;
+import org.jboss.as.ejb3.cache.CacheRegistry;
 import org.jboss.as.ejb3.deployment.processors.EjbAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.EjbDependencyDeploymentUnitProcessor;
 import org.jboss.as.ejb3.deployment.processors.EjbJarParsingDeploymentUnitProcessor;
@@ -35,10 +40,19 @@ import org.jboss.as.ejb3.deployment.processors.EjbResourceInjectionAnnotationPro
 import org.jboss.as.ejb3.deployment.processors.LocalEjbViewAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.NoInterfaceViewAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.TransactionManagementAnnotationProcessor;
+import org.jboss.as.ejb3.pool.PoolConfig;
+import org.jboss.as.ejb3.pool.PoolRegistry;
 import org.jboss.as.server.BootOperationContext;
 import org.jboss.as.server.BootOperationHandler;
+import org.jboss.as.server.ServerEnvironment;
+import org.jboss.as.server.services.path.AbstractPathService;
 import org.jboss.as.server.deployment.Phase;
 import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController.Mode;
+import org.jboss.msc.service.ValueService;
+import org.jboss.msc.value.ImmediateValue;
+
+import java.util.concurrent.TimeUnit;
 
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 
@@ -55,11 +69,24 @@ class Ejb3SubsystemAdd implements ModelAddOperationHandler, BootOperationHandler
 
     /** {@inheritDoc} */
     @Override
-    public OperationResult execute(OperationContext context, ModelNode operation, ResultHandler resultHandler) {
+    public OperationResult execute(OperationContext context, ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
 
         final ModelNode compensatingOperation = Util.getResourceRemoveOperation(operation.require(OP_ADDR));
 
+        final PoolConfig poolConfig = parsePoolConfig(operation);
+        final CacheConfig cacheConfig = parseCacheConfig(operation);
+        final ModelNode subModel = context.getSubModel();
+        subModel.setEmptyObject();
+        for (String attribute : new String[] { CommonAttributes.POOL_TYPE, CommonAttributes.MAX_POOL_SIZE, CommonAttributes.POOL_TIMEOUT,
+                CommonAttributes.MAX_CACHE_SIZE, CommonAttributes.CACHE_IDLE_TIMEOUT, CommonAttributes.CACHE_PASSIVATION_ENABLED }) {
+            if (operation.hasDefined(attribute)) {
+                subModel.get(attribute).set(operation.get(attribute));
+            }
+        }
+
         if(context instanceof BootOperationContext) {
+            final PoolRegistry poolRegistry = new PoolRegistry(poolConfig);
+            final CacheRegistry cacheRegistry = new CacheRegistry(cacheConfig);
             final BootOperationContext updateContext = (BootOperationContext) context;
 
             // add the metadata parser deployment processor
@@ -74,11 +101,57 @@ class Ejb3SubsystemAdd implements ModelAddOperationHandler, BootOperationHandler
             // add the real deployment processor
             // TODO: add the proper deployment processors
             // updateContext.addDeploymentProcessor(processor, priority);
-        }
 
-        context.getSubModel().setEmptyObject();
-        resultHandler.handleResultComplete();
+            if (context.getRuntimeContext() != null) {
+                context.getRuntimeContext().setRuntimeTask(new RuntimeTask() {
+                    public void execute(RuntimeTaskContext context) throws OperationFailedException {
+                        context.getServiceTarget().addService(PoolRegistry.SERVICE_NAME, new ValueService<PoolRegistry>(new ImmediateValue<PoolRegistry>(poolRegistry)))
+                                .setInitialMode(Mode.ACTIVE)
+                                .install();
+                        context.getServiceTarget().addService(CacheRegistry.SERVICE_NAME, cacheRegistry)
+                                .addDependency(AbstractPathService.pathNameOf(ServerEnvironment.SERVER_DATA_DIR), String.class, cacheRegistry.getDataDirectoryInjector())
+                                .setInitialMode(Mode.ACTIVE)
+                                .install();
+                        resultHandler.handleResultComplete();
+                    }
+                });
+            } else {
+                resultHandler.handleResultComplete();
+            }
+        } else {
+            resultHandler.handleResultComplete();
+        }
         return new BasicOperationResult(compensatingOperation);
     }
 
+    private static PoolConfig parsePoolConfig(final ModelNode operation) throws OperationFailedException {
+        PoolConfig.Type type = PoolConfig.DEFAULT_TYPE;
+        if (operation.hasDefined(CommonAttributes.POOL_TYPE)) {
+            final String name = operation.get(CommonAttributes.POOL_TYPE).asString();
+            type = PoolConfig.Type.forName(name);
+            if (type == null) {
+                throw new OperationFailedException(new ModelNode().set("Unknown " + CommonAttributes.POOL_TYPE + " " + name));
+            }
+        }
+        final int maxSize = operation.hasDefined(CommonAttributes.MAX_POOL_SIZE) ? operation.get(CommonAttributes.MAX_POOL_SIZE).asInt() : PoolConfig.DEFAULT_MAX_SIZE;
+        if (maxSize < 1) {
+            throw new OperationFailedException(new ModelNode().set(CommonAttributes.MAX_POOL_SIZE + " must be greater than zero"));
+        }
+        final long timeout = operation.hasDefined(CommonAttributes.POOL_TIMEOUT) ? operation.get(CommonAttributes.POOL_TIMEOUT).asLong() : PoolConfig.DEFAULT_TIMEOUT;
+        return new PoolConfig(type, maxSize, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    private static CacheConfig parseCacheConfig(final ModelNode operation) throws OperationFailedException {
+        final int maxSize = operation.hasDefined(CommonAttributes.MAX_CACHE_SIZE) ? operation.get(CommonAttributes.MAX_CACHE_SIZE).asInt() : CacheConfig.DEFAULT_MAX_SIZE;
+        if (maxSize < 1) {
+            throw new OperationFailedException(new ModelNode().set(CommonAttributes.MAX_CACHE_SIZE + " must be greater than zero"));
+        }
+        final long idleTimeout = operation.hasDefined(CommonAttributes.CACHE_IDLE_TIMEOUT) ? operation.get(CommonAttributes.CACHE_IDLE_TIMEOUT).asLong() : CacheConfig.DEFAULT_IDLE_TIMEOUT;
+        if (idleTimeout < 0) {
+            throw new OperationFailedException(new ModelNode().set(CommonAttributes.CACHE_IDLE_TIMEOUT + " must not be negative"));
+        }
+        final boolean passivationEnabled = operation.hasDefined(CommonAttributes.CACHE_PASSIVATION_ENABLED) ? operation.get(CommonAttributes.CACHE_PASSIVATION_ENABLED).asBoolean() : CacheConfig.DEFAULT_PASSIVATION_ENABLED;
+        return new CacheConfig(maxSize, idleTimeout, passivationEnabled);
+    }
+
 }
@@ -22,22 +22,43 @@
 
 package org.jboss.as.ejb3;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEFAULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MIN;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUEST_PROPERTIES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUIRED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
+
 import java.util.Locale;
+import java.util.ResourceBundle;
 
 import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.as.ejb3.cache.CacheConfig;
+import org.jboss.as.ejb3.pool.PoolConfig;
 import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
 
 /**
  * @author Emanuel Muckenhuber
  */
 class EJB3SubsystemProviders {
 
+    static final String RESOURCE_NAME = EJB3SubsystemProviders.class.getPackage().getName() + ".LocalDescriptions";
 
     public static final DescriptionProvider SUBSYSTEM = new DescriptionProvider() {
 
         @Override
         public ModelNode getModelDescription(Locale locale) {
-            return new ModelNode();
+            final ResourceBundle bundle = getResourceBundle(locale);
+
+            final ModelNode node = new ModelNode();
+            node.get(DESCRIPTION).set(bundle.getString("ejb3"));
+            addPoolAttributes(node.get(ATTRIBUTES), bundle);
+            addCacheAttributes(node.get(ATTRIBUTES), bundle);
+            addMetrics(node.get(ATTRIBUTES), EJB3PoolMetrics.ATTRIBUTES, bundle);
+            addMetrics(node.get(ATTRIBUTES), EJB3CacheMetrics.ATTRIBUTES, bundle);
+            return node;
         }
     };
 
@@ -45,8 +66,66 @@ class EJB3SubsystemProviders {
 
         @Override
         public ModelNode getModelDescription(Locale locale) {
-            return new ModelNode();
+            final ResourceBundle bundle = getResourceBundle(locale);
+
+            final ModelNode node = new ModelNode();
+            node.get(DESCRIPTION).set(bundle.getString("ejb3.add"));
+            addPoolAttributes(node.get(REQUEST_PROPERTIES), bundle);
+            addCacheAttributes(node.get(REQUEST_PROPERTIES), bundle);
+            return node;
         }
     };
 
+    private static void addPoolAttributes(final ModelNode attributes, final ResourceBundle bundle) {
+        attributes.get(CommonAttributes.POOL_TYPE, TYPE).set(ModelType.STRING);
+        attributes.get(CommonAttributes.POOL_TYPE, DESCRIPTION).set(bundle.getString("ejb3.pool-type"));
+        attributes.get(CommonAttributes.POOL_TYPE, REQUIRED).set(false);
+        attributes.get(CommonAttributes.POOL_TYPE, DEFAULT).set(PoolConfig.DEFAULT_TYPE.getName());
+
+        attributes.get(CommonAttributes.MAX_POOL_SIZE, TYPE).set(ModelType.INT);
+        attributes.get(CommonAttributes.MAX_POOL_SIZE, DESCRIPTION).set(bundle.getString("ejb3.max-pool-size"));
+        attributes.get(CommonAttributes.MAX_POOL_SIZE, REQUIRED).set(false);
+        attributes.get(CommonAttributes.MAX_POOL_SIZE, MIN).set(1);
+        attributes.get(CommonAttributes.MAX_POOL_SIZE, DEFAULT).set(PoolConfig.DEFAULT_MAX_SIZE);
+
+        attributes.get(CommonAttributes.POOL_TIMEOUT, TYPE).set(ModelType.LONG);
+        attributes.get(CommonAttributes.POOL_TIMEOUT, DESCRIPTION).set(bundle.getString("ejb3.pool-timeout"));
+        attributes.get(CommonAttributes.POOL_TIMEOUT, REQUIRED).set(false);
+        attributes.get(CommonAttributes.POOL_TIMEOUT, MIN).set(0);
+        attributes.get(CommonAttributes.POOL_TIMEOUT, DEFAULT).set(PoolConfig.DEFAULT_TIMEOUT);
+    }
+
+    private static void addCacheAttributes(final ModelNode attributes, final ResourceBundle bundle) {
+        attributes.get(CommonAttributes.MAX_CACHE_SIZE, TYPE).set(ModelType.INT);
+        attributes.get(CommonAttributes.MAX_CACHE_SIZE, DESCRIPTION).set(bundle.getString("ejb3.max-cache-size"));
+        attributes.get(CommonAttributes.MAX_CACHE_SIZE, REQUIRED).set(false);
+        attributes.get(CommonAttributes.MAX_CACHE_SIZE, MIN).set(1);
+        attributes.get(CommonAttributes.MAX_CACHE_SIZE, DEFAULT).set(CacheConfig.DEFAULT_MAX_SIZE);
+
+        attributes.get(CommonAttributes.CACHE_IDLE_TIMEOUT, TYPE).set(ModelType.LONG);
+        attributes.get(CommonAttributes.CACHE_IDLE_TIMEOUT, DESCRIPTION).set(bundle.getString("ejb3.cache-idle-timeout"));
+        attributes.get(CommonAttributes.CACHE_IDLE_TIMEOUT, REQUIRED).set(false);
+        attributes.get(CommonAttributes.CACHE_IDLE_TIMEOUT, MIN).set(0);
+        attributes.get(CommonAttributes.CACHE_IDLE_TIMEOUT, DEFAULT).set(CacheConfig.DEFAULT_IDLE_TIMEOUT);
+
+        attributes.get(CommonAttributes.CACHE_PASSIVATION_ENABLED, TYPE).set(ModelType.BOOLEAN);
+        attributes.get(CommonAttributes.CACHE_PASSIVATION_ENABLED, DESCRIPTION).set(bundle.getString("ejb3.cache-passivation-enabled"));
+        attributes.get(CommonAttributes.CACHE_PASSIVATION_ENABLED, REQUIRED).set(false);
+        attributes.get(CommonAttributes.CACHE_PASSIVATION_ENABLED, DEFAULT).set(CacheConfig.DEFAULT_PASSIVATION_ENABLED);
+    }
+
+    private static void addMetrics(final ModelNode attributes, final String[] metrics, final ResourceBundle bundle) {
+        for (final String metric : metrics) {
+            attributes.get(metric, TYPE).set(ModelType.LONG);
+            attributes.get(metric, DESCRIPTION).set(bundle.getString("ejb3." + metric));
+            attributes.get(metric, REQUIRED).set(false);
+        }
+    }
+
+    private static ResourceBundle getResourceBundle(Locale locale) {
+        if (locale == null) {
+            locale = Locale.getDefault();
+        }
+        return ResourceBundle.getBundle(RESOURCE_NAME, locale);
+    }
 }
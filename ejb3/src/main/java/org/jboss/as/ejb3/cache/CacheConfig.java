@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The configuration from which the caches of stateful session bean instances are created.
+ */
+public class CacheConfig {
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+    public static final boolean DEFAULT_PASSIVATION_ENABLED = false;
+
+    /**
+     * The configuration used when none is given.
+     */
+    public static final CacheConfig DEFAULT = new CacheConfig(DEFAULT_MAX_SIZE, DEFAULT_IDLE_TIMEOUT, DEFAULT_PASSIVATION_ENABLED);
+
+    private final int maxSize;
+    private final long idleTimeout;
+    private final boolean passivationEnabled;
+
+    /**
+     * @param maxSize            the maximum number of bean instances a cache keeps in memory if passivation is enabled
+     * @param idleTimeout        the time in milliseconds after which an unused bean instance is removed, or 0 to never
+     *                           remove idle instances
+     * @param passivationEnabled whether bean instances beyond {@code maxSize} are passivated
+     */
+    public CacheConfig(final int maxSize, final long idleTimeout, final boolean passivationEnabled) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        if (idleTimeout < 0)
+            throw new IllegalArgumentException("idleTimeout must not be negative");
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.passivationEnabled = passivationEnabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public boolean isPassivationEnabled() {
+        return passivationEnabled;
+    }
+}
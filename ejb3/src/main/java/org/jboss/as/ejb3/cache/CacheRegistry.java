@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import org.jboss.as.ejb3.cache.spi.Identifiable;
+import org.jboss.as.ejb3.cache.spi.ReferenceFilter;
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the passivating caches of stateful session beans, and tracks them so their statistics can be reported
+ * by the subsystem.  It owns the passivation directory and the thread which passivates and removes idle bean
+ * instances.
+ */
+public class CacheRegistry implements Service<CacheRegistry> {
+    private static final Logger log = Logger.getLogger(CacheRegistry.class);
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "cache-registry");
+
+    private final CacheConfig config;
+    private final InjectedValue<String> dataDirectory = new InjectedValue<String>();
+    private final Set<PassivatingCache<?>> caches = new CopyOnWriteArraySet<PassivatingCache<?>>();
+    private final AtomicLong storeCounter = new AtomicLong();
+    private volatile File passivationDirectory;
+    private volatile MarshallerFactory marshallerFactory;
+    private volatile ScheduledExecutorService executor;
+
+    public CacheRegistry(final CacheConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public synchronized void start(final StartContext context) throws StartException {
+        final File directory = new File(new File(dataDirectory.getValue(), "ejb3"), "passivation");
+        // state passivated by a previous run can not be activated again
+        deleteContents(directory);
+        if (config.isPassivationEnabled()) {
+            marshallerFactory = Marshalling.getMarshallerFactory("river", CacheRegistry.class.getClassLoader());
+            if (marshallerFactory == null) {
+                throw new StartException("No river marshaller factory available");
+            }
+        }
+        passivationDirectory = directory;
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "EJB3 stateful cache");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    @Override
+    public CacheRegistry getValue() throws IllegalStateException {
+        return this;
+    }
+
+    /**
+     * Creates a new, empty cache as configured.
+     *
+     * @param componentName   the name of the component owning the cache
+     * @param classLoader     the class loader of the component, used to activate bean instances
+     * @param referenceFilter selects the objects held by a bean which are kept in memory while it is passivated
+     * @return the cache
+     */
+    public <T extends Identifiable> PassivatingCache<T> createCache(final String componentName, final ClassLoader classLoader, final ReferenceFilter referenceFilter) {
+        final ScheduledExecutorService executor = this.executor;
+        if (executor == null) {
+            throw new IllegalStateException("Cache registry is not started");
+        }
+        FilePassivationStore store = null;
+        if (config.isPassivationEnabled()) {
+            final File directory = new File(passivationDirectory, componentName + "-" + storeCounter.incrementAndGet());
+            store = new FilePassivationStore(directory, marshallerFactory, classLoader, referenceFilter);
+        }
+        return new PassivatingCache<T>(config.getMaxSize(), config.getIdleTimeout(), store, executor, executor);
+    }
+
+    /**
+     * @return the configuration new caches are created from
+     */
+    public CacheConfig getConfig() {
+        return config;
+    }
+
+    public InjectedValue<String> getDataDirectoryInjector() {
+        return dataDirectory;
+    }
+
+    public void register(PassivatingCache<?> cache) {
+        caches.add(cache);
+    }
+
+    public void unregister(PassivatingCache<?> cache) {
+        caches.remove(cache);
+    }
+
+    /**
+     * @return the currently registered caches
+     */
+    public Set<PassivatingCache<?>> getCaches() {
+        return caches;
+    }
+
+    private static void deleteContents(final File directory) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            deleteContents(file);
+            if (!file.delete()) {
+                log.warnf("Could not delete stale passivation file %s", file);
+            }
+        }
+    }
+}
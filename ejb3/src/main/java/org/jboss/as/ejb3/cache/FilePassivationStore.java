@@ -0,0 +1,234 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import org.jboss.as.ejb3.cache.spi.PassivationStore;
+import org.jboss.as.ejb3.cache.spi.ReferenceFilter;
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.ClassResolver;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.ObjectTable;
+import org.jboss.marshalling.SimpleClassResolver;
+import org.jboss.marshalling.Unmarshaller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link PassivationStore} which streams each object's state to its own file using JBoss Marshalling.  Objects
+ * selected by the {@link ReferenceFilter} are not written out; the file refers to them by index into a list kept
+ * in memory until the state is loaded or removed.
+ */
+public class FilePassivationStore implements PassivationStore {
+    private static final Logger log = Logger.getLogger(FilePassivationStore.class);
+
+    private static final class Passivated {
+        private final File file;
+        private final List<Object> references;
+
+        private Passivated(final File file, final List<Object> references) {
+            this.file = file;
+            this.references = references;
+        }
+    }
+
+    private final File directory;
+    private final MarshallerFactory marshallerFactory;
+    private final ClassResolver classResolver;
+    private final ReferenceFilter referenceFilter;
+    private final ConcurrentMap<Serializable, Passivated> passivated = new ConcurrentHashMap<Serializable, Passivated>();
+    private final AtomicLong fileCounter = new AtomicLong();
+
+    /**
+     * @param directory         the directory to write the state files to; created if needed
+     * @param marshallerFactory the factory to create marshallers from
+     * @param classLoader       the class loader to resolve the classes of the stored state with
+     * @param referenceFilter   selects the objects to keep in memory as references, or null to write out everything
+     */
+    public FilePassivationStore(final File directory, final MarshallerFactory marshallerFactory, final ClassLoader classLoader, final ReferenceFilter referenceFilter) {
+        this.directory = directory;
+        this.marshallerFactory = marshallerFactory;
+        this.classResolver = new SimpleClassResolver(classLoader);
+        this.referenceFilter = referenceFilter;
+    }
+
+    @Override
+    public void store(final Serializable key, final Object state) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create passivation directory " + directory);
+        }
+        final File file = new File(directory, fileCounter.incrementAndGet() + ".ser");
+        final List<Object> references = new ArrayList<Object>();
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        boolean ok = false;
+        try {
+            final Marshaller marshaller = marshallerFactory.createMarshaller(createConfiguration(new ReferenceTable(state, references)));
+            marshaller.start(Marshalling.createByteOutput(out));
+            marshaller.writeObject(state);
+            marshaller.finish();
+            out.close();
+            ok = true;
+        } finally {
+            if (!ok) {
+                safeClose(out);
+                delete(file);
+            }
+        }
+        final Passivated previous = passivated.put(key, new Passivated(file, references));
+        if (previous != null) {
+            delete(previous.file);
+        }
+    }
+
+    @Override
+    public Object load(final Serializable key) throws IOException, ClassNotFoundException {
+        final Passivated entry = passivated.remove(key);
+        if (entry == null) {
+            throw new IOException("No passivated state for " + key);
+        }
+        boolean ok = false;
+        try {
+            final InputStream in = new BufferedInputStream(new FileInputStream(entry.file));
+            try {
+                final Unmarshaller unmarshaller = marshallerFactory.createUnmarshaller(createConfiguration(new ReferenceTable(null, entry.references)));
+                unmarshaller.start(Marshalling.createByteInput(in));
+                final Object state = unmarshaller.readObject();
+                unmarshaller.finish();
+                ok = true;
+                return state;
+            } finally {
+                safeClose(in);
+            }
+        } finally {
+            if (ok) {
+                delete(entry.file);
+            } else if (passivated.putIfAbsent(key, entry) != null) {
+                // stored again while we were reading, so this state is stale
+                delete(entry.file);
+            }
+        }
+    }
+
+    @Override
+    public void remove(final Serializable key) {
+        final Passivated entry = passivated.remove(key);
+        if (entry != null) {
+            delete(entry.file);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Serializable key : passivated.keySet()) {
+            remove(key);
+        }
+        directory.delete();
+    }
+
+    private MarshallingConfiguration createConfiguration(final ObjectTable objectTable) {
+        final MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setVersion(2);
+        configuration.setClassResolver(classResolver);
+        configuration.setObjectTable(objectTable);
+        return configuration;
+    }
+
+    /**
+     * Writes the objects selected by the reference filter as their index in the list of references of one stored
+     * state, and reads them back from that list.
+     */
+    private final class ReferenceTable implements ObjectTable, ObjectTable.Writer {
+        private final Object root;
+        private final List<Object> references;
+        private final Map<Object, Integer> indexes = new IdentityHashMap<Object, Integer>();
+
+        /**
+         * @param root       the state being written, which is never a reference itself, or null when reading
+         * @param references the list to add the references to, or to read them from
+         */
+        ReferenceTable(final Object root, final List<Object> references) {
+            this.root = root;
+            this.references = references;
+        }
+
+        @Override
+        public Writer getObjectWriter(final Object object) {
+            if (referenceFilter == null || object == null || object == root || !referenceFilter.isReference(object)) {
+                return null;
+            }
+            return this;
+        }
+
+        @Override
+        public void writeObject(final Marshaller marshaller, final Object object) throws IOException {
+            Integer index = indexes.get(object);
+            if (index == null) {
+                index = Integer.valueOf(references.size());
+                references.add(object);
+                indexes.put(object, index);
+            }
+            marshaller.writeInt(index.intValue());
+        }
+
+        @Override
+        public Object readObject(final Unmarshaller unmarshaller) throws IOException {
+            final int index = unmarshaller.readInt();
+            if (index < 0 || index >= references.size()) {
+                throw new StreamCorruptedException("Invalid reference index " + index);
+            }
+            return references.get(index);
+        }
+    }
+
+    private static void delete(final File file) {
+        if (!file.delete() && file.exists()) {
+            log.warnf("Could not delete passivation file %s", file);
+        }
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.tracef(e, "Failed to close %s", closeable);
+        }
+    }
+}
@@ -69,4 +69,15 @@ public class NoPassivationCache<T extends Identifiable> implements Cache<T> {
     public void setStatefulObjectFactory(StatefulObjectFactory<T> factory) {
         this.factory = factory;
     }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        for (Serializable key : cacheMap.keySet()) {
+            discard(key);
+        }
+    }
 }
@@ -0,0 +1,513 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import org.jboss.as.ejb3.cache.spi.Cache;
+import org.jboss.as.ejb3.cache.spi.Identifiable;
+import org.jboss.as.ejb3.cache.spi.PassivatingStatefulObjectFactory;
+import org.jboss.as.ejb3.cache.spi.PassivationStore;
+import org.jboss.as.ejb3.cache.spi.StatefulObjectFactory;
+import org.jboss.logging.Logger;
+
+import javax.ejb.EJBException;
+import javax.ejb.NoSuchEJBException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache which bounds the number of objects held in memory.  When more than {@code maxSize} objects are in
+ * memory, the least recently used ones which are not in use are passivated to a {@link PassivationStore}; they
+ * are activated again when next requested.  Passivation runs on the passivation executor, so invocations do not
+ * wait for the store.  Objects which have not been used for longer than the idle timeout are removed, whether in
+ * memory or passivated.
+ * <p/>
+ * Passivation requires a store and the factory to be a {@link PassivatingStatefulObjectFactory}; otherwise the
+ * cache only removes idle objects.  An object whose state can not be stored stays in memory and is not passivated
+ * again.
+ */
+public class PassivatingCache<T extends Identifiable> implements Cache<T> {
+    private static final Logger log = Logger.getLogger(PassivatingCache.class);
+
+    private enum State {
+        ACTIVE,
+        PASSIVATING,
+        PASSIVATED,
+        REMOVED
+    }
+
+    private static final class Entry<T> {
+        private final Serializable id;
+        // the following are guarded by the entry itself
+        private T instance;
+        private State state = State.ACTIVE;
+        private int inUse;
+        private boolean passivationCapable = true;
+        private long lastUsed = System.currentTimeMillis();
+
+        private Entry(final Serializable id, final T instance) {
+            this.id = id;
+            this.instance = instance;
+        }
+    }
+
+    private final int maxSize;
+    private final long idleTimeout;
+    private final PassivationStore store;
+    private final Executor passivationExecutor;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean passivationScheduled = new AtomicBoolean();
+    private final Runnable passivationTask = new Runnable() {
+        @Override
+        public void run() {
+            passivationScheduled.set(false);
+            passivateExcess();
+        }
+    };
+    private StatefulObjectFactory<T> factory;
+    private ScheduledFuture<?> sweepTask;
+
+    /**
+     * All entries in least recently used order.  Lock ordering is this map, then an entry.
+     */
+    private final Map<Serializable, Entry<T>> entries = new LinkedHashMap<Serializable, Entry<T>>(16, 0.75f, true);
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger passivatedCount = new AtomicInteger();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong passivationCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    /**
+     * @param maxSize     the maximum number of objects to keep in memory
+     * @param idleTimeout the time in milliseconds after which an unused object is removed, or 0 to never remove
+     *                    idle objects
+     * @param store               the store to passivate to, or null to keep all objects in memory
+     * @param passivationExecutor the executor which passivates objects; may be null if {@code store} is null
+     * @param executor            the executor which runs the idle timeout checks once the cache is started; may be
+     *                            null if {@code idleTimeout} is 0
+     */
+    public PassivatingCache(final int maxSize, final long idleTimeout, final PassivationStore store, final Executor passivationExecutor, final ScheduledExecutorService executor) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        if (store != null && passivationExecutor == null)
+            throw new IllegalArgumentException("passivationExecutor is null");
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.store = store;
+        this.passivationExecutor = passivationExecutor;
+        this.executor = executor;
+    }
+
+    @Override
+    public T create() {
+        final T instance = factory.createInstance();
+        final Entry<T> entry = new Entry<T>(instance.getId(), instance);
+        synchronized (entries) {
+            entries.put(entry.id, entry);
+        }
+        activeCount.incrementAndGet();
+        passivateIfNeeded();
+        return instance;
+    }
+
+    @Override
+    public void discard(final Serializable key) {
+        final Entry<T> entry;
+        synchronized (entries) {
+            entry = entries.remove(key);
+        }
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    @Override
+    public T get(final Serializable key) throws NoSuchEJBException {
+        final Entry<T> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null)
+            throw new NoSuchEJBException("Could not find stateful bean " + key);
+        final T instance;
+        final boolean activated;
+        Exception activationFailure = null;
+        synchronized (entry) {
+            awaitPassivation(entry);
+            if (entry.state == State.REMOVED)
+                throw new NoSuchEJBException("Could not find stateful bean " + key);
+            activated = entry.state == State.PASSIVATED;
+            if (activated) {
+                missCount.incrementAndGet();
+                final Object state;
+                try {
+                    state = store.load(entry.id);
+                } catch (Exception e) {
+                    // the store keeps state it could not read, so the bean stays passivated
+                    throw new EJBException("Could not read the passivated state of stateful bean " + key, e);
+                }
+                try {
+                    activate(entry, state);
+                } catch (Exception e) {
+                    entry.state = State.REMOVED;
+                    passivatedCount.decrementAndGet();
+                    activationFailure = e;
+                }
+            } else {
+                hitCount.incrementAndGet();
+            }
+            if (activationFailure == null) {
+                entry.inUse++;
+            }
+            instance = entry.instance;
+        }
+        if (activationFailure != null) {
+            // the map may not be locked while holding the entry
+            synchronized (entries) {
+                entries.remove(key);
+            }
+            throw new NoSuchEJBException("Could not activate stateful bean " + key, activationFailure);
+        }
+        if (activated) {
+            passivateIfNeeded();
+        }
+        return instance;
+    }
+
+    @Override
+    public void release(final T obj) {
+        final Entry<T> entry;
+        synchronized (entries) {
+            entry = entries.get(obj.getId());
+        }
+        if (entry == null) {
+            // discarded
+            return;
+        }
+        synchronized (entry) {
+            if (entry.instance == obj && entry.inUse > 0) {
+                entry.inUse--;
+                entry.lastUsed = System.currentTimeMillis();
+            }
+        }
+        passivateIfNeeded();
+    }
+
+    @Override
+    public void setStatefulObjectFactory(final StatefulObjectFactory<T> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (idleTimeout > 0 && sweepTask == null) {
+            if (executor == null)
+                throw new IllegalStateException("No executor to run the idle timeout checks");
+            final long period = Math.max(idleTimeout / 2, 1);
+            sweepTask = executor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    removeIdle();
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (sweepTask != null) {
+            sweepTask.cancel(false);
+            sweepTask = null;
+        }
+        final List<Entry<T>> all;
+        synchronized (entries) {
+            all = new ArrayList<Entry<T>>(entries.values());
+            entries.clear();
+        }
+        for (Entry<T> entry : all) {
+            remove(entry);
+        }
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    /**
+     * Removes the objects which have not been used for longer than the idle timeout.
+     */
+    void removeIdle() {
+        final long now = System.currentTimeMillis();
+        final List<Entry<T>> expired = new ArrayList<Entry<T>>();
+        synchronized (entries) {
+            for (Entry<T> entry : entries.values()) {
+                synchronized (entry) {
+                    if (isIdle(entry, now)) {
+                        expired.add(entry);
+                    }
+                }
+            }
+        }
+        for (Entry<T> entry : expired) {
+            synchronized (entries) {
+                synchronized (entry) {
+                    // it may have been used meanwhile
+                    if (!isIdle(entry, now) || entries.remove(entry.id) == null) {
+                        continue;
+                    }
+                }
+            }
+            if (log.isTraceEnabled())
+                log.trace("Removing stateful bean " + entry.id + " after idle timeout");
+            timeoutCount.incrementAndGet();
+            remove(entry);
+        }
+    }
+
+    private boolean isIdle(final Entry<T> entry, final long now) {
+        return (entry.state == State.ACTIVE || entry.state == State.PASSIVATED) && entry.inUse == 0 && now - entry.lastUsed >= idleTimeout;
+    }
+
+    /**
+     * Schedules the passivation of the least recently used objects if more than {@code maxSize} objects are in memory.
+     */
+    private void passivateIfNeeded() {
+        if (store == null || !(factory instanceof PassivatingStatefulObjectFactory) || activeCount.get() <= maxSize)
+            return;
+        if (passivationScheduled.compareAndSet(false, true)) {
+            try {
+                passivationExecutor.execute(passivationTask);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                passivationScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Passivates the least recently used objects not in use until no more than {@code maxSize} objects are in memory.
+     */
+    private void passivateExcess() {
+        while (activeCount.get() > maxSize) {
+            Entry<T> victim = null;
+            synchronized (entries) {
+                for (Entry<T> entry : entries.values()) {
+                    synchronized (entry) {
+                        if (entry.state == State.ACTIVE && entry.inUse == 0 && entry.passivationCapable) {
+                            entry.state = State.PASSIVATING;
+                            victim = entry;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (victim == null) {
+                // everything in memory is in use
+                return;
+            }
+            passivate(victim);
+        }
+    }
+
+    private void passivate(final Entry<T> entry) {
+        final PassivatingStatefulObjectFactory<T> factory = (PassivatingStatefulObjectFactory<T>) this.factory;
+        final Object state;
+        try {
+            state = factory.passivateInstance(entry.instance);
+        } catch (Throwable t) {
+            log.warnf(t, "Pre-passivate of stateful bean %s failed, removing it", entry.id);
+            discardPassivating(entry);
+            return;
+        }
+        if (state == null) {
+            keepActive(entry);
+            return;
+        }
+        try {
+            store.store(entry.id, state);
+        } catch (Throwable t) {
+            log.warnf(t, "Failed to store stateful bean %s, keeping it in memory", entry.id);
+            try {
+                factory.cancelPassivation(entry.instance);
+            } catch (Throwable t2) {
+                log.warnf(t2, "Post-activate of stateful bean %s failed, removing it", entry.id);
+                discardPassivating(entry);
+                return;
+            }
+            keepActive(entry);
+            return;
+        }
+        synchronized (entry) {
+            entry.instance = null;
+            entry.state = State.PASSIVATED;
+            activeCount.decrementAndGet();
+            passivatedCount.incrementAndGet();
+            passivationCount.incrementAndGet();
+            entry.notifyAll();
+        }
+    }
+
+    /**
+     * Returns an entry which could not be passivated to service, and excludes it from further passivation.
+     */
+    private void keepActive(final Entry<T> entry) {
+        synchronized (entry) {
+            entry.passivationCapable = false;
+            entry.state = State.ACTIVE;
+            entry.notifyAll();
+        }
+    }
+
+    /**
+     * Removes an entry whose instance is no longer usable after a failed passivation.
+     */
+    private void discardPassivating(final Entry<T> entry) {
+        synchronized (entries) {
+            entries.remove(entry.id);
+        }
+        final T instance;
+        synchronized (entry) {
+            instance = entry.instance;
+            entry.instance = null;
+            entry.state = State.REMOVED;
+            entry.notifyAll();
+        }
+        activeCount.decrementAndGet();
+        destroy(instance);
+    }
+
+    // must hold the entry
+    private void activate(final Entry<T> entry, final Object state) throws Exception {
+        entry.instance = ((PassivatingStatefulObjectFactory<T>) factory).activateInstance(entry.id, state);
+        entry.state = State.ACTIVE;
+        passivatedCount.decrementAndGet();
+        activeCount.incrementAndGet();
+    }
+
+    // must hold the entry
+    private void awaitPassivation(final Entry<T> entry) {
+        boolean interrupted = false;
+        while (entry.state == State.PASSIVATING) {
+            try {
+                entry.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Removes an entry which has already been taken out of the map.
+     */
+    private void remove(final Entry<T> entry) {
+        final T instance;
+        final boolean passivated;
+        synchronized (entry) {
+            awaitPassivation(entry);
+            instance = entry.instance;
+            passivated = entry.state == State.PASSIVATED;
+            if (entry.state == State.ACTIVE) {
+                activeCount.decrementAndGet();
+            } else if (passivated) {
+                passivatedCount.decrementAndGet();
+            }
+            entry.instance = null;
+            entry.state = State.REMOVED;
+        }
+        if (passivated) {
+            store.remove(entry.id);
+        } else if (instance != null) {
+            destroy(instance);
+        }
+    }
+
+    private void destroy(final T instance) {
+        try {
+            factory.destroyInstance(instance);
+        } catch (Throwable t) {
+            log.warnf(t, "Failed to destroy stateful bean %s", instance.getId());
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @return the number of objects in memory
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * @return the number of passivated objects
+     */
+    public int getPassivatedCount() {
+        return passivatedCount.get();
+    }
+
+    /**
+     * @return the number of requests served from memory
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of requests which required activating the object
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of objects passivated
+     */
+    public long getPassivationCount() {
+        return passivationCount.get();
+    }
+
+    /**
+     * @return the number of objects removed after the idle timeout
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+}
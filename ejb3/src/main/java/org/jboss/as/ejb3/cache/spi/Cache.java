@@ -65,4 +65,14 @@ public interface Cache<T extends Identifiable> {
      * @param factory   the factory this cache should use.
      */
     void setStatefulObjectFactory(StatefulObjectFactory<T> factory);
+
+    /**
+     * Start the cache. Invoked when the owning component starts.
+     */
+    void start();
+
+    /**
+     * Stop the cache, destroying every object it holds. Invoked when the owning component stops.
+     */
+    void stop();
 }
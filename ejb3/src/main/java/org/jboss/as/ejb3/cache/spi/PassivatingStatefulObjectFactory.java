@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi;
+
+import java.io.Serializable;
+
+/**
+ * A {@link StatefulObjectFactory} whose instances can be written out of memory by a passivating cache and later
+ * restored.
+ */
+public interface PassivatingStatefulObjectFactory<T> extends StatefulObjectFactory<T> {
+    /**
+     * Prepare an instance for passivation.  This runs the pre-passivate lifecycle of the instance.
+     *
+     * @param instance the instance to passivate
+     * @return the state to store, or {@code null} if the instance cannot be passivated, in which case the instance
+     *         stays in memory
+     */
+    Object passivateInstance(T instance);
+
+    /**
+     * Return an instance to service after its passivated state could not be stored.  This runs the post-activate
+     * lifecycle of the instance, undoing {@link #passivateInstance(Object)}.
+     *
+     * @param instance the instance which stays in memory
+     */
+    void cancelPassivation(T instance);
+
+    /**
+     * Restore an instance from its passivated state.  This runs the post-activate lifecycle of the instance.
+     *
+     * @param id    the identifier of the instance
+     * @param state the state returned by {@link #passivateInstance(Object)}
+     * @return the restored instance, which must have the given identifier
+     */
+    T activateInstance(Serializable id, Object state);
+}
@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Stores the state of passivated objects.
+ */
+public interface PassivationStore {
+    /**
+     * Store the state of an object.
+     *
+     * @param key   the identifier of the object
+     * @param state the state
+     * @throws IOException if the state could not be stored
+     */
+    void store(Serializable key, Object state) throws IOException;
+
+    /**
+     * Load and remove the state of an object.  State that could not be read is kept.
+     *
+     * @param key the identifier of the object
+     * @return the state
+     * @throws IOException            if the state could not be read
+     * @throws ClassNotFoundException if a class of the state could not be resolved
+     */
+    Object load(Serializable key) throws IOException, ClassNotFoundException;
+
+    /**
+     * Remove the state of an object without reading it.
+     *
+     * @param key the identifier of the object
+     */
+    void remove(Serializable key);
+
+    /**
+     * Remove all stored state and release the resources of the store.
+     */
+    void close();
+}
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.singleton;
+
+import org.jboss.as.ee.component.AbstractComponent;
+import org.jboss.as.ee.component.AbstractComponentInstance;
+import org.jboss.as.ee.component.Component;
+import org.jboss.as.ee.component.ComponentInstance;
+import org.jboss.as.ejb3.component.EJBComponentConfiguration;
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.invocation.InterceptorFactoryContext;
+
+import java.util.List;
+
+/**
+ * {@link Component} for a singleton session bean. The bean instance is created on the first invocation and
+ * destroyed when the component stops.
+ * <p/>
+ * TODO: container managed concurrency (@Lock) is not enforced yet, so invocations reach the instance concurrently
+ */
+public class SingletonComponent extends AbstractComponent {
+
+    private volatile ComponentInstance instance;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param componentConfiguration the component configuration
+     */
+    public SingletonComponent(final EJBComponentConfiguration componentConfiguration) {
+        super(componentConfiguration);
+    }
+
+    @Override
+    public Interceptor createClientInterceptor(Class<?> viewClass) {
+        return new Interceptor() {
+
+            @Override
+            public Object processInvocation(InterceptorContext context) throws Exception {
+                // setup the component being invoked
+                context.putPrivateData(Component.class, SingletonComponent.this);
+                return context.proceed();
+            }
+        };
+    }
+
+    /**
+     * Returns the bean instance, creating it on first use.
+     *
+     * @return the bean instance
+     */
+    public ComponentInstance getComponentInstance() {
+        ComponentInstance current = instance;
+        if (current == null) {
+            synchronized (this) {
+                current = instance;
+                if (current == null) {
+                    instance = current = createInstance();
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        final ComponentInstance current;
+        synchronized (this) {
+            current = instance;
+            instance = null;
+        }
+        if (current != null) {
+            destroyInstance(current);
+        }
+    }
+
+    @Override
+    protected AbstractComponentInstance constructComponentInstance(Object instance, List<Interceptor> preDestroyInterceptors, InterceptorFactoryContext context) {
+        return new SingletonComponentInstance(this, instance, preDestroyInterceptors, context);
+    }
+}
@@ -1,6 +1,6 @@
 /*
  * JBoss, Home of Professional Open Source.
- * Copyright 2010, Red Hat, Inc., and individual contributors
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
  * as indicated by the @author tags. See the copyright.txt file in the
  * distribution for a full listing of individual contributors.
  *
@@ -20,43 +20,31 @@
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
 
-package org.jboss.as.ejb3.component.stateless;
+package org.jboss.as.ejb3.component.singleton;
 
 import org.jboss.as.ee.component.Component;
 import org.jboss.as.ee.component.ComponentInstance;
 import org.jboss.invocation.Interceptor;
 import org.jboss.invocation.InterceptorContext;
-import org.jboss.logging.Logger;
 
 /**
- * NOTE: This is just a dummy interceptor which will be removed very soon!
- * DO NOT USE THIS.
- * <p/>
- * Author: Jaikiran Pai
+ * Associates the invocation with the single bean instance of the component.
  */
-public class DummyComponentInterceptor implements Interceptor {
+public class SingletonInstanceInterceptor implements Interceptor {
 
-    /**
-     * Logger
-     */
-    private static Logger logger = Logger.getLogger(DummyComponentInterceptor.class);
+    public static final SingletonInstanceInterceptor INSTANCE = new SingletonInstanceInterceptor();
 
+    private SingletonInstanceInterceptor() {
+    }
 
     @Override
     public Object processInvocation(InterceptorContext context) throws Exception {
-
-        logger.info(this.getClass().getSimpleName() + " interceptor invoked");
         // get the component being invoked
         Component component = context.getPrivateData(Component.class);
-        if (component == null) {
-            throw new IllegalStateException("Component not set in InterceptorContext: " + context);
+        if (!(component instanceof SingletonComponent)) {
+            throw new IllegalStateException("Singleton component not set in InterceptorContext: " + context);
         }
-        // TODO: should be getInstance()
-        ComponentInstance componentInstance = component.createInstance();
-        // add it to the interceptor context
-        context.putPrivateData(ComponentInstance.class, componentInstance);
-
-        // proceed
+        context.putPrivateData(ComponentInstance.class, ((SingletonComponent) component).getComponentInstance());
         return context.proceed();
     }
 }
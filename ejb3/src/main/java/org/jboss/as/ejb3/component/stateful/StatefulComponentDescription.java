@@ -23,8 +23,9 @@
 package org.jboss.as.ejb3.component.stateful;
 
 import org.jboss.as.ee.component.AbstractComponentConfiguration;
-import org.jboss.as.ejb3.component.EJBComponentConfiguration;
+import org.jboss.as.ejb3.cache.CacheRegistry;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentDescription;
+import org.jboss.msc.service.ServiceBuilder;
 
 /**
  * User: jpai
@@ -41,6 +42,8 @@ public class StatefulComponentDescription extends SessionBeanComponentDescriptio
      */
     public StatefulComponentDescription(final String componentName, final String componentClassName, final String moduleName, final String applicationName) {
         super(componentName, componentClassName, moduleName, applicationName);
+        // the registry creates the instance cache
+        addDependency(CacheRegistry.SERVICE_NAME, ServiceBuilder.DependencyType.REQUIRED);
     }
 
     @Override
@@ -22,19 +22,30 @@
 package org.jboss.as.ejb3.component.stateful;
 
 import org.jboss.as.ee.component.AbstractComponent;
+import org.jboss.as.ee.component.AbstractComponentDescription;
 import org.jboss.as.ee.component.AbstractComponentInstance;
 import org.jboss.as.ee.component.Component;
-import org.jboss.as.ejb3.cache.NoPassivationCache;
+import org.jboss.as.ejb3.cache.CacheRegistry;
+import org.jboss.as.ejb3.cache.PassivatingCache;
 import org.jboss.as.ejb3.cache.spi.Cache;
-import org.jboss.as.ejb3.cache.spi.StatefulObjectFactory;
+import org.jboss.as.ejb3.cache.spi.PassivatingStatefulObjectFactory;
+import org.jboss.as.ejb3.cache.spi.ReferenceFilter;
 import org.jboss.as.ejb3.component.EJBComponentConfiguration;
-import org.jboss.as.ejb3.component.stateless.StatelessSessionComponentInstance;
-import org.jboss.as.server.deployment.reflect.DeploymentReflectionIndex;
 import org.jboss.invocation.Interceptor;
 import org.jboss.invocation.InterceptorContext;
 import org.jboss.invocation.InterceptorFactoryContext;
+import org.jboss.invocation.SimpleInterceptorFactoryContext;
+import org.jboss.util.id.GUID;
 
+import javax.ejb.EJBException;
+import javax.ejb.PostActivate;
+import javax.ejb.PrePassivate;
 import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -43,7 +54,24 @@ import java.util.List;
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
 public class StatefulSessionComponent extends AbstractComponent {
-    private Cache<StatefulSessionComponentInstance> cache;
+    /**
+     * The types of the container objects a bean may hold when it is passivated, although they are not serializable
+     * (EJB 3.1 section 4.2.1).  They are kept in memory while the bean is passivated.
+     */
+    private static final String[] CONTAINER_REFERENCE_TYPES = {
+            "javax.ejb.EJBContext", "javax.ejb.EJBHome", "javax.ejb.EJBLocalHome", "javax.ejb.EJBObject",
+            "javax.ejb.EJBLocalObject", "javax.ejb.Timer", "javax.ejb.TimerService", "javax.naming.Context",
+            "javax.transaction.UserTransaction", "javax.persistence.EntityManager", "javax.persistence.EntityManagerFactory",
+            "javax.sql.DataSource", "javax.resource.cci.ConnectionFactory", "javax.jms.ConnectionFactory",
+            "javax.jms.Destination", "javax.mail.Session"
+    };
+
+    private final PassivatingCache<StatefulSessionComponentInstance> cache;
+
+    private final CacheRegistry cacheRegistry;
+    private final List<Method> prePassivateMethods;
+    private final List<Method> postActivateMethods;
+    private final List<Class<?>> containerReferenceTypes;
 
     /**
      * Construct a new instance.
@@ -53,8 +81,19 @@ public class StatefulSessionComponent extends AbstractComponent {
     protected StatefulSessionComponent(final EJBComponentConfiguration configuration) {
         super(configuration);
 
-        cache = new NoPassivationCache<StatefulSessionComponentInstance>();
-        cache.setStatefulObjectFactory(new StatefulObjectFactory<StatefulSessionComponentInstance>() {
+        prePassivateMethods = findLifecycleMethods(getComponentClass(), PrePassivate.class);
+        postActivateMethods = findLifecycleMethods(getComponentClass(), PostActivate.class);
+
+        containerReferenceTypes = loadTypes(getComponentClass().getClassLoader(), CONTAINER_REFERENCE_TYPES);
+
+        cacheRegistry = ((StatefulSessionComponentConfiguration) configuration).getCacheRegistry();
+        cache = cacheRegistry.createCache(configuration.getComponentName(), getComponentClass().getClassLoader(), new ReferenceFilter() {
+            @Override
+            public boolean isReference(Object object) {
+                return isContainerReference(object);
+            }
+        });
+        cache.setStatefulObjectFactory(new PassivatingStatefulObjectFactory<StatefulSessionComponentInstance>() {
             @Override
             public StatefulSessionComponentInstance createInstance() {
                 return (StatefulSessionComponentInstance) StatefulSessionComponent.this.createInstance();
@@ -64,9 +103,38 @@ public class StatefulSessionComponent extends AbstractComponent {
             public void destroyInstance(StatefulSessionComponentInstance instance) {
                 StatefulSessionComponent.this.destroyInstance(instance);
             }
+
+            @Override
+            public Object passivateInstance(StatefulSessionComponentInstance instance) {
+                return StatefulSessionComponent.this.passivateInstance(instance);
+            }
+
+            @Override
+            public void cancelPassivation(StatefulSessionComponentInstance instance) {
+                invokeLifecycleMethods(postActivateMethods, instance.getInstance());
+            }
+
+            @Override
+            public StatefulSessionComponentInstance activateInstance(Serializable id, Object state) {
+                return StatefulSessionComponent.this.activateInstance(id, state);
+            }
         });
     }
 
+    @Override
+    public void start() {
+        super.start();
+        cache.start();
+        cacheRegistry.register(cache);
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        cacheRegistry.unregister(cache);
+        cache.stop();
+    }
+
     @Override
     public Interceptor createClientInterceptor(Class<?> view) {
         final Serializable sessionId = createSession();
@@ -96,6 +164,99 @@ public class StatefulSessionComponent extends AbstractComponent {
         return cache;
     }
 
+    /**
+     * Runs the pre-passivate methods of the bean and returns the bean as the state to passivate.
+     *
+     * @return the bean, or null if it is not serializable and so can not be passivated
+     */
+    private Object passivateInstance(final StatefulSessionComponentInstance instance) {
+        final Object bean = instance.getInstance();
+        if (!(bean instanceof Serializable)) {
+            return null;
+        }
+        invokeLifecycleMethods(prePassivateMethods, bean);
+        return bean;
+    }
+
+    /**
+     * Wraps an activated bean in a new component instance.  The injections are applied again, to restore the
+     * references held in transient fields, and the post-activate methods are run; post-construct is not.
+     */
+    private StatefulSessionComponentInstance activateInstance(final Serializable id, final Object bean) {
+        final SimpleInterceptorFactoryContext interceptorContext = new SimpleInterceptorFactoryContext();
+        final List<Interceptor> preDestroyInterceptors = new ArrayList<Interceptor>();
+        createPreDestroyMethods(interceptorContext, preDestroyInterceptors);
+        preDestroyInterceptors.addAll(applyInjections(bean));
+        invokeLifecycleMethods(postActivateMethods, bean);
+        return new StatefulSessionComponentInstance(this, bean, preDestroyInterceptors, interceptorContext, (GUID) id);
+    }
+
+    /**
+     * @return true if the object is a container object which is kept in memory while a bean holding it is passivated
+     */
+    private boolean isContainerReference(final Object object) {
+        for (Class<?> type : containerReferenceTypes) {
+            if (type.isInstance(object)) {
+                return true;
+            }
+        }
+        // a reference to another bean
+        return AbstractComponentDescription.isViewProxyClass(object.getClass());
+    }
+
+    /**
+     * Loads the types visible to the class loader; the others can not be referenced by the bean.
+     */
+    private static List<Class<?>> loadTypes(final ClassLoader classLoader, final String[] names) {
+        final List<Class<?>> types = new ArrayList<Class<?>>(names.length);
+        for (String name : names) {
+            try {
+                types.add(Class.forName(name, false, classLoader));
+            } catch (ClassNotFoundException e) {
+                // not available to the deployment
+            }
+        }
+        return types;
+    }
+
+    private static void invokeLifecycleMethods(final List<Method> methods, final Object bean) {
+        for (Method method : methods) {
+            try {
+                method.invoke(bean);
+            } catch (InvocationTargetException e) {
+                throw new EJBException("Failed to invoke " + method, toException(e.getCause()));
+            } catch (IllegalAccessException e) {
+                throw new EJBException("Failed to invoke " + method, e);
+            }
+        }
+    }
+
+    private static Exception toException(final Throwable t) {
+        if (t instanceof Exception)
+            return (Exception) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        return new RuntimeException(t);
+    }
+
+    /**
+     * Finds the no-arg methods carrying the given lifecycle annotation, superclass methods first.
+     */
+    private static List<Method> findLifecycleMethods(final Class<?> beanClass, final Class<? extends Annotation> annotation) {
+        final List<Method> methods = new ArrayList<Method>();
+        if (beanClass == null || beanClass == Object.class) {
+            return methods;
+        }
+        methods.addAll(findLifecycleMethods(beanClass.getSuperclass(), annotation));
+        for (Method method : beanClass.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(annotation) && method.getParameterTypes().length == 0 && !Modifier.isStatic(method.getModifiers())) {
+                method.setAccessible(true);
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
     @Override
     protected AbstractComponentInstance constructComponentInstance(Object instance, List<Interceptor> preDestroyInterceptors, InterceptorFactoryContext context) {
         return new StatefulSessionComponentInstance(this, instance, preDestroyInterceptors, context);
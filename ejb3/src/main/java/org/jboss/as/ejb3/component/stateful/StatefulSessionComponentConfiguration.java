@@ -22,6 +22,7 @@
 package org.jboss.as.ejb3.component.stateful;
 
 import org.jboss.as.ee.component.AbstractComponent;
+import org.jboss.as.ejb3.cache.CacheRegistry;
 import org.jboss.as.ejb3.component.EJBComponentDescription;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentConfiguration;
 import org.jboss.invocation.ImmediateInterceptorFactory;
@@ -37,6 +38,13 @@ public class StatefulSessionComponentConfiguration extends SessionBeanComponentC
         addComponentSystemInterceptorFactory(new ImmediateInterceptorFactory(new ComponentInstanceInterceptor()));
     }
 
+    /**
+     * @return the registry creating the instance cache
+     */
+    public CacheRegistry getCacheRegistry() {
+        return (CacheRegistry) getInjection(CacheRegistry.SERVICE_NAME).getValue();
+    }
+
     @Override
     public AbstractComponent constructComponent() {
         return new StatefulSessionComponent(this);
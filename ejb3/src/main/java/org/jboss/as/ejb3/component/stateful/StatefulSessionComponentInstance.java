@@ -38,8 +38,15 @@ public class StatefulSessionComponentInstance extends AbstractComponentInstance
     private final GUID id;
 
     protected StatefulSessionComponentInstance(final StatefulSessionComponent component, final Object instance, List<Interceptor> preDestroyInterceptors, InterceptorFactoryContext context) {
+        this(component, instance, preDestroyInterceptors, context, new GUID());
+    }
+
+    /**
+     * Construct an instance for a bean which already has an identity, e.g. when it is activated.
+     */
+    protected StatefulSessionComponentInstance(final StatefulSessionComponent component, final Object instance, List<Interceptor> preDestroyInterceptors, InterceptorFactoryContext context, final GUID id) {
         super(component, instance, preDestroyInterceptors, context);
-        this.id = new GUID();
+        this.id = id;
     }
 
     public Serializable getId() {
@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.stateless;
+
+import org.jboss.as.ee.component.Component;
+import org.jboss.as.ee.component.ComponentInstance;
+import org.jboss.as.ejb3.pool.spi.Pool;
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+
+import javax.ejb.ApplicationException;
+
+/**
+ * Associates the invocation with a bean instance taken from the component's pool, and hands the instance back
+ * once the invocation completes.  Instances which threw a system exception are discarded rather than reused, as
+ * required by the EJB specification.
+ */
+public class PooledInstanceInterceptor implements Interceptor {
+
+    public static final PooledInstanceInterceptor INSTANCE = new PooledInstanceInterceptor();
+
+    private PooledInstanceInterceptor() {
+    }
+
+    @Override
+    public Object processInvocation(InterceptorContext context) throws Exception {
+        // get the component being invoked
+        Component component = context.getPrivateData(Component.class);
+        if (!(component instanceof StatelessSessionComponent)) {
+            throw new IllegalStateException("Stateless component not set in InterceptorContext: " + context);
+        }
+        final Pool<StatelessSessionComponentInstance> pool = ((StatelessSessionComponent) component).getPool();
+        final StatelessSessionComponentInstance instance = pool.get();
+        // add it to the interceptor context
+        context.putPrivateData(ComponentInstance.class, instance);
+        boolean discard = false;
+        try {
+            return context.proceed();
+        } catch (Exception e) {
+            discard = isSystemException(e);
+            throw e;
+        } catch (Error e) {
+            discard = true;
+            throw e;
+        } finally {
+            if (discard) {
+                pool.discard(instance);
+            } else {
+                pool.release(instance);
+            }
+        }
+    }
+
+    private static boolean isSystemException(Exception e) {
+        return e instanceof RuntimeException && !e.getClass().isAnnotationPresent(ApplicationException.class);
+    }
+}
@@ -25,6 +25,8 @@ package org.jboss.as.ejb3.component.stateless;
 import org.jboss.as.ee.component.AbstractComponentConfiguration;
 import org.jboss.as.ejb3.component.EJBComponentConfiguration;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentDescription;
+import org.jboss.as.ejb3.pool.PoolRegistry;
+import org.jboss.msc.service.ServiceBuilder;
 
 /**
  * User: jpai
@@ -41,6 +43,8 @@ public class StatelessComponentDescription extends SessionBeanComponentDescripti
      */
     public StatelessComponentDescription(final String componentName, final String componentClassName, final String moduleName, final String applicationName) {
         super(componentName, componentClassName, moduleName, applicationName);
+        // the registry supplies the instance pool configuration
+        addDependency(PoolRegistry.SERVICE_NAME, ServiceBuilder.DependencyType.REQUIRED);
     }
 
     @Override
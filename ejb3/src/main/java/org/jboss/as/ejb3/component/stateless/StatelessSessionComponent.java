@@ -25,8 +25,10 @@ package org.jboss.as.ejb3.component.stateless;
 import org.jboss.as.ee.component.AbstractComponent;
 import org.jboss.as.ee.component.AbstractComponentInstance;
 import org.jboss.as.ee.component.Component;
-import org.jboss.as.ee.component.ComponentInstance;
 import org.jboss.as.ejb3.component.EJBComponentConfiguration;
+import org.jboss.as.ejb3.pool.PoolRegistry;
+import org.jboss.as.ejb3.pool.spi.Pool;
+import org.jboss.as.ejb3.pool.spi.StatelessObjectFactory;
 import org.jboss.ejb3.effigy.common.JBossSessionBeanEffigy;
 import org.jboss.invocation.Interceptor;
 import org.jboss.invocation.InterceptorContext;
@@ -54,9 +56,12 @@ public class StatelessSessionComponent extends AbstractComponent {
      */
     private List<Interceptor> componentInterceptors;
 
-    // some more injectable resources
-    // @Resource
-    // private Pool pool;
+    /**
+     * The pool of bean instances serving invocations
+     */
+    private final Pool<StatelessSessionComponentInstance> pool;
+
+    private final PoolRegistry poolRegistry;
 
     /**
      * Constructs a StatelessEJBComponent for a stateless session bean
@@ -76,6 +81,20 @@ public class StatelessSessionComponent extends AbstractComponent {
     public StatelessSessionComponent(final EJBComponentConfiguration componentConfiguration, List<Interceptor> componentInterceptors) {
         super(componentConfiguration);
         this.componentInterceptors = componentInterceptors;
+
+        poolRegistry = ((StatelessSessionComponentConfiguration) componentConfiguration).getPoolRegistry();
+        pool = poolRegistry.getConfig().createPool();
+        pool.setStatelessObjectFactory(new StatelessObjectFactory<StatelessSessionComponentInstance>() {
+            @Override
+            public StatelessSessionComponentInstance createInstance() {
+                return (StatelessSessionComponentInstance) StatelessSessionComponent.this.createInstance();
+            }
+
+            @Override
+            public void destroyInstance(StatelessSessionComponentInstance instance) {
+                StatelessSessionComponent.this.destroyInstance(instance);
+            }
+        });
     }
 
     // TODO: I need to understand what exactly is this method meant for
@@ -93,11 +112,26 @@ public class StatelessSessionComponent extends AbstractComponent {
         };
     }
 
-    //TODO: This should be getInstance()
+    /**
+     * Returns the pool from which invocations take their bean instance.
+     *
+     * @return the pool
+     */
+    public Pool<StatelessSessionComponentInstance> getPool() {
+        return pool;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        poolRegistry.register(pool);
+    }
+
     @Override
-    public ComponentInstance createInstance() {
-        // TODO: Use a pool
-        return super.createInstance();
+    public void stop() {
+        super.stop();
+        poolRegistry.unregister(pool);
+        pool.stop();
     }
 
     @Override
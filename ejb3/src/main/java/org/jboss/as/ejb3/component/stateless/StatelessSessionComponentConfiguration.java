@@ -25,6 +25,7 @@ package org.jboss.as.ejb3.component.stateless;
 import org.jboss.as.ee.component.AbstractComponent;
 import org.jboss.as.ejb3.component.EJBComponentDescription;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentConfiguration;
+import org.jboss.as.ejb3.pool.PoolRegistry;
 import org.jboss.invocation.ImmediateInterceptorFactory;
 
 /**
@@ -40,8 +41,14 @@ public class StatelessSessionComponentConfiguration extends SessionBeanComponent
     public StatelessSessionComponentConfiguration(final EJBComponentDescription description) {
         super(description);
 
-        // TODO: use a proper instance association interceptor
-        addComponentSystemInterceptorFactory(new ImmediateInterceptorFactory(new DummyComponentInterceptor()));
+        addComponentSystemInterceptorFactory(new ImmediateInterceptorFactory(PooledInstanceInterceptor.INSTANCE));
+    }
+
+    /**
+     * @return the registry supplying the instance pool configuration
+     */
+    public PoolRegistry getPoolRegistry() {
+        return (PoolRegistry) getInjection(PoolRegistry.SERVICE_NAME).getValue();
     }
 
     @Override
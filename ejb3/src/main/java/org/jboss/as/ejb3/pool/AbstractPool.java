@@ -0,0 +1,86 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool;
+
+import org.jboss.as.ejb3.pool.spi.Pool;
+import org.jboss.as.ejb3.pool.spi.StatelessObjectFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the statistics common to all pools.
+ */
+public abstract class AbstractPool<T> implements Pool<T> {
+    private StatelessObjectFactory<T> factory;
+    private final AtomicLong createCount = new AtomicLong();
+    private final AtomicLong removeCount = new AtomicLong();
+    protected final AtomicLong hitCount = new AtomicLong();
+    protected final AtomicLong missCount = new AtomicLong();
+    protected final AtomicLong waitCount = new AtomicLong();
+    protected final AtomicLong timeoutCount = new AtomicLong();
+
+    @Override
+    public void setStatelessObjectFactory(StatelessObjectFactory<T> factory) {
+        this.factory = factory;
+    }
+
+    protected T create() {
+        T instance = factory.createInstance();
+        createCount.incrementAndGet();
+        return instance;
+    }
+
+    protected void destroy(T instance) {
+        removeCount.incrementAndGet();
+        factory.destroyInstance(instance);
+    }
+
+    @Override
+    public long getCreateCount() {
+        return createCount.get();
+    }
+
+    @Override
+    public long getRemoveCount() {
+        return removeCount.get();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+}
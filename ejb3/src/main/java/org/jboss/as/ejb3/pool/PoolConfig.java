@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool;
+
+import org.jboss.as.ejb3.pool.spi.Pool;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The configuration from which the pools of stateless session bean instances are created.
+ */
+public class PoolConfig {
+    /**
+     * The available pool implementations.
+     */
+    public enum Type {
+        STRICT_MAX("strict-max"),
+        STRIPED("striped"),
+        ;
+
+        private static final Map<String, Type> MAP;
+
+        static {
+            final Map<String, Type> map = new HashMap<String, Type>();
+            for (Type type : values()) {
+                map.put(type.name, type);
+            }
+            MAP = map;
+        }
+
+        private final String name;
+
+        Type(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @param name the configuration name of the type
+         * @return the type, or {@code null} if there is no such type
+         */
+        public static Type forName(String name) {
+            return MAP.get(name);
+        }
+    }
+
+    public static final Type DEFAULT_TYPE = Type.STRICT_MAX;
+    public static final int DEFAULT_MAX_SIZE = 20;
+    public static final long DEFAULT_TIMEOUT = 5000;
+
+    /**
+     * The configuration used when none is given.
+     */
+    public static final PoolConfig DEFAULT = new PoolConfig(DEFAULT_TYPE, DEFAULT_MAX_SIZE, DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+
+    private final Type type;
+    private final int maxSize;
+    private final long timeout;
+    private final TimeUnit timeUnit;
+
+    public PoolConfig(final Type type, final int maxSize, final long timeout, final TimeUnit timeUnit) {
+        if (type == null)
+            throw new IllegalArgumentException("type is null");
+        if (timeUnit == null)
+            throw new IllegalArgumentException("timeUnit is null");
+        this.type = type;
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+    }
+
+    /**
+     * Creates a new, empty pool as configured.
+     *
+     * @return the pool
+     */
+    public <T> Pool<T> createPool() {
+        switch (type) {
+            case STRICT_MAX:
+                return new StrictMaxPool<T>(maxSize, timeout, timeUnit);
+            case STRIPED:
+                return new StripedPool<T>(maxSize);
+            default:
+                throw new IllegalStateException("Unknown pool type " + type);
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public TimeUnit getTimeUnit() {
+        return timeUnit;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool;
+
+import org.jboss.as.ejb3.pool.spi.Pool;
+import org.jboss.msc.service.ServiceName;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Tracks the pools of all running stateless session beans, so their statistics can be reported by the
+ * subsystem.
+ */
+public class PoolRegistry {
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "pool-registry");
+
+    private final PoolConfig config;
+    private final Set<Pool<?>> pools = new CopyOnWriteArraySet<Pool<?>>();
+
+    public PoolRegistry(final PoolConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * @return the configuration new pools are created from
+     */
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    public void register(Pool<?> pool) {
+        pools.add(pool);
+    }
+
+    public void unregister(Pool<?> pool) {
+        pools.remove(pool);
+    }
+
+    /**
+     * @return the currently registered pools
+     */
+    public Set<Pool<?>> getPools() {
+        return pools;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool;
+
+import javax.ejb.EJBException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool which never hands out more than a fixed number of instances at a time.  Callers beyond that limit wait,
+ * up to a timeout, for an instance to be released.
+ * <p/>
+ * Idle instances are kept in a non-blocking queue; the limit is enforced by a semaphore, so an uncontended
+ * {@link #get()} and {@link #release(Object)} never take a lock.
+ */
+public class StrictMaxPool<T> extends AbstractPool<T> {
+    private final int maxSize;
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    private final Semaphore semaphore;
+    private final Queue<T> pool = new ConcurrentLinkedQueue<T>();
+    private final AtomicInteger available = new AtomicInteger();
+    private volatile boolean stopped;
+
+    public StrictMaxPool(int maxSize, long timeout, TimeUnit timeUnit) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        this.semaphore = new Semaphore(maxSize, false);
+    }
+
+    @Override
+    public T get() {
+        if (!semaphore.tryAcquire()) {
+            waitCount.incrementAndGet();
+            try {
+                if (!semaphore.tryAcquire(timeout, timeUnit)) {
+                    timeoutCount.incrementAndGet();
+                    throw new EJBException("Failed to acquire a pooled instance within " + timeout + " " + timeUnit);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EJBException("Interrupted while waiting for a pooled instance");
+            }
+        }
+        try {
+            T instance = pool.poll();
+            if (instance != null) {
+                available.decrementAndGet();
+                hitCount.incrementAndGet();
+                return instance;
+            }
+            missCount.incrementAndGet();
+            return create();
+        } catch (RuntimeException e) {
+            semaphore.release();
+            throw e;
+        } catch (Error e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(T obj) {
+        try {
+            if (stopped) {
+                destroy(obj);
+            } else {
+                pool.add(obj);
+                available.incrementAndGet();
+                if (stopped) {
+                    // raced with stop(), which may already have drained the pool
+                    drain();
+                }
+            }
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    @Override
+    public void discard(T obj) {
+        try {
+            destroy(obj);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        drain();
+    }
+
+    private void drain() {
+        T instance;
+        while ((instance = pool.poll()) != null) {
+            available.decrementAndGet();
+            destroy(instance);
+        }
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int getAvailableCount() {
+        return available.get();
+    }
+}
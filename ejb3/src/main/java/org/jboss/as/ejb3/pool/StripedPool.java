@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool which spreads idle instances over a number of stripes selected by the calling thread, so threads
+ * mostly reuse their own instances and rarely touch the same memory.  It does not limit the number of instances
+ * in use; each stripe keeps at most {@code maxSize / stripes} idle instances and destroys any surplus.
+ */
+public class StripedPool<T> extends AbstractPool<T> {
+    private final int maxSize;
+    private final int maxPerStripe;
+    private final Stripe<T>[] stripes;
+    private volatile boolean stopped;
+
+    @SuppressWarnings("unchecked")
+    public StripedPool(int maxSize, int stripeCount) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        if (stripeCount < 1)
+            throw new IllegalArgumentException("stripeCount must be at least 1");
+        stripeCount = Math.min(stripeCount, maxSize);
+        this.maxSize = maxSize;
+        this.maxPerStripe = (maxSize + stripeCount - 1) / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<T>();
+        }
+    }
+
+    public StripedPool(int maxSize) {
+        this(maxSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    private Stripe<T> stripe() {
+        return stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+    }
+
+    @Override
+    public T get() {
+        final Stripe<T> stripe = stripe();
+        T instance = stripe.instances.poll();
+        if (instance != null) {
+            stripe.size.decrementAndGet();
+            hitCount.incrementAndGet();
+            return instance;
+        }
+        missCount.incrementAndGet();
+        return create();
+    }
+
+    @Override
+    public void release(T obj) {
+        if (stopped) {
+            destroy(obj);
+            return;
+        }
+        final Stripe<T> stripe = stripe();
+        if (stripe.size.incrementAndGet() <= maxPerStripe) {
+            stripe.instances.add(obj);
+        } else {
+            stripe.size.decrementAndGet();
+            destroy(obj);
+        }
+    }
+
+    @Override
+    public void discard(T obj) {
+        destroy(obj);
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        for (Stripe<T> stripe : stripes) {
+            T instance;
+            while ((instance = stripe.instances.poll()) != null) {
+                stripe.size.decrementAndGet();
+                destroy(instance);
+            }
+        }
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int getAvailableCount() {
+        int count = 0;
+        for (Stripe<T> stripe : stripes) {
+            count += stripe.size.get();
+        }
+        return count;
+    }
+
+    private static final class Stripe<T> {
+        final Queue<T> instances = new ConcurrentLinkedQueue<T>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.spi;
+
+/**
+ * A pool of interchangeable instances, such as stateless session bean instances.
+ */
+public interface Pool<T> {
+    /**
+     * Takes an instance from the pool, creating one if none is available.
+     *
+     * @return an instance, which must be handed back through {@link #release(Object)} or {@link #discard(Object)}
+     * @throws javax.ejb.EJBException if no instance became available in time
+     */
+    T get();
+
+    /**
+     * Returns an instance to the pool for reuse.
+     *
+     * @param obj    the instance
+     */
+    void release(T obj);
+
+    /**
+     * Destroys an instance which must not be reused, for example after it threw a system exception.
+     *
+     * @param obj    the instance
+     */
+    void discard(T obj);
+
+    /**
+     * Associate the pool with a stateless object factory.
+     *
+     * @param factory   the factory this pool should use.
+     */
+    void setStatelessObjectFactory(StatelessObjectFactory<T> factory);
+
+    /**
+     * Destroys every idle instance.  Instances still in use are destroyed when they are released.
+     */
+    void stop();
+
+    /**
+     * @return the maximum number of instances the pool holds, or {@code -1} if unbounded
+     */
+    int getMaxSize();
+
+    /**
+     * @return the number of idle instances
+     */
+    int getAvailableCount();
+
+    /**
+     * @return the number of instances created
+     */
+    long getCreateCount();
+
+    /**
+     * @return the number of instances destroyed
+     */
+    long getRemoveCount();
+
+    /**
+     * @return the number of {@link #get()} calls served by an idle instance
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of {@link #get()} calls which had to create an instance
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of {@link #get()} calls which had to wait for an instance
+     */
+    long getWaitCount();
+
+    /**
+     * @return the number of {@link #get()} calls which gave up waiting for an instance
+     */
+    long getTimeoutCount();
+}
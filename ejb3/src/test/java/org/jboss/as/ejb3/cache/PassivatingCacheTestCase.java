@@ -0,0 +1,380 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import org.jboss.as.ejb3.cache.spi.Identifiable;
+import org.jboss.as.ejb3.cache.spi.PassivatingStatefulObjectFactory;
+import org.jboss.as.ejb3.cache.spi.PassivationStore;
+import org.junit.Test;
+
+import javax.ejb.EJBException;
+import javax.ejb.NoSuchEJBException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class PassivatingCacheTestCase {
+
+    private static class Bean implements Identifiable {
+        final Integer id;
+        final String state;
+
+        Bean(Integer id, String state) {
+            this.id = id;
+            this.state = state;
+        }
+
+        @Override
+        public Serializable getId() {
+            return id;
+        }
+    }
+
+    private static class MockFactory implements PassivatingStatefulObjectFactory<Bean> {
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger destroyed = new AtomicInteger();
+        final AtomicInteger activated = new AtomicInteger();
+        final AtomicInteger cancelled = new AtomicInteger();
+
+        @Override
+        public Bean createInstance() {
+            final int id = created.incrementAndGet();
+            return new Bean(id, "state-" + id);
+        }
+
+        @Override
+        public void destroyInstance(Bean instance) {
+            destroyed.incrementAndGet();
+        }
+
+        @Override
+        public Object passivateInstance(Bean instance) {
+            return instance.state;
+        }
+
+        @Override
+        public Bean activateInstance(Serializable id, Object state) {
+            activated.incrementAndGet();
+            return new Bean((Integer) id, (String) state);
+        }
+
+        @Override
+        public void cancelPassivation(Bean instance) {
+            cancelled.incrementAndGet();
+        }
+    }
+
+    private static class MapStore implements PassivationStore {
+        final Map<Serializable, Object> map = new HashMap<Serializable, Object>();
+
+        @Override
+        public synchronized void store(Serializable key, Object state) {
+            map.put(key, state);
+        }
+
+        @Override
+        public synchronized Object load(Serializable key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public synchronized void remove(Serializable key) {
+            map.remove(key);
+        }
+
+        @Override
+        public synchronized void close() {
+            map.clear();
+        }
+    }
+
+    private static class FailingStore extends MapStore {
+        final AtomicInteger attempts = new AtomicInteger();
+
+        @Override
+        public synchronized void store(Serializable key, Object state) {
+            attempts.incrementAndGet();
+            throw new IllegalStateException(new IOException("disk full"));
+        }
+    }
+
+    private static class UnreadableStore extends MapStore {
+        final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public synchronized Object load(Serializable key) {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException(new IOException("read error"));
+            }
+            return super.load(key);
+        }
+    }
+
+    private static class QueueExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            final List<Runnable> tasks = new ArrayList<Runnable>(this.tasks);
+            this.tasks.clear();
+            for (Runnable task : tasks) {
+                task.run();
+            }
+        }
+    }
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static PassivatingCache<Bean> createCache(MockFactory factory, MapStore store, int maxSize, long idleTimeout) {
+        return createCache(factory, store, DIRECT, maxSize, idleTimeout);
+    }
+
+    private static PassivatingCache<Bean> createCache(MockFactory factory, MapStore store, Executor passivationExecutor, int maxSize, long idleTimeout) {
+        final PassivatingCache<Bean> cache = new PassivatingCache<Bean>(maxSize, idleTimeout, store, passivationExecutor, null);
+        cache.setStatefulObjectFactory(factory);
+        return cache;
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsPassivated() {
+        final MockFactory factory = new MockFactory();
+        final MapStore store = new MapStore();
+        final PassivatingCache<Bean> cache = createCache(factory, store, 2, 0);
+
+        final Serializable first = cache.create().getId();
+        final Serializable second = cache.create().getId();
+        // touch the first bean so the second becomes the least recently used
+        cache.release(cache.get(first));
+        cache.create();
+
+        assertEquals(2, cache.getActiveCount());
+        assertEquals(1, cache.getPassivatedCount());
+        assertEquals(1, cache.getPassivationCount());
+        assertEquals("state-" + second, store.map.get(second));
+
+        final Bean activated = cache.get(second);
+        assertEquals("state-" + second, activated.state);
+        assertEquals(1, factory.activated.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        cache.release(activated);
+        // activating pushed another bean out
+        assertEquals(2, cache.getActiveCount());
+        assertEquals(1, cache.getPassivatedCount());
+    }
+
+    @Test
+    public void testInUseIsNotPassivated() {
+        final MockFactory factory = new MockFactory();
+        final MapStore store = new MapStore();
+        final PassivatingCache<Bean> cache = createCache(factory, store, 1, 0);
+
+        final Bean first = cache.get(cache.create().getId());
+        final Serializable second = cache.create().getId();
+        // the first bean is in use, so the second one had to go
+        assertEquals(1, cache.getPassivationCount());
+        assertEquals(1, store.map.size());
+        assertEquals("state-" + second, store.map.get(second));
+
+        // activating while the first bean is still in use exceeds the maximum size
+        final Bean activated = cache.get(second);
+        assertEquals(2, cache.getActiveCount());
+
+        cache.release(first);
+        assertEquals(1, cache.getActiveCount());
+        assertEquals(2, cache.getPassivationCount());
+        assertSame(activated, cache.get(second));
+    }
+
+    @Test
+    public void testPassivationRunsOnExecutor() {
+        final MockFactory factory = new MockFactory();
+        final MapStore store = new MapStore();
+        final QueueExecutor executor = new QueueExecutor();
+        final PassivatingCache<Bean> cache = createCache(factory, store, executor, 1, 0);
+
+        final Serializable first = cache.create().getId();
+        cache.create();
+        cache.create();
+        // the invoking thread only schedules the passivation, once
+        assertEquals(0, cache.getPassivationCount());
+        assertEquals(3, cache.getActiveCount());
+        assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        assertEquals(2, cache.getPassivationCount());
+        assertEquals(1, cache.getActiveCount());
+        assertEquals("state-" + first, store.map.get(first));
+    }
+
+    @Test
+    public void testStoreFailureKeepsInstance() {
+        final MockFactory factory = new MockFactory();
+        final FailingStore store = new FailingStore();
+        final PassivatingCache<Bean> cache = createCache(factory, store, 1, 0);
+
+        final Bean first = cache.create();
+        final Bean second = cache.create();
+        // both beans were tried, and their pre-passivate was undone
+        assertEquals(2, store.attempts.get());
+        assertEquals(2, factory.cancelled.get());
+        assertEquals(0, factory.destroyed.get());
+        assertEquals(0, cache.getPassivationCount());
+        assertEquals(2, cache.getActiveCount());
+
+        // they stay usable and are not passivated again
+        assertSame(first, cache.get(first.getId()));
+        cache.release(first);
+        assertSame(second, cache.get(second.getId()));
+        cache.release(second);
+        assertEquals(2, store.attempts.get());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void testLoadFailureKeepsPassivatedState() {
+        final MockFactory factory = new MockFactory();
+        final UnreadableStore store = new UnreadableStore();
+        final PassivatingCache<Bean> cache = createCache(factory, store, 1, 0);
+
+        final Serializable first = cache.create().getId();
+        cache.create();
+        assertEquals(1, store.map.size());
+
+        store.failures.set(1);
+        try {
+            cache.get(first);
+            fail("Expected EJBException");
+        } catch (EJBException e) {
+            // expected
+        }
+        assertEquals(1, store.map.size());
+        assertEquals(1, cache.getPassivatedCount());
+
+        // the next attempt reads the kept state
+        final Bean bean = cache.get(first);
+        assertEquals(first, bean.getId());
+        cache.release(bean);
+        assertEquals(1, factory.activated.get());
+        assertFalse(store.map.containsKey(first));
+    }
+
+    @Test
+    public void testPassivationDisabled() {
+        final MockFactory factory = new MockFactory();
+        final PassivatingCache<Bean> cache = new PassivatingCache<Bean>(1, 0, null, null, null);
+        cache.setStatefulObjectFactory(factory);
+
+        final Serializable first = cache.create().getId();
+        cache.create();
+        assertEquals(2, cache.getActiveCount());
+        assertEquals(0, cache.getPassivationCount());
+        assertNotNull(cache.get(first));
+        cache.stop();
+        assertEquals(2, factory.destroyed.get());
+    }
+
+    @Test
+    public void testDiscardPassivated() {
+        final MockFactory factory = new MockFactory();
+        final MapStore store = new MapStore();
+        final PassivatingCache<Bean> cache = createCache(factory, store, 1, 0);
+
+        final Serializable first = cache.create().getId();
+        cache.create();
+        assertEquals(1, store.map.size());
+
+        cache.discard(first);
+        assertEquals(0, store.map.size());
+        assertEquals(0, cache.getPassivatedCount());
+        // passivated beans are removed without pre-destroy
+        assertEquals(0, factory.destroyed.get());
+        try {
+            cache.get(first);
+            fail("Expected NoSuchEJBException");
+        } catch (NoSuchEJBException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testIdleRemoval() throws Exception {
+        final MockFactory factory = new MockFactory();
+        final MapStore store = new MapStore();
+        final PassivatingCache<Bean> cache = createCache(factory, store, 1, 1);
+
+        final Serializable idle = cache.create().getId();
+        final Serializable passivated = cache.create().getId();
+        final Bean inUse = cache.get(cache.create().getId());
+        Thread.sleep(10);
+
+        cache.removeIdle();
+        assertEquals(2, cache.getTimeoutCount());
+        assertEquals(1, cache.getActiveCount());
+        assertEquals(0, cache.getPassivatedCount());
+        assertEquals(0, store.map.size());
+        assertNotNull(inUse);
+        for (Serializable key : new Serializable[] {idle, passivated}) {
+            try {
+                cache.get(key);
+                fail("Expected NoSuchEJBException");
+            } catch (NoSuchEJBException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testStop() {
+        final MockFactory factory = new MockFactory();
+        final MapStore store = new MapStore();
+        final PassivatingCache<Bean> cache = createCache(factory, store, 1, 0);
+
+        cache.create();
+        cache.create();
+        cache.stop();
+        assertEquals(1, factory.destroyed.get());
+        assertEquals(0, store.map.size());
+        assertEquals(0, cache.getActiveCount());
+        assertEquals(0, cache.getPassivatedCount());
+    }
+}
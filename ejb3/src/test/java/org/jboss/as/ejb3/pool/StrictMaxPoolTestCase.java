@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool;
+
+import org.jboss.as.ejb3.pool.spi.Pool;
+import org.jboss.as.ejb3.pool.spi.StatelessObjectFactory;
+import org.junit.Test;
+
+import javax.ejb.EJBException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class StrictMaxPoolTestCase {
+
+    private static class MockFactory implements StatelessObjectFactory<Object> {
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger destroyed = new AtomicInteger();
+
+        @Override
+        public Object createInstance() {
+            created.incrementAndGet();
+            return new Object();
+        }
+
+        @Override
+        public void destroyInstance(Object instance) {
+            destroyed.incrementAndGet();
+        }
+    }
+
+    private static Pool<Object> createPool(MockFactory factory, int maxSize, long timeout) {
+        final Pool<Object> pool = new StrictMaxPool<Object>(maxSize, timeout, TimeUnit.MILLISECONDS);
+        pool.setStatelessObjectFactory(factory);
+        return pool;
+    }
+
+    @Test
+    public void testReuse() {
+        final MockFactory factory = new MockFactory();
+        final Pool<Object> pool = createPool(factory, 2, 100);
+
+        final Object first = pool.get();
+        pool.release(first);
+        assertSame(first, pool.get());
+        assertEquals(1, factory.created.get());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+    }
+
+    @Test
+    public void testDiscard() {
+        final MockFactory factory = new MockFactory();
+        final Pool<Object> pool = createPool(factory, 1, 100);
+
+        final Object first = pool.get();
+        pool.discard(first);
+        assertEquals(1, factory.destroyed.get());
+        // the permit is returned, so a new instance can be created
+        assertNotSame(first, pool.get());
+        assertEquals(2, pool.getCreateCount());
+        assertEquals(1, pool.getRemoveCount());
+    }
+
+    @Test
+    public void testTimeout() {
+        final MockFactory factory = new MockFactory();
+        final Pool<Object> pool = createPool(factory, 1, 10);
+
+        pool.get();
+        try {
+            pool.get();
+            fail("Expected the pool to time out");
+        } catch (EJBException e) {
+            // expected
+        }
+        assertEquals(1, pool.getWaitCount());
+        assertEquals(1, pool.getTimeoutCount());
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        final MockFactory factory = new MockFactory();
+        final int maxSize = 4;
+        final Pool<Object> pool = createPool(factory, maxSize, 5000);
+        final AtomicInteger inUse = new AtomicInteger();
+        final AtomicInteger maxInUse = new AtomicInteger();
+        final int threads = 16;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 200; j++) {
+                            final Object instance = pool.get();
+                            final int current = inUse.incrementAndGet();
+                            int max;
+                            while (current > (max = maxInUse.get()) && !maxInUse.compareAndSet(max, current)) {
+                                // retry
+                            }
+                            inUse.decrementAndGet();
+                            pool.release(instance);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        done.await(30, TimeUnit.SECONDS);
+        assertEquals(0, done.getCount());
+        assertEquals(true, maxInUse.get() <= maxSize);
+        assertEquals(true, factory.created.get() <= maxSize);
+        assertEquals(factory.created.get(), pool.getAvailableCount());
+    }
+
+    @Test
+    public void testStop() {
+        final MockFactory factory = new MockFactory();
+        final Pool<Object> pool = createPool(factory, 2, 100);
+
+        final Object first = pool.get();
+        final Object second = pool.get();
+        pool.release(first);
+        pool.stop();
+        assertEquals(1, factory.destroyed.get());
+        // instances released after the pool stopped are destroyed rather than pooled
+        pool.release(second);
+        assertEquals(2, factory.destroyed.get());
+        assertEquals(0, pool.getAvailableCount());
+    }
+}
@@ -28,6 +28,7 @@ import javax.xml.namespace.QName;
 import org.jboss.as.controller.parsing.DomainXml;
 import org.jboss.as.controller.parsing.HostXml;
 import org.jboss.as.controller.parsing.Namespace;
+import org.jboss.as.controller.persistence.AsyncConfigurationPersister;
 import org.jboss.as.controller.persistence.BackupXmlConfigurationPersister;
 import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.modules.Module;
@@ -44,7 +45,7 @@ public class ConfigurationPersisterFactory {
 
     public static ExtensibleConfigurationPersister createHostXmlConfigurationPersister(final File configDir) {
         HostXml hostXml = new HostXml(Module.getBootModuleLoader());
-        return new BackupXmlConfigurationPersister(getFile(configDir, HOST_XML), new QName(Namespace.CURRENT.getUriString(), "host"), hostXml, hostXml);
+        return AsyncConfigurationPersister.wrapIfEnabled(new BackupXmlConfigurationPersister(getFile(configDir, HOST_XML), new QName(Namespace.CURRENT.getUriString(), "host"), hostXml, hostXml));
     }
 
     public static ExtensibleConfigurationPersister createDomainXmlConfigurationPersister(final File configDir) {
@@ -53,7 +54,7 @@ public class ConfigurationPersisterFactory {
 
     public static ExtensibleConfigurationPersister createDomainXmlConfigurationPersister(final File configDir, String name) {
         DomainXml domainXml = new DomainXml(Module.getBootModuleLoader());
-        return new BackupXmlConfigurationPersister(getFile(configDir, name), new QName(Namespace.CURRENT.getUriString(), "domain"), domainXml, domainXml);
+        return AsyncConfigurationPersister.wrapIfEnabled(new BackupXmlConfigurationPersister(getFile(configDir, name), new QName(Namespace.CURRENT.getUriString(), "domain"), domainXml, domainXml));
     }
 
     private static File getFile(final File configDir, final String file) {
@@ -63,6 +63,7 @@ import org.jboss.as.domain.controller.MasterDomainControllerClient;
 import org.jboss.as.host.controller.mgmt.DomainControllerOperationHandlerService;
 import org.jboss.as.host.controller.mgmt.ManagementCommunicationService;
 import org.jboss.as.host.controller.mgmt.ManagementCommunicationServiceInjector;
+import org.jboss.as.host.controller.mgmt.PeerContentOperationHandler;
 import org.jboss.as.host.controller.mgmt.ServerToHostOperationHandler;
 import org.jboss.as.process.ProcessControllerClient;
 import org.jboss.as.server.deployment.api.DeploymentRepository;
@@ -93,6 +94,8 @@ public class HostControllerBootstrap {
 
     private static final Logger log = Logger.getLogger("org.jboss.as.host.controller");
     static final ServiceName SERVICE_NAME_BASE = ServiceName.JBOSS.append("host", "controller");
+    static final ServiceName THREAD_FACTORY_SERVICE_NAME = SERVICE_NAME_BASE.append("thread-factory");
+    static final ServiceName EXECUTOR_SERVICE_NAME = SERVICE_NAME_BASE.append("executor");
     static final int DEFAULT_POOL_SIZE = 20;
     private final ServiceContainer serviceContainer = ServiceContainer.Factory.create();
     private final HostControllerEnvironment environment;
@@ -173,13 +176,10 @@ public class HostControllerBootstrap {
         // manually install the network interface services
         activateNetworkInterfaces(hostModelNode, serviceTarget);
         //
-        final ServiceName threadFactoryServiceName = SERVICE_NAME_BASE.append("thread-factory");
-        final ServiceName executorServiceName = SERVICE_NAME_BASE.append("executor");
-
-        serviceTarget.addService(threadFactoryServiceName, new ThreadFactoryService()).install();
+        serviceTarget.addService(THREAD_FACTORY_SERVICE_NAME, new ThreadFactoryService()).install();
         final HostControllerExecutorService executorService = new HostControllerExecutorService();
-        serviceTarget.addService(executorServiceName, executorService)
-            .addDependency(threadFactoryServiceName, ThreadFactory.class, executorService.threadFactoryValue)
+        serviceTarget.addService(EXECUTOR_SERVICE_NAME, executorService)
+            .addDependency(THREAD_FACTORY_SERVICE_NAME, ThreadFactory.class, executorService.threadFactoryValue)
             .install();
         //
         final String mgmtNetwork = hostModelNode.get(MANAGEMENT_INTERFACES, NATIVE_INTERFACE, INTERFACE).asString();
@@ -204,8 +204,8 @@ public class HostControllerBootstrap {
         serviceTarget.addService(ManagementCommunicationService.SERVICE_NAME, managementCommunicationService)
             .addDependency(NetworkInterfaceService.JBOSS_NETWORK_INTERFACE.append(mgmtNetwork), NetworkInterfaceBinding.class, managementCommunicationService.getInterfaceInjector())
             .addInjection(managementCommunicationService.getPortInjector(), mgmtPort)
-            .addDependency(executorServiceName, ExecutorService.class, managementCommunicationService.getExecutorServiceInjector())
-            .addDependency(threadFactoryServiceName, ThreadFactory.class, managementCommunicationService.getThreadFactoryInjector())
+            .addDependency(EXECUTOR_SERVICE_NAME, ExecutorService.class, managementCommunicationService.getExecutorServiceInjector())
+            .addDependency(THREAD_FACTORY_SERVICE_NAME, ThreadFactory.class, managementCommunicationService.getThreadFactoryInjector())
             .setInitialMode(Mode.ACTIVE)
             .install();
 
@@ -218,7 +218,7 @@ public class HostControllerBootstrap {
                     .addDependency(NetworkInterfaceService.JBOSS_NETWORK_INTERFACE.append(hostModelNode.get(MANAGEMENT_INTERFACES, HTTP_INTERFACE).require(INTERFACE).asString()), NetworkInterfaceBinding.class, service.getInterfaceInjector())
                     .addDependency(DomainController.SERVICE_NAME, ModelController.class, service.getModelControllerInjector())
                     .addInjection(service.getPortInjector(), hostModelNode.get(MANAGEMENT_INTERFACES, HTTP_INTERFACE).require(PORT).asInt())
-                    .addDependency(executorServiceName, ExecutorService.class, service.getExecutorServiceInjector())
+                    .addDependency(EXECUTOR_SERVICE_NAME, ExecutorService.class, service.getExecutorServiceInjector())
                     .setInitialMode(ServiceController.Mode.ACTIVE)
                     .addListener(new ResultHandler.ServiceStartListener(resultHandler))
                     .install();
@@ -297,8 +297,19 @@ public class HostControllerBootstrap {
             throw new RuntimeException(e);
         }
         int port = dc.require(PORT).asInt();
-        final RemoteDomainConnectionService service = new RemoteDomainConnectionService(name, addr, port, repository);
+        final int mgmtPort = host.get(MANAGEMENT_INTERFACES, NATIVE_INTERFACE, PORT).asInt();
+
+        // Serve the deployment content this host holds to peer hosts fetching the same content
+        final PeerContentOperationHandler peerContentHandler = new PeerContentOperationHandler(repository);
+        serviceTarget.addService(PeerContentOperationHandler.SERVICE_NAME, peerContentHandler)
+            .addDependency(ManagementCommunicationService.SERVICE_NAME, ManagementCommunicationService.class, new ManagementCommunicationServiceInjector(peerContentHandler))
+            .install();
+
+        final RemoteDomainConnectionService service = new RemoteDomainConnectionService(name, addr, port, repository, mgmtPort);
         serviceTarget.addService(MasterDomainControllerClient.SERVICE_NAME, service)
+            .addDependency(PeerContentOperationHandler.SERVICE_NAME)
+            .addDependency(EXECUTOR_SERVICE_NAME, ExecutorService.class, service.getExecutorServiceInjector())
+            .addDependency(THREAD_FACTORY_SERVICE_NAME, ThreadFactory.class, service.getThreadFactoryInjector())
             .setInitialMode(Mode.ACTIVE)
             .install();
     }
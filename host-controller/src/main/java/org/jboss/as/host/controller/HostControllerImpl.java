@@ -27,6 +27,8 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RUN
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER_CONFIG;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.START;
 
+import java.util.concurrent.locks.Lock;
+
 import org.jboss.as.controller.BasicTransactionalModelController;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
@@ -76,7 +78,7 @@ public class HostControllerImpl extends BasicTransactionalModelController implem
             throw new IllegalStateException(String.format("Domain Controller is not available; cannot start server %s", serverName));
         }
         final ServerInventory servers = this.serverInventory;
-        return servers.startServer(serverName, getModel().clone(), domainController);
+        return servers.startServer(serverName, cloneModel(), domainController);
     }
 
     /** {@inheritDoc} */
@@ -92,7 +94,7 @@ public class HostControllerImpl extends BasicTransactionalModelController implem
             throw new IllegalStateException(String.format("Domain Controller is not available; cannot restart server %s", serverName));
         }
         final ServerInventory servers = this.serverInventory;
-        return servers.restartServer(serverName, gracefulTimeout, getModel().clone(), domainController);
+        return servers.restartServer(serverName, gracefulTimeout, cloneModel(), domainController);
     }
 
     /** {@inheritDoc} */
@@ -113,13 +115,25 @@ public class HostControllerImpl extends BasicTransactionalModelController implem
         final PathElement element = PathElement.pathElement(RUNNING_SERVER, serverName);
         final ProxyController serverController = RemoteProxyController.create(connection, PathAddress.pathAddress(PathElement.pathElement(HOST, name), element));
         getRegistry().registerProxyController(element, serverController);
-        getModel().get(element.getKey(), element.getValue());
+        final Lock lock = getModelLock().writeLock();
+        lock.lock();
+        try {
+            getModel().get(element.getKey(), element.getValue());
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void unregisterRunningServer(String serverName) {
         PathElement element = PathElement.pathElement(RUNNING_SERVER, serverName);
-        getModel().get(element.getKey()).remove(element.getValue());
+        final Lock lock = getModelLock().writeLock();
+        lock.lock();
+        try {
+            getModel().get(element.getKey()).remove(element.getValue());
+        } finally {
+            lock.unlock();
+        }
         getRegistry().unregisterProxyController(element);
     }
 
@@ -128,9 +142,9 @@ public class HostControllerImpl extends BasicTransactionalModelController implem
         this.domainController = domainController;
 
         // start servers
-        final ModelNode rawModel = getModel();
-        if(rawModel.hasDefined(SERVER_CONFIG)) {
-            final ModelNode servers = rawModel.get(SERVER_CONFIG).clone();
+        final ModelNode model = cloneModel();
+        if(model.hasDefined(SERVER_CONFIG)) {
+            final ModelNode servers = model.get(SERVER_CONFIG);
             for(final String serverName : servers.keys()) {
                 if(servers.get(serverName, START).asBoolean(true)) {
                     try {
@@ -147,9 +161,9 @@ public class HostControllerImpl extends BasicTransactionalModelController implem
     public void stopServers() {
         this.domainController = null;
         // stop servers
-        final ModelNode rawModel = getModel();
-        if(rawModel.hasDefined(SERVER_CONFIG) ) {
-            final ModelNode servers = rawModel.get(SERVER_CONFIG).clone();
+        final ModelNode model = cloneModel();
+        if(model.hasDefined(SERVER_CONFIG) ) {
+            final ModelNode servers = model.get(SERVER_CONFIG);
             for(final String serverName : servers.keys()) {
                 if(servers.get(serverName, START).asBoolean(true)) {
                     try {
@@ -162,6 +176,16 @@ public class HostControllerImpl extends BasicTransactionalModelController implem
         }
     }
 
+    private ModelNode cloneModel() {
+        final Lock lock = getModelLock().readLock();
+        lock.lock();
+        try {
+            return getModel().clone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     protected void registerInternalOperations() {
         super.registerInternalOperations();
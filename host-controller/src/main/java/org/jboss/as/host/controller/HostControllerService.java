@@ -22,6 +22,7 @@
 
 package org.jboss.as.host.controller;
 
+import org.jboss.as.controller.persistence.AsyncConfigurationPersister;
 import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.as.controller.registry.ModelNodeRegistration;
 import org.jboss.as.domain.controller.DomainController;
@@ -103,6 +104,10 @@ public class HostControllerService implements Service<LocalHostModel> {
     @Override
     public synchronized void stop(StopContext context) {
         this.proxyController = null;
+        if (configPersister instanceof AsyncConfigurationPersister) {
+            // Don't lose changes still queued for the background writer
+            ((AsyncConfigurationPersister) configPersister).shutdown();
+        }
     }
 
     /** {@inheritDoc} */
@@ -24,16 +24,17 @@ package org.jboss.as.host.controller;
 
 import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 import javax.net.SocketFactory;
 
@@ -51,23 +52,21 @@ import org.jboss.as.domain.controller.DomainControllerSlave;
 import org.jboss.as.domain.controller.FileRepository;
 import org.jboss.as.domain.controller.MasterDomainControllerClient;
 import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
-import org.jboss.as.protocol.ByteDataInput;
-import org.jboss.as.protocol.ByteDataOutput;
 import org.jboss.as.protocol.Connection;
 import org.jboss.as.protocol.MessageHandler;
 import org.jboss.as.protocol.ProtocolClient;
-import org.jboss.as.protocol.SimpleByteDataInput;
-import org.jboss.as.protocol.SimpleByteDataOutput;
 import org.jboss.as.protocol.StreamUtils;
 import org.jboss.as.protocol.mgmt.ManagementHeaderMessageHandler;
 import org.jboss.as.protocol.mgmt.ManagementRequest;
 import org.jboss.as.protocol.mgmt.ManagementRequestConnectionStrategy;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
+import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
 
 /**
  * @author Kabir Khan
@@ -79,17 +78,21 @@ class RemoteDomainConnectionService implements MasterDomainControllerClient, Ser
     private final InetAddress host;
     private final int port;
     private final String name;
+    private final int peerPort;
     private final RemoteFileRepository remoteFileRepository;
+    private final InjectedValue<ExecutorService> executorServiceValue = new InjectedValue<ExecutorService>();
+    private final InjectedValue<ThreadFactory> threadFactoryValue = new InjectedValue<ThreadFactory>();
 
     private volatile Connection connection;
     private volatile ProxyController client;
     private volatile ModelControllerOperationHandler operationHandler;
     private volatile TransactionalModelControllerOperationHandler txOperationHandler;
 
-    RemoteDomainConnectionService(final String name, final InetAddress host, final int port, final FileRepository localRepository){
+    RemoteDomainConnectionService(final String name, final InetAddress host, final int port, final FileRepository localRepository, final int peerPort){
         this.name = name;
         this.host = host;
         this.port = port;
+        this.peerPort = peerPort;
         this.remoteFileRepository = new RemoteFileRepository(localRepository);
     }
 
@@ -99,10 +102,10 @@ class RemoteDomainConnectionService implements MasterDomainControllerClient, Ser
         final ProtocolClient.Configuration config = new ProtocolClient.Configuration();
         config.setMessageHandler(initialMessageHandler);
         config.setConnectTimeout(CONNECTION_TIMEOUT);
-        config.setReadExecutor(Executors.newCachedThreadPool()); //TODO inject
+        config.setReadExecutor(executorServiceValue.getValue());
         config.setSocketFactory(SocketFactory.getDefault());
         config.setServerAddress(new InetSocketAddress(host, port));
-        config.setThreadFactory(Executors.defaultThreadFactory()); //TODO inject
+        config.setThreadFactory(threadFactoryValue.getValue());
 
         final ProtocolClient protocolClient = new ProtocolClient(config);
 
@@ -168,6 +171,24 @@ class RemoteDomainConnectionService implements MasterDomainControllerClient, Ser
         return this;
     }
 
+    /**
+     * Get the executor service injector.
+     *
+     * @return The injector
+     */
+    Injector<ExecutorService> getExecutorServiceInjector() {
+        return executorServiceValue;
+    }
+
+    /**
+     * Get the thread factory injector.
+     *
+     * @return The injector
+     */
+    Injector<ThreadFactory> getThreadFactoryInjector() {
+        return threadFactoryValue;
+    }
+
     private abstract class RegistryRequest<T> extends ManagementRequest<T> {
 
         @Override
@@ -223,161 +244,92 @@ class RemoteDomainConnectionService implements MasterDomainControllerClient, Ser
         }
     }
 
-    private class GetFileRequest extends RegistryRequest<File> {
-        private final byte rootId;
-        private final String filePath;
+    private class RemoteFileRepository implements FileRepository {
         private final FileRepository localFileRepository;
 
-        private GetFileRequest(final byte rootId, final String filePath, final FileRepository localFileRepository) {
-            this.rootId = rootId;
-            this.filePath = filePath;
+        private RemoteFileRepository(final FileRepository localFileRepository) {
             this.localFileRepository = localFileRepository;
         }
 
         @Override
-        public final byte getRequestCode() {
-            return DomainControllerProtocol.GET_FILE_REQUEST;
+        public final File getFile(String relativePath) {
+            return getFile(relativePath, DomainControllerProtocol.PARAM_ROOT_ID_FILE);
         }
 
         @Override
-        protected final byte getResponseCode() {
-            return DomainControllerProtocol.GET_FILE_RESPONSE;
+        public final File getConfigurationFile(String relativePath) {
+            return getFile(relativePath, DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION);
         }
 
         @Override
-        protected final void sendRequest(final int protocolVersion, final OutputStream outputStream) throws IOException {
-            super.sendRequest(protocolVersion, outputStream);
-            log.debugf("Requesting files for path %s", filePath);
-            ByteDataOutput output = null;
-            try {
-                output = new SimpleByteDataOutput(outputStream);
-                output.writeByte(DomainControllerProtocol.PARAM_ROOT_ID);
-                output.writeByte(rootId);
-                output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
-                output.writeUTF(filePath);
-                output.close();
-            } finally {
-                StreamUtils.safeClose(output);
-            }
+        public final File[] getDeploymentFiles(byte[] deploymentHash) {
+            String hex = deploymentHash == null ? "" : HashUtil.bytesToHexString(deploymentHash);
+            return getFile(hex, DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT).listFiles();
         }
 
         @Override
-        protected final File receiveResponse(final InputStream inputStream) throws IOException {
+        public File getDeploymentRoot(byte[] deploymentHash) {
+            String hex = deploymentHash == null ? "" : HashUtil.bytesToHexString(deploymentHash);
+            return getFile(hex, DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT);
+        }
+
+        private File getFile(final String relativePath, final byte repoId) {
             final File localPath;
-            switch (rootId) {
+            switch (repoId) {
                 case DomainControllerProtocol.PARAM_ROOT_ID_FILE: {
-                    localPath = localFileRepository.getFile(filePath);
+                    localPath = localFileRepository.getFile(relativePath);
                     break;
                 }
                 case DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION: {
-                    localPath = localFileRepository.getConfigurationFile(filePath);
+                    localPath = localFileRepository.getConfigurationFile(relativePath);
                     break;
                 }
                 case DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT: {
-                    byte[] hash = HashUtil.hexStringToByteArray(filePath);
+                    byte[] hash = HashUtil.hexStringToByteArray(relativePath);
                     localPath = localFileRepository.getDeploymentRoot(hash);
                     break;
                 }
                 default: {
-                    localPath = null;
+                    throw new IllegalArgumentException("Invalid root id " + repoId);
                 }
             }
-            ByteDataInput input = null;
+            final List<Connection> peerConnections = new ArrayList<Connection>();
             try {
-                input = new SimpleByteDataInput(inputStream);
-                expectHeader(input, DomainControllerProtocol.PARAM_NUM_FILES);
-                int numFiles = input.readInt();
-                log.debugf("Received %d files for %s", numFiles, localPath);
-                switch (numFiles) {
-                    case -1: { // Not found on DC
-                        break;
-                    }
-                    case 0: { // Found on DC, but was an empty dir
-                        if (!localPath.mkdirs()) {
-                            throw new IOException("Unable to create local directory: " + localPath);
+                final RemoteFileTransfer transfer = new RemoteFileTransfer(new ManagementRequestConnectionStrategy.ExistingConnectionStrategy(connection));
+                RemoteFileTransfer.Peers peers = null;
+                if (repoId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT && peerPort > 0 && RemoteFileTransfer.isPeerTransferEnabled()) {
+                    peers = new RemoteFileTransfer.Peers(name, peerPort, new RemoteFileTransfer.Peers.Connector() {
+                        @Override
+                        public ManagementRequestConnectionStrategy connect(final InetSocketAddress address) throws IOException {
+                            final Connection peerConnection = connectPeer(address);
+                            peerConnections.add(peerConnection);
+                            return new ManagementRequestConnectionStrategy.ExistingConnectionStrategy(peerConnection);
                         }
-                        break;
-                    }
-                    default: { // Found on DC
-                        for (int i = 0; i < numFiles; i++) {
-                            expectHeader(input, DomainControllerProtocol.FILE_START);
-                            expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
-                            final String path = input.readUTF();
-                            expectHeader(input, DomainControllerProtocol.PARAM_FILE_SIZE);
-                            final long length = input.readLong();
-                            log.debugf("Received file [%s] of length %d", path, length);
-                            final File file = new File(localPath, path);
-                            if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
-                                throw new IOException("Unable to create local directory " + localPath.getParent());
-                            }
-                            long totalRead = 0;
-                            OutputStream fileOut = null;
-                            try {
-                                fileOut = new BufferedOutputStream(new FileOutputStream(file));
-                                final byte[] buffer = new byte[8192];
-                                int read;
-                                while (totalRead < length && (read = input.read(buffer, 0, Math.min((int) (length - totalRead), buffer.length))) != -1) {
-                                    if (read > 0) {
-                                        fileOut.write(buffer, 0, read);
-                                        totalRead += read;
-                                    }
-                                }
-                            } finally {
-                                if (fileOut != null) {
-                                    fileOut.close();
-                                }
-                            }
-                            if (totalRead != length) {
-                                throw new IOException("Did not read the entire file. Missing: " + (length - totalRead));
-                            }
-
-                            expectHeader(input, DomainControllerProtocol.FILE_END);
-                        }
-                    }
+                    });
                 }
-                input.close();
+                transfer.transfer(repoId, relativePath, localPath, peers);
+                log.debugf("Received %s: %d chunks transferred, %d of them from %d peers, %d reused", localPath,
+                        Integer.valueOf(transfer.getChunksTransferred()), Integer.valueOf(transfer.getChunksFromPeers()),
+                        Integer.valueOf(peers == null ? 0 : peers.getCount()), Integer.valueOf(transfer.getChunksReused()));
+                return localPath;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to get file from remote repository", e);
             } finally {
-                StreamUtils.safeClose(input);
+                for (Connection peerConnection : peerConnections) {
+                    StreamUtils.safeClose(peerConnection);
+                }
             }
-            return localPath;
         }
-    }
 
-    private class RemoteFileRepository implements FileRepository {
-        private final FileRepository localFileRepository;
-
-        private RemoteFileRepository(final FileRepository localFileRepository) {
-            this.localFileRepository = localFileRepository;
-        }
-
-        @Override
-        public final File getFile(String relativePath) {
-            return getFile(relativePath, DomainControllerProtocol.PARAM_ROOT_ID_FILE);
-        }
-
-        @Override
-        public final File getConfigurationFile(String relativePath) {
-            return getFile(relativePath, DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION);
-        }
-
-        @Override
-        public final File[] getDeploymentFiles(byte[] deploymentHash) {
-            String hex = deploymentHash == null ? "" : HashUtil.bytesToHexString(deploymentHash);
-            return getFile(hex, DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT).listFiles();
-        }
-
-        @Override
-        public File getDeploymentRoot(byte[] deploymentHash) {
-            String hex = deploymentHash == null ? "" : HashUtil.bytesToHexString(deploymentHash);
-            return getFile(hex, DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT);
-        }
-
-        private File getFile(final String relativePath, final byte repoId) {
-            try {
-                return new GetFileRequest(repoId, relativePath, localFileRepository).executeForResult(new ManagementRequestConnectionStrategy.ExistingConnectionStrategy(connection));
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to get file from remote repository", e);
-            }
+        private Connection connectPeer(final InetSocketAddress address) throws IOException {
+            final ProtocolClient.Configuration config = new ProtocolClient.Configuration();
+            config.setMessageHandler(MessageHandler.NULL);
+            config.setConnectTimeout(CONNECTION_TIMEOUT);
+            config.setReadExecutor(executorServiceValue.getValue());
+            config.setSocketFactory(SocketFactory.getDefault());
+            config.setServerAddress(address);
+            config.setThreadFactory(threadFactoryValue.getValue());
+            return new ProtocolClient(config).connect();
         }
     }
 
@@ -0,0 +1,728 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.controller.client.ModelControllerClientProtocol;
+import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
+import org.jboss.as.host.controller.mgmt.FileManifest;
+import org.jboss.as.host.controller.mgmt.FileTransferOperations;
+import org.jboss.as.protocol.ByteDataInput;
+import org.jboss.as.protocol.ByteDataOutput;
+import org.jboss.as.protocol.SimpleByteDataInput;
+import org.jboss.as.protocol.SimpleByteDataOutput;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ManagementRequest;
+import org.jboss.as.protocol.mgmt.ManagementRequestConnectionStrategy;
+import org.jboss.logging.Logger;
+
+/**
+ * Copies files from the domain controller's file repository in fixed size chunks.
+ * <p>
+ * The domain controller is first asked for a {@link FileManifest} listing the files and the hash of each of
+ * their chunks. Chunks already present locally, either in a previous copy of the file or in the {@code .part}
+ * file left behind by an interrupted transfer, are verified against their hash and kept. The remaining chunks
+ * are requested individually, with several requests in flight at once, and written to the {@code .part} file,
+ * which replaces the file once every chunk is present. A transfer that fails part way can therefore be resumed
+ * by simply transferring the same path again.
+ * </p>
+ * <p>
+ * Chunks may also be fetched from peer host controllers holding the same content, as tracked by {@link Peers}.
+ * Each chunk is requested from the peers in turn before falling back to the domain controller; since peers only
+ * answer with chunks matching the manifest, this cannot corrupt the transfer. Each transfer starts at a random
+ * chunk, so hosts fetching the same content at the same time soon hold different chunks they can give each
+ * other.
+ * </p>
+ */
+final class RemoteFileTransfer {
+
+    /**
+     * System property setting how many chunk requests may be in flight at once.
+     */
+    static final String PARALLEL_CHUNKS_PROPERTY = "jboss.as.domain.transfer.parallel-chunks";
+
+    /**
+     * System property setting how long, in seconds, to wait for the response to a single request.
+     */
+    static final String TIMEOUT_PROPERTY = "jboss.as.domain.transfer.timeout";
+
+    /**
+     * System property which, when set to {@code false}, stops hosts fetching deployment content from their peers.
+     */
+    static final String PEERS_PROPERTY = "jboss.as.domain.transfer.peers";
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.host.controller");
+
+    /** How often a chunk which does not match its hash is requested before the transfer is abandoned */
+    private static final int MAX_ATTEMPTS = 3;
+    /** How many chunks are fetched from the domain controller before asking it for new peers */
+    private static final int PEER_REFRESH_INTERVAL = 8;
+
+    private final ManagementRequestConnectionStrategy connectionStrategy;
+    private final int parallelChunks;
+    private final long timeout;
+    private final Random random = new Random();
+    private final AtomicInteger chunksTransferred = new AtomicInteger();
+    private final AtomicInteger chunksFromPeers = new AtomicInteger();
+    private final AtomicInteger chunksReused = new AtomicInteger();
+
+    /**
+     * Construct a new instance configured from the {@link #PARALLEL_CHUNKS_PROPERTY} and {@link #TIMEOUT_PROPERTY}
+     * system properties.
+     *
+     * @param connectionStrategy the strategy providing the connection to the domain controller
+     */
+    RemoteFileTransfer(final ManagementRequestConnectionStrategy connectionStrategy) {
+        this(connectionStrategy, Integer.getInteger(PARALLEL_CHUNKS_PROPERTY, 4).intValue(),
+                Long.getLong(TIMEOUT_PROPERTY, 60).longValue(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param connectionStrategy the strategy providing the connection to the domain controller
+     * @param parallelChunks the number of chunk requests that may be in flight at once
+     * @param timeout how long to wait for the response to a single request
+     * @param unit the unit of {@code timeout}
+     */
+    RemoteFileTransfer(final ManagementRequestConnectionStrategy connectionStrategy, final int parallelChunks, final long timeout, final TimeUnit unit) {
+        if (connectionStrategy == null) {
+            throw new IllegalArgumentException("connectionStrategy is null");
+        }
+        if (parallelChunks < 1) {
+            throw new IllegalArgumentException("parallelChunks must be at least 1");
+        }
+        this.connectionStrategy = connectionStrategy;
+        this.parallelChunks = parallelChunks;
+        this.timeout = unit.toMillis(timeout);
+    }
+
+    /**
+     * Copies a file or directory from the domain controller.
+     *
+     * @param rootId the repository root the path is relative to
+     * @param filePath the path on the domain controller
+     * @param localPath where to put the file or directory
+     * @return {@code localPath}
+     * @throws IOException if the transfer fails. Chunks received before the failure are kept for the next attempt
+     */
+    File transfer(final byte rootId, final String filePath, final File localPath) throws IOException {
+        return transfer(rootId, filePath, localPath, null);
+    }
+
+    /**
+     * Copies a file or directory from the domain controller, fetching chunks from peers where possible.
+     *
+     * @param rootId the repository root the path is relative to
+     * @param filePath the path on the domain controller
+     * @param localPath where to put the file or directory
+     * @param peers the peers to fetch chunks from, or {@code null} to fetch only from the domain controller
+     * @return {@code localPath}
+     * @throws IOException if the transfer fails. Chunks received before the failure are kept for the next attempt
+     */
+    File transfer(final byte rootId, final String filePath, final File localPath, final Peers peers) throws IOException {
+        if (peers != null) {
+            peers.refresh(this, rootId, filePath);
+        }
+        log.debugf("Requesting files for path %s", filePath);
+        final FileManifest manifest = await(new GetFileManifestRequest(rootId, filePath).execute(connectionStrategy));
+        if (!manifest.exists()) {
+            log.debugf("%s not found on the domain controller", filePath);
+        } else if (manifest.getEntries().isEmpty()) {
+            if (!localPath.isDirectory() && !localPath.mkdirs()) {
+                throw new IOException("Unable to create local directory: " + localPath);
+            }
+        } else {
+            final String localRoot = localPath.getCanonicalPath();
+            for (FileManifest.Entry entry : manifest.getEntries()) {
+                final File target = entry.getPath().length() == 0 ? localPath : new File(localPath, entry.getPath());
+                final String targetPath = target.getCanonicalPath();
+                if (!targetPath.equals(localRoot) && !targetPath.startsWith(localRoot + File.separator)) {
+                    throw new IOException("Invalid path " + entry.getPath());
+                }
+                transferFile(rootId, filePath, manifest.getChunkSize(), entry, target, peers);
+            }
+        }
+        return localPath;
+    }
+
+    /**
+     * Gets whether deployment content should be fetched from peers, as set by the {@link #PEERS_PROPERTY}
+     * system property.
+     *
+     * @return {@code true} unless peer transfer has been disabled
+     */
+    static boolean isPeerTransferEnabled() {
+        return Boolean.parseBoolean(System.getProperty(PEERS_PROPERTY, "true"));
+    }
+
+    /**
+     * Registers this host with the domain controller as a source of the given content, which it is fetching,
+     * and gets the peers it can fetch chunks of the content from.
+     *
+     * @param hostId the id of this host
+     * @param rootId the repository root the path is relative to
+     * @param filePath the path on the domain controller
+     * @param peerPort the port on which this host serves content to its peers
+     * @return the addresses of the peers. Will not be {@code null}
+     * @throws IOException if the domain controller cannot be reached
+     */
+    private List<InetSocketAddress> registerContentSource(final String hostId, final byte rootId, final String filePath, final int peerPort) throws IOException {
+        return await(new RegisterContentSourceRequest(hostId, rootId, filePath, peerPort).execute(connectionStrategy));
+    }
+
+    /**
+     * Gets the number of chunks received, from the domain controller or from peers.
+     *
+     * @return the number of chunks
+     */
+    int getChunksTransferred() {
+        return chunksTransferred.get();
+    }
+
+    /**
+     * Gets the number of chunks received from peers rather than the domain controller.
+     *
+     * @return the number of chunks
+     */
+    int getChunksFromPeers() {
+        return chunksFromPeers.get();
+    }
+
+    /**
+     * Gets the number of chunks which were already present locally and so were not requested.
+     *
+     * @return the number of chunks
+     */
+    int getChunksReused() {
+        return chunksReused.get();
+    }
+
+    private void transferFile(final byte rootId, final String filePath, final int chunkSize, final FileManifest.Entry entry, final File target,
+            final Peers peers) throws IOException {
+        final int count = entry.getChunkCount();
+        final byte[] buffer = new byte[(int) Math.min(chunkSize, Math.max(entry.getLength(), 1))];
+        if (target.isFile() && target.length() == entry.getLength() && findChunks(target, entry, chunkSize, buffer, null, null) == count) {
+            log.debugf("Local copy of %s is up to date", target);
+            chunksReused.addAndGet(count);
+            return;
+        }
+        final File parent = target.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Unable to create local directory " + parent);
+        }
+        final File part = new File(target.getPath() + FileTransferOperations.PART_SUFFIX);
+        final boolean[] present = new boolean[count];
+        final RandomAccessFile output = new RandomAccessFile(part, "rw");
+        try {
+            int found = 0;
+            if (output.length() > 0) {
+                found += findChunks(part, entry, chunkSize, buffer, present, null);
+            }
+            output.setLength(entry.getLength());
+            if (found < count && target.isFile()) {
+                found += findChunks(target, entry, chunkSize, buffer, present, output);
+            }
+            chunksReused.addAndGet(found);
+            log.debugf("Transferring %d of %d chunks of %s", Integer.valueOf(count - found), Integer.valueOf(count), target);
+            fetchChunks(rootId, filePath, chunkSize, entry, present, output, peers);
+        } finally {
+            StreamUtils.safeClose(output);
+        }
+        if (target.exists() && !target.delete()) {
+            throw new IOException("Unable to replace " + target);
+        }
+        if (!part.renameTo(target)) {
+            throw new IOException("Unable to rename " + part + " to " + target);
+        }
+    }
+
+    /**
+     * Finds the chunks of a local file which match the manifest entry.
+     *
+     * @param file the local file
+     * @param entry the manifest entry
+     * @param chunkSize the chunk size
+     * @param buffer a buffer large enough to hold a chunk
+     * @param present the chunks already found, updated with those found in {@code file}. May be {@code null}, in
+     *                which case all chunks are checked and the search stops at the first that does not match
+     * @param copyTo where to copy matching chunks to, or {@code null} if they should not be copied
+     * @return the number of matching chunks found
+     * @throws IOException if reading or copying fails
+     */
+    private static int findChunks(final File file, final FileManifest.Entry entry, final int chunkSize, final byte[] buffer,
+            final boolean[] present, final RandomAccessFile copyTo) throws IOException {
+        int found = 0;
+        final RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            final long available = input.length();
+            for (int i = 0; i < entry.getChunkCount(); i++) {
+                if (present != null && present[i]) {
+                    continue;
+                }
+                final long offset = (long) i * chunkSize;
+                final int length = (int) Math.min(chunkSize, entry.getLength() - offset);
+                boolean match = offset + length <= available;
+                if (match) {
+                    input.seek(offset);
+                    input.readFully(buffer, 0, length);
+                    match = Arrays.equals(FileManifest.hash(buffer, 0, length), entry.getChunkHash(i));
+                }
+                if (match) {
+                    if (copyTo != null) {
+                        copyTo.seek(offset);
+                        copyTo.write(buffer, 0, length);
+                    }
+                    if (present != null) {
+                        present[i] = true;
+                    }
+                    found++;
+                } else if (present == null) {
+                    break;
+                }
+            }
+        } finally {
+            StreamUtils.safeClose(input);
+        }
+        return found;
+    }
+
+    private void fetchChunks(final byte rootId, final String filePath, final int chunkSize, final FileManifest.Entry entry,
+            final boolean[] present, final RandomAccessFile output, final Peers peers) throws IOException {
+        final int count = present.length;
+        final int first = count == 0 ? 0 : random.nextInt(count);
+        final LinkedList<ChunkFetch> inFlight = new LinkedList<ChunkFetch>();
+        int next = 0;
+        while (next < count || !inFlight.isEmpty()) {
+            while (next < count && inFlight.size() < parallelChunks) {
+                final int index = (first + next) % count;
+                if (!present[index]) {
+                    final ChunkFetch fetch = new ChunkFetch(rootId, filePath, chunkSize, entry, index);
+                    fetch.start(peers);
+                    inFlight.add(fetch);
+                }
+                next++;
+            }
+            if (inFlight.isEmpty()) {
+                continue;
+            }
+            final ChunkFetch fetch = inFlight.removeFirst();
+            final long offset = (long) fetch.index * chunkSize;
+            byte[] chunk;
+            if (fetch.peer != null) {
+                try {
+                    chunk = await(fetch.future);
+                } catch (IOException e) {
+                    log.debugf("Not fetching more chunks from failed peer: %s", e);
+                    peers.live.remove(fetch.peer);
+                    chunk = null;
+                }
+            } else {
+                chunk = await(fetch.future);
+            }
+            if (chunk == null || chunk.length != Math.min(chunkSize, entry.getLength() - offset)
+                    || !Arrays.equals(FileManifest.hash(chunk, 0, chunk.length), entry.getChunkHash(fetch.index))) {
+                if (fetch.peer == null && fetch.attempts >= MAX_ATTEMPTS) {
+                    throw new IOException("Chunk " + fetch.index + " of " + entry.getPath() + " in " + filePath + " does not match the manifest; the file may have changed on the domain controller");
+                }
+                fetch.start(peers);
+                inFlight.addLast(fetch);
+                continue;
+            }
+            output.seek(offset);
+            output.write(chunk);
+            present[fetch.index] = true;
+            chunksTransferred.incrementAndGet();
+            if (fetch.peer != null) {
+                chunksFromPeers.incrementAndGet();
+            }
+        }
+    }
+
+    private <T> T await(final Future<T> future) throws IOException {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the domain controller");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to get file from the domain controller", cause);
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out after " + timeout + "ms waiting for the domain controller");
+        }
+    }
+
+    private final class ChunkFetch {
+        private final byte rootId;
+        private final String filePath;
+        private final int chunkSize;
+        private final FileManifest.Entry entry;
+        private final int index;
+        /** The peer the current request went to, or {@code null} if it went to the domain controller */
+        private ManagementRequestConnectionStrategy peer;
+        private Future<byte[]> future;
+        private final Set<ManagementRequestConnectionStrategy> peersAsked = new HashSet<ManagementRequestConnectionStrategy>();
+        private int attempts;
+
+        private ChunkFetch(final byte rootId, final String filePath, final int chunkSize, final FileManifest.Entry entry, final int index) {
+            this.rootId = rootId;
+            this.filePath = filePath;
+            this.chunkSize = chunkSize;
+            this.entry = entry;
+            this.index = index;
+        }
+
+        /**
+         * Requests the chunk from the next peer not yet asked for it, or from the domain controller once every
+         * peer has been asked.
+         */
+        private void start(final Peers peers) throws IOException {
+            // A request instance tracks the state of a single exchange, so each attempt needs a new one
+            if (peers != null) {
+                if (peers.serverFetches >= PEER_REFRESH_INTERVAL && peersAsked.containsAll(peers.live)) {
+                    peers.refresh(RemoteFileTransfer.this, rootId, filePath);
+                }
+                // Spread the first request for each chunk across the peers
+                final List<ManagementRequestConnectionStrategy> live = peers.live;
+                for (int i = 0; i < live.size(); i++) {
+                    peer = live.get((index + i) % live.size());
+                    if (peersAsked.add(peer)) {
+                        try {
+                            future = new GetFileChunkRequest(rootId, filePath, entry.getPath(), chunkSize, index, entry.getChunkHash(index)).execute(peer);
+                            return;
+                        } catch (IOException e) {
+                            log.debugf("Not fetching more chunks from failed peer: %s", e);
+                            live.remove(peer);
+                            i = -1;
+                        }
+                    }
+                }
+                peers.serverFetches++;
+            }
+            peer = null;
+            attempts++;
+            future = new GetFileChunkRequest(rootId, filePath, entry.getPath(), chunkSize, index, null).execute(connectionStrategy);
+        }
+    }
+
+    /**
+     * The peers a transfer may fetch chunks from. They are found by registering with the domain controller as a
+     * source of the content being fetched. Registration is repeated every few chunks fetched from the domain
+     * controller, so hosts which started fetching the same content later are found too. Peers which fail are not
+     * asked again.
+     */
+    static final class Peers {
+
+        /**
+         * Opens connections to peers.
+         */
+        interface Connector {
+
+            /**
+             * Connects to a peer.
+             *
+             * @param address the address at which the peer serves content
+             * @return the strategy providing the connection
+             * @throws IOException if the peer cannot be reached
+             */
+            ManagementRequestConnectionStrategy connect(InetSocketAddress address) throws IOException;
+        }
+
+        private final String hostId;
+        private final int peerPort;
+        private final Connector connector;
+        private final Set<InetSocketAddress> known = new HashSet<InetSocketAddress>();
+        private final List<ManagementRequestConnectionStrategy> live = new ArrayList<ManagementRequestConnectionStrategy>();
+        private int serverFetches;
+
+        /**
+         * Construct a new instance.
+         *
+         * @param hostId the id of this host
+         * @param peerPort the port on which this host serves content to its peers
+         * @param connector opens connections to the peers
+         */
+        Peers(final String hostId, final int peerPort, final Connector connector) {
+            this.hostId = hostId;
+            this.peerPort = peerPort;
+            this.connector = connector;
+        }
+
+        /**
+         * Gets the number of peers found.
+         *
+         * @return the number of peers
+         */
+        int getCount() {
+            return known.size();
+        }
+
+        private void refresh(final RemoteFileTransfer transfer, final byte rootId, final String filePath) {
+            serverFetches = 0;
+            final List<InetSocketAddress> addresses;
+            try {
+                addresses = transfer.registerContentSource(hostId, rootId, filePath, peerPort);
+            } catch (IOException e) {
+                log.debugf("Could not find peers for %s: %s", filePath, e);
+                return;
+            }
+            for (InetSocketAddress address : addresses) {
+                if (known.add(address)) {
+                    try {
+                        live.add(connector.connect(address));
+                    } catch (IOException e) {
+                        log.debugf("Could not connect to peer %s: %s", address, e);
+                    }
+                }
+            }
+        }
+    }
+
+    private abstract static class FileRequest<T> extends ManagementRequest<T> {
+        final byte rootId;
+        final String filePath;
+
+        FileRequest(final byte rootId, final String filePath) {
+            this.rootId = rootId;
+            this.filePath = filePath;
+        }
+
+        @Override
+        protected byte getHandlerId() {
+            return ModelControllerClientProtocol.HANDLER_ID;
+        }
+
+        @Override
+        protected final void sendRequest(final int protocolVersion, final OutputStream outputStream) throws IOException {
+            ByteDataOutput output = null;
+            try {
+                output = new SimpleByteDataOutput(outputStream);
+                output.writeByte(DomainControllerProtocol.PARAM_ROOT_ID);
+                output.writeByte(rootId);
+                output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
+                output.writeUTF(filePath);
+                writeParameters(output);
+                output.close();
+            } finally {
+                StreamUtils.safeClose(output);
+            }
+        }
+
+        void writeParameters(final ByteDataOutput output) throws IOException {
+        }
+    }
+
+    private static final class GetFileManifestRequest extends FileRequest<FileManifest> {
+
+        GetFileManifestRequest(final byte rootId, final String filePath) {
+            super(rootId, filePath);
+        }
+
+        @Override
+        protected byte getRequestCode() {
+            return DomainControllerProtocol.GET_FILE_MANIFEST_REQUEST;
+        }
+
+        @Override
+        protected byte getResponseCode() {
+            return DomainControllerProtocol.GET_FILE_MANIFEST_RESPONSE;
+        }
+
+        @Override
+        protected FileManifest receiveResponse(final InputStream inputStream) throws IOException {
+            ByteDataInput input = null;
+            try {
+                input = new SimpleByteDataInput(inputStream);
+                final FileManifest manifest = FileManifest.read(input);
+                input.close();
+                return manifest;
+            } finally {
+                StreamUtils.safeClose(input);
+            }
+        }
+    }
+
+    /**
+     * Requests a chunk from the domain controller or, if the expected hash of the chunk is given, from a peer.
+     */
+    private static final class GetFileChunkRequest extends FileRequest<byte[]> {
+        private final String path;
+        private final int chunkSize;
+        private final int index;
+        private final byte[] expectedHash;
+
+        GetFileChunkRequest(final byte rootId, final String filePath, final String path, final int chunkSize, final int index, final byte[] expectedHash) {
+            super(rootId, filePath);
+            this.path = path;
+            this.chunkSize = chunkSize;
+            this.index = index;
+            this.expectedHash = expectedHash;
+        }
+
+        @Override
+        protected byte getHandlerId() {
+            return expectedHash == null ? super.getHandlerId() : DomainControllerProtocol.PEER_CONTENT_HANDLER_ID;
+        }
+
+        @Override
+        protected byte getRequestCode() {
+            return expectedHash == null ? DomainControllerProtocol.GET_FILE_CHUNK_REQUEST : DomainControllerProtocol.GET_PEER_CHUNK_REQUEST;
+        }
+
+        @Override
+        protected byte getResponseCode() {
+            return expectedHash == null ? DomainControllerProtocol.GET_FILE_CHUNK_RESPONSE : DomainControllerProtocol.GET_PEER_CHUNK_RESPONSE;
+        }
+
+        @Override
+        void writeParameters(final ByteDataOutput output) throws IOException {
+            output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
+            output.writeUTF(path);
+            output.writeByte(DomainControllerProtocol.PARAM_CHUNK_SIZE);
+            output.writeInt(chunkSize);
+            output.writeByte(DomainControllerProtocol.PARAM_CHUNK_INDEX);
+            output.writeInt(index);
+            if (expectedHash != null) {
+                output.writeByte(DomainControllerProtocol.PARAM_CHUNK_HASH);
+                output.writeByte(expectedHash.length);
+                output.write(expectedHash);
+            }
+        }
+
+        @Override
+        protected byte[] receiveResponse(final InputStream inputStream) throws IOException {
+            ByteDataInput input = null;
+            try {
+                input = new SimpleByteDataInput(inputStream);
+                expectHeader(input, DomainControllerProtocol.PARAM_CHUNK);
+                final int length = input.readInt();
+                if (length < 0) {
+                    return null;
+                }
+                if (length > chunkSize) {
+                    throw new IOException("Received chunk of " + length + " bytes, expected at most " + chunkSize);
+                }
+                final byte[] chunk = new byte[length];
+                input.readFully(chunk);
+                input.close();
+                return chunk;
+            } finally {
+                StreamUtils.safeClose(input);
+            }
+        }
+    }
+
+    private static final class RegisterContentSourceRequest extends ManagementRequest<List<InetSocketAddress>> {
+        private final String hostId;
+        private final byte rootId;
+        private final String filePath;
+        private final int peerPort;
+
+        RegisterContentSourceRequest(final String hostId, final byte rootId, final String filePath, final int peerPort) {
+            this.hostId = hostId;
+            this.rootId = rootId;
+            this.filePath = filePath;
+            this.peerPort = peerPort;
+        }
+
+        @Override
+        protected byte getHandlerId() {
+            return ModelControllerClientProtocol.HANDLER_ID;
+        }
+
+        @Override
+        protected byte getRequestCode() {
+            return DomainControllerProtocol.REGISTER_CONTENT_SOURCE_REQUEST;
+        }
+
+        @Override
+        protected byte getResponseCode() {
+            return DomainControllerProtocol.REGISTER_CONTENT_SOURCE_RESPONSE;
+        }
+
+        @Override
+        protected void sendRequest(final int protocolVersion, final OutputStream outputStream) throws IOException {
+            ByteDataOutput output = null;
+            try {
+                output = new SimpleByteDataOutput(outputStream);
+                output.writeByte(DomainControllerProtocol.PARAM_HOST_ID);
+                output.writeUTF(hostId);
+                output.writeByte(DomainControllerProtocol.PARAM_ROOT_ID);
+                output.writeByte(rootId);
+                output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
+                output.writeUTF(filePath);
+                output.writeByte(DomainControllerProtocol.PARAM_PEER_PORT);
+                output.writeInt(peerPort);
+                output.close();
+            } finally {
+                StreamUtils.safeClose(output);
+            }
+        }
+
+        @Override
+        protected List<InetSocketAddress> receiveResponse(final InputStream inputStream) throws IOException {
+            ByteDataInput input = null;
+            try {
+                input = new SimpleByteDataInput(inputStream);
+                expectHeader(input, DomainControllerProtocol.PARAM_NUM_PEERS);
+                final int count = input.readInt();
+                final List<InetSocketAddress> peers = new ArrayList<InetSocketAddress>(count);
+                for (int i = 0; i < count; i++) {
+                    expectHeader(input, DomainControllerProtocol.PARAM_PEER_ADDRESS);
+                    final String address = input.readUTF();
+                    peers.add(new InetSocketAddress(InetAddress.getByName(address), input.readInt()));
+                }
+                input.close();
+                return peers;
+            } finally {
+                StreamUtils.safeClose(input);
+            }
+        }
+    }
+}
@@ -22,7 +22,11 @@
 
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILDREN;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONFIG_PENDING_VERSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONFIG_PERSISTED_VERSION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION_CACHE_HITS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION_CACHE_MISSES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HEAD_COMMENT_ALLOWED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INTERFACE;
@@ -78,6 +82,10 @@ public class HostRootDescription {
         root.get(TAIL_COMMENT_ALLOWED).set(true);
         root.get(ATTRIBUTES, NAMESPACES).set(CommonDescriptions.getNamespacePrefixAttribute(locale));
         root.get(ATTRIBUTES, SCHEMA_LOCATIONS).set(CommonDescriptions.getSchemaLocationAttribute(locale));
+        root.get(ATTRIBUTES, CONFIG_PENDING_VERSION).set(CommonDescriptions.getConfigPendingVersionAttribute(locale));
+        root.get(ATTRIBUTES, CONFIG_PERSISTED_VERSION).set(CommonDescriptions.getConfigPersistedVersionAttribute(locale));
+        root.get(ATTRIBUTES, DESCRIPTION_CACHE_HITS).set(CommonDescriptions.getDescriptionCacheHitsAttribute(locale));
+        root.get(ATTRIBUTES, DESCRIPTION_CACHE_MISSES).set(CommonDescriptions.getDescriptionCacheMissesAttribute(locale));
 
         root.get(ATTRIBUTES, NAME, DESCRIPTION).set(bundle.getString("host.name"));
         root.get(ATTRIBUTES, NAME, TYPE).set(ModelType.STRING);
@@ -0,0 +1,129 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.mgmt;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks which hosts hold, or are in the process of fetching, each piece of repository content, so the domain
+ * controller can point a host fetching content at peers it can fetch chunks from instead.
+ * <p>
+ * A host asking for peers is given the sources which have been handed out least so far, so that the load of
+ * serving a piece of content spreads across the hosts holding it rather than falling on the first host to
+ * fetch it. The asking host then becomes a source itself.
+ * </p>
+ */
+final class ContentSourceRegistry {
+
+    /**
+     * System property setting the maximum number of peers a host is given for a piece of content.
+     */
+    static final String MAX_PEERS_PROPERTY = "jboss.as.domain.transfer.max-peers";
+
+    private final int maxPeers = Integer.getInteger(MAX_PEERS_PROPERTY, 4).intValue();
+    /** Sources by content key. Guarded by {@code this}. */
+    private final Map<String, List<Source>> sources = new HashMap<String, List<Source>>();
+
+    /**
+     * Records that a host is fetching a piece of content and gets the peers it can fetch it from.
+     *
+     * @param key the key identifying the content
+     * @param hostId the id of the host
+     * @param address the address at which the host serves content to its peers
+     * @return the peers, excluding the host itself. Will not be {@code null}
+     */
+    synchronized List<InetSocketAddress> register(final String key, final String hostId, final InetSocketAddress address) {
+        List<Source> list = sources.get(key);
+        if (list == null) {
+            list = new ArrayList<Source>();
+            sources.put(key, list);
+        }
+        final List<Source> candidates = new ArrayList<Source>(list.size());
+        Source self = null;
+        for (Source source : list) {
+            if (source.hostId.equals(hostId)) {
+                self = source;
+            } else {
+                candidates.add(source);
+            }
+        }
+        Collections.sort(candidates, LEAST_USED);
+        final List<InetSocketAddress> peers = new ArrayList<InetSocketAddress>(Math.min(maxPeers, candidates.size()));
+        for (Source source : candidates) {
+            if (peers.size() == maxPeers) {
+                break;
+            }
+            source.handedOut++;
+            peers.add(source.address);
+        }
+        if (self == null) {
+            list.add(new Source(hostId, address));
+        } else {
+            self.address = address;
+        }
+        return peers;
+    }
+
+    /**
+     * Forgets every piece of content held by a host, for example because it has left the domain.
+     *
+     * @param hostId the id of the host
+     */
+    synchronized void removeHost(final String hostId) {
+        for (Iterator<List<Source>> lists = sources.values().iterator(); lists.hasNext();) {
+            final List<Source> list = lists.next();
+            for (Iterator<Source> it = list.iterator(); it.hasNext();) {
+                if (it.next().hostId.equals(hostId)) {
+                    it.remove();
+                }
+            }
+            if (list.isEmpty()) {
+                lists.remove();
+            }
+        }
+    }
+
+    private static final Comparator<Source> LEAST_USED = new Comparator<Source>() {
+        public int compare(final Source o1, final Source o2) {
+            return o1.handedOut < o2.handedOut ? -1 : (o1.handedOut == o2.handedOut ? 0 : 1);
+        }
+    };
+
+    private static final class Source {
+        private final String hostId;
+        private InetSocketAddress address;
+        private int handedOut;
+
+        private Source(final String hostId, final InetSocketAddress address) {
+            this.hostId = hostId;
+            this.address = address;
+        }
+    }
+}
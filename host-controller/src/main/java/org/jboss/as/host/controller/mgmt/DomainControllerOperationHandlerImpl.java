@@ -81,8 +81,11 @@ import org.jboss.dmr.ModelNode;
  */
 public class DomainControllerOperationHandlerImpl extends ModelControllerOperationHandlerImpl {
 
+    private final FileTransferOperations fileTransferOperations;
+
     public DomainControllerOperationHandlerImpl(DomainController modelController, MessageHandler initiatingHandler) {
         super(modelController, initiatingHandler);
+        fileTransferOperations = new FileTransferOperations(initiatingHandler);
     }
 
     @Override
@@ -99,6 +102,10 @@ public class DomainControllerOperationHandlerImpl extends ModelControllerOperati
             return new UnregisterOperation();
         case DomainControllerProtocol.GET_FILE_REQUEST:
             return new GetFileOperation();
+        case DomainControllerProtocol.GET_FILE_MANIFEST_REQUEST:
+        case DomainControllerProtocol.GET_FILE_CHUNK_REQUEST:
+        case DomainControllerProtocol.REGISTER_CONTENT_SOURCE_REQUEST:
+            return fileTransferOperations.operationFor(commandByte, getController().getFileRepository());
         default:
             return super.operationFor(commandByte);
         }
@@ -150,6 +157,7 @@ public class DomainControllerOperationHandlerImpl extends ModelControllerOperati
         @Override
         protected void sendResponse(final OutputStream outputStream) throws IOException {
             getController().removeClient(hostId);
+            fileTransferOperations.removeHost(hostId);
         }
     }
 
@@ -35,10 +35,24 @@ public interface DomainControllerProtocol extends ModelControllerClientProtocol{
     byte UNREGISTER_HOST_CONTROLLER_RESPONSE = 0x54;
     byte GET_FILE_REQUEST = 0x55;
     byte GET_FILE_RESPONSE = 0x56;
+    byte GET_FILE_MANIFEST_REQUEST = 0x57;
+    byte GET_FILE_MANIFEST_RESPONSE = 0x58;
+    byte GET_FILE_CHUNK_REQUEST = 0x59;
+    byte GET_FILE_CHUNK_RESPONSE = 0x5A;
+    byte REGISTER_CONTENT_SOURCE_REQUEST = 0x5B;
+    byte REGISTER_CONTENT_SOURCE_RESPONSE = 0x5C;
+    byte GET_PEER_CHUNK_REQUEST = 0x5D;
+    byte GET_PEER_CHUNK_RESPONSE = 0x5E;
+
+    /** The id of the handler through which a host controller serves content to its peers */
+    byte PEER_CONTENT_HANDLER_ID = 0x20;
 
 
     byte PARAM_HOST_ID = 0x68;
     byte PARAM_MODEL = 0x69;
+    byte PARAM_PEER_PORT = 0x6A;
+    byte PARAM_NUM_PEERS = 0x6B;
+    byte PARAM_PEER_ADDRESS = 0x6C;
     byte PARAM_ROOT_ID = 0x71;
     byte PARAM_FILE_PATH = 0x72;
     byte PARAM_ROOT_ID_FILE = 0x73;
@@ -48,4 +62,9 @@ public interface DomainControllerProtocol extends ModelControllerClientProtocol{
     byte FILE_START = 0x77;
     byte PARAM_FILE_SIZE = 0x78;
     byte FILE_END = 0x79;
+    byte PARAM_CHUNK_SIZE = 0x7A;
+    byte PARAM_NUM_CHUNKS = 0x7B;
+    byte PARAM_CHUNK_INDEX = 0x7C;
+    byte PARAM_CHUNK = 0x7D;
+    byte PARAM_CHUNK_HASH = 0x7E;
 }
@@ -0,0 +1,294 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.mgmt;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes the files under a path in a {@link org.jboss.as.domain.controller.FileRepository} as a sequence of
+ * fixed-size chunks, each with its SHA-1 hash. A host uses the manifest to fetch only the chunks it does not
+ * already have and to verify each chunk it receives.
+ */
+public final class FileManifest {
+
+    /** The default size of a chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    private static final int HASH_LENGTH = 20;
+
+    private final int chunkSize;
+    private final List<Entry> entries;
+
+    private FileManifest(final int chunkSize, final List<Entry> entries) {
+        this.chunkSize = chunkSize;
+        this.entries = entries;
+    }
+
+    /**
+     * Creates the manifest of a file or of all files under a directory.
+     *
+     * @param root the file or directory
+     * @param chunkSize the size of a chunk
+     * @param cache cache of the chunk hashes of unchanged files. May be {@code null}
+     * @return the manifest
+     * @throws IOException if a file cannot be read
+     */
+    static FileManifest create(final File root, final int chunkSize, final FileManifestCache cache) throws IOException {
+        if (root == null || !root.exists()) {
+            return new FileManifest(chunkSize, null);
+        }
+        final List<Entry> entries = new ArrayList<Entry>();
+        if (root.isFile()) {
+            entries.add(createEntry(root, "", chunkSize, cache));
+        } else {
+            addEntries(root, root.getAbsolutePath().length(), chunkSize, cache, entries);
+        }
+        return new FileManifest(chunkSize, entries);
+    }
+
+    private static void addEntries(final File dir, final int rootLength, final int chunkSize, final FileManifestCache cache, final List<Entry> entries) throws IOException {
+        final File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isFile()) {
+                entries.add(createEntry(child, child.getAbsolutePath().substring(rootLength), chunkSize, cache));
+            } else {
+                addEntries(child, rootLength, chunkSize, cache, entries);
+            }
+        }
+    }
+
+    private static Entry createEntry(final File file, final String path, final int chunkSize, final FileManifestCache cache) throws IOException {
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        byte[][] hashes = cache == null ? null : cache.get(file, length, lastModified, chunkSize);
+        if (hashes == null) {
+            hashes = hashChunks(file, length, chunkSize);
+            if (cache != null) {
+                cache.put(file, length, lastModified, chunkSize, hashes);
+            }
+        }
+        return new Entry(path, length, hashes);
+    }
+
+    private static byte[][] hashChunks(final File file, final long length, final int chunkSize) throws IOException {
+        final int count = getChunkCount(length, chunkSize);
+        final byte[][] hashes = new byte[count][];
+        final byte[] buffer = new byte[(int) Math.min(chunkSize, Math.max(length, 1))];
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            for (int i = 0; i < count; i++) {
+                final int len = (int) Math.min(chunkSize, length - (long) i * chunkSize);
+                raf.readFully(buffer, 0, len);
+                hashes[i] = hash(buffer, 0, len);
+            }
+        } finally {
+            raf.close();
+        }
+        return hashes;
+    }
+
+    /**
+     * Computes the hash of a chunk.
+     *
+     * @param data the buffer holding the chunk
+     * @param off the offset of the chunk in {@code data}
+     * @param len the length of the chunk
+     * @return the SHA-1 hash of the chunk
+     */
+    public static byte[] hash(final byte[] data, final int off, final int len) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(data, off, len);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static int getChunkCount(final long length, final int chunkSize) {
+        return (int) ((length + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * Whether the path the manifest was requested for exists.
+     *
+     * @return {@code true} if it exists
+     */
+    public boolean exists() {
+        return entries != null;
+    }
+
+    /**
+     * Gets the size of the chunks.
+     *
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Gets the files. For a manifest of a single file there is one entry, whose path is empty.
+     *
+     * @return the files. Empty if the path does not exist or is an empty directory
+     */
+    public List<Entry> getEntries() {
+        return entries == null ? Collections.<Entry>emptyList() : entries;
+    }
+
+    /**
+     * Writes the manifest.
+     *
+     * @param output the output
+     * @throws IOException if the write fails
+     */
+    public void write(final DataOutput output) throws IOException {
+        output.writeByte(DomainControllerProtocol.PARAM_NUM_FILES);
+        if (entries == null) {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(entries.size());
+        output.writeByte(DomainControllerProtocol.PARAM_CHUNK_SIZE);
+        output.writeInt(chunkSize);
+        for (Entry entry : entries) {
+            output.writeByte(DomainControllerProtocol.FILE_START);
+            output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
+            output.writeUTF(entry.path);
+            output.writeByte(DomainControllerProtocol.PARAM_FILE_SIZE);
+            output.writeLong(entry.length);
+            output.writeByte(DomainControllerProtocol.PARAM_NUM_CHUNKS);
+            output.writeInt(entry.hashes.length);
+            for (byte[] hash : entry.hashes) {
+                output.write(hash);
+            }
+            output.writeByte(DomainControllerProtocol.FILE_END);
+        }
+    }
+
+    /**
+     * Reads a manifest written by {@link #write(DataOutput)}.
+     *
+     * @param input the input
+     * @return the manifest
+     * @throws IOException if the read fails or the manifest is malformed
+     */
+    public static FileManifest read(final DataInput input) throws IOException {
+        expectHeader(input, DomainControllerProtocol.PARAM_NUM_FILES);
+        final int numFiles = input.readInt();
+        if (numFiles == -1) {
+            return new FileManifest(DEFAULT_CHUNK_SIZE, null);
+        }
+        expectHeader(input, DomainControllerProtocol.PARAM_CHUNK_SIZE);
+        final int chunkSize = input.readInt();
+        if (chunkSize <= 0) {
+            throw new IOException("Invalid chunk size " + chunkSize);
+        }
+        final List<Entry> entries = new ArrayList<Entry>(numFiles);
+        for (int i = 0; i < numFiles; i++) {
+            expectHeader(input, DomainControllerProtocol.FILE_START);
+            expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
+            final String path = input.readUTF();
+            expectHeader(input, DomainControllerProtocol.PARAM_FILE_SIZE);
+            final long length = input.readLong();
+            expectHeader(input, DomainControllerProtocol.PARAM_NUM_CHUNKS);
+            final int count = input.readInt();
+            if (count != getChunkCount(length, chunkSize)) {
+                throw new IOException("File " + path + " of length " + length + " cannot have " + count + " chunks");
+            }
+            final byte[][] hashes = new byte[count][HASH_LENGTH];
+            for (int j = 0; j < count; j++) {
+                input.readFully(hashes[j]);
+            }
+            expectHeader(input, DomainControllerProtocol.FILE_END);
+            entries.add(new Entry(path, length, hashes));
+        }
+        return new FileManifest(chunkSize, entries);
+    }
+
+    /**
+     * A file in the manifest.
+     */
+    public static final class Entry {
+        private final String path;
+        private final long length;
+        private final byte[][] hashes;
+
+        private Entry(final String path, final long length, final byte[][] hashes) {
+            this.path = path;
+            this.length = length;
+            this.hashes = hashes;
+        }
+
+        /**
+         * Gets the path of the file relative to the path the manifest was requested for.
+         *
+         * @return the relative path
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Gets the length of the file.
+         *
+         * @return the length
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * Gets the number of chunks in the file.
+         *
+         * @return the number of chunks
+         */
+        public int getChunkCount() {
+            return hashes.length;
+        }
+
+        /**
+         * Gets the hash of a chunk.
+         *
+         * @param index the index of the chunk
+         * @return the hash
+         */
+        public byte[] getChunkHash(final int index) {
+            return hashes[index];
+        }
+    }
+}
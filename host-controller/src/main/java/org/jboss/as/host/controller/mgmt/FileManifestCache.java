@@ -0,0 +1,68 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.mgmt;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers the chunk hashes of files served to hosts, so that every host fetching the same content does not
+ * cause the content to be hashed again. An entry is only used while the file's length and modification time
+ * are unchanged.
+ */
+final class FileManifestCache {
+
+    private final ConcurrentMap<String, Hashes> cache = new ConcurrentHashMap<String, Hashes>();
+
+    byte[][] get(final File file, final long length, final long lastModified, final int chunkSize) {
+        final String key = file.getAbsolutePath();
+        final Hashes hashes = cache.get(key);
+        if (hashes == null) {
+            return null;
+        }
+        if (hashes.length != length || hashes.lastModified != lastModified || hashes.chunkSize != chunkSize) {
+            cache.remove(key, hashes);
+            return null;
+        }
+        return hashes.hashes;
+    }
+
+    void put(final File file, final long length, final long lastModified, final int chunkSize, final byte[][] hashes) {
+        cache.put(file.getAbsolutePath(), new Hashes(length, lastModified, chunkSize, hashes));
+    }
+
+    private static final class Hashes {
+        private final long length;
+        private final long lastModified;
+        private final int chunkSize;
+        private final byte[][] hashes;
+
+        private Hashes(final long length, final long lastModified, final int chunkSize, final byte[][] hashes) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.chunkSize = chunkSize;
+            this.hashes = hashes;
+        }
+    }
+}
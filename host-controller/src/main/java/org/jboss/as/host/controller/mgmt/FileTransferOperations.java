@@ -0,0 +1,362 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.mgmt;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+
+import java.io.DataInput;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.protocol.ByteDataInput;
+import org.jboss.as.protocol.ByteDataOutput;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.SimpleByteDataInput;
+import org.jboss.as.protocol.SimpleByteDataOutput;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ManagementResponse;
+
+/**
+ * The domain controller side of the chunked file transfer used by hosts to pull content from its
+ * {@link FileRepository}. A host first asks for the {@link FileManifest} of a path, then fetches the chunks
+ * it is missing, each with its own {@link DomainControllerProtocol#GET_FILE_CHUNK_REQUEST}. The operations keep
+ * no per-transfer state, so a host can resume an interrupted transfer on a new connection.
+ * <p>
+ * Hosts fetching deployment content also register with the domain controller as a source of that content,
+ * getting back the peers which hold or are fetching it. Peers then ask each other for chunks with
+ * {@link DomainControllerProtocol#GET_PEER_CHUNK_REQUEST}, which carries the chunk's expected hash. A peer only
+ * answers with a chunk it holds which matches that hash, whether in the finished file or in the {@link #PART_SUFFIX}
+ * file of a transfer still in progress.
+ * </p>
+ */
+public class FileTransferOperations {
+
+    /**
+     * System property setting the size, in bytes, of the chunks files are split into.
+     */
+    public static final String CHUNK_SIZE_PROPERTY = "jboss.as.domain.transfer.chunk-size";
+
+    /**
+     * The suffix of the file a transfer writes to until every chunk has been received.
+     */
+    public static final String PART_SUFFIX = ".part";
+
+    /** Upper bound for the chunk size a host may ask for */
+    private static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private final int chunkSize = Integer.getInteger(CHUNK_SIZE_PROPERTY, FileManifest.DEFAULT_CHUNK_SIZE).intValue();
+    private final FileManifestCache cache = new FileManifestCache();
+    private final ContentSourceRegistry contentSources = new ContentSourceRegistry();
+    private final MessageHandler initiatingHandler;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param initiatingHandler the handler to restore once an operation completes
+     */
+    public FileTransferOperations(final MessageHandler initiatingHandler) {
+        this.initiatingHandler = initiatingHandler;
+    }
+
+    /**
+     * Gets the operation for a command.
+     *
+     * @param commandByte the command
+     * @param repository the repository to serve files from
+     * @return the operation, or {@code null} if the command is not a file transfer command
+     */
+    public ManagementResponse operationFor(final byte commandByte, final FileRepository repository) {
+        switch (commandByte) {
+            case DomainControllerProtocol.GET_FILE_MANIFEST_REQUEST:
+                return new GetFileManifestOperation(repository);
+            case DomainControllerProtocol.GET_FILE_CHUNK_REQUEST:
+                return new GetFileChunkOperation(repository, false);
+            case DomainControllerProtocol.GET_PEER_CHUNK_REQUEST:
+                return new GetFileChunkOperation(repository, true);
+            case DomainControllerProtocol.REGISTER_CONTENT_SOURCE_REQUEST:
+                return new RegisterContentSourceOperation();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Forgets the content held by a host, so it is no longer handed out as a peer.
+     *
+     * @param hostId the id of the host
+     */
+    public void removeHost(final String hostId) {
+        contentSources.removeHost(hostId);
+    }
+
+    /**
+     * Resolves the path a host asked for against a repository.
+     *
+     * @param repository the repository
+     * @param rootId the root the path is relative to
+     * @param filePath the path, which for {@link DomainControllerProtocol#PARAM_ROOT_ID_DEPLOYMENT} is the hex encoded
+     *                 deployment hash
+     * @return the file or directory
+     * @throws IOException if the root id is not known
+     */
+    public static File resolve(final FileRepository repository, final byte rootId, final String filePath) throws IOException {
+        switch (rootId) {
+            case DomainControllerProtocol.PARAM_ROOT_ID_FILE:
+                return repository.getFile(filePath);
+            case DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION:
+                return repository.getConfigurationFile(filePath);
+            case DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT:
+                return repository.getDeploymentRoot(HashUtil.hexStringToByteArray(filePath));
+            default:
+                throw new IOException(String.format("Invalid root id [%d]", Byte.valueOf(rootId)));
+        }
+    }
+
+    private abstract class FileOperation extends ManagementResponse {
+        private final FileRepository repository;
+        byte rootId;
+        File root;
+
+        FileOperation(final FileRepository repository) {
+            super(initiatingHandler);
+            this.repository = repository;
+        }
+
+        @Override
+        protected void readRequest(final InputStream inputStream) throws IOException {
+            ByteDataInput input = null;
+            try {
+                input = new SimpleByteDataInput(inputStream);
+                expectHeader(input, DomainControllerProtocol.PARAM_ROOT_ID);
+                rootId = input.readByte();
+                expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
+                root = resolve(repository, rootId, input.readUTF());
+                readParameters(input);
+            } finally {
+                StreamUtils.safeClose(input);
+            }
+        }
+
+        void readParameters(final DataInput input) throws IOException {
+        }
+    }
+
+    private class GetFileManifestOperation extends FileOperation {
+
+        GetFileManifestOperation(final FileRepository repository) {
+            super(repository);
+        }
+
+        @Override
+        protected final byte getResponseCode() {
+            return DomainControllerProtocol.GET_FILE_MANIFEST_RESPONSE;
+        }
+
+        @Override
+        protected void sendResponse(final OutputStream outputStream) throws IOException {
+            final FileManifest manifest = FileManifest.create(root, chunkSize, cache);
+            ByteDataOutput output = null;
+            try {
+                output = new SimpleByteDataOutput(outputStream);
+                manifest.write(output);
+                output.close();
+            } finally {
+                StreamUtils.safeClose(output);
+            }
+        }
+    }
+
+    private class GetFileChunkOperation extends FileOperation {
+        private final boolean peer;
+        private String path;
+        private int requestedChunkSize;
+        private int index;
+        private byte[] expectedHash;
+
+        GetFileChunkOperation(final FileRepository repository, final boolean peer) {
+            super(repository);
+            this.peer = peer;
+        }
+
+        @Override
+        protected final byte getResponseCode() {
+            return peer ? DomainControllerProtocol.GET_PEER_CHUNK_RESPONSE : DomainControllerProtocol.GET_FILE_CHUNK_RESPONSE;
+        }
+
+        @Override
+        void readParameters(final DataInput input) throws IOException {
+            expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
+            path = input.readUTF();
+            expectHeader(input, DomainControllerProtocol.PARAM_CHUNK_SIZE);
+            requestedChunkSize = input.readInt();
+            expectHeader(input, DomainControllerProtocol.PARAM_CHUNK_INDEX);
+            index = input.readInt();
+            if (requestedChunkSize <= 0 || requestedChunkSize > MAX_CHUNK_SIZE || index < 0) {
+                throw new IOException("Invalid chunk " + index + " of size " + requestedChunkSize);
+            }
+            if (peer) {
+                if (rootId != DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT) {
+                    throw new IOException("Only deployment content is served to peers");
+                }
+                expectHeader(input, DomainControllerProtocol.PARAM_CHUNK_HASH);
+                expectedHash = new byte[input.readUnsignedByte()];
+                input.readFully(expectedHash);
+            }
+        }
+
+        @Override
+        protected void sendResponse(final OutputStream outputStream) throws IOException {
+            final byte[] chunk = readChunk();
+            ByteDataOutput output = null;
+            try {
+                output = new SimpleByteDataOutput(outputStream);
+                output.writeByte(DomainControllerProtocol.PARAM_CHUNK);
+                if (chunk == null) {
+                    output.writeInt(-1);
+                } else {
+                    output.writeInt(chunk.length);
+                    output.write(chunk);
+                }
+                output.close();
+            } finally {
+                StreamUtils.safeClose(output);
+            }
+        }
+
+        /**
+         * Reads the requested chunk, or returns {@code null} if the file or chunk no longer exists or, for a peer
+         * request, does not match the expected hash.
+         */
+        private byte[] readChunk() throws IOException {
+            if (root == null) {
+                return null;
+            }
+            File file = path.length() == 0 ? root : new File(root, path);
+            final String rootPath = root.getCanonicalPath();
+            final String filePath = file.getCanonicalPath();
+            if (!filePath.equals(rootPath) && !filePath.startsWith(rootPath + File.separator)) {
+                throw new IOException("Invalid path " + path);
+            }
+            if (peer && !file.isFile()) {
+                file = new File(file.getPath() + PART_SUFFIX);
+            }
+            if (!file.isFile()) {
+                return null;
+            }
+            final byte[] chunk;
+            final RandomAccessFile raf;
+            try {
+                raf = new RandomAccessFile(file, "r");
+            } catch (FileNotFoundException e) {
+                // Removed, or a part file renamed, since we looked
+                return null;
+            }
+            try {
+                final long offset = (long) index * requestedChunkSize;
+                final long length = raf.length();
+                if (offset >= length) {
+                    return null;
+                }
+                chunk = new byte[(int) Math.min(requestedChunkSize, length - offset)];
+                raf.seek(offset);
+                raf.readFully(chunk);
+            } finally {
+                StreamUtils.safeClose(raf);
+            }
+            if (peer && !Arrays.equals(FileManifest.hash(chunk, 0, chunk.length), expectedHash)) {
+                return null;
+            }
+            return chunk;
+        }
+    }
+
+    private class RegisterContentSourceOperation extends ManagementResponse {
+        private Connection connection;
+        private String hostId;
+        private String key;
+        private int port;
+
+        RegisterContentSourceOperation() {
+            super(initiatingHandler);
+        }
+
+        @Override
+        protected final byte getResponseCode() {
+            return DomainControllerProtocol.REGISTER_CONTENT_SOURCE_RESPONSE;
+        }
+
+        @Override
+        public void handle(final Connection connection, final InputStream input) throws IOException {
+            this.connection = connection;
+            super.handle(connection, input);
+        }
+
+        @Override
+        protected void readRequest(final InputStream inputStream) throws IOException {
+            ByteDataInput input = null;
+            try {
+                input = new SimpleByteDataInput(inputStream);
+                expectHeader(input, DomainControllerProtocol.PARAM_HOST_ID);
+                hostId = input.readUTF();
+                expectHeader(input, DomainControllerProtocol.PARAM_ROOT_ID);
+                final byte rootId = input.readByte();
+                expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
+                key = rootId + ":" + input.readUTF();
+                expectHeader(input, DomainControllerProtocol.PARAM_PEER_PORT);
+                port = input.readInt();
+            } finally {
+                StreamUtils.safeClose(input);
+            }
+        }
+
+        @Override
+        protected void sendResponse(final OutputStream outputStream) throws IOException {
+            // The host's own view of its address may be a wildcard, so use the one it connected from
+            final List<InetSocketAddress> peers = contentSources.register(key, hostId, new InetSocketAddress(connection.getPeerAddress(), port));
+            ByteDataOutput output = null;
+            try {
+                output = new SimpleByteDataOutput(outputStream);
+                output.writeByte(DomainControllerProtocol.PARAM_NUM_PEERS);
+                output.writeInt(peers.size());
+                for (InetSocketAddress peer : peers) {
+                    output.writeByte(DomainControllerProtocol.PARAM_PEER_ADDRESS);
+                    output.writeUTF(peer.getAddress().getHostAddress());
+                    output.writeInt(peer.getPort());
+                }
+                output.close();
+            } finally {
+                StreamUtils.safeClose(output);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.mgmt;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.AbstractMessageHandler;
+import org.jboss.as.protocol.mgmt.ManagementOperationHandler;
+import org.jboss.as.protocol.mgmt.ManagementProtocol;
+import org.jboss.as.protocol.mgmt.ManagementResponse;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+/**
+ * Operation handler through which a host controller serves chunks of the deployment content it holds to peer
+ * host controllers, taking load off the domain controller when many hosts fetch the same content.
+ * <p>
+ * Content is only ever read from the host's local repository; a chunk the host does not hold yet is reported as
+ * missing rather than fetched on the peer's behalf.
+ * </p>
+ */
+public class PeerContentOperationHandler extends AbstractMessageHandler implements ManagementOperationHandler, Service<ManagementOperationHandler> {
+
+    public static final ServiceName SERVICE_NAME = ManagementCommunicationService.SERVICE_NAME.append("peer", "content");
+
+    private final FileRepository localFileRepository;
+    private final FileTransferOperations operations = new FileTransferOperations(MessageHandler.NULL);
+
+    /**
+     * Construct a new instance.
+     *
+     * @param localFileRepository the host's local file repository
+     */
+    public PeerContentOperationHandler(final FileRepository localFileRepository) {
+        this.localFileRepository = localFileRepository;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void start(StartContext context) throws StartException {
+        //
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void stop(StopContext context) {
+        //
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ManagementOperationHandler getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public byte getIdentifier() {
+        return DomainControllerProtocol.PEER_CONTENT_HANDLER_ID;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handle(Connection connection, InputStream inputStream) throws IOException {
+        expectHeader(inputStream, ManagementProtocol.REQUEST_OPERATION);
+        final byte commandCode = StreamUtils.readByte(inputStream);
+        if (commandCode != DomainControllerProtocol.GET_PEER_CHUNK_REQUEST) {
+            throw new IOException("Invalid command code " + commandCode + " received");
+        }
+        final ManagementResponse operation = operations.operationFor(commandCode, localFileRepository);
+        operation.handle(connection, inputStream);
+    }
+}
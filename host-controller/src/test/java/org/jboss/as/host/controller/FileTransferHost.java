@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.net.ServerSocketFactory;
+import javax.net.SocketFactory;
+
+import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
+import org.jboss.as.host.controller.mgmt.PeerContentOperationHandler;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.ConnectionHandler;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.ProtocolClient;
+import org.jboss.as.protocol.ProtocolServer;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ManagementHeaderMessageHandler;
+import org.jboss.as.protocol.mgmt.ManagementRequestConnectionStrategy;
+
+/**
+ * Fetches deployment content from a {@link FileTransferServer} the way a slave host controller does, while
+ * serving the content it holds to its peers, so tests can run several hosts as separate processes.
+ * <p>
+ * Usage: {@code FileTransferHost <server port> <dir> <host id> <deployment hash> <use peers>}. Once its peer
+ * endpoint is listening the process prints {@code READY} and waits for a {@code GO} line on standard input.
+ * It then fetches the deployment into {@code <dir>}, prints
+ * {@code DONE <millis> <chunks transferred> <chunks from peers>} and keeps serving its peers until its
+ * standard input is closed.
+ * </p>
+ */
+public class FileTransferHost {
+
+    public static void main(final String[] args) throws Exception {
+        final int serverPort = Integer.parseInt(args[0]);
+        final File dir = new File(args[1]);
+        final String hostId = args[2];
+        final String hash = args[3];
+        final boolean usePeers = Boolean.parseBoolean(args[4]);
+
+        final ThreadFactory threadFactory = Executors.defaultThreadFactory();
+        final ExecutorService executor = Executors.newCachedThreadPool(threadFactory);
+        final PeerContentOperationHandler peerContentHandler = new PeerContentOperationHandler(new FileTransferServer.DirectoryFileRepository(dir));
+        final ProtocolServer.Configuration serverConfig = new ProtocolServer.Configuration();
+        serverConfig.setBindAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        serverConfig.setThreadFactory(threadFactory);
+        serverConfig.setReadExecutor(executor);
+        serverConfig.setSocketFactory(ServerSocketFactory.getDefault());
+        serverConfig.setConnectionHandler(new ConnectionHandler() {
+            public MessageHandler handleConnected(final Connection connection) throws IOException {
+                return new ManagementHeaderMessageHandler() {
+                    @Override
+                    protected MessageHandler getHandlerForId(final byte handlerId) {
+                        return handlerId == DomainControllerProtocol.PEER_CONTENT_HANDLER_ID ? peerContentHandler : null;
+                    }
+                };
+            }
+        });
+        final ProtocolServer server = new ProtocolServer(serverConfig);
+        server.start();
+
+        final Connection connection = connect(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), serverPort), executor);
+        final BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        System.out.println("READY");
+        System.out.flush();
+        if (!"GO".equals(in.readLine())) {
+            return;
+        }
+
+        final long start = System.currentTimeMillis();
+        final RemoteFileTransfer transfer = new RemoteFileTransfer(new ManagementRequestConnectionStrategy.ExistingConnectionStrategy(connection));
+        final List<Connection> peerConnections = new ArrayList<Connection>();
+        RemoteFileTransfer.Peers peers = null;
+        if (usePeers) {
+            peers = new RemoteFileTransfer.Peers(hostId, server.getBoundAddress().getPort(), new RemoteFileTransfer.Peers.Connector() {
+                public ManagementRequestConnectionStrategy connect(final InetSocketAddress address) throws IOException {
+                    final Connection peerConnection = FileTransferHost.connect(address, executor);
+                    peerConnections.add(peerConnection);
+                    return new ManagementRequestConnectionStrategy.ExistingConnectionStrategy(peerConnection);
+                }
+            });
+        }
+        transfer.transfer(DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT, hash, dir, peers);
+        final long elapsed = System.currentTimeMillis() - start;
+        for (Connection peerConnection : peerConnections) {
+            StreamUtils.safeClose(peerConnection);
+        }
+        System.out.println("DONE " + elapsed + " " + transfer.getChunksTransferred() + " " + transfer.getChunksFromPeers());
+        System.out.flush();
+
+        while (in.readLine() != null) {
+        }
+        StreamUtils.safeClose(connection);
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    private static Connection connect(final InetSocketAddress address, final ExecutorService executor) throws IOException {
+        final ProtocolClient.Configuration config = new ProtocolClient.Configuration();
+        config.setConnectTimeout(5000);
+        config.setReadExecutor(executor);
+        config.setSocketFactory(SocketFactory.getDefault());
+        config.setServerAddress(address);
+        config.setThreadFactory(Executors.defaultThreadFactory());
+        config.setMessageHandler(MessageHandler.NULL);
+        return new ProtocolClient(config).connect();
+    }
+}
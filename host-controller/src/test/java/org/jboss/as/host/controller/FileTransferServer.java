@@ -0,0 +1,155 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ServerSocketFactory;
+
+import org.jboss.as.controller.client.ModelControllerClientProtocol;
+import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
+import org.jboss.as.host.controller.mgmt.FileTransferOperations;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.ConnectionHandler;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.ProtocolServer;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.AbstractMessageHandler;
+import org.jboss.as.protocol.mgmt.ManagementHeaderMessageHandler;
+import org.jboss.as.protocol.mgmt.ManagementProtocol;
+import org.jboss.as.protocol.mgmt.ManagementResponse;
+
+/**
+ * Serves the files under a directory the way the domain controller serves its file repository, so tests can
+ * run it in a separate process and kill it part way through a transfer.
+ * <p>
+ * Usage: {@code FileTransferServer <dir> [<halt after n chunk requests> [<delay per chunk ms>]]}. Once listening,
+ * the port is printed to standard output as {@code PORT <port>}. If a chunk request limit is given (a negative
+ * value means none), the process halts on receiving that request, dropping its connections without answering it.
+ * If a delay is given, chunk requests are served one at a time and each takes at least that long, standing in
+ * for a domain controller whose network or disk is saturated.
+ * </p>
+ */
+public class FileTransferServer {
+
+    public static void main(final String[] args) throws Exception {
+        final File root = new File(args[0]);
+        final int haltAfter = args.length > 1 ? Integer.parseInt(args[1]) : -1;
+        final long delay = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        final Object throttle = new Object();
+        final AtomicInteger chunkRequests = new AtomicInteger();
+        final FileTransferOperations operations = new FileTransferOperations(MessageHandler.NULL);
+        final FileRepository repository = new DirectoryFileRepository(root);
+
+        final ThreadFactory threadFactory = Executors.defaultThreadFactory();
+        final ExecutorService executor = Executors.newCachedThreadPool(threadFactory);
+        final ProtocolServer.Configuration config = new ProtocolServer.Configuration();
+        config.setBindAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        config.setThreadFactory(threadFactory);
+        config.setReadExecutor(executor);
+        config.setSocketFactory(ServerSocketFactory.getDefault());
+        config.setConnectionHandler(new ConnectionHandler() {
+            public MessageHandler handleConnected(final Connection connection) throws IOException {
+                return new ManagementHeaderMessageHandler() {
+                    @Override
+                    protected MessageHandler getHandlerForId(final byte handlerId) {
+                        if (handlerId != ModelControllerClientProtocol.HANDLER_ID) {
+                            return null;
+                        }
+                        return new AbstractMessageHandler() {
+                            public void handle(final Connection connection, final InputStream input) throws IOException {
+                                expectHeader(input, ManagementProtocol.REQUEST_OPERATION);
+                                final byte commandCode = StreamUtils.readByte(input);
+                                if (commandCode == DomainControllerProtocol.GET_FILE_CHUNK_REQUEST
+                                        && chunkRequests.incrementAndGet() == haltAfter) {
+                                    Runtime.getRuntime().halt(1);
+                                }
+                                if (commandCode == DomainControllerProtocol.GET_FILE_CHUNK_REQUEST && delay > 0) {
+                                    synchronized (throttle) {
+                                        try {
+                                            Thread.sleep(delay);
+                                        } catch (InterruptedException e) {
+                                            Thread.currentThread().interrupt();
+                                        }
+                                    }
+                                }
+                                final ManagementResponse operation = operations.operationFor(commandCode, repository);
+                                if (operation == null) {
+                                    throw new IOException("Invalid command code " + commandCode);
+                                }
+                                operation.handle(connection, input);
+                            }
+                        };
+                    }
+                };
+            }
+        });
+        final ProtocolServer server = new ProtocolServer(config);
+        server.start();
+        System.out.println("PORT " + server.getBoundAddress().getPort());
+        System.out.flush();
+        // Stay up until the parent closes our input or kills us
+        while (System.in.read() != -1) {
+        }
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    /**
+     * A repository with every root, including every deployment, mapped to one directory.
+     */
+    static class DirectoryFileRepository implements FileRepository {
+        private final File root;
+
+        DirectoryFileRepository(final File root) {
+            this.root = root;
+        }
+
+        public File getFile(final String relativePath) {
+            return new File(root, relativePath);
+        }
+
+        public File getConfigurationFile(final String relativePath) {
+            return getFile(relativePath);
+        }
+
+        public File[] getDeploymentFiles(final byte[] deploymentHash) {
+            return getDeploymentRoot(deploymentHash).listFiles();
+        }
+
+        public File getDeploymentRoot(final byte[] deploymentHash) {
+            return root;
+        }
+    }
+}
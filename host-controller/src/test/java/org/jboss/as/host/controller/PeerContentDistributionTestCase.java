@@ -0,0 +1,190 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.jboss.as.host.controller.mgmt.FileTransferOperations;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Rolls a deployment out to several hosts, each a separate process, from a {@link FileTransferServer} which can
+ * only serve a limited number of chunks per second, first with every host fetching from the server alone and
+ * then with hosts also fetching from each other. With peers the server should serve far fewer chunks, and the
+ * rollout should finish sooner.
+ */
+public class PeerContentDistributionTestCase {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNKS = 32;
+    private static final int HOSTS = 6;
+    /** How long the server takes to serve each chunk */
+    private static final int CHUNK_DELAY = 30;
+    private static final String HASH = "0123456789abcdef";
+
+    private File base;
+    private final Map<Process, BufferedReader> processes = new HashMap<Process, BufferedReader>();
+
+    @Before
+    public void setUp() throws Exception {
+        base = File.createTempFile("peer-content", "");
+        if (!base.delete() || !base.mkdirs()) {
+            throw new IOException("Unable to create " + base);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        stopAll();
+        delete(base);
+    }
+
+    @Test
+    public void testPeersReduceServerLoad() throws Exception {
+        final File source = new File(base, "source");
+        final byte[] content = new byte[CHUNKS * CHUNK_SIZE - 1000];
+        new Random(1).nextBytes(content);
+        source.mkdirs();
+        final OutputStream out = new FileOutputStream(new File(source, "content.bin"));
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+
+        final Rollout direct = rollout(source, "direct", false);
+        final Rollout peers = rollout(source, "peers", true);
+
+        for (String name : new String[] {"direct", "peers"}) {
+            for (int i = 0; i < HOSTS; i++) {
+                assertArrayEquals(content, read(new File(base, name + i + File.separator + "content.bin")));
+            }
+        }
+        assertEquals(HOSTS * CHUNKS, direct.fromServer);
+        assertTrue("Peers should take load off the server: " + peers.fromServer, peers.fromServer < direct.fromServer * 2 / 3);
+    }
+
+    private Rollout rollout(final File source, final String name, final boolean usePeers) throws Exception {
+        final Process server = start(FileTransferServer.class, source.getAbsolutePath(), "-1", String.valueOf(CHUNK_DELAY));
+        final String port = readLine(server, "PORT ").substring(5).trim();
+        final List<Process> hosts = new ArrayList<Process>();
+        for (int i = 0; i < HOSTS; i++) {
+            final File dir = new File(base, name + i);
+            dir.mkdirs();
+            hosts.add(start(FileTransferHost.class, port, dir.getAbsolutePath(), name + i, HASH, String.valueOf(usePeers)));
+        }
+        for (Process host : hosts) {
+            readLine(host, "READY");
+        }
+        for (Process host : hosts) {
+            final PrintStream out = new PrintStream(host.getOutputStream(), true);
+            out.println("GO");
+        }
+        final Rollout rollout = new Rollout();
+        for (Process host : hosts) {
+            final String[] done = readLine(host, "DONE ").split(" ");
+            rollout.fromServer += Integer.parseInt(done[2]) - Integer.parseInt(done[3]);
+        }
+        stopAll();
+        return rollout;
+    }
+
+    private Process start(final Class<?> main, final String... args) throws IOException {
+        final List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-D" + FileTransferOperations.CHUNK_SIZE_PROPERTY + "=" + CHUNK_SIZE);
+        command.add(main.getName());
+        for (String arg : args) {
+            command.add(arg);
+        }
+        final ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        final Process process = builder.start();
+        processes.put(process, new BufferedReader(new InputStreamReader(process.getInputStream())));
+        return process;
+    }
+
+    private String readLine(final Process process, final String prefix) throws IOException {
+        final BufferedReader reader = processes.get(process);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        throw new IOException("Process exited before printing " + prefix);
+    }
+
+    private void stopAll() throws InterruptedException {
+        for (Process process : processes.keySet()) {
+            process.destroy();
+            process.waitFor();
+        }
+        processes.clear();
+    }
+
+    private static byte[] read(final File file) throws IOException {
+        final RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            final byte[] content = new byte[(int) in.length()];
+            in.readFully(content);
+            return content;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static final class Rollout {
+        private int fromServer;
+    }
+}
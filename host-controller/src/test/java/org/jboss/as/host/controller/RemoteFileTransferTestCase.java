@@ -0,0 +1,240 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.SocketFactory;
+
+import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
+import org.jboss.as.host.controller.mgmt.FileTransferOperations;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.ProtocolClient;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ManagementRequestConnectionStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link RemoteFileTransfer} against a {@link FileTransferServer} running in a separate process, which
+ * is killed part way through a transfer to simulate a dropped connection to the domain controller.
+ */
+public class RemoteFileTransferTestCase {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNKS = 10;
+
+    private File source;
+    private File target;
+    private Process process;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        source = createDirectory("source");
+        target = createDirectory("target");
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        stopServer();
+        executor.shutdownNow();
+        delete(source);
+        delete(target);
+    }
+
+    @Test
+    public void testResumeAfterDroppedConnection() throws Exception {
+        final byte[] content = write(new File(source, "content.bin"), CHUNKS * CHUNK_SIZE - 100, 1);
+        final File local = new File(target, "content.bin");
+
+        // The server dies on the fourth chunk request, after serving three chunks
+        Connection connection = startServer(4);
+        try {
+            transfer(connection, local);
+            fail("Transfer should fail when the server dies");
+        } catch (IOException expected) {
+        } finally {
+            StreamUtils.safeClose(connection);
+        }
+        assertFalse(local.exists());
+        stopServer();
+
+        connection = startServer(-1);
+        try {
+            RemoteFileTransfer transfer = transfer(connection, local);
+            assertEquals(3, transfer.getChunksReused());
+            assertEquals(CHUNKS - 3, transfer.getChunksTransferred());
+            assertArrayEquals(content, read(local));
+            assertFalse(new File(local.getPath() + ".part").exists());
+
+            // Nothing changed, so nothing is transferred
+            transfer = transfer(connection, local);
+            assertEquals(CHUNKS, transfer.getChunksReused());
+            assertEquals(0, transfer.getChunksTransferred());
+
+            // Only the changed chunk is transferred
+            final RandomAccessFile file = new RandomAccessFile(new File(source, "content.bin"), "rw");
+            try {
+                file.seek(5 * CHUNK_SIZE + 10);
+                file.write(~content[5 * CHUNK_SIZE + 10]);
+                content[5 * CHUNK_SIZE + 10] = (byte) ~content[5 * CHUNK_SIZE + 10];
+            } finally {
+                file.close();
+            }
+            transfer = transfer(connection, local);
+            assertEquals(CHUNKS - 1, transfer.getChunksReused());
+            assertEquals(1, transfer.getChunksTransferred());
+            assertArrayEquals(content, read(local));
+        } finally {
+            StreamUtils.safeClose(connection);
+        }
+    }
+
+    @Test
+    public void testDirectory() throws Exception {
+        final File dir = new File(source, "dir");
+        final byte[] first = write(new File(dir, "first.bin"), 3 * CHUNK_SIZE, 2);
+        final byte[] second = write(new File(dir, "nested" + File.separator + "second.bin"), 10, 3);
+        final byte[] empty = write(new File(dir, "empty.bin"), 0, 4);
+
+        final Connection connection = startServer(-1);
+        try {
+            final File local = new File(target, "dir");
+            final RemoteFileTransfer transfer = new RemoteFileTransfer(new ManagementRequestConnectionStrategy.ExistingConnectionStrategy(connection), 4, 5, TimeUnit.SECONDS);
+            transfer.transfer(DomainControllerProtocol.PARAM_ROOT_ID_FILE, "dir", local);
+            assertEquals(4, transfer.getChunksTransferred());
+            assertArrayEquals(first, read(new File(local, "first.bin")));
+            assertArrayEquals(second, read(new File(local, "nested" + File.separator + "second.bin")));
+            assertArrayEquals(empty, read(new File(local, "empty.bin")));
+
+            final File missing = new File(target, "missing");
+            transfer.transfer(DomainControllerProtocol.PARAM_ROOT_ID_FILE, "missing", missing);
+            assertFalse(missing.exists());
+        } finally {
+            StreamUtils.safeClose(connection);
+        }
+    }
+
+    private RemoteFileTransfer transfer(final Connection connection, final File local) throws IOException {
+        // One chunk at a time, so the number of chunks served before the server dies is predictable
+        final RemoteFileTransfer transfer = new RemoteFileTransfer(new ManagementRequestConnectionStrategy.ExistingConnectionStrategy(connection), 1, 2, TimeUnit.SECONDS);
+        assertTrue(transfer.transfer(DomainControllerProtocol.PARAM_ROOT_ID_FILE, local.getName(), local) == local);
+        return transfer;
+    }
+
+    private Connection startServer(final int haltAfter) throws Exception {
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "-D" + FileTransferOperations.CHUNK_SIZE_PROPERTY + "=" + CHUNK_SIZE,
+                FileTransferServer.class.getName(), source.getAbsolutePath(), String.valueOf(haltAfter));
+        builder.redirectErrorStream(true);
+        process = builder.start();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String line;
+        while ((line = reader.readLine()) != null && !line.startsWith("PORT ")) {
+        }
+        if (line == null) {
+            throw new IOException("File transfer server did not start");
+        }
+        final ProtocolClient.Configuration config = new ProtocolClient.Configuration();
+        config.setConnectTimeout(5000);
+        config.setReadExecutor(executor);
+        config.setSocketFactory(SocketFactory.getDefault());
+        config.setServerAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), Integer.parseInt(line.substring(5).trim())));
+        config.setThreadFactory(Executors.defaultThreadFactory());
+        config.setMessageHandler(MessageHandler.NULL);
+        return new ProtocolClient(config).connect();
+    }
+
+    private void stopServer() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            process.waitFor();
+            process = null;
+        }
+    }
+
+    private static byte[] write(final File file, final int length, final long seed) throws IOException {
+        final byte[] content = new byte[length];
+        new Random(seed).nextBytes(content);
+        file.getParentFile().mkdirs();
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return content;
+    }
+
+    private static byte[] read(final File file) throws IOException {
+        final RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            final byte[] content = new byte[(int) in.length()];
+            in.readFully(content);
+            return content;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static File createDirectory(final String name) throws IOException {
+        final File dir = File.createTempFile("file-transfer-" + name, "");
+        if (!dir.delete() || !dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir);
+        }
+        return dir;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
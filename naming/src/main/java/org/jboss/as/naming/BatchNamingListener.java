@@ -0,0 +1,44 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.as.naming;
+
+import java.util.List;
+
+import javax.naming.event.NamingEvent;
+import javax.naming.event.NamingListener;
+
+/**
+ * A naming listener which receives the events fired while it was busy in a single call rather than one call per event.
+ * Listeners that do expensive work per notification, such as refreshing a cache, can use this to collapse a burst
+ * of binds into one refresh.
+ */
+public interface BatchNamingListener extends NamingListener {
+
+    /**
+     * Called with one or more events, in the order they were fired.
+     *
+     * @param events The events.  Never empty
+     */
+    void eventsFired(List<NamingEvent> events);
+}
@@ -37,9 +37,13 @@ import javax.naming.event.NamingListener;
 import javax.naming.spi.ResolveResult;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static org.jboss.as.naming.util.NamingUtils.*;
@@ -48,6 +52,11 @@ import static org.jboss.as.naming.util.NamingUtils.*;
  * In-memory implementation of the NamingStore.  The backing for the entries is a basic tree structure with either context
  * nodes or binding nodes.  The context nodes are allowed to have children and can be represented by a NamingContext.  A
  * binding node is only allowed to have a normal object binding.
+ * <p>
+ * Lookup results are cached by name, so repeated lookups of the same name do not walk the tree.  The cache holds a
+ * bounded number of results, dropping the oldest first.  Every change to the tree drops the cached results for the
+ * changed name and all names below it before the change method returns.
+ * </p>
  *
  * @author John E. Bailey
  */
@@ -59,6 +68,12 @@ public class InMemoryNamingStore implements NamingStore {
     /* Naming Event Coordinator */
     private final NamingEventCoordinator eventCoordinator;
 
+    /* The number of lookup results cached by default */
+    static final int DEFAULT_LOOKUP_CACHE_SIZE = 1024;
+
+    /* Lookup results keyed by the string form of the looked up name */
+    private final LookupCache lookupCache;
+
     /**
      * Construct instance with no event support.
      */
@@ -72,7 +87,18 @@ public class InMemoryNamingStore implements NamingStore {
      * @param eventCoordinator The event coordinator
      */
     public InMemoryNamingStore(final NamingEventCoordinator eventCoordinator) {
+        this(eventCoordinator, DEFAULT_LOOKUP_CACHE_SIZE);
+    }
+
+    /**
+     * Construct instance with an event coordinator and a lookup cache of the given size.
+     *
+     * @param eventCoordinator The event coordinator
+     * @param lookupCacheSize The maximum number of cached lookup results
+     */
+    InMemoryNamingStore(final NamingEventCoordinator eventCoordinator, final int lookupCacheSize) {
         this.eventCoordinator = eventCoordinator;
+        this.lookupCache = new LookupCache(lookupCacheSize);
     }
 
     /**
@@ -148,7 +174,17 @@ public class InMemoryNamingStore implements NamingStore {
             return new NamingContext(emptyName, this, new Hashtable<String, Object>());
         }
         checkPermissions(name, JndiPermission.Action.LOOKUP);
-        return root.accept(new LookupVisitor(name));
+        final String key = name.toString();
+        final Object cached = lookupCache.get(key);
+        if (cached != null) {
+            return copyResult(cached);
+        }
+        final long generation = lookupCache.getGeneration();
+        final Object result = root.accept(new LookupVisitor(name));
+        if (result != null) {
+            lookupCache.put(name, key, result, generation);
+        }
+        return copyResult(result);
     }
 
     /**
@@ -200,6 +236,7 @@ public class InMemoryNamingStore implements NamingStore {
      */
     public void close() throws NamingException {
         root.clear();
+        lookupCache.clear();
     }
 
     /**
@@ -235,6 +272,34 @@ public class InMemoryNamingStore implements NamingStore {
         }
     }
 
+    /**
+     * Get the number of cached lookup results.
+     *
+     * @return The number of cached lookup results
+     */
+    int getCachedLookupCount() {
+        return lookupCache.size();
+    }
+
+    /**
+     * Drops the cached lookup results for a name and every name below it.  Must be called after the tree has been
+     * changed.
+     *
+     * @param name The changed name
+     */
+    private void invalidate(final Name name) {
+        lookupCache.invalidate(name);
+    }
+
+    /* Resolve results are mutable, so each caller gets its own */
+    private Object copyResult(final Object result) {
+        if (result instanceof ResolveResult) {
+            final ResolveResult resolveResult = (ResolveResult) result;
+            return new ResolveResult(resolveResult.getResolvedObj(), (Name) resolveResult.getRemainingName().clone());
+        }
+        return result;
+    }
+
     private void checkReferenceForContinuation(final Name name, final Object object) throws CannotProceedException {
         if (object instanceof Reference) {
             if (((Reference) object).get("nns") != null) {
@@ -410,6 +475,7 @@ public class InMemoryNamingStore implements NamingStore {
             final Binding binding = new Binding(childName, className, object, true);
             final BindingNode bindingNode = new BindingNode(targetName, binding);
             contextNode.addChild(childName, bindingNode);
+            invalidate(targetName);
             fireEvent(callingContext, targetName, null, binding, NamingEvent.OBJECT_ADDED, "bind");
             return null;
         }
@@ -432,6 +498,7 @@ public class InMemoryNamingStore implements NamingStore {
             final Binding binding = new Binding(childName, className, object, true);
             final BindingNode bindingNode = new BindingNode(targetName, binding);
             final TreeNode previous = contextNode.replaceChild(childName, bindingNode);
+            invalidate(targetName);
 
             final Binding previousBinding = previous != null ? previous.binding : null;
             fireEvent(callingContext, targetName, previousBinding, binding, previousBinding != null ? NamingEvent.OBJECT_CHANGED : NamingEvent.OBJECT_ADDED, "rebind");
@@ -449,6 +516,7 @@ public class InMemoryNamingStore implements NamingStore {
 
         protected Void foundBindContext(ContextNode contextNode) throws NamingException {
             final TreeNode previous = contextNode.removeChild(getLastComponent(targetName));
+            invalidate(targetName);
             fireEvent(callingContext, targetName, previous.binding, null, NamingEvent.OBJECT_REMOVED, "unbind");
             return null;
         }
@@ -466,6 +534,7 @@ public class InMemoryNamingStore implements NamingStore {
             final NamingContext subContext = new NamingContext(targetName, InMemoryNamingStore.this, new Hashtable<String, Object>());
             final ContextNode subContextNode = new ContextNode(targetName, subContext);
             contextNode.addChild(getLastComponent(targetName), subContextNode);
+            invalidate(targetName);
             fireEvent(callingContext, targetName, null, subContextNode.binding, NamingEvent.OBJECT_ADDED, "createSubcontext");
             return subContext;
         }
@@ -531,4 +600,133 @@ public class InMemoryNamingStore implements NamingStore {
         }
     }
 
+    /**
+     * Lookup results keyed by the string form of the looked up name.  Reads do not lock.  The cached names are also
+     * kept in a tree of their components, so dropping a name and the names below it only visits those names.
+     */
+    private static final class LookupCache {
+        private final int maxSize;
+        private final ConcurrentMap<String, Object> values = new ConcurrentHashMap<String, Object>();
+        /* Incremented on every change to the tree, so lookups racing with a change do not cache a stale result */
+        private volatile long generation;
+
+        /* Guarded by this */
+        private final CacheNode root = new CacheNode(null, null);
+        /* The nodes holding a value by key, oldest first; guarded by this */
+        private final Map<String, CacheNode> cached = new LinkedHashMap<String, CacheNode>();
+
+        private LookupCache(final int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        Object get(final String key) {
+            return values.get(key);
+        }
+
+        long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Caches a lookup result, unless the tree changed since the lookup started.
+         *
+         * @param name The looked up name
+         * @param key The string form of the name
+         * @param value The lookup result
+         * @param lookupGeneration The {@link #getGeneration() generation} read before the lookup started
+         */
+        synchronized void put(final Name name, final String key, final Object value, final long lookupGeneration) {
+            if (generation != lookupGeneration || maxSize <= 0) {
+                return;
+            }
+            CacheNode node = root;
+            for (int i = 0; i < name.size(); i++) {
+                node = node.getOrAddChild(name.get(i));
+            }
+            node.key = key;
+            final CacheNode previous = cached.put(key, node);
+            if (previous != null && previous != node) {
+                // a differently split name with the same string form
+                previous.key = null;
+                prune(previous);
+            }
+            values.put(key, value);
+            while (cached.size() > maxSize) {
+                remove(cached.values().iterator().next());
+            }
+        }
+
+        synchronized void invalidate(final Name name) {
+            generation++;
+            CacheNode node = root;
+            for (int i = 0; node != null && i < name.size(); i++) {
+                node = node.children.get(name.get(i));
+            }
+            if (node != null && node != root) {
+                drop(node);
+                node.parent.children.remove(node.component);
+                prune(node.parent);
+            }
+        }
+
+        synchronized int size() {
+            return cached.size();
+        }
+
+        synchronized void clear() {
+            generation++;
+            values.clear();
+            cached.clear();
+            root.children.clear();
+        }
+
+        /* Removes the value of a node, and the node itself if nothing is cached below it */
+        private void remove(final CacheNode node) {
+            values.remove(node.key);
+            cached.remove(node.key);
+            node.key = null;
+            prune(node);
+        }
+
+        /* Removes the values of a node and of every node below it */
+        private void drop(final CacheNode node) {
+            if (node.key != null) {
+                values.remove(node.key);
+                cached.remove(node.key);
+                node.key = null;
+            }
+            for (CacheNode child : node.children.values()) {
+                drop(child);
+            }
+        }
+
+        private void prune(CacheNode node) {
+            while (node != root && node.key == null && node.children.isEmpty()) {
+                node.parent.children.remove(node.component);
+                node = node.parent;
+            }
+        }
+    }
+
+    private static final class CacheNode {
+        private final CacheNode parent;
+        private final String component;
+        private final Map<String, CacheNode> children = new HashMap<String, CacheNode>();
+        /* The key of the value cached for this node's name, or null if there is none */
+        private String key;
+
+        private CacheNode(final CacheNode parent, final String component) {
+            this.parent = parent;
+            this.component = component;
+        }
+
+        private CacheNode getOrAddChild(final String component) {
+            CacheNode child = children.get(component);
+            if (child == null) {
+                child = new CacheNode(this, component);
+                children.put(component, child);
+            }
+            return child;
+        }
+    }
 }
@@ -23,6 +23,7 @@
 package org.jboss.as.naming;
 
 import org.jboss.as.naming.util.FastCopyHashMap;
+import org.jboss.logging.Logger;
 
 import javax.naming.Binding;
 import javax.naming.Name;
@@ -31,6 +32,8 @@ import javax.naming.event.NamespaceChangeListener;
 import javax.naming.event.NamingEvent;
 import javax.naming.event.NamingListener;
 import javax.naming.event.ObjectChangeListener;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -39,23 +42,95 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Coordinator responsible for passing @(code NamingEvent} instances to registered @{code NamingListener} instances.  Two
  * maps are used to managed a mapping between a listener and its configuration as well as a mapping from target name to a list
  * of listener configurations.  These maps are updated atomically on listener add and remove.
+ * <p>
+ * Each listener has its own queue of pending events, which is drained by a single task at a time, so every listener
+ * sees its events in the order they were fired while different listeners are notified in parallel.  Events that pile
+ * up while a listener is busy are delivered together, in one call if the listener is a {@link BatchNamingListener}.
+ * A listener's queue holds at most {@code queueCapacity} events; further events for that listener are dropped and
+ * counted (see {@link #getDroppedEventCount()}).
+ * </p>
  *
  * @author John E. Bailey
  */
 public class NamingEventCoordinator {
+    private static final Logger log = Logger.getLogger("org.jboss.as.naming");
+
+    /**
+     * The default maximum number of events queued for a single listener.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
     private volatile Map<TargetScope, List<ListenerHolder>> holdersByTarget = Collections.emptyMap();
     private volatile Map<NamingListener, ListenerHolder> holdersByListener = Collections.emptyMap();
 
-    private final Executor executor = Executors.newSingleThreadExecutor();
+    private final int queueCapacity;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile Executor executor;
+    private volatile Executor defaultExecutor;
 
     static final Integer[] DEFAULT_SCOPES = {EventContext.OBJECT_SCOPE, EventContext.ONELEVEL_SCOPE, EventContext.SUBTREE_SCOPE};
 
+    /**
+     * Create a coordinator which notifies listeners on its own threads.
+     */
+    public NamingEventCoordinator() {
+        this(null);
+    }
+
+    /**
+     * Create a coordinator which notifies listeners using the given executor.
+     *
+     * @param executor The executor, or {@code null} to use the coordinator's own threads
+     */
+    public NamingEventCoordinator(final Executor executor) {
+        this(executor, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Create a coordinator which notifies listeners using the given executor.
+     *
+     * @param executor The executor, or {@code null} to use the coordinator's own threads
+     * @param queueCapacity The maximum number of events queued for a single listener
+     */
+    public NamingEventCoordinator(final Executor executor, final int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        }
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Set the executor used to notify listeners.  Events already queued are delivered by whichever executor is set
+     * when their listener is next scheduled.
+     *
+     * @param executor The executor, or {@code null} to use the coordinator's own threads
+     */
+    public void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Get the number of events dropped because a listener's queue was full.
+     *
+     * @return The number of dropped events
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
     /**
      * Add a listener to the coordinator with a given target name and event scope.  This information is used when an
      * event is fired to determine whether or not to fire this listener.
@@ -99,6 +174,7 @@ public class NamingEventCoordinator {
         if (holder == null) {
             return;
         }
+        holder.removed = true;
 
         final Map<NamingListener, ListenerHolder> byListenerCopy = new FastCopyHashMap<NamingListener, ListenerHolder>(holdersByListener);
         byListenerCopy.remove(namingListener);
@@ -128,9 +204,13 @@ public class NamingEventCoordinator {
      * @param scopes The scopes this event should be fired against
      */
     void fireEvent(final EventContext context, final Name name, final Binding existingBinding, final Binding newBinding, int type, final String changeInfo, final Integer... scopes) {
+        final Map<TargetScope, List<ListenerHolder>> holdersByTarget = this.holdersByTarget;
+        if (holdersByTarget.isEmpty()) {
+            // Nobody is listening, which is the common case while deployments bind their names
+            return;
+        }
         final String target = name.toString();
         final Set<Integer> scopeSet = new HashSet<Integer>(Arrays.asList(scopes));
-        final NamingEvent event = new NamingEvent(context, type, newBinding, existingBinding, changeInfo);
 
         final Set<ListenerHolder> holdersToFire = new HashSet<ListenerHolder>();
 
@@ -170,47 +250,54 @@ public class NamingEventCoordinator {
             }
         }
 
-        executor.execute(new FireEventTask(holdersToFire, event));
+        if (holdersToFire.isEmpty()) {
+            return;
+        }
+        final NamingEvent event = new NamingEvent(context, type, newBinding, existingBinding, changeInfo);
+        for (ListenerHolder holder : holdersToFire) {
+            holder.enqueue(event);
+        }
     }
 
-    private class FireEventTask implements Runnable {
-        private final Set<ListenerHolder> listenerHolders;
-        private final NamingEvent event;
-
-        private FireEventTask(Set<ListenerHolder> listenerHolders, NamingEvent event) {
-            this.listenerHolders = listenerHolders;
-            this.event = event;
+    private Executor getExecutor() {
+        final Executor executor = this.executor;
+        if (executor != null) {
+            return executor;
         }
+        Executor defaultExecutor = this.defaultExecutor;
+        if (defaultExecutor == null) {
+            synchronized (this) {
+                defaultExecutor = this.defaultExecutor;
+                if (defaultExecutor == null) {
+                    final int threads = Runtime.getRuntime().availableProcessors();
+                    final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        private final AtomicInteger count = new AtomicInteger();
 
-        @Override
-        public void run() {
-            for (ListenerHolder holder : listenerHolders) {
-                final NamingListener listener = holder.listener;
-                switch (event.getType()) {
-                    case NamingEvent.OBJECT_ADDED:
-                        if (listener instanceof NamespaceChangeListener)
-                            ((NamespaceChangeListener) listener).objectAdded(event);
-                        break;
-                    case NamingEvent.OBJECT_REMOVED:
-                        if (listener instanceof NamespaceChangeListener)
-                            ((NamespaceChangeListener) listener).objectRemoved(event);
-                        break;
-                    case NamingEvent.OBJECT_RENAMED:
-                        if (listener instanceof NamespaceChangeListener)
-                            ((NamespaceChangeListener) listener).objectRenamed(event);
-                        break;
-                    case NamingEvent.OBJECT_CHANGED:
-                        if (listener instanceof ObjectChangeListener)
-                            ((ObjectChangeListener) listener).objectChanged(event);
-                        break;
+                        public Thread newThread(final Runnable r) {
+                            final Thread thread = new Thread(r, "Naming Event Dispatcher " + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                    pool.allowCoreThreadTimeOut(true);
+                    this.defaultExecutor = defaultExecutor = pool;
                 }
             }
         }
+        return defaultExecutor;
     }
 
-    private class ListenerHolder {
+    private class ListenerHolder implements Runnable {
         private volatile Set<TargetScope> targets = new HashSet<TargetScope>();
         private final NamingListener listener;
+        private volatile boolean removed;
+
+        /* Events waiting for delivery, guarded by this */
+        private final ArrayDeque<NamingEvent> pending = new ArrayDeque<NamingEvent>();
+        /* Whether a task draining the pending events is queued or running, guarded by this */
+        private boolean scheduled;
+        /* Whether events have been dropped since the queue was last drained, guarded by this */
+        private boolean overflowing;
 
         private ListenerHolder(final NamingListener listener, final TargetScope initialTarget) {
             this.listener = listener;
@@ -220,6 +307,87 @@ public class NamingEventCoordinator {
         private synchronized void addTarget(final TargetScope targetScope) {
             targets.add(targetScope);
         }
+
+        private void enqueue(final NamingEvent event) {
+            synchronized (this) {
+                if (pending.size() >= queueCapacity) {
+                    droppedEvents.incrementAndGet();
+                    if (!overflowing) {
+                        overflowing = true;
+                        log.warnf("Naming event queue for listener %s is full; dropping events", listener);
+                    }
+                    return;
+                }
+                pending.add(event);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            try {
+                getExecutor().execute(this);
+            } catch (RejectedExecutionException e) {
+                // deliver on the calling thread rather than losing the queue
+                run();
+            }
+        }
+
+        @Override
+        public void run() {
+            for (;;) {
+                final List<NamingEvent> events;
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        scheduled = false;
+                        return;
+                    }
+                    events = new ArrayList<NamingEvent>(pending);
+                    pending.clear();
+                    overflowing = false;
+                }
+                if (!removed) {
+                    deliver(events);
+                }
+            }
+        }
+
+        private void deliver(final List<NamingEvent> events) {
+            if (listener instanceof BatchNamingListener) {
+                try {
+                    ((BatchNamingListener) listener).eventsFired(Collections.unmodifiableList(events));
+                } catch (Throwable t) {
+                    log.warnf(t, "Naming listener %s failed to handle %d events", listener, events.size());
+                }
+                return;
+            }
+            for (NamingEvent event : events) {
+                if (removed) {
+                    return;
+                }
+                try {
+                    switch (event.getType()) {
+                        case NamingEvent.OBJECT_ADDED:
+                            if (listener instanceof NamespaceChangeListener)
+                                ((NamespaceChangeListener) listener).objectAdded(event);
+                            break;
+                        case NamingEvent.OBJECT_REMOVED:
+                            if (listener instanceof NamespaceChangeListener)
+                                ((NamespaceChangeListener) listener).objectRemoved(event);
+                            break;
+                        case NamingEvent.OBJECT_RENAMED:
+                            if (listener instanceof NamespaceChangeListener)
+                                ((NamespaceChangeListener) listener).objectRenamed(event);
+                            break;
+                        case NamingEvent.OBJECT_CHANGED:
+                            if (listener instanceof ObjectChangeListener)
+                                ((ObjectChangeListener) listener).objectChanged(event);
+                            break;
+                    }
+                } catch (Throwable t) {
+                    log.warnf(t, "Naming listener %s failed to handle %s", listener, event);
+                }
+            }
+        }
     }
 
     private class TargetScope {
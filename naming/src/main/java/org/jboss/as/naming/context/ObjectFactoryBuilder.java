@@ -32,6 +32,8 @@ import javax.naming.NamingException;
 import javax.naming.Reference;
 import javax.naming.spi.ObjectFactory;
 import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.jboss.as.naming.util.NamingUtils.namingException;
 
@@ -47,6 +49,13 @@ public class ObjectFactoryBuilder implements javax.naming.spi.ObjectFactoryBuild
 
     private volatile ServiceRegistry serviceRegistry;
 
+    /*
+     * Factories of the naming subsystem itself resolved from modular references, keyed by module and factory class
+     * name.  They hold no state apart from the service registry, so one instance serves every lookup instead of
+     * loading the module and instantiating the factory each time.
+     */
+    private final ConcurrentMap<String, ObjectFactory> sharedFactories = new ConcurrentHashMap<String, ObjectFactory>();
+
     private ObjectFactoryBuilder() {
     }
 
@@ -109,6 +118,7 @@ public class ObjectFactoryBuilder implements javax.naming.spi.ObjectFactoryBuild
      */
     public void setServiceRegistry(ServiceRegistry serviceRegistry) {
         this.serviceRegistry = serviceRegistry;
+        sharedFactories.clear();
     }
 
     private ObjectFactory factoryFromReference(final Reference reference, final Hashtable<?, ?> environment) throws Exception {
@@ -119,9 +129,18 @@ public class ObjectFactoryBuilder implements javax.naming.spi.ObjectFactoryBuild
     }
 
     private ObjectFactory factoryFromModularReference(ModularReference modularReference, final Hashtable<?, ?> environment) throws Exception {
+        final String key = modularReference.getModuleIdentifier() + "#" + modularReference.getFactoryClassName();
+        final ObjectFactory shared = sharedFactories.get(key);
+        if (shared != null) {
+            return shared;
+        }
         final Module module = Module.getCurrentModuleLoader().loadModule(modularReference.getModuleIdentifier());
         final ClassLoader classLoader = module.getClassLoader();
-        return factoryFromReference(modularReference, classLoader, environment);
+        final ObjectFactory factory = factoryFromReference(modularReference, classLoader, environment);
+        if (factory.getClass().getClassLoader() == ObjectFactoryBuilder.class.getClassLoader()) {
+            sharedFactories.putIfAbsent(key, factory);
+        }
+        return factory;
     }
 
     private ObjectFactory factoryFromReference(final Reference reference, final ClassLoader classLoader, final Hashtable<?, ?> environment) throws Exception {
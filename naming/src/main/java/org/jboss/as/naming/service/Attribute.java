@@ -36,6 +36,7 @@ public enum Attribute {
     BIND_APP_CONTEXT("bind-app-context"),
     BIND_MODULE_CONTEXT("bind-module-context"),
     BIND_COMP_CONTEXT("bind-comp-context"),
+    EVENT_THREAD_POOL("event-thread-pool"),
     ;
     private final String name;
 
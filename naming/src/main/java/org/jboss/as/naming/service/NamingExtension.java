@@ -66,6 +66,7 @@ public class NamingExtension implements Extension {
 
     public static final String SUBSYSTEM_NAME = "naming";
     public static final String NAMESPACE = "urn:jboss:domain:naming:1.0";
+    static final String EVENT_THREAD_POOL = "event-thread-pool";
     private static final NamingSubsystemParser parser = new NamingSubsystemParser();
 
     /** {@inheritDoc} */
@@ -84,10 +85,13 @@ public class NamingExtension implements Extension {
         context.setSubsystemXmlMapping(NAMESPACE, parser);
     }
 
-    static ModelNode createAddOperation() {
+    static ModelNode createAddOperation(final String eventThreadPool) {
         final ModelNode subsystem = new ModelNode();
         subsystem.get(OP).set(ADD);
         subsystem.get(OP_ADDR).add(SUBSYSTEM, SUBSYSTEM_NAME);
+        if (eventThreadPool != null) {
+            subsystem.get(EVENT_THREAD_POOL).set(eventThreadPool);
+        }
         return subsystem;
     }
 
@@ -99,16 +103,33 @@ public class NamingExtension implements Extension {
             //TODO seems to be a problem with empty elements cleaning up the queue in FormattingXMLStreamWriter.runAttrQueue
             //context.startSubsystemElement(NewNamingExtension.NAMESPACE, true);
             context.startSubsystemElement(NamingExtension.NAMESPACE, false);
+            final ModelNode node = context.getModelNode();
+            if (node.hasDefined(EVENT_THREAD_POOL)) {
+                writer.writeAttribute(Attribute.EVENT_THREAD_POOL.getLocalName(), node.get(EVENT_THREAD_POOL).asString());
+            }
             writer.writeEndElement();
         }
 
         /** {@inheritDoc} */
         @Override
         public void readElement(XMLExtendedStreamReader reader, List<ModelNode> list) throws XMLStreamException {
-            ParseUtils.requireNoAttributes(reader);
+            String eventThreadPool = null;
+            final int count = reader.getAttributeCount();
+            for (int i = 0; i < count; i++) {
+                ParseUtils.requireNoNamespaceAttribute(reader, i);
+                final Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+                switch (attribute) {
+                    case EVENT_THREAD_POOL: {
+                        eventThreadPool = reader.getAttributeValue(i);
+                        break;
+                    }
+                    default:
+                        throw ParseUtils.unexpectedAttribute(reader, i);
+                }
+            }
             ParseUtils.requireNoContent(reader);
 
-            list.add(createAddOperation());
+            list.add(createAddOperation(eventThreadPool));
         }
     }
 
@@ -116,8 +137,9 @@ public class NamingExtension implements Extension {
         static final NamingSubsystemDescribeHandler INSTANCE = new NamingSubsystemDescribeHandler();
         @Override
         public OperationResult execute(OperationContext context, ModelNode operation, ResultHandler resultHandler) {
+            final ModelNode model = context.getSubModel();
             ModelNode node = new ModelNode();
-            node.add(createAddOperation());
+            node.add(createAddOperation(model.hasDefined(EVENT_THREAD_POOL) ? model.get(EVENT_THREAD_POOL).asString() : null));
 
             resultHandler.handleResultFragment(Util.NO_LOCATION, node);
             resultHandler.handleResultComplete();
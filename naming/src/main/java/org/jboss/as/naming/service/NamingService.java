@@ -22,16 +22,21 @@
 
 package org.jboss.as.naming.service;
 
+import java.util.concurrent.Executor;
+
 import javax.naming.NamingException;
 
 import org.jboss.as.naming.NamingContext;
+import org.jboss.as.naming.NamingEventCoordinator;
 import org.jboss.as.naming.NamingStore;
 import org.jboss.logging.Logger;
+import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
 
 /**
  * Service responsible for creating and managing the life-cycle of the Naming Server.
@@ -42,6 +47,8 @@ public class NamingService implements Service<NamingStore> {
     public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("naming");
     private static final Logger log = Logger.getLogger("org.jboss.as.naming");
     private final NamingStore namingStore;
+    private final NamingEventCoordinator eventCoordinator;
+    private final InjectedValue<Executor> eventExecutor = new InjectedValue<Executor>();
 
     /**
      * Construct a new instance.
@@ -49,7 +56,18 @@ public class NamingService implements Service<NamingStore> {
      * @param namingStore The naming store.
      */
     public NamingService(final NamingStore namingStore) {
+        this(namingStore, null);
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param namingStore The naming store.
+     * @param eventCoordinator The coordinator used by the naming store to fire events, or {@code null} if none
+     */
+    public NamingService(final NamingStore namingStore, final NamingEventCoordinator eventCoordinator) {
         this.namingStore = namingStore;
+        this.eventCoordinator = eventCoordinator;
     }
 
     /**
@@ -60,6 +78,9 @@ public class NamingService implements Service<NamingStore> {
      */
     public synchronized void start(StartContext context) throws StartException {
         log.info("Starting Naming Service ");
+        if (eventCoordinator != null) {
+            eventCoordinator.setExecutor(eventExecutor.getOptionalValue());
+        }
         try {
             NamingContext.setActiveNamingStore(namingStore);
         } catch (Throwable t) {
@@ -74,6 +95,9 @@ public class NamingService implements Service<NamingStore> {
      */
     public synchronized void stop(StopContext context) {
         NamingContext.setActiveNamingStore(null);
+        if (eventCoordinator != null) {
+            eventCoordinator.setExecutor(null);
+        }
         try {
             namingStore.close();
         } catch (NamingException e) {
@@ -81,6 +105,15 @@ public class NamingService implements Service<NamingStore> {
         }
     }
 
+    /**
+     * Get the injector for the executor used to notify naming listeners.
+     *
+     * @return The injector
+     */
+    public Injector<Executor> getEventExecutorInjector() {
+        return eventExecutor;
+    }
+
     /**
      * Get the naming store value.
      *
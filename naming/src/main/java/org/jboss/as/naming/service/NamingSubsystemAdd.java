@@ -32,6 +32,8 @@ import org.jboss.as.controller.RuntimeTask;
 import org.jboss.as.controller.RuntimeTaskContext;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 
+import java.util.concurrent.Executor;
+
 import javax.management.MBeanServer;
 
 import org.jboss.as.controller.ModelAddOperationHandler;
@@ -48,8 +50,10 @@ import org.jboss.as.naming.deployment.ContextNames;
 import org.jboss.as.server.BootOperationContext;
 import org.jboss.as.server.BootOperationHandler;
 import org.jboss.as.server.deployment.Phase;
+import org.jboss.as.threads.ThreadsServices;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
+import org.jboss.msc.inject.CastingInjector;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
@@ -70,7 +74,11 @@ public class NamingSubsystemAdd implements ModelAddOperationHandler, BootOperati
     @Override
     public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) {
 
+        final String eventThreadPool = operation.hasDefined(NamingExtension.EVENT_THREAD_POOL) ? operation.get(NamingExtension.EVENT_THREAD_POOL).asString() : null;
         context.getSubModel().setEmptyObject();
+        if (eventThreadPool != null) {
+            context.getSubModel().get(NamingExtension.EVENT_THREAD_POOL).set(eventThreadPool);
+        }
 
         if (context instanceof BootOperationContext) {
             final BootOperationContext updateContext = (BootOperationContext) context;
@@ -85,14 +93,19 @@ public class NamingSubsystemAdd implements ModelAddOperationHandler, BootOperati
 
                     NamingContext.initializeNamingManager();
 
-                    final NamingStore namingStore = new InMemoryNamingStore(new NamingEventCoordinator());
+                    final NamingEventCoordinator eventCoordinator = new NamingEventCoordinator();
+                    final NamingStore namingStore = new InMemoryNamingStore(eventCoordinator);
 
                     // Create the Naming Service
                     final ServiceTarget target = context.getServiceTarget();
-                        target.addService(NamingService.SERVICE_NAME, new NamingService(namingStore))
+                    final NamingService namingService = new NamingService(namingStore, eventCoordinator);
+                    final ServiceBuilder<NamingStore> namingServiceBuilder = target.addService(NamingService.SERVICE_NAME, namingService)
                             .addAliases(ContextNames.JAVA_CONTEXT_SERVICE_NAME)
-                            .setInitialMode(ServiceController.Mode.ACTIVE)
-                            .install();
+                            .setInitialMode(ServiceController.Mode.ACTIVE);
+                    if (eventThreadPool != null) {
+                        namingServiceBuilder.addDependency(ThreadsServices.executorName(eventThreadPool), new CastingInjector<Executor>(namingService.getEventExecutorInjector(), Executor.class));
+                    }
+                    namingServiceBuilder.install();
 
                     // Create the java:global namespace
                     addGlobalContextFactory(target, "global");
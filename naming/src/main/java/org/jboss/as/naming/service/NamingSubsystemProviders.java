@@ -22,11 +22,19 @@
 
 package org.jboss.as.naming.service;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUEST_PROPERTIES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUIRED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
+import static org.jboss.as.naming.service.NamingExtension.EVENT_THREAD_POOL;
+
 import java.util.Locale;
 import java.util.ResourceBundle;
 
 import org.jboss.as.controller.descriptions.DescriptionProvider;
 import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
 
 /**
  * @author Emanuel Muckenhuber
@@ -42,6 +50,9 @@ class NamingSubsystemProviders {
 
             final ModelNode node = new ModelNode();
             // TODO
+            node.get(ATTRIBUTES, EVENT_THREAD_POOL, TYPE).set(ModelType.STRING);
+            node.get(ATTRIBUTES, EVENT_THREAD_POOL, DESCRIPTION).set(bundle.getString("naming.event-thread-pool"));
+            node.get(ATTRIBUTES, EVENT_THREAD_POOL, REQUIRED).set(false);
             return node;
         }
     };
@@ -53,6 +64,9 @@ class NamingSubsystemProviders {
 
             final ModelNode node = new ModelNode();
             // TODO
+            node.get(REQUEST_PROPERTIES, EVENT_THREAD_POOL, TYPE).set(ModelType.STRING);
+            node.get(REQUEST_PROPERTIES, EVENT_THREAD_POOL, DESCRIPTION).set(bundle.getString("naming.event-thread-pool"));
+            node.get(REQUEST_PROPERTIES, EVENT_THREAD_POOL, REQUIRED).set(false);
             return node;
         }
     };
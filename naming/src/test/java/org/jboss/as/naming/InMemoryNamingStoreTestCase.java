@@ -297,4 +297,100 @@ public class InMemoryNamingStoreTestCase {
         }
         assertTrue("Not all expected results were returned", expected.isEmpty());
     }
+
+    @Test
+    public void testRebindReplacesCachedLookup() throws Exception {
+        final Name name = new CompositeName("test");
+        final Object object = new Object();
+        nameStore.bind(null, name, object, Object.class.getName());
+        assertEquals(object, nameStore.lookup(name));
+        assertEquals(object, nameStore.lookup(new CompositeName("test")));
+
+        final Object replacement = new Object();
+        nameStore.rebind(null, name, replacement, Object.class.getName());
+        assertEquals(replacement, nameStore.lookup(name));
+    }
+
+    @Test
+    public void testUnbindContextDropsCachedChildren() throws Exception {
+        nameStore.createSubcontext(null, new CompositeName("subcontext"));
+        final Name name = new CompositeName("subcontext/test");
+        final Object object = new Object();
+        nameStore.bind(null, name, object, Object.class.getName());
+        assertEquals(object, nameStore.lookup(name));
+
+        nameStore.unbind(null, new CompositeName("subcontext"));
+        try {
+            nameStore.lookup(name);
+            fail("Should have thrown and NameNotFoundException");
+        } catch(NameNotFoundException expected) {}
+    }
+
+    @Test
+    public void testCachedResolveResultsAreCopies() throws Exception {
+        final Reference reference = new Reference(Context.class.getName());
+        nameStore.bind(null, new CompositeName("test"), reference, Context.class.getName());
+        final ResolveResult first = (ResolveResult) nameStore.lookup(new CompositeName("test/value"));
+        first.getRemainingName().add("other");
+
+        final ResolveResult second = (ResolveResult) nameStore.lookup(new CompositeName("test/value"));
+        assertEquals(reference, second.getResolvedObj());
+        assertEquals(new CompositeName("value"), second.getRemainingName());
+
+        final Object object = new Object();
+        nameStore.rebind(null, new CompositeName("test"), object, Object.class.getName());
+        final ResolveResult third = (ResolveResult) nameStore.lookup(new CompositeName("test/value"));
+        assertEquals(object, third.getResolvedObj());
+    }
+
+    @Test
+    public void testCloseDropsCachedLookups() throws Exception {
+        final Name name = new CompositeName("test");
+        nameStore.bind(null, name, new Object(), Object.class.getName());
+        nameStore.lookup(name);
+        nameStore.close();
+        try {
+            nameStore.lookup(name);
+            fail("Should have thrown and NameNotFoundException");
+        } catch(NameNotFoundException expected) {}
+    }
+
+    @Test
+    public void testLookupCacheIsBounded() throws Exception {
+        final InMemoryNamingStore store = new InMemoryNamingStore(null, 2);
+        try {
+            final Object[] objects = new Object[3];
+            for (int i = 0; i < objects.length; i++) {
+                objects[i] = new Object();
+                store.bind(null, new CompositeName("test" + i), objects[i], Object.class.getName());
+            }
+            for (int i = 0; i < objects.length; i++) {
+                assertEquals(objects[i], store.lookup(new CompositeName("test" + i)));
+            }
+            assertEquals(2, store.getCachedLookupCount());
+            // the evicted name is looked up again
+            assertEquals(objects[0], store.lookup(new CompositeName("test0")));
+            assertEquals(2, store.getCachedLookupCount());
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void testUnbindContextDropsDeepCachedChildren() throws Exception {
+        nameStore.createSubcontext(null, new CompositeName("a"));
+        nameStore.createSubcontext(null, new CompositeName("a/b"));
+        nameStore.bind(null, new CompositeName("a/b/c"), new Object(), Object.class.getName());
+        nameStore.bind(null, new CompositeName("other"), new Object(), Object.class.getName());
+        nameStore.lookup(new CompositeName("a/b/c"));
+        nameStore.lookup(new CompositeName("other"));
+        assertEquals(2, nameStore.getCachedLookupCount());
+
+        nameStore.unbind(null, new CompositeName("a"));
+        assertEquals(1, nameStore.getCachedLookupCount());
+        try {
+            nameStore.lookup(new CompositeName("a/b/c"));
+            fail("Should have thrown and NameNotFoundException");
+        } catch(NameNotFoundException expected) {}
+    }
 }
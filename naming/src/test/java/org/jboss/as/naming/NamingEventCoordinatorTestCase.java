@@ -34,6 +34,7 @@ import javax.naming.event.ObjectChangeListener;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
@@ -160,6 +161,135 @@ public class NamingEventCoordinatorTestCase {
         assertEquals(1, subtreeListenerThree.capturedEvents.size());
     }
 
+    @Test
+    public void testEventsDeliveredInOrder() throws Exception {
+        final NamingEventCoordinator coordinator = new NamingEventCoordinator();
+
+        final CollectingListener listener = new CollectingListener(100);
+        coordinator.addListener("test", EventContext.ONELEVEL_SCOPE, listener);
+        final CollectingListener otherListener = new CollectingListener(100);
+        coordinator.addListener("test", EventContext.SUBTREE_SCOPE, otherListener);
+
+        for (int i = 0; i < 100; i++) {
+            coordinator.fireEvent(context, new CompositeName("test/path" + i), null, null, NamingEvent.OBJECT_ADDED, String.valueOf(i), EventContext.ONELEVEL_SCOPE, EventContext.SUBTREE_SCOPE);
+        }
+
+        assertTrue(listener.latch.await(10L, TimeUnit.SECONDS));
+        assertTrue(otherListener.latch.await(10L, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), listener.capturedEvents.get(i).getChangeInfo());
+            assertEquals(String.valueOf(i), otherListener.capturedEvents.get(i).getChangeInfo());
+        }
+    }
+
+    @Test
+    public void testBatchDelivery() throws Exception {
+        final QueuingExecutor executor = new QueuingExecutor();
+        final NamingEventCoordinator coordinator = new NamingEventCoordinator(executor);
+
+        final BatchCollectingListener listener = new BatchCollectingListener();
+        coordinator.addListener("test", EventContext.ONELEVEL_SCOPE, listener);
+
+        for (int i = 0; i < 5; i++) {
+            coordinator.fireEvent(context, new CompositeName("test/path" + i), null, null, NamingEvent.OBJECT_ADDED, String.valueOf(i), EventContext.ONELEVEL_SCOPE);
+        }
+        // Only one delivery task is scheduled for the burst
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+
+        assertEquals(1, listener.batches.size());
+        final List<NamingEvent> batch = listener.batches.get(0);
+        assertEquals(5, batch.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(String.valueOf(i), batch.get(i).getChangeInfo());
+        }
+    }
+
+    @Test
+    public void testQueueOverflow() throws Exception {
+        final QueuingExecutor executor = new QueuingExecutor();
+        final NamingEventCoordinator coordinator = new NamingEventCoordinator(executor, 3);
+
+        final CollectingListener listener = new CollectingListener(3);
+        coordinator.addListener("test", EventContext.ONELEVEL_SCOPE, listener);
+
+        for (int i = 0; i < 5; i++) {
+            coordinator.fireEvent(context, new CompositeName("test/path" + i), null, null, NamingEvent.OBJECT_ADDED, String.valueOf(i), EventContext.ONELEVEL_SCOPE);
+        }
+        assertEquals(2, coordinator.getDroppedEventCount());
+        executor.runAll();
+
+        assertEquals(3, listener.capturedEvents.size());
+        assertEquals("2", listener.capturedEvents.get(2).getChangeInfo());
+    }
+
+    @Test
+    public void testRemovedListenerNotNotified() throws Exception {
+        final QueuingExecutor executor = new QueuingExecutor();
+        final NamingEventCoordinator coordinator = new NamingEventCoordinator(executor);
+
+        final CollectingListener listener = new CollectingListener(0);
+        coordinator.addListener("test", EventContext.ONELEVEL_SCOPE, listener);
+
+        coordinator.fireEvent(context, new CompositeName("test/path"), null, null, NamingEvent.OBJECT_ADDED, "bind", EventContext.ONELEVEL_SCOPE);
+        coordinator.removeListener(listener);
+        executor.runAll();
+
+        assertTrue(listener.capturedEvents.isEmpty());
+        coordinator.fireEvent(context, new CompositeName("test/path"), null, null, NamingEvent.OBJECT_ADDED, "bind", EventContext.ONELEVEL_SCOPE);
+        assertTrue(executor.tasks.isEmpty());
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopDelivery() throws Exception {
+        final QueuingExecutor executor = new QueuingExecutor();
+        final NamingEventCoordinator coordinator = new NamingEventCoordinator(executor);
+
+        final CollectingListener failing = new CollectingListener(0) {
+            @Override
+            public void objectAdded(NamingEvent evt) {
+                super.objectAdded(evt);
+                throw new RuntimeException("expected");
+            }
+        };
+        coordinator.addListener("test", EventContext.ONELEVEL_SCOPE, failing);
+
+        coordinator.fireEvent(context, new CompositeName("test/a"), null, null, NamingEvent.OBJECT_ADDED, "a", EventContext.ONELEVEL_SCOPE);
+        coordinator.fireEvent(context, new CompositeName("test/b"), null, null, NamingEvent.OBJECT_ADDED, "b", EventContext.ONELEVEL_SCOPE);
+        executor.runAll();
+
+        assertEquals(2, failing.capturedEvents.size());
+        assertTrue(executor.tasks.isEmpty());
+    }
+
+    private static class QueuingExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    private class BatchCollectingListener implements BatchNamingListener {
+        private final List<List<NamingEvent>> batches = new ArrayList<List<NamingEvent>>();
+
+        @Override
+        public void eventsFired(List<NamingEvent> events) {
+            batches.add(new ArrayList<NamingEvent>(events));
+        }
+
+        @Override
+        public void namingExceptionThrown(NamingExceptionEvent evt) {
+        }
+    }
+
     private class CollectingListener implements ObjectChangeListener, NamespaceChangeListener {
         private final List<NamingEvent> capturedEvents = new ArrayList<NamingEvent>();
 
@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.naming;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.naming.CompositeName;
+import javax.naming.Context;
+import javax.naming.NamingException;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Measures lookup throughput of {@link NamingContext} over an {@link InMemoryNamingStore} for a shallow and a deep
+ * name, optionally while another thread keeps rebinding an unrelated name.
+ * <p>
+ * This is not a unit test; run it manually with the test classpath:
+ * {@code java org.jboss.as.naming.NamingLookupBenchmark [readers] [seconds] [rebind]}
+ * </p>
+ */
+public class NamingLookupBenchmark {
+
+    private static final Logger log = Logger.getLogger(NamingLookupBenchmark.class);
+
+    private static final String SHALLOW = "java:shallow";
+    private static final String DEEP = "java:comp/env/jdbc/app/primary/DataSource";
+    private static final String UNRELATED = "java:comp/env/jms/Queue";
+
+    public static void main(final String[] args) throws Exception {
+        final int readers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final boolean rebind = args.length > 2 && Boolean.parseBoolean(args[2]);
+
+        final NamingContext context = new NamingContext(new CompositeName(), createStore(), null);
+
+        // warm up both names once before measuring
+        run(context, SHALLOW, readers, 2, rebind);
+        run(context, DEEP, readers, 2, rebind);
+
+        final long shallow = run(context, SHALLOW, readers, seconds, rebind);
+        final long deep = run(context, DEEP, readers, seconds, rebind);
+        log.infof("readers=%d rebind=%s shallow=%d lookups/s deep=%d lookups/s", readers, rebind, shallow / seconds, deep / seconds);
+    }
+
+    private static InMemoryNamingStore createStore() throws NamingException {
+        final InMemoryNamingStore store = new InMemoryNamingStore();
+        final Context context = new NamingContext(new CompositeName(), store, null);
+        context.bind("shallow", "value");
+        context.bind("filler", "value");
+        Context current = context;
+        for (String component : new String[] {"comp", "env", "jdbc", "app", "primary"}) {
+            current = current.createSubcontext(component);
+            for (int i = 0; i < 20; i++) {
+                current.bind("filler" + i, "value");
+            }
+        }
+        current.bind("DataSource", "value");
+        context.createSubcontext("comp/env/jms");
+        context.bind("comp/env/jms/Queue", "value");
+        return store;
+    }
+
+    private static long run(final Context context, final String name, final int readers, final int seconds, final boolean rebind) throws InterruptedException {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong lookups = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(readers + 1);
+        for (int i = 0; i < readers; i++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    long count = 0;
+                    try {
+                        while (running.get()) {
+                            context.lookup(name);
+                            count++;
+                        }
+                    } catch (NamingException e) {
+                        throw new IllegalStateException(e);
+                    } finally {
+                        lookups.addAndGet(count);
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        new Thread(new Runnable() {
+            public void run() {
+                try {
+                    int i = 0;
+                    while (rebind && running.get()) {
+                        context.rebind(UNRELATED, "value" + i++);
+                        Thread.sleep(1);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            }
+        }).start();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        running.set(false);
+        done.await();
+        return lookups.get();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of equally sized direct buffers.  Direct buffers are expensive to allocate and are only released by the
+ * garbage collector, so they are recycled rather than allocated per read or write.
+ */
+final class ByteBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    ByteBufferPool(final int bufferSize, final int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Take a cleared buffer from the pool, allocating one if the pool is empty.
+     *
+     * @return the buffer
+     */
+    ByteBuffer allocate() {
+        final ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool.  The buffer must not be used afterwards.
+     *
+     * @param buffer the buffer
+     */
+    void free(final ByteBuffer buffer) {
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        buffers.add(buffer);
+    }
+}
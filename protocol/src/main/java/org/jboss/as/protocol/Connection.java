@@ -43,6 +43,19 @@ public interface Connection extends Closeable {
      */
     OutputStream writeMessage() throws IOException;
 
+    /**
+     * Open a new channel over the same underlying connection.  Messages on the new channel are
+     * written and delivered independently of those on this connection and its other channels,
+     * so a long message on one channel does not hold up the others.  The first message the peer
+     * receives on the channel is passed to its current connection-level message handler.
+     * <p>
+     * Closing the returned channel does not close the underlying connection.
+     *
+     * @return the new channel
+     * @throws IOException if an I/O error occurs
+     */
+    Connection openChannel() throws IOException;
+
     /**
      * Shut down writes once all messages are sent.  This will cause the reading side's {@link MessageHandler#handleShutdown(Connection)}
      * method to be called.
@@ -22,88 +22,114 @@
 
 package org.jboss.as.protocol;
 
+import static org.jboss.as.protocol.ProtocolConstants.CHANNEL_CLOSE;
+import static org.jboss.as.protocol.ProtocolConstants.CHANNEL_WINDOW_SIZE;
+import static org.jboss.as.protocol.ProtocolConstants.CHUNK_ACK;
 import static org.jboss.as.protocol.ProtocolConstants.CHUNK_END;
 import static org.jboss.as.protocol.ProtocolConstants.CHUNK_START;
 
 import java.io.BufferedOutputStream;
-import java.io.EOFException;
-import java.io.FilterInputStream;
-import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
 
 import org.jboss.logging.Logger;
 
 /**
+ * A connection which multiplexes any number of channels over a single socket.  The socket is either read by a
+ * dedicated thread running {@link #getReadTask()}, or fed to {@link #receive(ByteBuffer)} by a selector thread.
+ * <p>
+ * Every frame carries the id of the channel it belongs to, so chunks of messages written concurrently on
+ * different channels interleave on the wire. Channel {@code 0} is the connection itself; further channels are
+ * opened with {@link #openChannel()}, using odd ids on the connecting side and even ids on the accepting side.
+ * Each channel has its own message handler and delivers its messages in order, one at a time, while messages on
+ * different channels are handled concurrently. A channel's sender may only have {@link ProtocolConstants#CHANNEL_WINDOW_SIZE}
+ * unacknowledged bytes in flight, so the read thread never blocks on a slow handler.
+ *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 final class ConnectionImpl implements Connection {
 
     private static final Logger log = Logger.getLogger("org.jboss.as.protocol.connection");
 
-    private final Socket socket;
+    private final ConnectionTransport transport;
 
     private final Object lock = new Object();
 
-    // protected by {@link #lock}
-    private OutputStream sender;
+    /**
+     * Serializes frames on the socket.  May be acquired before {@link #lock}, never after it.
+     */
+    private final Object writeLock = new Object();
+
     // protected by {@link #lock}
     private boolean readDone;
     // protected by {@link #lock}
     private boolean writeDone;
+    // protected by {@link #lock}
+    private int activeSenders;
+    // protected by {@link #lock}
+    private final Map<Integer, Channel> channels = new HashMap<Integer, Channel>();
+    // protected by {@link #lock}
+    private int nextChannelId;
 
-    private volatile MessageHandler messageHandler;
+    private final Channel primary;
 
     private final Executor readExecutor;
 
     private volatile Object attachment;
 
-    private volatile MessageHandler backupHandler;
+    // frame decoding state, only accessed by the thread reading the transport
+    private final byte[] frameHeader = new byte[9];
+    private int frameHeaderPos;
+    private int frameHeaderLength;
+    private byte[] chunk;
+    private int chunkPos;
+    private int chunkChannel;
+
+    ConnectionImpl(final Socket socket, final MessageHandler handler, final Executor readExecutor, final boolean initiator) {
+        this(new SocketTransport(socket), handler, readExecutor, initiator);
+    }
 
-    ConnectionImpl(final Socket socket, final MessageHandler handler, final Executor readExecutor) {
-        this.socket = socket;
-        messageHandler = handler;
+    ConnectionImpl(final ConnectionTransport transport, final MessageHandler handler, final Executor readExecutor, final boolean initiator) {
+        this.transport = transport;
         this.readExecutor = readExecutor;
+        nextChannelId = initiator ? 1 : 2;
+        primary = new Channel(0, handler);
+        channels.put(Integer.valueOf(0), primary);
     }
 
     public OutputStream writeMessage() throws IOException {
-        final OutputStream os;
+        return primary.writeMessage();
+    }
+
+    public Connection openChannel() throws IOException {
         synchronized (lock) {
             if (writeDone) {
                 throw new IOException("Writes are already shut down");
             }
-            while (sender != null) {
-                try {
-                    lock.wait();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new InterruptedIOException();
-                }
-            }
-            boolean ok = false;
-            try {
-                sender = new MessageOutputStream();
-                os = new BufferedOutputStream(sender);
-                ok = true;
-            } finally {
-                if (! ok) {
-                    // let someone else try
-                    lock.notify();
-                }
-            }
+            final int id = nextChannelId;
+            nextChannelId += 2;
+            final Channel channel = new Channel(id, MessageHandler.NULL);
+            channels.put(Integer.valueOf(id), channel);
+            log.tracef("Opened channel %d", Integer.valueOf(id));
+            return channel;
         }
-        return os;
     }
 
     public void shutdownWrites() throws IOException {
         synchronized (lock) {
             if (writeDone) return;
-            while (sender != null) {
+            while (activeSenders > 0) {
                 try {
                     lock.wait();
                 } catch (InterruptedException e) {
@@ -112,42 +138,39 @@ final class ConnectionImpl implements Connection {
                 }
             }
             writeDone = true;
-            if (readDone) {
-                socket.close();
+            lock.notifyAll();
+        }
+        synchronized (writeLock) {
+            final boolean done;
+            synchronized (lock) {
+                done = readDone;
+            }
+            if (done) {
+                transport.close();
             } else {
-                socket.shutdownOutput();
+                transport.shutdownOutput();
             }
-            lock.notifyAll();
         }
     }
 
     public void close() throws IOException {
         synchronized (lock) {
-            lock.notifyAll();
-            sender = null;
             readDone = true;
             writeDone = true;
-            socket.close();
+            for (Channel channel : channels.values()) {
+                channel.closed = true;
+            }
             lock.notifyAll();
         }
+        transport.close();
     }
 
     public void setMessageHandler(final MessageHandler messageHandler) {
-        if (messageHandler == null) {
-            throw new IllegalArgumentException("messageHandler is null");
-        }
-        this.messageHandler = messageHandler;
+        primary.setMessageHandler(messageHandler);
     }
 
     public InetAddress getPeerAddress() {
-        synchronized (lock) {
-            final Socket socket = this.socket;
-            if (socket != null) {
-                return socket.getInetAddress();
-            } else {
-                return null;
-            }
-        }
+        return transport.getPeerAddress();
     }
 
     public void attach(final Object attachment) {
@@ -160,98 +183,254 @@ final class ConnectionImpl implements Connection {
 
     @Override
     public void backupMessageHandler() {
-        backupHandler = messageHandler;
+        primary.backupMessageHandler();
     }
 
     @Override
     public void restoreMessageHandler() {
-        MessageHandler handler = backupHandler;
-        setMessageHandler(handler == null ? MessageHandler.NULL : handler);
+        primary.restoreMessageHandler();
     }
 
     Runnable getReadTask() {
+        final Socket socket = ((SocketTransport) transport).getSocket();
         return new Runnable() {
             public void run() {
                 try {
-                    Pipe pipe = null;
                     final InputStream is = socket.getInputStream();
-                    OutputStream mos = null;
-                    final int bufferSize = 8192;
-                    final byte[] buffer = new byte[bufferSize];
+                    final byte[] bytes = new byte[8192];
+                    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
                     for (;;) {
-
-                        int cmd = is.read();
-                        switch (cmd) {
-                            case -1: {
-                                log.trace("Received end of stream");
-                                // end of stream
-                                safeHandleShutdown();
-                                boolean done;
-                                if (mos != null) {
-                                    mos.close();
-                                    pipe.await();
-                                }
-                                synchronized (lock) {
-                                    readDone = true;
-                                    done = writeDone;
-                                }
-                                if (done) {
-                                    StreamUtils.safeClose(socket);
-                                    safeHandleFinished();
-                                }
-                                return;
-                            }
-                            case CHUNK_START: {
-                                if (mos == null) {
-                                    pipe = new Pipe(8192);
-                                    // new message!
-                                    final InputStream pis = pipe.getIn();
-                                    mos = pipe.getOut();
-
-                                    readExecutor.execute(new Runnable() {
-                                        public void run() {
-                                            safeHandleMessage(new MessageInputStream(pis));
-                                        }
-                                    });
-                                }
-                                int cnt = StreamUtils.readInt(is);
-                                log.tracef("Received data chunk of size %d", Integer.valueOf(cnt));
-                                while (cnt > 0) {
-                                    int sc = is.read(buffer, 0, Math.min(cnt, bufferSize));
-                                    if (sc == -1) {
-                                        throw new EOFException("Unexpected end of stream");
-                                    }
-                                    mos.write(buffer, 0, sc);
-                                    cnt -= sc;
-                                }
-                                break;
-                            }
-                            case CHUNK_END: {
-                                log.trace("Received end data marker");
-                                if (mos != null) {
-                                    // end message
-                                    mos.close();
-                                    pipe.await();
-                                    mos = null;
-                                    pipe = null;
-                                }
-                                break;
-                            }
-                            default: {
-                                throw new IOException("Invalid command byte read: " + cmd);
-                            }
+                        final int cnt = is.read(bytes);
+                        if (cnt == -1) {
+                            handleEndOfInput();
+                            return;
                         }
+                        buffer.clear();
+                        buffer.limit(cnt);
+                        receive(buffer);
                     }
                 } catch (IOException e) {
-                    safeHandlerFailure(e);
+                    handleReadFailure(e);
                 }
             }
         };
     }
 
-    void safeHandleMessage(final InputStream pis) {
+    /**
+     * Decode and dispatch the frames in the given buffer.  Frames may span calls.  Never blocks.
+     *
+     * @param buffer the bytes read from the transport
+     * @throws IOException if the bytes are not a valid frame sequence
+     */
+    void receive(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (chunk != null) {
+                final int cnt = Math.min(buffer.remaining(), chunk.length - chunkPos);
+                buffer.get(chunk, chunkPos, cnt);
+                chunkPos += cnt;
+                if (chunkPos == chunk.length) {
+                    receiveChunk();
+                }
+                continue;
+            }
+            if (frameHeaderPos == 0) {
+                final int cmd = buffer.get() & 0xff;
+                frameHeader[0] = (byte) cmd;
+                frameHeaderPos = 1;
+                switch (cmd) {
+                    case CHUNK_START:
+                    case CHUNK_ACK:
+                        frameHeaderLength = 9;
+                        break;
+                    case CHUNK_END:
+                    case CHANNEL_CLOSE:
+                        frameHeaderLength = 5;
+                        break;
+                    default:
+                        throw new IOException("Invalid command byte read: " + cmd);
+                }
+                continue;
+            }
+            final int cnt = Math.min(buffer.remaining(), frameHeaderLength - frameHeaderPos);
+            buffer.get(frameHeader, frameHeaderPos, cnt);
+            frameHeaderPos += cnt;
+            if (frameHeaderPos == frameHeaderLength) {
+                frameHeaderPos = 0;
+                receiveFrameHeader();
+            }
+        }
+    }
+
+    private void receiveFrameHeader() throws IOException {
+        final int cmd = frameHeader[0] & 0xff;
+        final int id = getInt(frameHeader, 1);
+        switch (cmd) {
+            case CHUNK_START: {
+                final int cnt = getInt(frameHeader, 5);
+                if (cnt < 0 || cnt > CHANNEL_WINDOW_SIZE) {
+                    throw new IOException("Invalid data chunk size: " + cnt);
+                }
+                log.tracef("Received data chunk of size %d on channel %d", Integer.valueOf(cnt), Integer.valueOf(id));
+                chunk = new byte[cnt];
+                chunkPos = 0;
+                chunkChannel = id;
+                if (cnt == 0) {
+                    receiveChunk();
+                }
+                break;
+            }
+            case CHUNK_END: {
+                log.tracef("Received end data marker on channel %d", Integer.valueOf(id));
+                final Channel channel = getChannel(id, false);
+                if (channel != null) {
+                    channel.endMessage();
+                }
+                break;
+            }
+            case CHUNK_ACK: {
+                final Channel channel = getChannel(id, false);
+                if (channel != null) {
+                    channel.addCredit(getInt(frameHeader, 5));
+                }
+                break;
+            }
+            case CHANNEL_CLOSE: {
+                log.tracef("Received close of channel %d", Integer.valueOf(id));
+                final Channel channel;
+                synchronized (lock) {
+                    channel = id == 0 ? null : channels.remove(Integer.valueOf(id));
+                }
+                if (channel != null) {
+                    channel.remoteClose();
+                }
+                break;
+            }
+        }
+    }
+
+    private void receiveChunk() {
+        final byte[] data = chunk;
+        chunk = null;
+        final Channel channel = getChannel(chunkChannel, true);
+        if (channel != null) {
+            channel.receive(data);
+        }
+    }
+
+    /**
+     * Handle the end of the input stream.  May block, so must not be called on a selector thread.
+     */
+    void handleEndOfInput() {
+        log.trace("Received end of stream");
+        endInput(false);
+        safeHandleShutdown();
+        boolean done;
+        synchronized (lock) {
+            readDone = true;
+            done = writeDone;
+        }
+        if (done) {
+            StreamUtils.safeClose(transport);
+            safeHandleFinished();
+        }
+    }
+
+    /**
+     * Handle a failure reading the input stream.  May block, so must not be called on a selector thread.
+     *
+     * @param e the failure
+     */
+    void handleReadFailure(final IOException e) {
+        endInput(true);
+        safeHandlerFailure(e);
+    }
+
+    /**
+     * Get the channel with the given id, creating it if the peer opened it with this frame.  Returns {@code null}
+     * for frames belonging to channels that have been closed.
+     */
+    private Channel getChannel(final int id, final boolean create) {
+        synchronized (lock) {
+            final Integer key = Integer.valueOf(id);
+            Channel channel = channels.get(key);
+            if (channel != null && channel.closed) {
+                return null;
+            }
+            if (channel == null && create && ! isLocal(id)) {
+                channel = new Channel(id, primary.messageHandler);
+                channels.put(key, channel);
+                log.tracef("Peer opened channel %d", Integer.valueOf(id));
+            }
+            return channel;
+        }
+    }
+
+    private boolean isLocal(final int id) {
+        return (id & 1) == (nextChannelId & 1);
+    }
+
+    /**
+     * Terminate the messages currently being received, so their readers see the end of the stream.
+     */
+    private void endInput(final boolean failed) {
+        final List<Channel> current;
+        synchronized (lock) {
+            current = new ArrayList<Channel>(channels.values());
+            if (failed) {
+                for (Channel channel : current) {
+                    channel.closed = true;
+                }
+                lock.notifyAll();
+            }
+        }
+        for (Channel channel : current) {
+            channel.endMessage();
+        }
+    }
+
+    private void writeFrame(final byte[] header, final byte[] data, final int off, final int len) throws IOException {
+        synchronized (writeLock) {
+            synchronized (lock) {
+                if (writeDone) {
+                    throw new IOException("Write channel closed");
+                }
+            }
+            transport.write(header, data, off, len);
+        }
+    }
+
+    private void writeControlFrame(final int cmd, final int id, final int value, final boolean hasValue) {
+        final byte[] frame = new byte[hasValue ? 9 : 5];
+        frame[0] = (byte) cmd;
+        putInt(frame, 1, id);
+        if (hasValue) {
+            putInt(frame, 5, value);
+        }
+        try {
+            writeFrame(frame, null, 0, 0);
+        } catch (IOException e) {
+            log.tracef(e, "Failed to send control frame %x for channel %d", Integer.valueOf(cmd), Integer.valueOf(id));
+        }
+    }
+
+    private static int getInt(final byte[] b, final int off) {
+        return (b[off] & 0xff) << 24 | (b[off + 1] & 0xff) << 16 | (b[off + 2] & 0xff) << 8 | (b[off + 3] & 0xff);
+    }
+
+    private static void putInt(final byte[] b, final int off, final int v) {
+        b[off] = (byte) (v >> 24);
+        b[off + 1] = (byte) (v >> 16);
+        b[off + 2] = (byte) (v >> 8);
+        b[off + 3] = (byte) v;
+    }
+
+    private Connection connectionFor(final Channel channel) {
+        return channel == primary ? this : channel;
+    }
+
+    void safeHandleMessage(final Channel channel, final InputStream pis) {
         try {
-            messageHandler.handleMessage(this, pis);
+            channel.messageHandler.handleMessage(connectionFor(channel), pis);
         } catch (RuntimeException e) {
             log.errorf(e, "Failed to read a message");
         } catch (IOException e) {
@@ -268,7 +447,7 @@ final class ConnectionImpl implements Connection {
 
     void safeHandleShutdown() {
         try {
-            messageHandler.handleShutdown(this);
+            primary.messageHandler.handleShutdown(this);
         } catch (IOException e) {
             log.errorf(e, "Failed to handle socket shut down condition");
         }
@@ -276,7 +455,7 @@ final class ConnectionImpl implements Connection {
 
     void safeHandleFinished() {
         try {
-            messageHandler.handleFinished(this);
+            primary.messageHandler.handleFinished(this);
         } catch (IOException e) {
             log.errorf(e, "Failed to handle socket finished condition");
         }
@@ -284,94 +463,407 @@ final class ConnectionImpl implements Connection {
 
     void safeHandlerFailure(IOException e) {
         try {
-            messageHandler.handleFailure(this, e);
+            primary.messageHandler.handleFailure(this, e);
         } catch (IOException e1) {
             log.errorf(e1, "Failed to handle socket failure condition");
         }
     }
 
-    final class MessageInputStream extends FilterInputStream {
+    /**
+     * A logical channel.  The write state of all channels is protected by {@link ConnectionImpl#lock}; the
+     * read state of each channel is protected by the channel itself.
+     * <p>
+     * Either side may close a channel; the other side answers with a close of its own.  A channel opened by the
+     * peer stays registered, discarding any frames still in flight, until that answer arrives, so that late
+     * frames are not mistaken for the start of a new channel.
+     */
+    final class Channel implements Connection {
+
+        private final int id;
+
+        private volatile MessageHandler messageHandler;
+
+        private volatile MessageHandler backupHandler;
+
+        // protected by {@link #lock}
+        private MessageOutputStream sender;
+        // protected by {@link #lock}
+        private int credit = CHANNEL_WINDOW_SIZE;
+        // protected by {@link #lock}
+        private boolean closed;
+
+        // protected by this
+        private final ArrayDeque<MessageInputStream> inbound = new ArrayDeque<MessageInputStream>();
+        // protected by this
+        private MessageInputStream current;
+        // protected by this
+        private boolean dispatching;
+        // protected by this
+        private int unacknowledged;
+
+        private final Runnable dispatchTask = new Runnable() {
+            public void run() {
+                for (;;) {
+                    final MessageInputStream message;
+                    synchronized (Channel.this) {
+                        message = inbound.poll();
+                        if (message == null) {
+                            dispatching = false;
+                            return;
+                        }
+                    }
+                    safeHandleMessage(Channel.this, message);
+                }
+            }
+        };
 
-        protected MessageInputStream(InputStream in) {
-            super(in);
+        Channel(final int id, final MessageHandler handler) {
+            this.id = id;
+            messageHandler = handler;
+        }
+
+        public OutputStream writeMessage() throws IOException {
+            synchronized (lock) {
+                for (;;) {
+                    if (writeDone) {
+                        throw new IOException("Writes are already shut down");
+                    }
+                    if (closed) {
+                        throw new IOException("Channel closed");
+                    }
+                    if (sender == null) {
+                        break;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                sender = new MessageOutputStream(this);
+                activeSenders++;
+                return new BufferedOutputStream(sender);
+            }
+        }
+
+        public Connection openChannel() throws IOException {
+            return ConnectionImpl.this.openChannel();
+        }
+
+        public void shutdownWrites() throws IOException {
+            synchronized (lock) {
+                while (sender != null && ! closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+            }
+            close();
         }
 
-        @Override
         public void close() throws IOException {
-            try {
-                while (in.read() != -1) {}
-            } finally {
-                super.close();
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (isLocal(id)) {
+                    channels.remove(Integer.valueOf(id));
+                }
+                lock.notifyAll();
+            }
+            endMessage();
+            log.tracef("Closing channel %d", Integer.valueOf(id));
+            writeControlFrame(CHANNEL_CLOSE, id, 0, false);
+        }
+
+        public void setMessageHandler(final MessageHandler messageHandler) {
+            if (messageHandler == null) {
+                throw new IllegalArgumentException("messageHandler is null");
+            }
+            this.messageHandler = messageHandler;
+        }
+
+        public InetAddress getPeerAddress() {
+            return ConnectionImpl.this.getPeerAddress();
+        }
+
+        public void attach(final Object attachment) {
+            ConnectionImpl.this.attach(attachment);
+        }
+
+        public Object getAttachment() {
+            return ConnectionImpl.this.getAttachment();
+        }
+
+        @Override
+        public void backupMessageHandler() {
+            backupHandler = messageHandler;
+        }
+
+        @Override
+        public void restoreMessageHandler() {
+            MessageHandler handler = backupHandler;
+            setMessageHandler(handler == null ? MessageHandler.NULL : handler);
+        }
+
+        void receive(final byte[] data) {
+            boolean dispatch = false;
+            final MessageInputStream message;
+            synchronized (this) {
+                if (current == null) {
+                    // new message!
+                    current = new MessageInputStream(this);
+                    inbound.add(current);
+                    if (! dispatching) {
+                        dispatching = true;
+                        dispatch = true;
+                    }
+                }
+                message = current;
+            }
+            message.add(data);
+            if (dispatch) {
+                readExecutor.execute(dispatchTask);
+            }
+        }
+
+        void endMessage() {
+            final MessageInputStream message;
+            synchronized (this) {
+                message = current;
+                current = null;
+            }
+            if (message != null) {
+                message.end();
+            }
+        }
+
+        void remoteClose() {
+            final boolean answer;
+            synchronized (lock) {
+                answer = ! closed;
+                closed = true;
+                lock.notifyAll();
+            }
+            endMessage();
+            if (answer) {
+                // not on the reading thread, which must never block on a write
+                readExecutor.execute(new Runnable() {
+                    public void run() {
+                        writeControlFrame(CHANNEL_CLOSE, id, 0, false);
+                    }
+                });
+            }
+        }
+
+        void addCredit(final int cnt) {
+            synchronized (lock) {
+                credit += cnt;
+                lock.notifyAll();
+            }
+        }
+
+        /**
+         * Wait until the peer can accept more data, and reserve up to {@code len} bytes of it.
+         */
+        int reserve(final MessageOutputStream stream, final int len) throws IOException {
+            synchronized (lock) {
+                for (;;) {
+                    if (sender != stream || closed || writeDone) {
+                        throw new IOException("Write channel closed");
+                    }
+                    if (credit > 0) {
+                        final int cnt = Math.min(len, credit);
+                        credit -= cnt;
+                        return cnt;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
             }
         }
+
+        /**
+         * Record bytes consumed by a reader, acknowledging them to the peer once half the window is used up.
+         */
+        void consumed(final int cnt, final boolean force) {
+            final int ack;
+            synchronized (this) {
+                unacknowledged += cnt;
+                if (unacknowledged == 0 || (! force && unacknowledged < CHANNEL_WINDOW_SIZE / 2)) {
+                    return;
+                }
+                ack = unacknowledged;
+                unacknowledged = 0;
+            }
+            writeControlFrame(CHUNK_ACK, id, ack, true);
+        }
     }
 
-    final class MessageOutputStream extends FilterOutputStream {
+    final class MessageInputStream extends InputStream {
+
+        private final Channel channel;
 
-        private final byte[] hdr = new byte[5];
+        // protected by this
+        private final ArrayDeque<byte[]> chunks = new ArrayDeque<byte[]>();
+        // protected by this
+        private int pos;
+        // protected by this
+        private boolean ended;
+
+        MessageInputStream(final Channel channel) {
+            this.channel = channel;
+        }
+
+        synchronized void add(final byte[] data) {
+            if (data.length > 0) {
+                chunks.add(data);
+                notifyAll();
+            }
+        }
 
-        MessageOutputStream() throws IOException {
-            super(socket.getOutputStream());
+        synchronized void end() {
+            ended = true;
+            notifyAll();
         }
 
         @Override
-        public void write(final int b) throws IOException {
-            throw new IllegalStateException();
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
         }
 
         @Override
-        public void write(final byte[] b, final int off, final int len) throws IOException {
+        public int read(final byte[] b, final int off, final int len) throws IOException {
             if (len == 0) {
-                return;
-            }
-            final byte[] hdr = this.hdr;
-            hdr[0] = (byte) CHUNK_START;
-            hdr[1] = (byte) (len >> 24);
-            hdr[2] = (byte) (len >> 16);
-            hdr[3] = (byte) (len >> 8);
-            hdr[4] = (byte) (len >> 0);
-            synchronized (lock) {
-                if (sender != this || writeDone) {
-                    if (sender == this) sender = null;
-                    lock.notifyAll();
-                    throw new IOException("Write channel closed");
+                return 0;
+            }
+            final int cnt;
+            synchronized (this) {
+                while (chunks.isEmpty() && ! ended) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                final byte[] chunk = chunks.peek();
+                if (chunk == null) {
+                    return -1;
+                }
+                cnt = Math.min(len, chunk.length - pos);
+                System.arraycopy(chunk, pos, b, off, cnt);
+                pos += cnt;
+                if (pos == chunk.length) {
+                    chunks.poll();
+                    pos = 0;
                 }
-                log.tracef("Sending data chunk of size %d", Integer.valueOf(len));
-                out.write(hdr);
-                out.write(b, off, len);
+            }
+            channel.consumed(cnt, false);
+            return cnt;
+        }
+
+        @Override
+        public synchronized int available() throws IOException {
+            final byte[] chunk = chunks.peek();
+            return chunk == null ? 0 : chunk.length - pos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            final byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) != -1) {}
+            channel.consumed(0, true);
+        }
+    }
+
+    final class MessageOutputStream extends OutputStream {
+
+        private final Channel channel;
+
+        private final byte[] hdr = new byte[9];
+
+        MessageOutputStream(final Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public void write(final byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                final int cnt = channel.reserve(this, len);
+                final byte[] hdr = this.hdr;
+                hdr[0] = (byte) CHUNK_START;
+                putInt(hdr, 1, channel.id);
+                putInt(hdr, 5, cnt);
+                log.tracef("Sending data chunk of size %d on channel %d", Integer.valueOf(cnt), Integer.valueOf(channel.id));
+                writeFrame(hdr, b, off, cnt);
+                off += cnt;
+                len -= cnt;
             }
         }
 
         @Override
         public void close() throws IOException {
             synchronized (lock) {
-                if (sender != this) {
+                if (channel.sender != this) {
                     return;
                 }
-                sender = null;
-                // wake up waiters
-                lock.notify();
-                if (writeDone) throw new IOException("Write channel closed");
-                if (readDone) {
-                    readExecutor.execute(new Runnable() {
-                        public void run() {
-                            safeHandleFinished();
-                        }
-                    });
+            }
+            boolean finished = false;
+            try {
+                // the end marker must go out before the next message on this channel may start
+                final byte[] end = new byte[5];
+                end[0] = (byte) CHUNK_END;
+                putInt(end, 1, channel.id);
+                log.tracef("Sending end of message on channel %d", Integer.valueOf(channel.id));
+                writeFrame(end, null, 0, 0);
+                synchronized (lock) {
+                    finished = readDone && channel == primary;
+                }
+            } finally {
+                synchronized (lock) {
+                    if (channel.sender == this) {
+                        channel.sender = null;
+                        activeSenders--;
+                    }
+                    // wake up waiters
+                    lock.notifyAll();
                 }
-                log.tracef("Sending end of message");
-                out.write(CHUNK_END);
+            }
+            if (finished) {
+                readExecutor.execute(new Runnable() {
+                    public void run() {
+                        safeHandleFinished();
+                    }
+                });
             }
         }
 
         @Override
         protected void finalize() throws Throwable {
             super.finalize();
+            final boolean leaked;
             synchronized (lock) {
-                if (sender == this) {
-                    log.warnf("Leaked a message output stream; cleaning");
-                    close();
-                }
+                leaked = channel.sender == this;
+            }
+            if (leaked) {
+                log.warnf("Leaked a message output stream; cleaning");
+                close();
             }
         }
     }
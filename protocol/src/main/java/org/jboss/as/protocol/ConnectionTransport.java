@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * The byte stream underlying a {@link ConnectionImpl}.  The connection serializes calls to
+ * {@link #write(byte[], byte[], int, int)}, so implementations need not.
+ */
+interface ConnectionTransport extends Closeable {
+
+    /**
+     * Write a frame, blocking until it has been handed to the network.
+     *
+     * @param header the frame header
+     * @param data the frame data, or {@code null} if {@code len} is {@code 0}
+     * @param off the offset of the frame data
+     * @param len the length of the frame data
+     * @throws IOException if an I/O error occurs
+     */
+    void write(byte[] header, byte[] data, int off, int len) throws IOException;
+
+    /**
+     * Shut down the sending side of the transport.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void shutdownOutput() throws IOException;
+
+    /**
+     * Close the transport, interrupting any blocked writes.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void close() throws IOException;
+
+    /**
+     * Get the remote peer address.
+     *
+     * @return the peer address, or {@code null} if unknown
+     */
+    InetAddress getPeerAddress();
+}
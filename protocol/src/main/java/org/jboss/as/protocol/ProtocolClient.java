@@ -77,13 +77,15 @@ public final class ProtocolClient {
     public Connection connect() throws IOException {
         log.tracef("Creating connection to %s", serverAddress);
         final Socket socket = socketFactory.createSocket();
-        final ConnectionImpl connection = new ConnectionImpl(socket, messageHandler, readExecutor);
+        final ConnectionImpl connection = new ConnectionImpl(socket, messageHandler, readExecutor, true);
         final Thread thread = threadFactory.newThread(connection.getReadTask());
         if (thread == null) {
             throw new IllegalStateException("Thread creation was refused");
         }
         if (bindAddress != null) socket.bind(bindAddress);
         if (readTimeout != 0) socket.setSoTimeout(readTimeout);
+        // Frame headers and bodies are written separately; don't let them wait for the peer's delayed ack
+        socket.setTcpNoDelay(true);
         socket.connect(serverAddress, connectTimeout);
         thread.setName("Read thread for " + serverAddress);
         thread.start();
@@ -28,6 +28,13 @@ package org.jboss.as.protocol;
 public final class ProtocolConstants {
     public static final int CHUNK_START = 0x98;
     public static final int CHUNK_END = 0x99;
+    public static final int CHUNK_ACK = 0x9A;
+    public static final int CHANNEL_CLOSE = 0x9B;
+
+    /**
+     * The number of unacknowledged bytes a sender may have in flight on a single channel.
+     */
+    public static final int CHANNEL_WINDOW_SIZE = 65536;
 
     private ProtocolConstants() {
     }
@@ -27,6 +27,10 @@ import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 
@@ -35,10 +39,21 @@ import javax.net.ServerSocketFactory;
 import org.jboss.logging.Logger;
 
 /**
+ * A protocol server.  When the configured socket factory is the default one, connections are serviced by a small,
+ * fixed number of selector threads (see {@link Configuration#setIoThreads(int)} and {@link #IO_THREADS_PROPERTY})
+ * rather than a thread per connection.  Other socket factories, which may produce sockets that cannot be used in
+ * non-blocking mode, get a read thread per connection.
+ *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public final class ProtocolServer {
 
+    /**
+     * The system property giving the number of selector threads when the configuration does not set one.  If the
+     * property is not set either, the number of processors is used, up to 4.
+     */
+    public static final String IO_THREADS_PROPERTY = "jboss.as.protocol.io.threads";
+
     private static final Logger log = Logger.getLogger("org.jboss.as.protocol.server");
 
     private final ThreadFactory threadFactory;
@@ -48,10 +63,14 @@ public final class ProtocolServer {
     private final int backlog;
     private final int readTimeout;
     private final Executor readExecutor;
+    private final int ioThreads;
     private volatile boolean stop;
     private volatile Thread thread;
     private volatile ServerSocket serverSocket;
     private volatile InetSocketAddress boundAddress;
+    private volatile ServerSocketChannel serverChannel;
+    private volatile SelectorThread[] selectorThreads;
+    private final ByteBufferPool bufferPool = new ByteBufferPool(16384, 64);
 
     public ProtocolServer(final Configuration configuration) throws IOException {
         threadFactory = configuration.getThreadFactory();
@@ -61,6 +80,7 @@ public final class ProtocolServer {
         backlog = configuration.getBacklog();
         readTimeout = configuration.getReadTimeout();
         readExecutor = configuration.getReadExecutor();
+        ioThreads = configuration.getIoThreads() > 0 ? configuration.getIoThreads() : getDefaultIoThreads();
         if (bindAddress == null) {
             throw new IllegalArgumentException("bindAddress is null");
         }
@@ -69,9 +89,26 @@ public final class ProtocolServer {
         }
     }
 
+    private static int getDefaultIoThreads() {
+        final String value = System.getProperty(IO_THREADS_PROPERTY);
+        if (value != null) {
+            try {
+                return Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                log.warnf("Ignoring invalid value %s for %s", value, IO_THREADS_PROPERTY);
+            }
+        }
+        return Math.min(4, Runtime.getRuntime().availableProcessors());
+    }
+
     public void start() throws IOException {
         stop = false;
 
+        if (socketFactory == null || socketFactory == ServerSocketFactory.getDefault()) {
+            startSelectors();
+            return;
+        }
+
         final ServerSocket serverSocket = socketFactory.createServerSocket();
         this.serverSocket = serverSocket;
         thread = threadFactory.newThread(new Runnable() {
@@ -83,6 +120,7 @@ public final class ProtocolServer {
                             boolean ok = false;
                             try {
                                 socket.setSoTimeout(readTimeout);
+                                socket.setTcpNoDelay(true);
                                 ok = true;
                             } finally {
                                 if (! ok) {
@@ -120,6 +158,49 @@ public final class ProtocolServer {
         thread.start();
     }
 
+    private void startSelectors() throws IOException {
+        final SelectorThread[] selectorThreads = new SelectorThread[ioThreads];
+        boolean ok = false;
+        final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            for (int i = 0; i < selectorThreads.length; i++) {
+                selectorThreads[i] = new SelectorThread(bufferPool, readTimeout);
+                final Thread thread = threadFactory.newThread(selectorThreads[i]);
+                if (thread == null) {
+                    throw new IOException("Failed to create I/O thread");
+                }
+                thread.setName("Protocol I/O thread " + (i + 1));
+                thread.start();
+            }
+            serverChannel.configureBlocking(false);
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.socket().bind(bindAddress, backlog);
+            boundAddress = (InetSocketAddress) serverChannel.socket().getLocalSocketAddress();
+            this.serverChannel = serverChannel;
+            this.selectorThreads = selectorThreads;
+            final Acceptor acceptor = new Acceptor(serverChannel, selectorThreads);
+            selectorThreads[0].execute(new Runnable() {
+                public void run() {
+                    try {
+                        selectorThreads[0].register(serverChannel, SelectionKey.OP_ACCEPT, acceptor);
+                    } catch (IOException e) {
+                        log.errorf(e, "Failed to register server socket");
+                    }
+                }
+            });
+            ok = true;
+        } finally {
+            if (! ok) {
+                StreamUtils.safeClose(serverChannel);
+                for (SelectorThread selectorThread : selectorThreads) {
+                    if (selectorThread != null) {
+                        selectorThread.stop();
+                    }
+                }
+            }
+        }
+    }
+
     public void stop() {
         stop = true;
         final Thread thread = this.thread;
@@ -129,12 +210,71 @@ public final class ProtocolServer {
             thread.interrupt();
         }
         StreamUtils.safeClose(serverSocket);
+        StreamUtils.safeClose(serverChannel);
+        final SelectorThread[] selectorThreads = this.selectorThreads;
+        if (selectorThreads != null) {
+            for (SelectorThread selectorThread : selectorThreads) {
+                selectorThread.stop();
+            }
+            this.selectorThreads = null;
+        }
+    }
+
+    private final class Acceptor implements SelectorThread.Handler {
+        private final ServerSocketChannel serverChannel;
+        private final SelectorThread[] selectorThreads;
+        private int next;
+
+        Acceptor(final ServerSocketChannel serverChannel, final SelectorThread[] selectorThreads) {
+            this.serverChannel = serverChannel;
+            this.selectorThreads = selectorThreads;
+        }
+
+        public void handleReady(final SelectionKey key, final ByteBuffer buffer) {
+            for (;;) {
+                final SocketChannel channel;
+                try {
+                    channel = serverChannel.accept();
+                } catch (IOException e) {
+                    if (! stop) {
+                        log.errorf(e, "Failed to accept a connection");
+                    }
+                    return;
+                }
+                if (channel == null) {
+                    return;
+                }
+                boolean ok = false;
+                try {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    final SelectorThread selectorThread = selectorThreads[next++ % selectorThreads.length];
+                    final SelectorTransport transport = new SelectorTransport(channel, selectorThread, bufferPool, readExecutor);
+                    final ConnectionImpl connection = new ConnectionImpl(transport, MessageHandler.NULL, readExecutor, false);
+                    connection.setMessageHandler(connectionHandler.handleConnected(connection));
+                    transport.start(connection);
+                    ok = true;
+                } catch (IOException e) {
+                    log.errorf(e, "Failed to handle incoming connection");
+                } finally {
+                    if (! ok) {
+                        StreamUtils.safeClose(channel);
+                    }
+                }
+            }
+        }
+
+        public void checkTimeout(final SelectionKey key, final long now, final int timeout) {
+        }
+
+        public void handleClosed() {
+        }
     }
 
     private void safeHandleConnection(final Socket socket) {
         boolean ok = false;
         try {
-            final ConnectionImpl connection = new ConnectionImpl(socket, MessageHandler.NULL, readExecutor);
+            final ConnectionImpl connection = new ConnectionImpl(socket, MessageHandler.NULL, readExecutor, false);
             connection.setMessageHandler(connectionHandler.handleConnected(connection));
             final Thread thread = threadFactory.newThread(connection.getReadTask());
             if (thread == null) {
@@ -169,6 +309,7 @@ public final class ProtocolServer {
         private int backlog;
         private int readTimeout;
         private Executor readExecutor;
+        private int ioThreads;
 
         public ThreadFactory getThreadFactory() {
             return threadFactory;
@@ -233,5 +374,19 @@ public final class ProtocolServer {
         public void setReadExecutor(final Executor readExecutor) {
             this.readExecutor = readExecutor;
         }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        /**
+         * Set the number of selector threads servicing connections.  If not positive, the value of
+         * {@link ProtocolServer#IO_THREADS_PROPERTY} is used, or else a default based on the number of processors.
+         *
+         * @param ioThreads the number of threads
+         */
+        public void setIoThreads(final int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
     }
 }
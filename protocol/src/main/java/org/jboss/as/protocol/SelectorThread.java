@@ -0,0 +1,213 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.jboss.logging.Logger;
+
+/**
+ * A thread which services a number of non-blocking channels through one {@link Selector}.  Readiness is
+ * reported to the {@link Handler} attached to each channel's key, along with a direct buffer owned by this
+ * thread which the handler may use for reading.
+ * <p>
+ * Handlers run on the selector thread and must never block.  Other threads interact with the selector only
+ * through {@link #execute(Runnable)}.
+ * <p>
+ * If a read timeout is set, every handler is periodically asked to check its channel for idleness.
+ */
+final class SelectorThread implements Runnable {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.protocol.server");
+
+    /**
+     * Reacts to readiness of a registered channel.
+     */
+    interface Handler {
+
+        /**
+         * Handle the readiness of the channel.
+         *
+         * @param key the channel's key
+         * @param buffer a buffer which may be used until this method returns
+         */
+        void handleReady(SelectionKey key, ByteBuffer buffer);
+
+        /**
+         * Close the channel if nothing was read from it within the timeout.
+         *
+         * @param key the channel's key
+         * @param now the current time in milliseconds
+         * @param timeout the read timeout in milliseconds
+         */
+        void checkTimeout(SelectionKey key, long now, int timeout);
+
+        /**
+         * Handle the selector thread shutting down.  The channel has already been closed.
+         */
+        void handleClosed();
+    }
+
+    private final Selector selector;
+    private final ByteBufferPool bufferPool;
+    private final int readTimeout;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    private volatile boolean stop;
+    private volatile Thread thread;
+
+    SelectorThread(final ByteBufferPool bufferPool, final int readTimeout) throws IOException {
+        this.bufferPool = bufferPool;
+        this.readTimeout = readTimeout;
+        selector = Selector.open();
+    }
+
+    /**
+     * Run a task on the selector thread.
+     *
+     * @param task the task
+     */
+    void execute(final Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Register a channel with this thread's selector.  Must be called on the selector thread.
+     *
+     * @param channel the channel, which must be in non-blocking mode
+     * @param ops the initial interest set
+     * @param handler the handler to notify of readiness
+     * @return the key
+     * @throws ClosedChannelException if the channel was closed
+     */
+    SelectionKey register(final SelectableChannel channel, final int ops, final Handler handler) throws ClosedChannelException {
+        return channel.register(selector, ops, handler);
+    }
+
+    boolean isSelectorThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Stop the thread, closing every channel registered with it.
+     */
+    void stop() {
+        stop = true;
+        selector.wakeup();
+    }
+
+    public void run() {
+        thread = Thread.currentThread();
+        final ByteBuffer buffer = bufferPool.allocate();
+        // idle channels are swept a few times per timeout period
+        final long checkInterval = Math.max(1, readTimeout / 4);
+        long nextCheck = System.currentTimeMillis() + checkInterval;
+        try {
+            while (! stop) {
+                try {
+                    if (readTimeout > 0) {
+                        selector.select(checkInterval);
+                    } else {
+                        selector.select();
+                    }
+                } catch (IOException e) {
+                    log.errorf(e, "Failed to select");
+                    continue;
+                }
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        log.errorf(e, "Failed to run selector task");
+                    }
+                }
+                final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    final SelectionKey key = iterator.next();
+                    iterator.remove();
+                    try {
+                        if (key.isValid()) {
+                            ((Handler) key.attachment()).handleReady(key, buffer);
+                        }
+                    } catch (CancelledKeyException e) {
+                        // closed by another thread in the meantime
+                    } catch (RuntimeException e) {
+                        log.errorf(e, "Failed to handle a selected channel");
+                    }
+                }
+                if (readTimeout > 0) {
+                    final long now = System.currentTimeMillis();
+                    if (now >= nextCheck) {
+                        checkTimeouts(now);
+                        nextCheck = now + checkInterval;
+                    }
+                }
+            }
+        } finally {
+            bufferPool.free(buffer);
+            final List<Handler> handlers = new ArrayList<Handler>();
+            for (SelectionKey key : selector.keys()) {
+                StreamUtils.safeClose(key.channel());
+                handlers.add((Handler) key.attachment());
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.errorf(e, "Failed to close selector");
+            }
+            for (Handler handler : handlers) {
+                try {
+                    handler.handleClosed();
+                } catch (RuntimeException e) {
+                    log.errorf(e, "Failed to handle closed channel");
+                }
+            }
+        }
+    }
+
+    private void checkTimeouts(final long now) {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                if (key.isValid()) {
+                    ((Handler) key.attachment()).checkTimeout(key, now, readTimeout);
+                }
+            } catch (CancelledKeyException e) {
+                // closed by another thread in the meantime
+            } catch (RuntimeException e) {
+                log.errorf(e, "Failed to check a channel for idleness");
+            }
+        }
+    }
+}
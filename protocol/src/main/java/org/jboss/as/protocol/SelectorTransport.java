@@ -0,0 +1,242 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.jboss.logging.Logger;
+
+/**
+ * A transport over a non-blocking socket channel serviced by a {@link SelectorThread}.  Incoming bytes are
+ * decoded on the selector thread; anything that may block, including writes and the end of stream and failure
+ * notifications, happens on other threads.
+ */
+final class SelectorTransport implements ConnectionTransport, SelectorThread.Handler {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.protocol.connection");
+
+    private final SocketChannel channel;
+    private final SelectorThread selectorThread;
+    private final ByteBufferPool bufferPool;
+    private final Executor readExecutor;
+    private volatile ConnectionImpl connection;
+    private volatile boolean closed;
+
+    // only accessed on the selector thread
+    private SelectionKey key;
+    // only accessed on the selector thread
+    private long lastRead;
+
+    private final Object writeMonitor = new Object();
+    // protected by {@link #writeMonitor}
+    private boolean writable;
+
+    SelectorTransport(final SocketChannel channel, final SelectorThread selectorThread, final ByteBufferPool bufferPool, final Executor readExecutor) {
+        this.channel = channel;
+        this.selectorThread = selectorThread;
+        this.bufferPool = bufferPool;
+        this.readExecutor = readExecutor;
+    }
+
+    /**
+     * Start reading on behalf of the given connection.
+     *
+     * @param connection the connection to feed
+     */
+    void start(final ConnectionImpl connection) {
+        this.connection = connection;
+        selectorThread.execute(new Runnable() {
+            public void run() {
+                try {
+                    lastRead = System.currentTimeMillis();
+                    key = selectorThread.register(channel, SelectionKey.OP_READ, SelectorTransport.this);
+                } catch (IOException e) {
+                    failed(e);
+                }
+            }
+        });
+    }
+
+    public void handleReady(final SelectionKey key, final ByteBuffer buffer) {
+        if (key.isWritable()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            synchronized (writeMonitor) {
+                writable = true;
+                writeMonitor.notifyAll();
+            }
+        }
+        if (key.isReadable()) {
+            buffer.clear();
+            lastRead = System.currentTimeMillis();
+            try {
+                final int cnt = channel.read(buffer);
+                if (cnt == -1) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                    dispatch(new Runnable() {
+                        public void run() {
+                            connection.handleEndOfInput();
+                        }
+                    });
+                    return;
+                }
+                buffer.flip();
+                connection.receive(buffer);
+            } catch (IOException e) {
+                key.cancel();
+                StreamUtils.safeClose(channel);
+                failed(e);
+            }
+        }
+    }
+
+    public void checkTimeout(final SelectionKey key, final long now, final int timeout) {
+        if ((key.interestOps() & SelectionKey.OP_READ) != 0 && now - lastRead >= timeout) {
+            key.cancel();
+            StreamUtils.safeClose(channel);
+            failed(new SocketTimeoutException("Read timed out"));
+        }
+    }
+
+    public void handleClosed() {
+        failed(new IOException("Connection closed"));
+    }
+
+    private void failed(final IOException e) {
+        closed = true;
+        synchronized (writeMonitor) {
+            writeMonitor.notifyAll();
+        }
+        dispatch(new Runnable() {
+            public void run() {
+                connection.handleReadFailure(e);
+            }
+        });
+    }
+
+    /**
+     * Run a notification which may block off the selector thread.
+     */
+    private void dispatch(final Runnable task) {
+        try {
+            readExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.tracef(e, "Could not notify connection to %s; the executor is shut down", channel.socket().getRemoteSocketAddress());
+        }
+    }
+
+    public void write(final byte[] header, final byte[] data, final int off, final int len) throws IOException {
+        if (selectorThread.isSelectorThread()) {
+            throw new IllegalStateException("Blocking write attempted on a selector thread");
+        }
+        final ByteBuffer buffer = bufferPool.allocate();
+        try {
+            buffer.put(header);
+            int pos = off;
+            int remaining = len;
+            for (;;) {
+                final int cnt = Math.min(remaining, buffer.remaining());
+                if (cnt > 0) {
+                    buffer.put(data, pos, cnt);
+                    pos += cnt;
+                    remaining -= cnt;
+                }
+                buffer.flip();
+                writeFully(buffer);
+                if (remaining == 0) {
+                    return;
+                }
+                buffer.clear();
+            }
+        } finally {
+            bufferPool.free(buffer);
+        }
+    }
+
+    private void writeFully(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (closed) {
+                throw new IOException("Connection closed");
+            }
+            if (channel.write(buffer) == 0) {
+                awaitWritable();
+            }
+        }
+    }
+
+    /**
+     * Wait for the selector to report that the socket's send buffer has room again.
+     */
+    private void awaitWritable() throws IOException {
+        synchronized (writeMonitor) {
+            writable = false;
+        }
+        selectorThread.execute(new Runnable() {
+            public void run() {
+                final SelectionKey key = SelectorTransport.this.key;
+                if (key != null && key.isValid()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                } else {
+                    synchronized (writeMonitor) {
+                        writable = true;
+                        writeMonitor.notifyAll();
+                    }
+                }
+            }
+        });
+        synchronized (writeMonitor) {
+            while (! writable && ! closed) {
+                try {
+                    writeMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+    }
+
+    public void shutdownOutput() throws IOException {
+        channel.socket().shutdownOutput();
+    }
+
+    public void close() throws IOException {
+        closed = true;
+        synchronized (writeMonitor) {
+            writeMonitor.notifyAll();
+        }
+        log.tracef("Closing connection to %s", channel.socket().getRemoteSocketAddress());
+        channel.close();
+    }
+
+    public InetAddress getPeerAddress() {
+        return channel.socket().getInetAddress();
+    }
+}
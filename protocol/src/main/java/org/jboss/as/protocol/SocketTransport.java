@@ -0,0 +1,64 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * A transport over a blocking socket, read by a dedicated thread running {@link ConnectionImpl#getReadTask()}.
+ */
+final class SocketTransport implements ConnectionTransport {
+
+    private final Socket socket;
+
+    SocketTransport(final Socket socket) {
+        this.socket = socket;
+    }
+
+    Socket getSocket() {
+        return socket;
+    }
+
+    public void write(final byte[] header, final byte[] data, final int off, final int len) throws IOException {
+        final OutputStream out = socket.getOutputStream();
+        out.write(header);
+        if (len > 0) {
+            out.write(data, off, len);
+        }
+    }
+
+    public void shutdownOutput() throws IOException {
+        socket.shutdownOutput();
+    }
+
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    public InetAddress getPeerAddress() {
+        return socket.getInetAddress();
+    }
+}
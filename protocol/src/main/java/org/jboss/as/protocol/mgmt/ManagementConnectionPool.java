@@ -0,0 +1,290 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import static org.jboss.as.protocol.StreamUtils.safeClose;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.ProtocolClient;
+import org.jboss.logging.Logger;
+
+/**
+ * A pool of keep-alive connections to a management endpoint, used through
+ * {@link ManagementRequestConnectionStrategy.PooledConnectionStrategy}.
+ * <p>
+ * Each {@link ManagementRequest} runs on its own channel, so one connection can carry any number of requests at
+ * once. A request is given the live connection with the fewest requests in flight; a new connection is only
+ * opened when every connection already carries {@code maxRequestsPerConnection} requests and there are fewer
+ * than {@code maxConnections}. Once all connections are at both limits, requests share the least busy one.
+ * </p>
+ * <p>
+ * A connection is dropped from the pool as soon as its read side reports that the peer shut it down or that it
+ * failed, so a request is never handed a connection that is known to be dead. Connections that carry no request
+ * for longer than the idle timeout are closed by a background thread.
+ * </p>
+ */
+public final class ManagementConnectionPool implements Closeable {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.protocol.client");
+
+    private final ProtocolClient protocolClient;
+    private final int maxConnections;
+    private final int maxRequestsPerConnection;
+    private final long idleTimeout;
+    private final ScheduledExecutorService evictor;
+
+    private final Object lock = new Object();
+    // protected by {@link #lock}
+    private final Map<Connection, Entry> entries = new IdentityHashMap<Connection, Entry>();
+    // protected by {@link #lock}
+    private int connecting;
+    // protected by {@link #lock}
+    private boolean closed;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param configuration the configuration used to open connections. Its message handler is replaced by one
+     *                      which tracks the health of the pooled connections
+     * @param maxConnections the maximum number of connections
+     * @param maxRequestsPerConnection the number of concurrent requests on a connection above which another
+     *                                 connection is opened, if {@code maxConnections} allows
+     * @param idleTimeout the time after which a connection without requests is closed
+     * @param unit the unit of {@code idleTimeout}
+     */
+    public ManagementConnectionPool(final ProtocolClient.Configuration configuration, final int maxConnections, final int maxRequestsPerConnection,
+            final long idleTimeout, final TimeUnit unit) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections is less than 1");
+        }
+        if (maxRequestsPerConnection < 1) {
+            throw new IllegalArgumentException("maxRequestsPerConnection is less than 1");
+        }
+        configuration.setMessageHandler(new HealthHandler());
+        this.protocolClient = new ProtocolClient(configuration);
+        this.maxConnections = maxConnections;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        this.idleTimeout = unit.toMillis(idleTimeout);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "Management connection evictor for " + configuration.getServerAddress());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final long period = Math.max(this.idleTimeout / 2, 1000L);
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                evictIdle();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets a connection for a request. The connection must be handed back with {@link #release(Connection)}
+     * once the request completes.
+     *
+     * @return the connection
+     * @throws IOException if the pool is closed or a new connection cannot be opened
+     */
+    public Connection acquire() throws IOException {
+        synchronized (lock) {
+            for (;;) {
+                if (closed) {
+                    throw new IOException("Connection pool is closed");
+                }
+                Entry best = null;
+                for (Entry entry : entries.values()) {
+                    if (best == null || entry.active < best.active) {
+                        best = entry;
+                    }
+                }
+                final boolean canConnect = entries.size() + connecting < maxConnections;
+                if (best != null && (best.active < maxRequestsPerConnection || !canConnect)) {
+                    best.active++;
+                    return best.connection;
+                }
+                if (canConnect && connecting == 0) {
+                    connecting++;
+                    break;
+                }
+                // Wait for the connection being opened rather than opening several at once
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+        Connection connection = null;
+        try {
+            connection = protocolClient.connect();
+        } finally {
+            synchronized (lock) {
+                connecting--;
+                if (connection != null && !closed) {
+                    final Entry entry = new Entry(connection);
+                    entry.active = 1;
+                    entries.put(connection, entry);
+                }
+                lock.notifyAll();
+            }
+        }
+        synchronized (lock) {
+            if (closed) {
+                safeClose(connection);
+                throw new IOException("Connection pool is closed");
+            }
+        }
+        log.tracef("Opened pooled connection %s", connection);
+        return connection;
+    }
+
+    /**
+     * Hands back a connection obtained from {@link #acquire()}.
+     *
+     * @param connection the connection
+     */
+    public void release(final Connection connection) {
+        synchronized (lock) {
+            final Entry entry = entries.get(connection);
+            if (entry != null) {
+                entry.active--;
+                entry.lastUsed = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of connections currently in the pool.
+     *
+     * @return the number of connections
+     */
+    public int getConnectionCount() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Closes all connections. Requests in flight fail.
+     */
+    public void close() {
+        final List<Entry> toClose;
+        synchronized (lock) {
+            closed = true;
+            toClose = new ArrayList<Entry>(entries.values());
+            entries.clear();
+            lock.notifyAll();
+        }
+        evictor.shutdown();
+        for (Entry entry : toClose) {
+            safeClose(entry.connection);
+        }
+    }
+
+    private void evictIdle() {
+        final long now = System.currentTimeMillis();
+        final List<Entry> toClose = new ArrayList<Entry>();
+        synchronized (lock) {
+            for (Entry entry : entries.values()) {
+                if (entry.active == 0 && now - entry.lastUsed >= idleTimeout) {
+                    toClose.add(entry);
+                }
+            }
+            for (Entry entry : toClose) {
+                entries.remove(entry.connection);
+            }
+        }
+        for (Entry entry : toClose) {
+            log.tracef("Closing idle pooled connection %s", entry.connection);
+            safeClose(entry.connection);
+        }
+    }
+
+    private void discard(final Connection connection) {
+        synchronized (lock) {
+            entries.remove(connection);
+            lock.notifyAll();
+        }
+    }
+
+    private static final class Entry {
+        private final Connection connection;
+        // protected by the pool's lock
+        private int active;
+        // protected by the pool's lock
+        private long lastUsed = System.currentTimeMillis();
+
+        private Entry(final Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Handles the connection-level events of the pooled connections, dropping a connection from the pool
+     * once the peer shuts it down or it fails. The server never initiates requests on these connections,
+     * so any connection-level message is ignored.
+     */
+    private final class HealthHandler extends AbstractMessageHandler {
+
+        @Override
+        public void handleShutdown(final Connection connection) throws IOException {
+            log.tracef("Pooled connection %s was shut down by the peer", connection);
+            discard(connection);
+            super.handleShutdown(connection);
+        }
+
+        @Override
+        public void handleFailure(final Connection connection, final IOException e) throws IOException {
+            log.debugf(e, "Pooled connection %s failed", connection);
+            discard(connection);
+            safeClose(connection);
+        }
+
+        @Override
+        public void handleFinished(final Connection connection) throws IOException {
+            discard(connection);
+        }
+
+        @Override
+        public void handle(final Connection connection, final InputStream input) throws IOException {
+            // ignored
+        }
+    }
+}
@@ -28,6 +28,7 @@ import static org.jboss.as.protocol.StreamUtils.safeClose;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -45,6 +46,10 @@ import org.jboss.as.protocol.StreamUtils;
 /**
  * Base management request used for remote requests.  Provides the basic mechanism for connecting to a remote host controller
  * for performing a task.  It will manage connecting and retrieving the correct response.
+ * <p>
+ * Cancelling the returned future, or interrupting a thread waiting for it, closes the request's channel so the
+ * request stops holding a slot on its connection. The connection itself, and other requests on it, are unaffected.
+ * </p>
  *
  * @author John Bailey
  */
@@ -52,6 +57,7 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
     private int requestId = 0;
     private final ResponseFuture<T> future = new ResponseFuture<T>();
     private ManagementRequestConnectionStrategy connectionStrategy;
+    private volatile Connection channel;
     // @GuardedBy(resultLock)
     private T result;
     /**
@@ -59,6 +65,7 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
      * is visible to thread running responseEndHandler.
      */
     private final Object resultLock = new Object();
+    private final AtomicBoolean completed = new AtomicBoolean();
 
     /**
      * Get the handler id of the request.  These should match the id of a @{link org.jboss.as.host.controller.management.ManagementOperationHandler}.
@@ -80,9 +87,9 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
         OutputStream dataOutput = null;
         ByteDataOutput output = null;
         try {
-            final Connection connection = connectionStrategy.getConnection();
-            connection.backupMessageHandler();
-
+            // Each request gets its own channel, so several requests can be in flight on one connection
+            final Connection connection = connectionStrategy.getConnection().openChannel();
+            channel = connection;
             connection.setMessageHandler(initiatingMessageHandler);
             dataOutput = connection.writeMessage();
             output = new SimpleByteDataOutput(dataOutput);
@@ -92,6 +99,10 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
             connection.setMessageHandler(initiatingMessageHandler);
             output.close();
             dataOutput.close();
+        } catch (IOException e) {
+            // No response will arrive to complete the request
+            complete();
+            throw e;
         } finally {
             safeClose(output);
             safeClose(dataOutput);
@@ -105,6 +116,8 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
      * @param connectionStrategy The connection strategy
      * @return The result
      * @throws IOException If any problems occur
+     * @throws CancellationException If the calling thread was interrupted, in which case the request is cancelled
+     *         and the thread's interrupt status is set
      */
     public T executeForResult(final ManagementRequestConnectionStrategy connectionStrategy) throws Exception {
         return execute(connectionStrategy).get();
@@ -146,7 +159,7 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
                     // We must have failed above and set the exception.
                     // If we fail sending we shouldn't expect a response,
                     // so consider the connection complete
-                    connectionStrategy.complete();
+                    complete();
                 }
             }
         }
@@ -223,7 +236,6 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
         @Override
         public final void handle(final Connection connection, final InputStream input) throws IOException {
             try {
-                connection.restoreMessageHandler();
                 expectHeader(input, ManagementProtocol.RESPONSE_END);
                 synchronized (resultLock) {
                     future.set(result);
@@ -233,11 +245,18 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
                 future.setException(e);
             }
             finally {
-                connectionStrategy.complete();
+                complete();
             }
         }
     };
 
+    private void complete() {
+        if (completed.compareAndSet(false, true)) {
+            safeClose(channel);
+            connectionStrategy.complete();
+        }
+    }
+
     protected T receiveResponse(final InputStream input) throws IOException {
         return null;
     }
@@ -245,27 +264,23 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
     private final class ResponseFuture<R> implements Future<R>{
         private volatile R result;
         private volatile Exception exception;
+        private volatile boolean cancelled;
         private AtomicBoolean valueSet = new AtomicBoolean();
 
         public R get() throws InterruptedException, ExecutionException {
-            boolean intr = false;
-            try {
-                synchronized (this) {
-                    while (!valueSet.get()) {
-                        try {
-                            wait();
-                        } catch (InterruptedException e) {
-                            intr = true;
-                        }
+            synchronized (this) {
+                while (!valueSet.get()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // Stop waiting, and free the channel rather than leave the request outstanding
+                        cancel(false);
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Interrupted waiting for the response");
                     }
                 }
-                if (exception != null) {
-                    throw new ExecutionException(exception);
-                }
-                return result;
-            } finally {
-                if (intr) Thread.currentThread().interrupt();
             }
+            return getValue();
         }
 
 
@@ -288,19 +303,48 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
         }
 
         public boolean cancel(boolean mayInterruptIfRunning) {
-            return false;
+            synchronized (this) {
+                if (!valueSet.compareAndSet(false, true)) {
+                    return false;
+                }
+                cancelled = true;
+                notifyAll();
+            }
+            // Any response still on its way is dropped along with the channel
+            complete();
+            return true;
         }
 
         public boolean isCancelled() {
-            return false;
+            return cancelled;
         }
 
-        public synchronized boolean isDone() {
-            return result != null || exception != null;
+        public boolean isDone() {
+            return valueSet.get();
         }
 
         public R get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-            return null;
+            final long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+            synchronized (this) {
+                while (!valueSet.get()) {
+                    final long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new TimeoutException();
+                    }
+                    wait(remaining);
+                }
+            }
+            return getValue();
+        }
+
+        private R getValue() throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (exception != null) {
+                throw new ExecutionException(exception);
+            }
+            return result;
         }
     }
 }
@@ -117,4 +117,33 @@ public interface ManagementRequestConnectionStrategy {
             safeClose(connection);
         }
     }
+
+    /**
+     * Strategy that borrows a keep-alive connection from a {@link ManagementConnectionPool} and hands it back
+     * once the request completes.
+     */
+    static class PooledConnectionStrategy implements ManagementRequestConnectionStrategy {
+        private final ManagementConnectionPool pool;
+        private Connection connection;
+
+        public PooledConnectionStrategy(final ManagementConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        /** {@inheritDoc} */
+        public synchronized Connection getConnection() throws IOException {
+            if (connection == null) {
+                connection = pool.acquire();
+            }
+            return connection;
+        }
+
+        /** {@inheritDoc} */
+        public synchronized void complete() {
+            if (connection != null) {
+                pool.release(connection);
+                connection = null;
+            }
+        }
+    }
 }
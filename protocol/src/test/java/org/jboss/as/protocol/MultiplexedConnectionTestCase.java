@@ -0,0 +1,179 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that channels of a {@link ConnectionImpl} carry messages independently of each other.
+ */
+public class MultiplexedConnectionTestCase {
+
+    private ExecutorService executor;
+    private ConnectionImpl client;
+    private ConnectionImpl server;
+    private final BlockingQueue<Object[]> received = new LinkedBlockingQueue<Object[]>();
+    private final CountDownLatch releaseSlowReader = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        final ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+        try {
+            final Socket clientSocket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+            final Socket serverSocketConnection = serverSocket.accept();
+            client = new ConnectionImpl(clientSocket, MessageHandler.NULL, executor, true);
+            server = new ConnectionImpl(serverSocketConnection, new RecordingHandler(), executor, false);
+            executor.execute(client.getReadTask());
+            executor.execute(server.getReadTask());
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        releaseSlowReader.countDown();
+        StreamUtils.safeClose(client);
+        StreamUtils.safeClose(server);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSmallMessageOvertakesLargeMessage() throws Exception {
+        final byte[] large = new byte[ProtocolConstants.CHANNEL_WINDOW_SIZE * 4];
+        new Random(123L).nextBytes(large);
+
+        final Connection bulk = client.openChannel();
+        final Connection quick = client.openChannel();
+
+        final CountDownLatch bulkWritten = new CountDownLatch(1);
+        final AtomicReference<IOException> bulkFailure = new AtomicReference<IOException>();
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    final OutputStream os = bulk.writeMessage();
+                    os.write(large);
+                    os.close();
+                    bulkWritten.countDown();
+                } catch (IOException e) {
+                    bulkFailure.set(e);
+                }
+            }
+        });
+
+        // The bulk message is stalled by flow control until the server reads it, but this one still gets through
+        final OutputStream os = quick.writeMessage();
+        os.write(new byte[] { 1, 2, 3 });
+        os.close();
+
+        final Object[] first = received.poll(10, TimeUnit.SECONDS);
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) first[1]);
+        assertEquals(1, bulkWritten.getCount());
+
+        releaseSlowReader.countDown();
+        final Object[] second = received.poll(10, TimeUnit.SECONDS);
+        assertArrayEquals(large, (byte[]) second[1]);
+        assertTrue(bulkWritten.await(10, TimeUnit.SECONDS));
+        assertNull(bulkFailure.get());
+        assertTrue(first[0] != second[0]);
+    }
+
+    @Test
+    public void testMessagesOnChannelStayOrdered() throws Exception {
+        releaseSlowReader.countDown();
+        final Connection channel = client.openChannel();
+        for (int i = 0; i < 20; i++) {
+            final OutputStream os = channel.writeMessage();
+            os.write(new byte[] { (byte) i });
+            os.close();
+        }
+        Connection serverChannel = null;
+        for (int i = 0; i < 20; i++) {
+            final Object[] message = received.poll(10, TimeUnit.SECONDS);
+            assertArrayEquals(new byte[] { (byte) i }, (byte[]) message[1]);
+            if (serverChannel == null) {
+                serverChannel = (Connection) message[0];
+            } else {
+                assertTrue(serverChannel == message[0]);
+            }
+        }
+    }
+
+    private class RecordingHandler implements MessageHandler {
+
+        public void handleMessage(final Connection connection, final InputStream dataStream) throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int cnt = dataStream.read(buffer);
+            if (cnt > 3) {
+                // a bulk message; hold it back until the test says otherwise
+                try {
+                    releaseSlowReader.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            while (cnt != -1) {
+                bytes.write(buffer, 0, cnt);
+                cnt = dataStream.read(buffer);
+            }
+            received.add(new Object[] { connection, bytes.toByteArray() });
+        }
+
+        public void handleShutdown(final Connection connection) throws IOException {
+            connection.shutdownWrites();
+        }
+
+        public void handleFailure(final Connection connection, final IOException e) throws IOException {
+            connection.close();
+        }
+
+        public void handleFinished(final Connection connection) throws IOException {
+        }
+    }
+}
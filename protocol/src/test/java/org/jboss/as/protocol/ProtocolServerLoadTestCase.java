@@ -0,0 +1,204 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.net.ServerSocketFactory;
+
+import org.junit.Test;
+
+/**
+ * Opens many idle connections to a {@link ProtocolServer} and checks that they are all serviced by the
+ * configured number of I/O threads.  The number of connections can be set with the
+ * {@code jboss.as.protocol.test.connections} system property; the default is kept small, as both ends of every
+ * connection are open in this JVM and count against its file descriptor limit.
+ */
+public class ProtocolServerLoadTestCase {
+
+    private static final int CONNECTIONS = Integer.getInteger("jboss.as.protocol.test.connections", 100).intValue();
+    private static final int IO_THREADS = 2;
+
+    private final CountDownLatch handled = new CountDownLatch(CONNECTIONS);
+    private final AtomicReference<Throwable> handlerFailure = new AtomicReference<Throwable>();
+
+    @Test
+    public void testManyIdleConnections() throws Exception {
+        final AtomicInteger serverThreads = new AtomicInteger();
+        final ProtocolServer.Configuration config = createConfiguration(serverThreads);
+        config.setBacklog(CONNECTIONS);
+        final ProtocolServer server = new ProtocolServer(config);
+        server.start();
+        final List<Socket> sockets = new ArrayList<Socket>(CONNECTIONS);
+        try {
+            final InetSocketAddress address = server.getBoundAddress();
+            for (int i = 0; i < CONNECTIONS; i++) {
+                sockets.add(new Socket(address.getAddress(), address.getPort()));
+            }
+            assertEquals(IO_THREADS, serverThreads.get());
+
+            // every connection is still serviced
+            for (int i = 0; i < sockets.size(); i++) {
+                final byte[] message = new byte[] { (byte) i, (byte) (i >> 8) };
+                final Socket socket = sockets.get(i);
+                writeMessage(socket.getOutputStream(), message);
+                assertArrayEquals(message, readMessage(socket.getInputStream()));
+            }
+            assertEquals(IO_THREADS, serverThreads.get());
+            assertTrue(handled.await(10, TimeUnit.SECONDS));
+            assertNull(handlerFailure.get());
+        } finally {
+            for (Socket socket : sockets) {
+                StreamUtils.safeClose(socket);
+            }
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testIdleConnectionTimesOut() throws Exception {
+        final ProtocolServer.Configuration config = createConfiguration(new AtomicInteger());
+        config.setReadTimeout(200);
+        final ProtocolServer server = new ProtocolServer(config);
+        server.start();
+        final Socket socket = new Socket();
+        try {
+            socket.connect(server.getBoundAddress());
+            socket.setSoTimeout(10000);
+            // the server closes the connection once nothing was read within the timeout
+            assertEquals(-1, socket.getInputStream().read());
+        } finally {
+            StreamUtils.safeClose(socket);
+            server.stop();
+        }
+    }
+
+    private ProtocolServer.Configuration createConfiguration(final AtomicInteger serverThreads) throws IOException {
+        final ProtocolServer.Configuration config = new ProtocolServer.Configuration();
+        config.setBindAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        config.setThreadFactory(new ThreadFactory() {
+            public Thread newThread(final Runnable r) {
+                serverThreads.incrementAndGet();
+                final Thread thread = new Thread(r);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        config.setReadExecutor(Executors.newCachedThreadPool());
+        config.setSocketFactory(ServerSocketFactory.getDefault());
+        config.setIoThreads(IO_THREADS);
+        config.setConnectionHandler(new ConnectionHandler() {
+            public MessageHandler handleConnected(final Connection connection) throws IOException {
+                return new EchoHandler();
+            }
+        });
+        return config;
+    }
+
+    private static void writeMessage(final OutputStream os, final byte[] message) throws IOException {
+        final DataOutputStream out = new DataOutputStream(os);
+        out.writeByte(ProtocolConstants.CHUNK_START);
+        out.writeInt(0);
+        out.writeInt(message.length);
+        out.write(message);
+        out.writeByte(ProtocolConstants.CHUNK_END);
+        out.writeInt(0);
+        out.flush();
+    }
+
+    private static byte[] readMessage(final InputStream is) throws IOException {
+        final DataInputStream in = new DataInputStream(is);
+        int cmd;
+        // skip flow control acknowledgements
+        while ((cmd = in.readUnsignedByte()) == ProtocolConstants.CHUNK_ACK) {
+            in.readInt();
+            in.readInt();
+        }
+        assertEquals(ProtocolConstants.CHUNK_START, cmd);
+        assertEquals(0, in.readInt());
+        final byte[] message = new byte[in.readInt()];
+        in.readFully(message);
+        assertEquals(ProtocolConstants.CHUNK_END, in.readUnsignedByte());
+        assertEquals(0, in.readInt());
+        return message;
+    }
+
+    /**
+     * Echoes each message. Failures are recorded for the test thread to report, as an assertion failing in a
+     * server thread would not fail the test.
+     */
+    private class EchoHandler implements MessageHandler {
+
+        public void handleMessage(final Connection connection, final InputStream dataStream) throws IOException {
+            try {
+                final byte[] message = new byte[2];
+                StreamUtils.readFully(dataStream, message);
+                final OutputStream os = connection.writeMessage();
+                try {
+                    os.write(message);
+                    os.close();
+                } finally {
+                    StreamUtils.safeClose(os);
+                }
+                if (dataStream.read() != -1) {
+                    throw new IllegalStateException("Message is longer than expected");
+                }
+            } catch (Throwable t) {
+                handlerFailure.compareAndSet(null, t);
+            } finally {
+                handled.countDown();
+            }
+        }
+
+        public void handleShutdown(final Connection connection) throws IOException {
+            connection.shutdownWrites();
+        }
+
+        public void handleFailure(final Connection connection, final IOException e) throws IOException {
+            connection.close();
+        }
+
+        public void handleFinished(final Connection connection) throws IOException {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.protocol.mgmt.PingServer.PingRequest;
+import org.jboss.logging.Logger;
+
+/**
+ * Measures the throughput of small management requests when each request opens its own connection, as
+ * {@link ManagementRequestConnectionStrategy.EstablishConnectingStrategy} does, and when requests share the
+ * connections of a {@link ManagementConnectionPool}.
+ * <p>
+ * This is not a unit test; run it manually with the test classpath:
+ * {@code java org.jboss.as.protocol.mgmt.ManagementConnectionPoolBenchmark [clients] [seconds]}
+ * </p>
+ */
+public class ManagementConnectionPoolBenchmark {
+
+    private static final Logger log = Logger.getLogger(ManagementConnectionPoolBenchmark.class);
+
+    public static void main(final String[] args) throws Exception {
+        final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        final PingServer server = new PingServer();
+        final ExecutorService executor = Executors.newCachedThreadPool(PingServer.DAEMON_THREADS);
+        final ManagementConnectionPool pool = new ManagementConnectionPool(server.createClientConfiguration(executor), 4, 16, 60, TimeUnit.SECONDS);
+        try {
+            final StrategyFactory establish = new StrategyFactory() {
+                public ManagementRequestConnectionStrategy create() {
+                    final InetSocketAddress address = server.getBoundAddress();
+                    return new ManagementRequestConnectionStrategy.EstablishConnectingStrategy(address.getAddress(), address.getPort(), 5,
+                            executor, PingServer.DAEMON_THREADS);
+                }
+            };
+            final StrategyFactory pooled = new StrategyFactory() {
+                public ManagementRequestConnectionStrategy create() {
+                    return new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool);
+                }
+            };
+
+            // warm up both strategies once before measuring
+            run(establish, clients, 2);
+            run(pooled, clients, 2);
+
+            final long perRequest = run(establish, clients, seconds);
+            final long shared = run(pooled, clients, seconds);
+            log.infof("clients=%d connection per request=%d requests/s pooled=%d requests/s (%d connections)",
+                    clients, perRequest / seconds, shared / seconds, pool.getConnectionCount());
+        } finally {
+            pool.close();
+            server.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    private static long run(final StrategyFactory factory, final int clients, final int seconds) throws InterruptedException {
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicLong count = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            final Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        long requests = 0;
+                        while (!stop.get()) {
+                            final int value = (int) requests;
+                            if (new PingRequest(value).executeForResult(factory.create()).intValue() != value + 1) {
+                                throw new IllegalStateException("Unexpected response");
+                            }
+                            requests++;
+                        }
+                        count.addAndGet(requests);
+                    } catch (Exception e) {
+                        log.error("Client failed", e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        stop.set(true);
+        done.await();
+        return count.get();
+    }
+
+    private interface StrategyFactory {
+        ManagementRequestConnectionStrategy create();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.PingServer.PingRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ManagementConnectionPool}.
+ */
+public class ManagementConnectionPoolTestCase {
+
+    private PingServer server;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new PingServer();
+        executor = Executors.newCachedThreadPool(PingServer.DAEMON_THREADS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRequestsShareConnection() throws Exception {
+        final ManagementConnectionPool pool = createPool(2, 4, 60000L);
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i + 1, ping(pool, i));
+            }
+            assertEquals(1, pool.getConnectionCount());
+            assertEquals(1, server.getConnections().size());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentRequestsAreSpread() throws Exception {
+        final ManagementConnectionPool pool = createPool(2, 4, 60000L);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            final List<ManagementRequestConnectionStrategy> strategies = new ArrayList<ManagementRequestConnectionStrategy>();
+            // Take the connections up front, so all the requests count as in flight together
+            for (int i = 0; i < 20; i++) {
+                final ManagementRequestConnectionStrategy strategy = new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool);
+                strategy.getConnection();
+                strategies.add(strategy);
+            }
+            for (int i = 0; i < strategies.size(); i++) {
+                futures.add(new PingRequest(i).execute(strategies.get(i)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i + 1, futures.get(i).get().intValue());
+            }
+            assertEquals(2, pool.getConnectionCount());
+            assertEquals(2, server.getConnections().size());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testIdleConnectionIsClosed() throws Exception {
+        final ManagementConnectionPool pool = createPool(2, 4, 100L);
+        try {
+            assertEquals(1, ping(pool, 0));
+            assertEquals(1, pool.getConnectionCount());
+            assertTrue(waitForConnectionCount(pool, 0));
+            assertEquals(2, ping(pool, 1));
+            assertEquals(2, server.getConnections().size());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testClosedConnectionIsReplaced() throws Exception {
+        final ManagementConnectionPool pool = createPool(2, 4, 60000L);
+        try {
+            assertEquals(1, ping(pool, 0));
+            StreamUtils.safeClose(server.getConnections().get(0));
+            assertTrue(waitForConnectionCount(pool, 0));
+            assertEquals(2, ping(pool, 1));
+            assertEquals(2, server.getConnections().size());
+        } finally {
+            pool.close();
+        }
+    }
+
+    private ManagementConnectionPool createPool(final int maxConnections, final int maxRequestsPerConnection, final long idleTimeout) {
+        return new ManagementConnectionPool(server.createClientConfiguration(executor), maxConnections, maxRequestsPerConnection,
+                idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    private static int ping(final ManagementConnectionPool pool, final int value) throws Exception {
+        return new PingRequest(value).executeForResult(new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool)).intValue();
+    }
+
+    private static boolean waitForConnectionCount(final ManagementConnectionPool pool, final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (pool.getConnectionCount() != count) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.mgmt.PingServer.PingRequest;
+import org.jboss.as.protocol.mgmt.PingServer.SilentRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that cancelling a {@link ManagementRequest} releases its channel without affecting its connection.
+ */
+public class ManagementRequestTestCase {
+
+    private PingServer server;
+    private ExecutorService executor;
+    private ManagementConnectionPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new PingServer();
+        executor = Executors.newCachedThreadPool(PingServer.DAEMON_THREADS);
+        pool = new ManagementConnectionPool(server.createClientConfiguration(executor), 1, 4, 60000L, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.close();
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCancelReleasesChannel() throws Exception {
+        final RecordingStrategy strategy = new RecordingStrategy(pool);
+        final Future<Void> future = new SilentRequest().execute(strategy);
+        assertFalse(future.isDone());
+
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+        assertEquals(0, strategy.completed.getCount());
+        try {
+            future.get();
+            fail("Cancelled request returned a result");
+        } catch (CancellationException expected) {
+        }
+
+        assertEquals(2, new PingRequest(1).executeForResult(new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool)).intValue());
+        assertEquals(1, server.getConnections().size());
+    }
+
+    @Test
+    public void testInterruptCancelsRequest() throws Exception {
+        final RecordingStrategy strategy = new RecordingStrategy(pool);
+        final AtomicReference<Throwable> thrown = new AtomicReference<Throwable>();
+        final Thread waiter = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    new SilentRequest().executeForResult(strategy);
+                } catch (Throwable t) {
+                    thrown.set(t);
+                }
+            }
+        });
+        waiter.start();
+        assertTrue(strategy.connected.await(10, TimeUnit.SECONDS));
+        // Interrupt it once it waits for the response
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (waiter.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        waiter.interrupt();
+        waiter.join(10000);
+
+        assertFalse(waiter.isAlive());
+        assertTrue(String.valueOf(thrown.get()), thrown.get() instanceof CancellationException);
+        assertEquals(0, strategy.completed.getCount());
+        assertEquals(2, new PingRequest(1).executeForResult(new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool)).intValue());
+    }
+
+    /**
+     * Takes pooled connections, and records when the request has its connection and when it completes.
+     */
+    private static class RecordingStrategy implements ManagementRequestConnectionStrategy {
+        private final ManagementRequestConnectionStrategy delegate;
+        final CountDownLatch connected = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingStrategy(final ManagementConnectionPool pool) {
+            delegate = new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool);
+        }
+
+        public Connection getConnection() throws IOException {
+            final Connection connection = delegate.getConnection();
+            connected.countDown();
+            return connection;
+        }
+
+        public void complete() {
+            delegate.complete();
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+import static org.jboss.as.protocol.StreamUtils.readByte;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.net.ServerSocketFactory;
+import javax.net.SocketFactory;
+
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.ConnectionHandler;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.ProtocolClient;
+import org.jboss.as.protocol.ProtocolServer;
+import org.jboss.as.protocol.StreamUtils;
+
+/**
+ * A management endpoint for tests which answers a {@link PingRequest} carrying a number with that number plus one,
+ * and never answers a {@link SilentRequest}.
+ */
+class PingServer {
+
+    static final byte HANDLER_ID = 0x42;
+    static final byte PING_REQUEST = 0x01;
+    static final byte PING_RESPONSE = 0x02;
+    static final byte SILENT_REQUEST = 0x03;
+
+    static final ThreadFactory DAEMON_THREADS = new ThreadFactory() {
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(DAEMON_THREADS);
+    private final List<Connection> connections = new CopyOnWriteArrayList<Connection>();
+    private final ProtocolServer server;
+
+    PingServer() throws IOException {
+        final ProtocolServer.Configuration config = new ProtocolServer.Configuration();
+        config.setBindAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        config.setThreadFactory(DAEMON_THREADS);
+        config.setReadExecutor(executor);
+        config.setSocketFactory(ServerSocketFactory.getDefault());
+        config.setConnectionHandler(new ConnectionHandler() {
+            public MessageHandler handleConnected(final Connection connection) throws IOException {
+                connections.add(connection);
+                return new ManagementHeaderMessageHandler() {
+                    @Override
+                    protected MessageHandler getHandlerForId(final byte handlerId) {
+                        return handlerId == HANDLER_ID ? new PingOperationHandler() : null;
+                    }
+                };
+            }
+        });
+        server = new ProtocolServer(config);
+        server.start();
+    }
+
+    /**
+     * Gets the connections accepted so far.
+     *
+     * @return the connections
+     */
+    List<Connection> getConnections() {
+        return connections;
+    }
+
+    /**
+     * Creates a configuration for clients of this server.
+     *
+     * @param readExecutor the executor which runs the client's message handlers
+     * @return the configuration
+     */
+    ProtocolClient.Configuration createClientConfiguration(final ExecutorService readExecutor) {
+        final ProtocolClient.Configuration config = new ProtocolClient.Configuration();
+        config.setConnectTimeout(5000);
+        config.setReadExecutor(readExecutor);
+        config.setSocketFactory(SocketFactory.getDefault());
+        config.setServerAddress(server.getBoundAddress());
+        config.setThreadFactory(DAEMON_THREADS);
+        return config;
+    }
+
+    InetSocketAddress getBoundAddress() {
+        return server.getBoundAddress();
+    }
+
+    void stop() {
+        for (Connection connection : connections) {
+            StreamUtils.safeClose(connection);
+        }
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    private static class PingOperationHandler extends AbstractMessageHandler {
+        public void handle(final Connection connection, final InputStream input) throws IOException {
+            expectHeader(input, ManagementProtocol.REQUEST_OPERATION);
+            final byte commandCode = readByte(input);
+            if (commandCode == SILENT_REQUEST) {
+                // Leave the request unanswered
+                connection.setMessageHandler(MessageHandler.NULL);
+                return;
+            }
+            if (commandCode != PING_REQUEST) {
+                throw new IOException("Invalid command code " + commandCode);
+            }
+            new PingResponse().handle(connection, input);
+        }
+    }
+
+    private static class PingResponse extends ManagementResponse {
+        private int value;
+
+        @Override
+        protected byte getResponseCode() {
+            return PING_RESPONSE;
+        }
+
+        @Override
+        protected void readRequest(final InputStream input) throws IOException {
+            value = StreamUtils.readInt(input);
+        }
+
+        @Override
+        protected void sendResponse(final OutputStream output) throws IOException {
+            StreamUtils.writeInt(output, value + 1);
+        }
+    }
+
+    /**
+     * A request for the {@link PingServer}.
+     */
+    static class PingRequest extends ManagementRequest<Integer> {
+        private final int value;
+
+        PingRequest(final int value) {
+            this.value = value;
+        }
+
+        @Override
+        protected byte getHandlerId() {
+            return HANDLER_ID;
+        }
+
+        @Override
+        protected byte getRequestCode() {
+            return PING_REQUEST;
+        }
+
+        @Override
+        protected byte getResponseCode() {
+            return PING_RESPONSE;
+        }
+
+        @Override
+        protected void sendRequest(final int protocolVersion, final OutputStream output) throws IOException {
+            StreamUtils.writeInt(output, value);
+        }
+
+        @Override
+        protected Integer receiveResponse(final InputStream input) throws IOException {
+            return Integer.valueOf(StreamUtils.readInt(input));
+        }
+    }
+
+    /**
+     * A request which the {@link PingServer} never answers.
+     */
+    static class SilentRequest extends ManagementRequest<Void> {
+
+        @Override
+        protected byte getHandlerId() {
+            return HANDLER_ID;
+        }
+
+        @Override
+        protected byte getRequestCode() {
+            return SILENT_REQUEST;
+        }
+
+        @Override
+        protected byte getResponseCode() {
+            return PING_RESPONSE;
+        }
+    }
+}
@@ -22,6 +22,7 @@
 
 package org.jboss.as.server;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Iterator;
@@ -118,7 +119,8 @@ final class ApplicationServerService implements Service<AsyncFuture<ServiceConta
         final BootstrapListener bootstrapListener = new BootstrapListener(container, startTime, serviceTarget, futureContainer);
         serviceTarget.addListener(bootstrapListener);
         myController.addListener(bootstrapListener);
-        ServerDeploymentRepositoryImpl.addService(serviceTarget, serverEnvironment.getServerDeployDir(), serverEnvironment.getServerSystemDeployDir());
+        ServerDeploymentRepositoryImpl.addService(serviceTarget, serverEnvironment.getServerDeployDir(), serverEnvironment.getServerSystemDeployDir(),
+                new File(serverEnvironment.getServerDataDir(), "expanded-content"));
         ServiceModuleLoader.addService(serviceTarget, configuration);
         ExternalModuleService.addService(serviceTarget);
         ModuleIndexService.addService(serviceTarget);
@@ -0,0 +1,227 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.dmr.ModelNode;
+import org.jboss.logging.Logger;
+
+/**
+ * Executes the boot operations read from the configuration.
+ * <p>
+ * Operations are executed in the order they were read, except that a run of consecutive {@code extension} adds, or
+ * of consecutive operations on subsystems, is split into groups which are executed concurrently: one group per
+ * extension, and one per subsystem. The operations on a single subsystem keep their relative order. Any other
+ * operation is executed on its own once everything before it has completed.
+ * </p>
+ * <p>
+ * The time spent executing the operations of each group is recorded, and available from {@link #getBootTimes()}.
+ * </p>
+ */
+final class BootOperationExecutor {
+
+    /**
+     * System property giving the number of threads used to execute boot operations concurrently. {@code 1} executes
+     * them one at a time, on the booting thread. Defaults to the number of available processors.
+     */
+    static final String BOOT_THREADS_PROPERTY = "jboss.as.boot.threads";
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.server");
+
+    private final ModelController controller;
+    private final Executor executor;
+    private final ResultHandler resultHandler;
+    private final Map<String, Long> bootTimes = new LinkedHashMap<String, Long>();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param controller the controller which executes the operations
+     * @param executor the executor used to run groups concurrently, or {@code null} to run everything on the calling
+     *                 thread
+     * @param resultHandler the handler notified of the result of each operation. Must be thread safe
+     */
+    BootOperationExecutor(final ModelController controller, final Executor executor, final ResultHandler resultHandler) {
+        this.controller = controller;
+        this.executor = executor;
+        this.resultHandler = resultHandler;
+    }
+
+    /**
+     * Get the number of threads to use for boot, as configured by {@link #BOOT_THREADS_PROPERTY}.
+     *
+     * @return the number of threads
+     */
+    static int getBootThreads() {
+        final String value = System.getProperty(BOOT_THREADS_PROPERTY);
+        if (value != null) {
+            try {
+                return Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                log.warnf("Ignoring invalid value %s for %s", value, BOOT_THREADS_PROPERTY);
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Execute the boot operations, returning once all of them have completed.
+     *
+     * @param updates the boot operations, in configuration order
+     * @throws InterruptedException if the thread is interrupted while waiting for concurrent groups to complete
+     */
+    void execute(final List<ModelNode> updates) throws InterruptedException {
+        final int size = updates.size();
+        int i = 0;
+        while (i < size) {
+            final String type = getGroupType(updates.get(i));
+            if (type == null) {
+                final ModelNode update = updates.get(i++);
+                final List<ModelNode> single = new ArrayList<ModelNode>(1);
+                single.add(update);
+                new Group(getTimeKey(update), single, null).run();
+                continue;
+            }
+            final Map<String, List<ModelNode>> groups = new LinkedHashMap<String, List<ModelNode>>();
+            while (i < size && type.equals(getGroupType(updates.get(i)))) {
+                final ModelNode update = updates.get(i++);
+                final String key = getTimeKey(update);
+                List<ModelNode> group = groups.get(key);
+                if (group == null) {
+                    group = new ArrayList<ModelNode>();
+                    groups.put(key, group);
+                }
+                group.add(update);
+            }
+            executeConcurrently(groups);
+        }
+    }
+
+    /**
+     * Get the time spent executing the boot operations of each group, in milliseconds. Groups are keyed by the
+     * first element of the address of their operations ({@code subsystem=web}, {@code extension=org.jboss.as.web});
+     * the time of operations which were not grouped is added up under the type of that element ({@code path},
+     * {@code deployment}) or under {@code server} for operations on the root resource.
+     *
+     * @return the boot times
+     */
+    ModelNode getBootTimes() {
+        final ModelNode result = new ModelNode();
+        synchronized (bootTimes) {
+            for (Map.Entry<String, Long> entry : bootTimes.entrySet()) {
+                result.get(entry.getKey()).set(entry.getValue().longValue());
+            }
+        }
+        return result;
+    }
+
+    private void executeConcurrently(final Map<String, List<ModelNode>> groups) throws InterruptedException {
+        if (executor == null || groups.size() == 1) {
+            for (Map.Entry<String, List<ModelNode>> entry : groups.entrySet()) {
+                new Group(entry.getKey(), entry.getValue(), null).run();
+            }
+            return;
+        }
+        final CountDownLatch latch = new CountDownLatch(groups.size());
+        for (Map.Entry<String, List<ModelNode>> entry : groups.entrySet()) {
+            final Group group = new Group(entry.getKey(), entry.getValue(), latch);
+            try {
+                executor.execute(group);
+            } catch (RejectedExecutionException e) {
+                group.run();
+            }
+        }
+        latch.await();
+    }
+
+    private void record(final String key, final long millis) {
+        synchronized (bootTimes) {
+            final Long previous = bootTimes.get(key);
+            bootTimes.put(key, Long.valueOf(previous == null ? millis : previous.longValue() + millis));
+        }
+        log.debugf("Executed boot operations for %s in %d ms", key, Long.valueOf(millis));
+    }
+
+    private static String getGroupType(final ModelNode update) {
+        final PathAddress address = PathAddress.pathAddress(update.get(OP_ADDR));
+        if (address.size() == 0) {
+            return null;
+        }
+        final String type = address.getElement(0).getKey();
+        return EXTENSION.equals(type) || SUBSYSTEM.equals(type) ? type : null;
+    }
+
+    private static String getTimeKey(final ModelNode update) {
+        final PathAddress address = PathAddress.pathAddress(update.get(OP_ADDR));
+        if (address.size() == 0) {
+            return "server";
+        }
+        final PathElement element = address.getElement(0);
+        final String type = element.getKey();
+        return EXTENSION.equals(type) || SUBSYSTEM.equals(type) ? type + "=" + element.getValue() : type;
+    }
+
+    private final class Group implements Runnable {
+        private final String key;
+        private final List<ModelNode> updates;
+        private final CountDownLatch latch;
+
+        private Group(final String key, final List<ModelNode> updates, final CountDownLatch latch) {
+            this.key = key;
+            this.updates = updates;
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            final long start = System.currentTimeMillis();
+            try {
+                for (ModelNode update : updates) {
+                    // execute() reports failures to the result handler rather than throwing
+                    controller.execute(OperationBuilder.Factory.create(update).build(), resultHandler);
+                }
+            } finally {
+                record(key, System.currentTimeMillis() - start);
+                if (latch != null) {
+                    latch.countDown();
+                }
+            }
+        }
+    }
+}
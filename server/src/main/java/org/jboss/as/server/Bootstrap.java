@@ -24,11 +24,13 @@ package org.jboss.as.server;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import javax.xml.namespace.QName;
 
 import org.jboss.as.controller.parsing.Namespace;
 import org.jboss.as.controller.parsing.StandaloneXml;
+import org.jboss.as.controller.persistence.AsyncConfigurationPersister;
 import org.jboss.as.controller.persistence.BackupXmlConfigurationPersister;
 import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.as.controller.persistence.NullConfigurationPersister;
@@ -76,6 +78,8 @@ public interface Bootstrap {
         private ServerEnvironment serverEnvironment;
         private ModuleLoader moduleLoader = Module.getBootModuleLoader();
         private ExtensibleConfigurationPersister configurationPersister;
+        private StandaloneXml parser;
+        private Executor extensionLoadExecutor;
         private long startTime = Module.getStartTime();
 
         /**
@@ -137,8 +141,9 @@ public interface Bootstrap {
                 }
                 else {
                     QName rootElement = new QName(Namespace.CURRENT.getUriString(), "server");
-                    StandaloneXml parser = new StandaloneXml(Module.getBootModuleLoader());
-                    configurationPersister = new BackupXmlConfigurationPersister(new File(serverEnvironment.getServerConfigurationDir(), "standalone.xml"), rootElement, parser, parser);
+                    parser = new StandaloneXml(Module.getBootModuleLoader());
+                    parser.setExtensionLoadExecutor(extensionLoadExecutor);
+                    configurationPersister = AsyncConfigurationPersister.wrapIfEnabled(new BackupXmlConfigurationPersister(new File(serverEnvironment.getServerConfigurationDir(), "standalone.xml"), rootElement, parser, parser));
                 }
             }
             return configurationPersister;
@@ -153,6 +158,19 @@ public interface Bootstrap {
             this.configurationPersister = configurationPersister;
         }
 
+        /**
+         * Set the executor used to load the extension modules while the configuration read by the default
+         * configuration persister is parsed.
+         *
+         * @param executor the executor, or {@code null} to load them on the parsing thread
+         */
+        public synchronized void setExtensionLoadExecutor(final Executor executor) {
+            extensionLoadExecutor = executor;
+            if (parser != null) {
+                parser.setExtensionLoadExecutor(executor);
+            }
+        }
+
         /**
          * Get the server start time to report in the logs.
          *
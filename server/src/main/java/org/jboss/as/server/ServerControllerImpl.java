@@ -22,12 +22,14 @@
 
 package org.jboss.as.server;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ANNOTATION_INDEX_STATISTICS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CANCELLED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLBACK_FAILURE_DESCRIPTION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLBACK_ON_RUNTIME_FAILURE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLED_BACK;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM_BOOT_TIMES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
 
 import java.io.InputStream;
@@ -41,8 +43,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicStampedReference;
 
 import org.jboss.as.controller.BasicModelController;
+import org.jboss.as.controller.BasicOperationResult;
 import org.jboss.as.controller.ModelController;
 import org.jboss.as.controller.ModelProvider;
+import org.jboss.as.controller.ModelQueryOperationHandler;
 import org.jboss.as.controller.ModelUpdateOperationHandler;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationContextImpl;
@@ -63,6 +67,7 @@ import org.jboss.as.controller.registry.ModelNodeRegistration;
 import org.jboss.as.server.controller.descriptions.ServerDescriptionProviders;
 import org.jboss.as.server.deployment.DeploymentUnitProcessor;
 import org.jboss.as.server.deployment.Phase;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexProcessor;
 import org.jboss.as.server.deployment.api.DeploymentRepository;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
@@ -87,6 +92,8 @@ class ServerControllerImpl extends BasicModelController implements ServerControl
     private final ExtensibleConfigurationPersister extensibleConfigurationPersister;
     private final DeploymentRepository deploymentRepository;
     private final EnumMap<Phase, SortedSet<RegisteredProcessor>> deployers = new EnumMap<Phase, SortedSet<RegisteredProcessor>>(Phase.class);
+    private volatile ModelNode bootTimes = new ModelNode();
+    private volatile AnnotationIndexProcessor annotationIndexProcessor;
 
     ServerControllerImpl(final ServiceContainer container, final ServiceTarget serviceTarget, final ServerEnvironment serverEnvironment,
             final ExtensibleConfigurationPersister configurationPersister, final DeploymentRepository deploymentRepository,
@@ -107,6 +114,23 @@ class ServerControllerImpl extends BasicModelController implements ServerControl
 
         // Build up the core model registry
         ServerControllerModelUtil.initOperations(getRegistry(), deploymentRepository, extensibleConfigurationPersister);
+        getRegistry().registerMetric(SUBSYSTEM_BOOT_TIMES, new ModelQueryOperationHandler() {
+            @Override
+            public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) {
+                resultHandler.handleResultFragment(new String[0], bootTimes.clone());
+                resultHandler.handleResultComplete();
+                return new BasicOperationResult();
+            }
+        });
+        getRegistry().registerMetric(ANNOTATION_INDEX_STATISTICS, new ModelQueryOperationHandler() {
+            @Override
+            public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) {
+                final AnnotationIndexProcessor processor = annotationIndexProcessor;
+                resultHandler.handleResultFragment(new String[0], processor == null ? new ModelNode() : processor.getStatistics());
+                resultHandler.handleResultComplete();
+                return new BasicOperationResult();
+            }
+        });
 
         deployers.clear();
         for (Phase phase : Phase.values()) {
@@ -123,6 +147,25 @@ class ServerControllerImpl extends BasicModelController implements ServerControl
         return copy;
     }
 
+    /**
+     * Record the time spent executing the boot operations of each subsystem, as reported by the
+     * {@code subsystem-boot-times} attribute.
+     *
+     * @param bootTimes the times, in milliseconds, keyed by subsystem or other boot operation group
+     */
+    void setBootTimes(final ModelNode bootTimes) {
+        this.bootTimes = bootTimes;
+    }
+
+    /**
+     * Set the processor whose statistics are reported by the {@code annotation-index-statistics} attribute.
+     *
+     * @param annotationIndexProcessor the processor
+     */
+    void setAnnotationIndexProcessor(final AnnotationIndexProcessor annotationIndexProcessor) {
+        this.annotationIndexProcessor = annotationIndexProcessor;
+    }
+
     /** {@inheritDoc} */
     @Override
     public ServerEnvironment getServerEnvironment() {
@@ -34,11 +34,14 @@ import java.util.Map;
 import java.util.SortedSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jboss.as.controller.ResultHandler;
-import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.as.controller.persistence.AsyncConfigurationPersister;
 import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.as.server.ServerControllerImpl.RegisteredProcessor;
 import org.jboss.as.server.deployment.Attachments;
@@ -107,6 +110,7 @@ final class ServerControllerService implements Service<ServerController> {
 
     // mutable state
     private ServerController serverController;
+    private ExecutorService indexExecutor;
 
     public ServerControllerService(final Bootstrap.Configuration configuration) {
         this.configuration = configuration;
@@ -139,11 +143,20 @@ final class ServerControllerService implements Service<ServerController> {
         final ServerControllerImpl serverController = new ServerControllerImpl(container, serviceTarget, serverEnvironment, persister, injectedDeploymentRepository.getValue(), executorService);
         serverController.init();
 
+        final int bootThreads = BootOperationExecutor.getBootThreads();
+        final ExecutorService bootExecutor = bootThreads > 1 ? Executors.newFixedThreadPool(bootThreads, threadFactory) : null;
+
         final List<ModelNode> updates;
+        configuration.setExtensionLoadExecutor(bootExecutor);
         try {
             updates = persister.load();
         } catch (Exception e) {
+            if (bootExecutor != null) {
+                bootExecutor.shutdown();
+            }
             throw new StartException(e);
+        } finally {
+            configuration.setExtensionLoadExecutor(null);
         }
 
         log.info("Activating core services");
@@ -179,12 +192,35 @@ final class ServerControllerService implements Service<ServerController> {
         for (ModelNode update : updates) {
             count.incrementAndGet();
             update.get(ROLLBACK_ON_RUNTIME_FAILURE).set(false);
-            serverController.execute(OperationBuilder.Factory.create(update).build(), resultHandler);
         }
+        final BootOperationExecutor bootOperationExecutor = new BootOperationExecutor(serverController, bootExecutor, resultHandler);
+        final long bootStart = System.currentTimeMillis();
+        try {
+            bootOperationExecutor.execute(updates);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StartException("Interrupted executing boot operations", e);
+        } finally {
+            if (bootExecutor != null) {
+                bootExecutor.shutdown();
+            }
+        }
+        final ModelNode bootTimes = bootOperationExecutor.getBootTimes();
+        serverController.setBootTimes(bootTimes);
+        log.infof("Executed %d boot operations in %d ms using %d threads", Integer.valueOf(updates.size()), Long.valueOf(System.currentTimeMillis() - bootStart), Integer.valueOf(bootThreads));
+        log.debugf("Boot operation times (ms): %s", bootTimes);
         if (count.decrementAndGet() == 0) {
             // some action?
         }
 
+        // Threads for indexing resource roots concurrently; they exit when idle.  Created once the boot operations
+        // have succeeded, and only started when a deployment is indexed, so a failed start leaves none behind
+        final int indexThreads = Runtime.getRuntime().availableProcessors();
+        final ThreadPoolExecutor indexExecutor = new ThreadPoolExecutor(indexThreads, indexThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+        indexExecutor.allowCoreThreadTimeOut(true);
+        final AnnotationIndexProcessor annotationIndexProcessor = new AnnotationIndexProcessor(indexExecutor, new File(serverEnvironment.getServerDataDir(), "annotation-index"));
+        serverController.setAnnotationIndexProcessor(annotationIndexProcessor);
+
         final EnumMap<Phase, SortedSet<RegisteredProcessor>> deployers = serverController.finishBoot();
 
         final File[] extDirs = serverEnvironment.getJavaExtDirs();
@@ -212,7 +248,7 @@ final class ServerControllerService implements Service<ServerController> {
         deployers.get(Phase.STRUCTURE).add(new RegisteredProcessor(Phase.STRUCTURE_MANIFEST, new ManifestAttachmentProcessor()));
         deployers.get(Phase.STRUCTURE).add(new RegisteredProcessor(Phase.STRUCTURE_SUB_DEPLOYMENT, new SubDeploymentProcessor()));
         deployers.get(Phase.STRUCTURE).add(new RegisteredProcessor(Phase.STRUCTURE_MODULE_IDENTIFIERS, new ModuleIdentifierProcessor()));
-        deployers.get(Phase.STRUCTURE).add(new RegisteredProcessor(Phase.STRUCTURE_ANNOTATION_INDEX, new AnnotationIndexProcessor()));
+        deployers.get(Phase.STRUCTURE).add(new RegisteredProcessor(Phase.STRUCTURE_ANNOTATION_INDEX, annotationIndexProcessor));
         deployers.get(Phase.PARSE).add(new RegisteredProcessor(Phase.PARSE_STRUCTURE_DESCRIPTOR, new DeploymentStructureDescriptorParser()));
         deployers.get(Phase.PARSE).add(new RegisteredProcessor(Phase.PARSE_COMPOSITE_ANNOTATION_INDEX, new CompositeIndexProcessor()));
         deployers.get(Phase.PARSE).add(new RegisteredProcessor(Phase.PARSE_ADDITIONAL_MODULES, new AdditionalModuleProcessor()));
@@ -225,7 +261,7 @@ final class ServerControllerService implements Service<ServerController> {
         deployers.get(Phase.DEPENDENCIES).add(new RegisteredProcessor(Phase.DEPENDENCIES_CLASS_PATH, new ModuleClassPathProcessor()));
         deployers.get(Phase.DEPENDENCIES).add(new RegisteredProcessor(Phase.DEPENDENCIES_EXTENSION_LIST, new ModuleExtensionListProcessor()));
         deployers.get(Phase.DEPENDENCIES).add(new RegisteredProcessor(Phase.DEPENDENCIES_SUB_DEPLOYMENTS, new SubDeploymentDependencyProcessor()));
-        deployers.get(Phase.CONFIGURE_MODULE).add(new RegisteredProcessor(Phase.CONFIGURE_MODULE_SPEC, new ModuleSpecProcessor()));
+        deployers.get(Phase.CONFIGURE_MODULE).add(new RegisteredProcessor(Phase.CONFIGURE_MODULE_SPEC, new ModuleSpecProcessor(new File(serverEnvironment.getServerDataDir(), "path-index"))));
         deployers.get(Phase.POST_MODULE).add(new RegisteredProcessor(Phase.POST_MODULE_INSTALL_EXTENSION, new ModuleExtensionNameProcessor()));
         deployers.get(Phase.INSTALL).add(new RegisteredProcessor(Phase.INSTALL_REFLECTION_INDEX, new InstallReflectionIndexProcessor()));
         deployers.get(Phase.INSTALL).add(new RegisteredProcessor(Phase.INSTALL_SERVICE_ACTIVATOR, new ServiceActivatorProcessor()));
@@ -245,12 +281,22 @@ final class ServerControllerService implements Service<ServerController> {
         DeployerChainsService.addService(serviceTarget, finalDeployers);
 
         this.serverController = serverController;
+        this.indexExecutor = indexExecutor;
     }
 
     /** {@inheritDoc} */
     @Override
     public synchronized void stop(final StopContext context) {
         serverController = null;
+        if (indexExecutor != null) {
+            indexExecutor.shutdown();
+            indexExecutor = null;
+        }
+        final ExtensibleConfigurationPersister persister = configuration.getConfigurationPersister();
+        if (persister instanceof AsyncConfigurationPersister) {
+            // Don't lose changes still queued for the background writer
+            ((AsyncConfigurationPersister) persister).shutdown();
+        }
     }
 
     /** {@inheritDoc} */
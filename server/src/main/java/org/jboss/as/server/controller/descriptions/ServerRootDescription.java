@@ -20,11 +20,16 @@
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */package org.jboss.as.server.controller.descriptions;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ANNOTATION_INDEX_STATISTICS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILDREN;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.COMPOSITE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONFIG_PENDING_VERSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONFIG_PERSISTED_VERSION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEPLOYMENT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION_CACHE_HITS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION_CACHE_MISSES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HEAD_COMMENT_ALLOWED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INTERFACE;
@@ -45,10 +50,12 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROL
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SCHEMA_LOCATIONS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SOCKET_BINDING_GROUP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STEPS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM_BOOT_TIMES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SYSTEM_PROPERTIES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SYSTEM_PROPERTY;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TAIL_COMMENT_ALLOWED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE_TYPE;
 import static org.jboss.as.server.controller.descriptions.ServerDescriptionConstants.PROFILE_NAME;
 
 import java.util.Locale;
@@ -77,6 +84,10 @@ public class ServerRootDescription {
 
         root.get(ATTRIBUTES, NAMESPACES).set(CommonDescriptions.getNamespacePrefixAttribute(locale));
         root.get(ATTRIBUTES, SCHEMA_LOCATIONS).set(CommonDescriptions.getSchemaLocationAttribute(locale));
+        root.get(ATTRIBUTES, CONFIG_PENDING_VERSION).set(CommonDescriptions.getConfigPendingVersionAttribute(locale));
+        root.get(ATTRIBUTES, CONFIG_PERSISTED_VERSION).set(CommonDescriptions.getConfigPersistedVersionAttribute(locale));
+        root.get(ATTRIBUTES, DESCRIPTION_CACHE_HITS).set(CommonDescriptions.getDescriptionCacheHitsAttribute(locale));
+        root.get(ATTRIBUTES, DESCRIPTION_CACHE_MISSES).set(CommonDescriptions.getDescriptionCacheMissesAttribute(locale));
 
         root.get(ATTRIBUTES, NAME, DESCRIPTION).set(bundle.getString("server.name"));
         root.get(ATTRIBUTES, NAME, TYPE).set(ModelType.STRING);
@@ -98,6 +109,16 @@ public class ServerRootDescription {
 
         root.get(ATTRIBUTES, SYSTEM_PROPERTIES).set(CommonDescriptions.getSystemPropertiesAttribute(locale));
 
+        root.get(ATTRIBUTES, SUBSYSTEM_BOOT_TIMES, DESCRIPTION).set(bundle.getString("server.subsystem-boot-times"));
+        root.get(ATTRIBUTES, SUBSYSTEM_BOOT_TIMES, TYPE).set(ModelType.OBJECT);
+        root.get(ATTRIBUTES, SUBSYSTEM_BOOT_TIMES, VALUE_TYPE).set(ModelType.LONG);
+        root.get(ATTRIBUTES, SUBSYSTEM_BOOT_TIMES, REQUIRED).set(false);
+
+        root.get(ATTRIBUTES, ANNOTATION_INDEX_STATISTICS, DESCRIPTION).set(bundle.getString("server.annotation-index-statistics"));
+        root.get(ATTRIBUTES, ANNOTATION_INDEX_STATISTICS, TYPE).set(ModelType.OBJECT);
+        root.get(ATTRIBUTES, ANNOTATION_INDEX_STATISTICS, VALUE_TYPE).set(ModelType.LONG);
+        root.get(ATTRIBUTES, ANNOTATION_INDEX_STATISTICS, REQUIRED).set(false);
+
         root.get(OPERATIONS);
 
         root.get(CHILDREN, EXTENSION, DESCRIPTION).set(bundle.getString("server.extension"));
@@ -25,12 +25,9 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAM
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RUNTIME_NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.START;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Locale;
 
 import org.jboss.as.controller.BasicOperationResult;
-import org.jboss.as.controller.HashUtil;
 import org.jboss.as.controller.ModelUpdateOperationHandler;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
@@ -86,27 +83,7 @@ public class DeploymentFullReplaceHandler implements ModelUpdateOperationHandler
 
         String name = operation.require(NAME).asString();
         String runtimeName = operation.hasDefined(RUNTIME_NAME) ? operation.get(RUNTIME_NAME).asString() : name;
-        byte[] hash;
-        if (operation.hasDefined(INPUT_STREAM_INDEX) && operation.hasDefined(HASH)) {
-            throw new OperationFailedException(new ModelNode().set("Can't pass in both an input-stream-index and a hash"));
-        } else if (operation.hasDefined(INPUT_STREAM_INDEX)) {
-            InputStream in = getContents(context, operation);
-            try {
-                hash = deploymentRepository.addDeploymentContent(name, runtimeName, in);
-            } catch (IOException e) {
-                throw new OperationFailedException(new ModelNode().set(e.toString()));
-            }
-        } else if (operation.hasDefined(HASH)) {
-
-            hash = operation.get(HASH).asBytes();
-            if (!deploymentRepository.hasDeploymentContent(hash)) {
-                throw new OperationFailedException(new ModelNode().set(String.format(
-                        "No deployment content with hash %s is available in the deployment content repository.",
-                        HashUtil.bytesToHexString(hash))));
-            }
-        } else {
-            throw new OperationFailedException(new ModelNode().set("Neither an attachment or a hash were passed in"));
-        }
+        byte[] hash = DeploymentHandlerUtil.addDeploymentContent(operation, context, deploymentRepository, name, runtimeName);
 
         ModelNode rootModel = context.getSubModel();
         ModelNode deployments = rootModel.get(DEPLOYMENT);
@@ -142,18 +119,4 @@ public class DeploymentFullReplaceHandler implements ModelUpdateOperationHandler
 
         return new BasicOperationResult(compensatingOp);
     }
-
-
-    private InputStream getContents(OperationContext context, ModelNode operation) {
-        int streamIndex = operation.get(INPUT_STREAM_INDEX).asInt();
-        if (streamIndex > context.getInputStreams().size() - 1) {
-            throw new IllegalArgumentException("Invalid " + INPUT_STREAM_INDEX + "=" + streamIndex + ", the maximum index is " + (context.getInputStreams().size() - 1));
-        }
-
-        InputStream in = context.getInputStreams().get(streamIndex);
-        if (in == null) {
-            throw new IllegalStateException("Null stream at index " + streamIndex);
-        }
-        return in;
-    }
 }
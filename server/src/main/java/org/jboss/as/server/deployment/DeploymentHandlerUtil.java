@@ -19,17 +19,23 @@
 package org.jboss.as.server.deployment;
 
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HASH;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INPUT_STREAM_INDEX;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RUNTIME_NAME;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.Set;
 
+import org.jboss.as.controller.HashUtil;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.ResultHandler;
 import org.jboss.as.controller.RuntimeTask;
 import org.jboss.as.controller.RuntimeTaskContext;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.server.deployment.api.DeploymentRepository;
 import org.jboss.as.server.deployment.api.ServerDeploymentRepository;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.AbstractServiceListener;
@@ -51,6 +57,59 @@ public class DeploymentHandlerUtil {
     private DeploymentHandlerUtil() {
     }
 
+    /**
+     * Gets the hash of the content a deployment add or replace operation refers to. Content attached to the
+     * operation is added to the repository first.
+     *
+     * @param operation the operation, passing either an {@code input-stream-index} or a {@code hash}
+     * @param context the context of the operation, holding its input streams
+     * @param deploymentRepository the repository holding the deployment content
+     * @param name the name of the deployment
+     * @param runtimeName the runtime name of the deployment
+     * @return the hash of the content, which is available in the repository
+     * @throws OperationFailedException if the operation passes both an input stream and a hash or neither, if the
+     *         attached content could not be stored, or if there is no content with the passed hash
+     */
+    public static byte[] addDeploymentContent(final ModelNode operation, final OperationContext context, final DeploymentRepository deploymentRepository,
+            final String name, final String runtimeName) throws OperationFailedException {
+        final byte[] hash;
+        if (operation.hasDefined(INPUT_STREAM_INDEX) && operation.hasDefined(HASH)) {
+            throw new OperationFailedException(new ModelNode().set("Can't pass in both an input-stream-index and a hash"));
+        } else if (operation.hasDefined(INPUT_STREAM_INDEX)) {
+            final InputStream in = getContents(context, operation);
+            try {
+                hash = deploymentRepository.addDeploymentContent(name, runtimeName, in);
+            } catch (IOException e) {
+                throw new OperationFailedException(new ModelNode().set(e.toString()));
+            } finally {
+                StreamUtils.safeClose(in);
+            }
+        } else if (operation.hasDefined(HASH)) {
+            hash = operation.get(HASH).asBytes();
+            if (!deploymentRepository.hasDeploymentContent(hash)) {
+                throw new OperationFailedException(new ModelNode().set(String.format(
+                        "No deployment content with hash %s is available in the deployment content repository.",
+                        HashUtil.bytesToHexString(hash))));
+            }
+        } else {
+            throw new OperationFailedException(new ModelNode().set("Neither an attachment nor a hash were passed in"));
+        }
+        return hash;
+    }
+
+    private static InputStream getContents(final OperationContext context, final ModelNode operation) {
+        int streamIndex = operation.get(INPUT_STREAM_INDEX).asInt();
+        if (streamIndex > context.getInputStreams().size() - 1) {
+            throw new IllegalArgumentException("Invalid " + INPUT_STREAM_INDEX + "=" + streamIndex + ", the maximum index is " + (context.getInputStreams().size() - 1));
+        }
+
+        InputStream in = context.getInputStreams().get(streamIndex);
+        if (in == null) {
+            throw new IllegalStateException("Null stream at index " + streamIndex);
+        }
+        return in;
+    }
+
     public static void deploy(final ModelNode deploymentModel, OperationContext context, final ResultHandler resultHandler) throws OperationFailedException {
         if (context.getRuntimeContext() != null) {
             context.getRuntimeContext().setRuntimeTask(new RuntimeTask() {
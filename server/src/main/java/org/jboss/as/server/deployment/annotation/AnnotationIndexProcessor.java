@@ -22,20 +22,34 @@
 
 package org.jboss.as.server.deployment.annotation;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.jboss.as.server.deployment.Attachments;
 import org.jboss.as.server.deployment.DeploymentPhaseContext;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.as.server.deployment.DeploymentUnitProcessor;
 import org.jboss.as.server.deployment.module.ResourceRoot;
+import org.jboss.as.server.deployment.module.ResourceRootCache;
+import org.jboss.dmr.ModelNode;
 import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
 import org.jboss.jandex.Indexer;
+import org.jboss.logging.Logger;
 import org.jboss.vfs.VFSUtils;
 import org.jboss.vfs.VirtualFile;
 import org.jboss.vfs.VirtualFileFilter;
@@ -44,12 +58,60 @@ import org.jboss.vfs.util.SuffixMatchFilter;
 
 /**
  * Deployment unit processor responsible for creating and attaching an annotation index for a resource root
+ * <p>
+ * If an executor is configured, the resource roots of a deployment are indexed concurrently. If a cache directory
+ * is configured, indexes are stored in a {@link ResourceRootCache} and reused when the same content is
+ * deployed again. The number of roots indexed or loaded from the cache, and the time spent doing so, are available
+ * from {@link #getStatistics()}.
+ * </p>
  *
  * @author John E. Bailey
  * @author Stuart Douglas
  */
 public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
 
+    private static final Logger log = Logger.getLogger("org.jboss.as.server.deployment.annotation");
+
+    /** The number of indexes kept in the cache */
+    static final int CACHE_ENTRIES = 500;
+
+    private static final ResourceRootCache.Codec<Index> INDEX_CODEC = new ResourceRootCache.Codec<Index>() {
+        public Index read(final InputStream in) throws IOException {
+            return new IndexReader(in).read();
+        }
+
+        public void write(final Index index, final OutputStream out) throws IOException {
+            new IndexWriter(out).write(index);
+        }
+    };
+
+    private final Executor executor;
+    private final ResourceRootCache<Index> cache;
+
+    private final AtomicLong indexedRoots = new AtomicLong();
+    private final AtomicLong indexTime = new AtomicLong();
+    private final AtomicLong cachedRoots = new AtomicLong();
+    private final AtomicLong cacheLoadTime = new AtomicLong();
+
+    /**
+     * Create a processor which indexes resource roots one at a time on the deployment thread, without caching.
+     */
+    public AnnotationIndexProcessor() {
+        this(null, null);
+    }
+
+    /**
+     * Create a new processor.
+     *
+     * @param executor the executor used to index resource roots concurrently, or {@code null} to index them on the
+     *        deployment thread
+     * @param cacheDir the directory in which to cache indexes, or {@code null} to not cache them
+     */
+    public AnnotationIndexProcessor(final Executor executor, final File cacheDir) {
+        this.executor = executor;
+        this.cache = cacheDir == null ? null : new ResourceRootCache<Index>(cacheDir, ".idx", CACHE_ENTRIES, INDEX_CODEC);
+    }
+
     /**
      * Process this deployment for annotations.  This will use an annotation indexer to create an index of all annotations
      * found in this deployment and attach it to the deployment unit context.
@@ -59,12 +121,15 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
      *
      */
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
+        final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
         final List<ResourceRoot> allResourceRoots = new ArrayList<ResourceRoot>();
         final List<ResourceRoot> resourceRoots = phaseContext.getDeploymentUnit().getAttachment(Attachments.RESOURCE_ROOTS);
         if (resourceRoots != null) {
             allResourceRoots.addAll(resourceRoots);
         }
         allResourceRoots.add(phaseContext.getDeploymentUnit().getAttachment(Attachments.DEPLOYMENT_ROOT));
+        final List<ResourceRoot> indexedRoots = new ArrayList<ResourceRoot>(allResourceRoots.size());
+        final List<FutureTask<Index>> tasks = new ArrayList<FutureTask<Index>>(allResourceRoots.size());
         for (ResourceRoot resourceRoot : allResourceRoots) {
             if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null) {
                 continue;
@@ -82,36 +147,120 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
             } else {
                 indexIgnorePaths = null;
             }
+            indexedRoots.add(resourceRoot);
+            final String key = getCacheKey(deploymentUnit, resourceRoot, indexIgnorePaths);
+            tasks.add(new FutureTask<Index>(new IndexTask(resourceRoot.getRoot(), indexIgnorePaths, key)));
+        }
 
-            final VirtualFile virtualFile = resourceRoot.getRoot();
-            final Indexer indexer = new Indexer();
-            try {
-                final VisitorAttributes visitorAttributes = new VisitorAttributes();
-                visitorAttributes.setLeavesOnly(true);
-                visitorAttributes.setRecurseFilter(new VirtualFileFilter() {
-                    public boolean accepts(VirtualFile file) {
-                        return indexIgnorePaths == null || !indexIgnorePaths.contains(file.getPathNameRelativeTo(virtualFile));
-                    }
-                });
-
-                final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
-                for (VirtualFile classFile : classChildren) {
-                    InputStream inputStream = null;
-                    try {
-                        inputStream = classFile.openStream();
-                        indexer.index(inputStream);
-                    } finally {
-                        VFSUtils.safeClose(inputStream);
-                    }
+        // hand all but the first root to the executor, and index the first one on this thread meanwhile
+        if (executor != null) {
+            for (int i = 1; i < tasks.size(); i++) {
+                try {
+                    executor.execute(tasks.get(i));
+                } catch (RejectedExecutionException e) {
+                    // it will be run on this thread below
                 }
-                final Index index = indexer.complete();
-                resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
-            } catch (Throwable t) {
-                throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", t);
             }
         }
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                final FutureTask<Index> task = tasks.get(i);
+                // no-op if the executor already ran it
+                task.run();
+                indexedRoots.get(i).putAttachment(Attachments.ANNOTATION_INDEX, task.get());
+            }
+        } catch (ExecutionException e) {
+            cancel(tasks);
+            throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", e.getCause());
+        } catch (InterruptedException e) {
+            cancel(tasks);
+            Thread.currentThread().interrupt();
+            throw new DeploymentUnitProcessingException("Interrupted while indexing deployment root for annotations", e);
+        }
     }
 
     public void undeploy(final DeploymentUnit context) {
     }
+
+    /**
+     * Get the number of resource roots indexed and loaded from the cache so far, and the time, in milliseconds,
+     * spent doing so.
+     *
+     * @return the statistics
+     */
+    public ModelNode getStatistics() {
+        final ModelNode statistics = new ModelNode();
+        statistics.get("indexed-roots").set(indexedRoots.get());
+        statistics.get("index-time").set(indexTime.get());
+        statistics.get("cached-roots").set(cachedRoots.get());
+        statistics.get("cache-load-time").set(cacheLoadTime.get());
+        return statistics;
+    }
+
+    /**
+     * Gets the cache key of a resource root, or {@code null} if its index should not be cached.
+     */
+    private String getCacheKey(final DeploymentUnit deploymentUnit, final ResourceRoot resource, final Set<String> indexIgnorePaths) {
+        return cache == null ? null : ResourceRootCache.getKey(deploymentUnit, resource, indexIgnorePaths);
+    }
+
+    private static void cancel(final List<FutureTask<Index>> tasks) {
+        for (FutureTask<Index> task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+    private class IndexTask implements Callable<Index> {
+        private final VirtualFile virtualFile;
+        private final Set<String> indexIgnorePaths;
+        private final String key;
+
+        IndexTask(final VirtualFile virtualFile, final Set<String> indexIgnorePaths, final String key) {
+            this.virtualFile = virtualFile;
+            this.indexIgnorePaths = indexIgnorePaths;
+            this.key = key;
+        }
+
+        public Index call() throws Exception {
+            final long start = System.currentTimeMillis();
+            if (key != null) {
+                final Index index = cache.get(key);
+                if (index != null) {
+                    final long time = System.currentTimeMillis() - start;
+                    cachedRoots.incrementAndGet();
+                    cacheLoadTime.addAndGet(time);
+                    log.debugf("Loaded cached annotation index of %s in %d ms", virtualFile, Long.valueOf(time));
+                    return index;
+                }
+            }
+            final VisitorAttributes visitorAttributes = new VisitorAttributes();
+            visitorAttributes.setLeavesOnly(true);
+            visitorAttributes.setRecurseFilter(new VirtualFileFilter() {
+                public boolean accepts(VirtualFile file) {
+                    return indexIgnorePaths == null || !indexIgnorePaths.contains(file.getPathNameRelativeTo(virtualFile));
+                }
+            });
+
+            final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
+            final Indexer indexer = new Indexer();
+            for (VirtualFile classFile : classChildren) {
+                InputStream inputStream = null;
+                try {
+                    inputStream = classFile.openStream();
+                    indexer.index(inputStream);
+                } finally {
+                    VFSUtils.safeClose(inputStream);
+                }
+            }
+            final Index index = indexer.complete();
+            if (key != null) {
+                cache.put(key, index);
+            }
+            final long time = System.currentTimeMillis() - start;
+            indexedRoots.incrementAndGet();
+            indexTime.addAndGet(time);
+            log.debugf("Indexed annotations of %s (%d classes) in %d ms", virtualFile, Integer.valueOf(classChildren.size()), Long.valueOf(time));
+            return index;
+        }
+    }
 }
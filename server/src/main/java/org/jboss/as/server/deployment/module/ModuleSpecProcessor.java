@@ -22,6 +22,7 @@
 
 package org.jboss.as.server.deployment.module;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -58,6 +59,26 @@ public class ModuleSpecProcessor implements DeploymentUnitProcessor {
 
     private static final AttachmentKey<Boolean> MARKER = AttachmentKey.create(Boolean.class);
 
+    /** The number of resource roots whose paths are kept in the persistent index */
+    static final int PATH_INDEX_ENTRIES = 1000;
+
+    private final ResourceRootCache<List<String>> pathIndex;
+
+    public ModuleSpecProcessor() {
+        this(null);
+    }
+
+    /**
+     * Construct a new instance which keeps the paths of deployment resource roots in a persistent index, so that
+     * later deployments of the same content do not need to walk it.
+     *
+     * @param pathIndexDir the directory holding the index, or {@code null} to always walk the content
+     */
+    public ModuleSpecProcessor(final File pathIndexDir) {
+        pathIndex = pathIndexDir == null ? null : new ResourceRootCache<List<String>>(pathIndexDir, ".index", PATH_INDEX_ENTRIES,
+                VFSResourceLoader.PATH_INDEX_CODEC);
+    }
+
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
         final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
 
@@ -124,7 +145,7 @@ public class ModuleSpecProcessor implements DeploymentUnitProcessor {
         }
 
         for (ResourceRoot resourceRoot : resourceRoots) {
-            addResourceRoot(specBuilder, resourceRoot);
+            addResourceRoot(specBuilder, deploymentUnit, resourceRoot);
         }
         final boolean childFirst;
         if (moduleSpecification.getChildFirst() == null) {
@@ -189,17 +210,24 @@ public class ModuleSpecProcessor implements DeploymentUnitProcessor {
         return ModuleLoadService.install(phaseContext.getServiceTarget(), moduleIdentifier, dependencies);
     }
 
-    private static void addResourceRoot(final ModuleSpec.Builder specBuilder, final ResourceRoot resource)
+    private void addResourceRoot(final ModuleSpec.Builder specBuilder, final DeploymentUnit deploymentUnit, final ResourceRoot resource)
             throws DeploymentUnitProcessingException {
         try {
             specBuilder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(new VFSResourceLoader(resource
-                    .getRootName(), resource.getRoot())));
+                    .getRootName(), resource.getRoot(), pathIndex, getPathIndexKey(deploymentUnit, resource))));
         } catch (IOException e) {
             throw new DeploymentUnitProcessingException("Failed to create VFSResourceLoader for root ["
                     + resource.getRootName() + "]", e);
         }
     }
 
+    /**
+     * Gets the key of a resource root in the path index, or {@code null} if its paths should not be indexed.
+     */
+    private String getPathIndexKey(final DeploymentUnit deploymentUnit, final ResourceRoot resource) {
+        return pathIndex == null ? null : ResourceRootCache.getKey(deploymentUnit, resource, null);
+    }
+
     public void undeploy(DeploymentUnit context) {
         context.removeAttachment(MARKER);
     }
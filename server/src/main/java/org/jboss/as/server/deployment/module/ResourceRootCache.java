@@ -0,0 +1,266 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.module;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.DeploymentUnit;
+import org.jboss.logging.Logger;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+
+/**
+ * An on-disk cache of data derived from deployment resource roots, so that deploying unchanged content again does not
+ * require deriving it again.
+ * <p>
+ * Entries are keyed by the hash of the deployment content in the repository, plus the path of the resource root
+ * within that content and any qualifiers of the data; see {@link #getKey(DeploymentUnit, ResourceRoot, Collection)}.
+ * Repository content never changes under a given hash, so entries never go stale. Each entry is a file in the cache
+ * directory, whose modification time records its last use; the least recently used entries are removed once the
+ * cache holds more than its maximum number of them.
+ * </p>
+ *
+ * @param <T> the type of the cached data
+ */
+public final class ResourceRootCache<T> {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.server.deployment");
+
+    private static final String CHARSET = "UTF-8";
+
+    /**
+     * Reads and writes the entries of a cache.
+     *
+     * @param <T> the type of the cached data
+     */
+    public interface Codec<T> {
+
+        /**
+         * Reads an entry.
+         *
+         * @param in the stream to read, which is buffered
+         * @return the entry
+         * @throws IOException if the entry cannot be read
+         */
+        T read(InputStream in) throws IOException;
+
+        /**
+         * Writes an entry.
+         *
+         * @param value the entry
+         * @param out the stream to write to, which is buffered
+         * @throws IOException if the entry cannot be written
+         */
+        void write(T value, OutputStream out) throws IOException;
+    }
+
+    private final File dir;
+    private final String suffix;
+    private final int maxEntries;
+    private final Codec<T> codec;
+
+    /**
+     * Create a new instance.
+     *
+     * @param dir the directory holding the entries
+     * @param suffix the file name suffix of the entries
+     * @param maxEntries the number of entries beyond which the least recently used ones are removed
+     * @param codec reads and writes the entries
+     */
+    public ResourceRootCache(final File dir, final String suffix, final int maxEntries, final Codec<T> codec) {
+        this.dir = dir;
+        this.suffix = suffix;
+        this.maxEntries = maxEntries;
+        this.codec = codec;
+    }
+
+    /**
+     * Gets the key of a resource root, or {@code null} if data derived from it should not be cached because it does
+     * not come from hashed repository content.
+     *
+     * @param deploymentUnit the deployment unit the root belongs to
+     * @param resource the resource root
+     * @param qualifiers anything other than the content which the cached data depends on, or {@code null} for nothing
+     * @return the key, or {@code null}
+     */
+    public static String getKey(final DeploymentUnit deploymentUnit, final ResourceRoot resource, final Collection<String> qualifiers) {
+        final DeploymentUnit parent = deploymentUnit.getParent();
+        final DeploymentUnit topLevelDeployment = parent == null ? deploymentUnit : parent;
+        final byte[] contentHash = topLevelDeployment.getAttachment(Attachments.DEPLOYMENT_HASH);
+        final ResourceRoot topLevelRoot = topLevelDeployment.getAttachment(Attachments.DEPLOYMENT_ROOT);
+        if (contentHash == null || topLevelRoot == null) {
+            return null;
+        }
+        final VirtualFile root = resource.getRoot();
+        final String rootPath;
+        if (root.equals(topLevelRoot.getRoot())) {
+            rootPath = "";
+        } else {
+            try {
+                rootPath = root.getPathNameRelativeTo(topLevelRoot.getRoot());
+            } catch (IllegalArgumentException e) {
+                // not part of the deployment content
+                return null;
+            }
+        }
+        return key(contentHash, rootPath, qualifiers);
+    }
+
+    /**
+     * Computes the key of a resource root.
+     *
+     * @param contentHash the hash of the deployment content in the repository
+     * @param rootPath the path of the resource root relative to the root of the deployment content
+     * @param qualifiers anything other than the content which the cached data depends on, or {@code null} for nothing
+     * @return the key
+     */
+    static String key(final byte[] contentHash, final String rootPath, final Collection<String> qualifiers) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(contentHash);
+        try {
+            digest.update(rootPath.getBytes(CHARSET));
+            if (qualifiers != null) {
+                final List<String> sorted = new ArrayList<String>(qualifiers);
+                Collections.sort(sorted);
+                for (String qualifier : sorted) {
+                    digest.update((byte) 0);
+                    digest.update(qualifier.getBytes(CHARSET));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return HashUtil.bytesToHexString(digest.digest());
+    }
+
+    /**
+     * Gets an entry.
+     *
+     * @param key the key
+     * @return the entry, or {@code null} if there is none
+     */
+    public T get(final String key) {
+        final File file = new File(dir, key + suffix);
+        if (!file.exists()) {
+            return null;
+        }
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(file));
+            final T value = codec.read(in);
+            // record the use, for eviction
+            file.setLastModified(System.currentTimeMillis());
+            return value;
+        } catch (Exception e) {
+            log.debugf(e, "Discarding unreadable cache entry %s", file);
+            VFSUtils.safeClose(in);
+            in = null;
+            file.delete();
+            return null;
+        } finally {
+            VFSUtils.safeClose(in);
+        }
+    }
+
+    /**
+     * Stores an entry. Failures are logged and otherwise ignored, as they only cost deriving the data again.
+     *
+     * @param key the key
+     * @param value the entry
+     */
+    public void put(final String key, final T value) {
+        if (!dir.exists() && !dir.mkdirs() && !dir.isDirectory()) {
+            log.warnf("Cannot create cache directory %s", dir.getAbsolutePath());
+            return;
+        }
+        final File file = new File(dir, key + suffix);
+        File tmp = null;
+        OutputStream out = null;
+        try {
+            tmp = File.createTempFile(key, ".tmp", dir);
+            out = new BufferedOutputStream(new FileOutputStream(tmp));
+            codec.write(value, out);
+            out.close();
+            out = null;
+            if (!tmp.renameTo(file) && !file.exists()) {
+                throw new IOException("Cannot rename " + tmp + " to " + file);
+            }
+        } catch (IOException e) {
+            log.warnf("Cannot store cache entry %s: %s", file, e);
+        } finally {
+            VFSUtils.safeClose(out);
+            if (tmp != null && tmp.exists()) {
+                tmp.delete();
+            }
+        }
+        evict();
+    }
+
+    private synchronized void evict() {
+        final File[] files = dir.listFiles();
+        if (files == null || files.length <= maxEntries) {
+            return;
+        }
+        final long[] lastModified = new long[files.length];
+        final Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+            order[i] = Integer.valueOf(i);
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(final Integer o1, final Integer o2) {
+                final long l1 = lastModified[o1.intValue()];
+                final long l2 = lastModified[o2.intValue()];
+                return l1 < l2 ? -1 : (l1 == l2 ? 0 : 1);
+            }
+        });
+        for (int i = 0; i < files.length - maxEntries; i++) {
+            final File file = files[order[i].intValue()];
+            if (file.getName().endsWith(suffix)) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -38,9 +38,13 @@ import org.jboss.vfs.VisitorAttributes;
 import org.jboss.vfs.util.FilterVirtualFileVisitor;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -56,10 +60,37 @@ import java.util.jar.Manifest;
  */
 public class VFSResourceLoader implements ResourceLoader {
 
+    /**
+     * Reads and writes the entries of a {@link ResourceRootCache} of the paths of resource roots, in the format of
+     * {@code .index} files: one path per line.
+     */
+    static final ResourceRootCache.Codec<List<String>> PATH_INDEX_CODEC = new ResourceRootCache.Codec<List<String>>() {
+        public List<String> read(final InputStream in) throws IOException {
+            final BufferedReader r = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+            final List<String> paths = new ArrayList<String>();
+            String s;
+            while ((s = r.readLine()) != null) {
+                paths.add(s);
+            }
+            return paths;
+        }
+
+        public void write(final List<String> paths, final OutputStream out) throws IOException {
+            final Writer w = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+            for (String path : paths) {
+                w.write(path);
+                w.write('\n');
+            }
+            w.flush();
+        }
+    };
+
     private final VirtualFile root;
     private final String rootName;
     private final Manifest manifest;
     private final URL rootUrl;
+    private final ResourceRootCache<List<String>> pathIndex;
+    private final String pathIndexKey;
 
     /**
      * Construct new instance.
@@ -69,8 +100,23 @@ public class VFSResourceLoader implements ResourceLoader {
      * @throws IOException if the manifest could not be read or the root URL is invalid
      */
     public VFSResourceLoader(final String rootName, final VirtualFile root) throws IOException {
+        this(rootName, root, null, null);
+    }
+
+    /**
+     * Construct new instance which keeps the paths of the root in a persistent index.
+     *
+     * @param rootName The module root name
+     * @param root The root virtual file
+     * @param pathIndex The persistent path index, using {@link #PATH_INDEX_CODEC}, or {@code null} for none
+     * @param pathIndexKey The key of the root in {@code pathIndex}
+     * @throws IOException if the manifest could not be read or the root URL is invalid
+     */
+    VFSResourceLoader(final String rootName, final VirtualFile root, final ResourceRootCache<List<String>> pathIndex, final String pathIndexKey) throws IOException {
         this.root = root;
         this.rootName = rootName;
+        this.pathIndex = pathIndex;
+        this.pathIndexKey = pathIndexKey;
         manifest = VFSUtils.getManifest(root);
         rootUrl = root.asFileURL();
     }
@@ -184,16 +230,26 @@ public class VFSResourceLoader implements ResourceLoader {
             }
         }
 
+        // Then check the persistent index, which is filled in the first time the content is loaded
+        if (pathIndex != null && pathIndexKey != null) {
+            final List<String> paths = pathIndex.get(pathIndexKey);
+            if (paths != null) {
+                return paths;
+            }
+        }
+
         FilterVirtualFileVisitor visitor = new FilterVirtualFileVisitor(new VirtualFileFilter() {
             @Override
             public boolean accepts(VirtualFile file) {
                 return file.isDirectory();
             }
         }, VisitorAttributes.RECURSE);
+        boolean complete = true;
         try {
             root.visit(visitor);
         } catch (IOException e) {
             index.clear();
+            complete = false;
         }
 
         index.add("");
@@ -201,6 +257,9 @@ public class VFSResourceLoader implements ResourceLoader {
             index.add(dir.getPathNameRelativeTo(root));
         }
 
+        if (pathIndex != null && pathIndexKey != null && complete) {
+            pathIndex.put(pathIndexKey, index);
+        }
         return index;
     }
 
@@ -22,17 +22,32 @@
 
 package org.jboss.as.server.deployment.reflect;
 
+import java.security.AccessController;
 import java.security.Permission;
-import java.util.HashMap;
-import java.util.Map;
+import java.security.PrivilegedAction;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * A reflection index for a deployment.  Not safe for multi-threaded access.
+ * A reflection index for a deployment.  Safe for multi-threaded access.
+ * <p>
+ * Indexes of classes loaded by the bootstrap or system class loader or one of its parents, chiefly the classes of
+ * the JDK, are shared by all deployment indexes, so common superclasses such as {@code java.lang.Object} are only
+ * indexed once per server rather than once per deployment.  Those class loaders live as long as the server, so the
+ * shared indexes never keep a class loader from being collected; classes of modules, which may be unloaded, are
+ * indexed per deployment.
+ * </p>
  *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public final class DeploymentReflectionIndex {
-    private final Map<Class<?>, ClassReflectionIndex<?>> classes = new HashMap<Class<?>, ClassReflectionIndex<?>>();
+    private static final ConcurrentMap<Class<?>, ClassReflectionIndex<?>> sharedClasses = new ConcurrentHashMap<Class<?>, ClassReflectionIndex<?>>();
+    private static final Set<ClassLoader> permanentClassLoaders = getPermanentClassLoaders();
+
+    private final ConcurrentMap<Class<?>, ClassReflectionIndex<?>> classes = new ConcurrentHashMap<Class<?>, ClassReflectionIndex<?>>();
 
     DeploymentReflectionIndex() {
     }
@@ -59,11 +74,55 @@ public final class DeploymentReflectionIndex {
      * @return the index
      */
     @SuppressWarnings( { "unchecked" })
-    public synchronized <T> ClassReflectionIndex<T> getClassIndex(Class<T> clazz) {
+    public <T> ClassReflectionIndex<T> getClassIndex(Class<T> clazz) {
         ClassReflectionIndex<T> index = (ClassReflectionIndex<T>) classes.get(clazz);
         if (index == null) {
-            classes.put(clazz, index = new ClassReflectionIndex<T>(clazz));
+            final ConcurrentMap<Class<?>, ClassReflectionIndex<?>> map = isShareable(clazz) ? sharedClasses : classes;
+            index = (ClassReflectionIndex<T>) map.get(clazz);
+            if (index == null) {
+                final ClassReflectionIndex<T> newIndex = new ClassReflectionIndex<T>(clazz);
+                index = (ClassReflectionIndex<T>) map.putIfAbsent(clazz, newIndex);
+                if (index == null) {
+                    index = newIndex;
+                }
+            }
+            if (map != classes) {
+                // remember it locally, so the class loader is only examined once per deployment
+                classes.putIfAbsent(clazz, index);
+            }
         }
         return index;
     }
+
+    /**
+     * Determine whether the index of a class may be shared by all deployments, which is the case if its class loader
+     * is never unloaded.
+     */
+    private static boolean isShareable(final Class<?> clazz) {
+        final ClassLoader classLoader = getClassLoader(clazz);
+        return classLoader == null || permanentClassLoaders.contains(classLoader);
+    }
+
+    private static Set<ClassLoader> getPermanentClassLoaders() {
+        return AccessController.doPrivileged(new PrivilegedAction<Set<ClassLoader>>() {
+            public Set<ClassLoader> run() {
+                final Set<ClassLoader> classLoaders = Collections.newSetFromMap(new IdentityHashMap<ClassLoader, Boolean>());
+                for (ClassLoader classLoader = ClassLoader.getSystemClassLoader(); classLoader != null; classLoader = classLoader.getParent()) {
+                    classLoaders.add(classLoader);
+                }
+                return classLoaders;
+            }
+        });
+    }
+
+    private static ClassLoader getClassLoader(final Class<?> clazz) {
+        if (System.getSecurityManager() == null) {
+            return clazz.getClassLoader();
+        }
+        return AccessController.doPrivileged(new PrivilegedAction<ClassLoader>() {
+            public ClassLoader run() {
+                return clazz.getClassLoader();
+            }
+        });
+    }
 }
@@ -24,6 +24,9 @@ package org.jboss.as.server.mgmt;
 
 import java.net.InetSocketAddress;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jboss.as.controller.ModelController;
 import org.jboss.as.domain.http.server.DomainHttpServer;
@@ -44,11 +47,25 @@ import org.jboss.msc.value.InjectedValue;
 public class HttpManagementService implements Service<HttpManagementService>  {
     public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("server", "controller", "management", "http");
 
+    /**
+     * System property setting the maximum number of pending connections of the HTTP management interface.
+     */
+    public static final String BACKLOG_PROPERTY = "jboss.as.management.http.backlog";
+
+    /**
+     * System property setting the number of threads handling HTTP management requests. If not set, requests
+     * are handled by the injected executor.
+     */
+    public static final String WORKER_THREADS_PROPERTY = "jboss.as.management.http.worker-threads";
+
+    private static final int DEFAULT_BACKLOG = 50;
+
     private final InjectedValue<ModelController> modelControllerValue = new InjectedValue<ModelController>();
     private final InjectedValue<NetworkInterfaceBinding> interfaceBindingValue = new InjectedValue<NetworkInterfaceBinding>();
     private final InjectedValue<Integer> portValue = new InjectedValue<Integer>();
     private final InjectedValue<ExecutorService> executorServiceValue = new InjectedValue<ExecutorService>();
     private DomainHttpServer server;
+    private ExecutorService workers;
 
     /**
      * Starts the service.
@@ -58,14 +75,28 @@ public class HttpManagementService implements Service<HttpManagementService>  {
      */
     public synchronized void start(StartContext context) throws StartException {
         final ModelController modelController = modelControllerValue.getValue();
-        final ExecutorService executorService = executorServiceValue.getValue();
+        ExecutorService executorService = executorServiceValue.getValue();
         final NetworkInterfaceBinding interfaceBinding = interfaceBindingValue.getValue();
         final Integer port = portValue.getValue();
         final InetSocketAddress bindAddress = new InetSocketAddress(interfaceBinding.getAddress(), port);
+        final int backlog = Integer.getInteger(BACKLOG_PROPERTY, DEFAULT_BACKLOG).intValue();
+        final int workerThreads = Integer.getInteger(WORKER_THREADS_PROPERTY, 0).intValue();
+        if (workerThreads > 0) {
+            executorService = workers = Executors.newFixedThreadPool(workerThreads, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "HTTP Management Worker " + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
         try {
-            server = DomainHttpServer.create(bindAddress, 50, modelController, executorService);
+            server = DomainHttpServer.create(bindAddress, backlog, modelController, executorService);
             server.start();
         } catch (Exception e) {
+            shutdownWorkers();
             throw new StartException("Failed to start server socket", e);
         }
     }
@@ -79,6 +110,14 @@ public class HttpManagementService implements Service<HttpManagementService>  {
         if (server != null) {
             server.stop();
         }
+        shutdownWorkers();
+    }
+
+    private void shutdownWorkers() {
+        if (workers != null) {
+            workers.shutdown();
+            workers = null;
+        }
     }
 
     /** {@inheritDoc} */
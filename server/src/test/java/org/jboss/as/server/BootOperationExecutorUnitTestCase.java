@@ -0,0 +1,190 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.dmr.ModelNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link BootOperationExecutor}.
+ */
+public class BootOperationExecutorUnitTestCase {
+
+    private ExecutorService executor;
+
+    @Before
+    public void createExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void shutdownExecutor() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testOrderIsKeptWithinSubsystemsAndAcrossBarriers() throws Exception {
+        final RecordingController controller = new RecordingController();
+        final List<ModelNode> updates = new ArrayList<ModelNode>();
+        updates.add(operation("extension", "a", ADD));
+        updates.add(operation("extension", "b", ADD));
+        updates.add(operation("path", "p", ADD));
+        updates.add(operation("subsystem", "a", ADD));
+        updates.add(operation("subsystem", "b", ADD));
+        updates.add(operation("subsystem", "a", "second"));
+        updates.add(operation("subsystem", "b", "second"));
+        updates.add(operation("deployment", "d", ADD));
+
+        new BootOperationExecutor(controller, executor, new NullResultHandler()).execute(updates);
+
+        final List<String> executed = controller.executed;
+        assertEquals(8, executed.size());
+        // extensions run before the path, which runs before any subsystem
+        assertEquals("path=p:add", executed.get(2));
+        assertTrue(executed.subList(0, 2).containsAll(list("extension=a:add", "extension=b:add")));
+        // each subsystem keeps its own order
+        assertTrue(executed.indexOf("subsystem=a:add") < executed.indexOf("subsystem=a:second"));
+        assertTrue(executed.indexOf("subsystem=b:add") < executed.indexOf("subsystem=b:second"));
+        // the deployment waits for all subsystems
+        assertEquals("deployment=d:add", executed.get(7));
+    }
+
+    @Test
+    public void testSubsystemsRunConcurrently() throws Exception {
+        // each subsystem waits for the other one; this only completes if they run at the same time
+        final CountDownLatch latch = new CountDownLatch(2);
+        final RecordingController controller = new RecordingController() {
+            @Override
+            void executed(final String operation) {
+                latch.countDown();
+                try {
+                    assertTrue(latch.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.executed(operation);
+            }
+        };
+        final List<ModelNode> updates = new ArrayList<ModelNode>();
+        updates.add(operation("subsystem", "a", ADD));
+        updates.add(operation("subsystem", "b", ADD));
+
+        new BootOperationExecutor(controller, executor, new NullResultHandler()).execute(updates);
+
+        assertEquals(2, controller.executed.size());
+    }
+
+    @Test
+    public void testBootTimes() throws Exception {
+        final List<ModelNode> updates = new ArrayList<ModelNode>();
+        updates.add(operation("extension", "a", ADD));
+        updates.add(operation("subsystem", "a", ADD));
+        updates.add(operation("path", "p", ADD));
+        updates.add(operation("path", "q", ADD));
+
+        final BootOperationExecutor bootExecutor = new BootOperationExecutor(new RecordingController(), null, new NullResultHandler());
+        bootExecutor.execute(updates);
+
+        final ModelNode times = bootExecutor.getBootTimes();
+        assertEquals(3, times.keys().size());
+        assertTrue(times.hasDefined("extension=a"));
+        assertTrue(times.hasDefined("subsystem=a"));
+        assertTrue(times.hasDefined("path"));
+    }
+
+    private static ModelNode operation(final String type, final String name, final String operationName) {
+        final ModelNode operation = new ModelNode();
+        operation.get(OP).set(operationName);
+        operation.get(OP_ADDR).add(type, name);
+        return operation;
+    }
+
+    private static List<String> list(final String... values) {
+        final List<String> list = new ArrayList<String>();
+        Collections.addAll(list, values);
+        return list;
+    }
+
+    private static class RecordingController implements ModelController {
+        final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public OperationResult execute(final Operation operation, final ResultHandler handler) {
+            final ModelNode op = operation.getOperation();
+            final ModelNode address = op.get(OP_ADDR).get(0);
+            executed(address.asProperty().getName() + "=" + address.asProperty().getValue().asString() + ":" + op.get(OP).asString());
+            handler.handleResultComplete();
+            return new BasicOperationResult();
+        }
+
+        @Override
+        public ModelNode execute(final Operation operation) throws CancellationException {
+            throw new UnsupportedOperationException();
+        }
+
+        void executed(final String operation) {
+            executed.add(operation);
+        }
+    }
+
+    private static class NullResultHandler implements ResultHandler {
+        @Override
+        public void handleResultFragment(final String[] location, final ModelNode result) {
+        }
+
+        @Override
+        public void handleResultComplete() {
+        }
+
+        @Override
+        public void handleFailed(final ModelNode failureDescription) {
+        }
+
+        @Override
+        public void handleCancellation() {
+        }
+    }
+}
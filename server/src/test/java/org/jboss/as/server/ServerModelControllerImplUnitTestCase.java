@@ -29,6 +29,7 @@ import org.jboss.as.controller.RuntimeTaskContext;
 import org.jboss.as.controller.client.Operation;
 import org.jboss.as.controller.client.OperationBuilder;
 import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.as.controller.persistence.SubsystemMarshallingContext;
@@ -441,6 +442,10 @@ public class ServerModelControllerImplUnitTestCase {
         public void store(ModelNode model) throws ConfigurationPersistenceException {
         }
 
+        @Override
+        public void store(ModelNode model, PathAddress changedAddress) throws ConfigurationPersistenceException {
+        }
+
         @Override
         public void marshallAsXml(ModelNode model, OutputStream output) throws ConfigurationPersistenceException {
         }
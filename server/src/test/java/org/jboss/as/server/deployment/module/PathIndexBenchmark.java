@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.as.server.deployment.module;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.logging.Logger;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+
+/**
+ * Compares the time taken to compute the paths of the module roots of a large EAR by walking the mounted archives
+ * with the time taken to load them from a {@link ResourceRootCache}, as happens when the same content is deployed
+ * again or the server restarts.
+ * <p>
+ * This is not a unit test; run it manually with the test classpath:
+ * {@code java org.jboss.as.server.deployment.module.PathIndexBenchmark [jars] [packages-per-jar] [rounds]}
+ * </p>
+ */
+public class PathIndexBenchmark {
+
+    private static final Logger log = Logger.getLogger(PathIndexBenchmark.class);
+
+    private static final byte[] CONTENT_HASH = new byte[20];
+
+    public static void main(final String[] args) throws Exception {
+        final int jars = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        final int packages = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        final int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        final File dir = createTempDir();
+        final List<Closeable> mounts = new ArrayList<Closeable>();
+        try {
+            final List<VirtualFile> roots = new ArrayList<VirtualFile>();
+            for (int i = 0; i < jars; i++) {
+                final File jar = createJar(dir, "lib" + i + ".jar", packages);
+                final VirtualFile root = VFS.getChild(jar.getAbsolutePath());
+                mounts.add(VFS.mountZip(jar, root, TempFileProviderService.provider()));
+                roots.add(root);
+            }
+            final ResourceRootCache<List<String>> index = new ResourceRootCache<List<String>>(new File(dir, "path-index"), ".index",
+                    ModuleSpecProcessor.PATH_INDEX_ENTRIES, VFSResourceLoader.PATH_INDEX_CODEC);
+
+            // warm up both paths once, which also fills the index
+            walk(roots, null);
+            walk(roots, index);
+
+            long walking = 0;
+            long indexed = 0;
+            for (int i = 0; i < rounds; i++) {
+                walking += walk(roots, null);
+                indexed += walk(roots, index);
+            }
+            log.infof("jars=%d packages=%d walk=%d ms index=%d ms per deployment", jars, packages,
+                    walking / rounds / 1000000L, indexed / rounds / 1000000L);
+        } finally {
+            for (Closeable mount : mounts) {
+                VFSUtils.safeClose(mount);
+            }
+            delete(dir);
+        }
+    }
+
+    private static long walk(final List<VirtualFile> roots, final ResourceRootCache<List<String>> index) throws IOException {
+        final long start = System.nanoTime();
+        for (VirtualFile root : roots) {
+            final String key = index == null ? null : ResourceRootCache.key(CONTENT_HASH, root.getName(), null);
+            new VFSResourceLoader(root.getName(), root, index, key).getPaths();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static File createJar(final File dir, final String name, final int packages) throws IOException {
+        final File jar = new File(dir, name);
+        final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+        try {
+            for (int i = 0; i < packages; i++) {
+                final String pkg = "org/example/" + name.replace('.', '_') + "/p" + (i / 10) + "/q" + i + "/";
+                for (int j = 0; j < 5; j++) {
+                    out.putNextEntry(new ZipEntry(pkg + "Class" + j + ".class"));
+                    out.write(new byte[64]);
+                    out.closeEntry();
+                }
+            }
+        } finally {
+            out.close();
+        }
+        return jar;
+    }
+
+    private static File createTempDir() throws IOException {
+        final File dir = File.createTempFile("path-index-benchmark", "");
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        return dir;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
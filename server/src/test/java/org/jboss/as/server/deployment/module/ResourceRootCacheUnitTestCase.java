@@ -0,0 +1,179 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.jboss.vfs.VFSUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link ResourceRootCache}.
+ */
+public class ResourceRootCacheUnitTestCase {
+
+    private static final byte[] HASH = new byte[] {1, 2, 3, 4};
+    private static final byte[] OTHER_HASH = new byte[] {1, 2, 3, 5};
+
+    private static final ResourceRootCache.Codec<String> STRING_CODEC = new ResourceRootCache.Codec<String>() {
+        public String read(final InputStream in) throws IOException {
+            final int length = in.read();
+            if (length < 0) {
+                throw new IOException("Empty entry");
+            }
+            final byte[] bytes = new byte[length];
+            if (in.read(bytes) != length) {
+                throw new IOException("Truncated entry");
+            }
+            return new String(bytes, "UTF-8");
+        }
+
+        public void write(final String value, final OutputStream out) throws IOException {
+            final byte[] bytes = value.getBytes("UTF-8");
+            out.write(bytes.length);
+            out.write(bytes);
+        }
+    };
+
+    private File dir;
+
+    @Before
+    public void createDir() throws IOException {
+        dir = File.createTempFile("resource-root-cache", "");
+        assertTrue(dir.delete());
+    }
+
+    @After
+    public void deleteDir() {
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testKey() {
+        final String key = ResourceRootCache.key(HASH, "lib/a.jar", null);
+        assertEquals(key, ResourceRootCache.key(HASH, "lib/a.jar", null));
+        assertEquals(40, key.length());
+        assertFalse(key.equals(ResourceRootCache.key(OTHER_HASH, "lib/a.jar", null)));
+        assertFalse(key.equals(ResourceRootCache.key(HASH, "lib/b.jar", null)));
+        assertFalse(key.equals(ResourceRootCache.key(HASH, "", null)));
+        // no qualifiers is the same as none given
+        assertEquals(key, ResourceRootCache.key(HASH, "lib/a.jar", Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void testKeyQualifiers() {
+        final String key = ResourceRootCache.key(HASH, "", Arrays.asList("META-INF", "WEB-INF/lib"));
+        assertEquals(key, ResourceRootCache.key(HASH, "", Arrays.asList("WEB-INF/lib", "META-INF")));
+        assertFalse(key.equals(ResourceRootCache.key(HASH, "", null)));
+        assertFalse(key.equals(ResourceRootCache.key(HASH, "", Arrays.asList("META-INF"))));
+        // qualifiers are separated, so they cannot run into each other or into the root path
+        assertFalse(ResourceRootCache.key(HASH, "", Arrays.asList("ab")).equals(ResourceRootCache.key(HASH, "", Arrays.asList("a", "b"))));
+        assertFalse(ResourceRootCache.key(HASH, "a", Arrays.asList("b")).equals(ResourceRootCache.key(HASH, "ab", null)));
+    }
+
+    @Test
+    public void testGetAndPut() {
+        final ResourceRootCache<String> cache = createCache(10);
+        final String key = ResourceRootCache.key(HASH, "", null);
+        assertNull(cache.get(key));
+
+        cache.put(key, "value");
+        assertTrue(new File(dir, key + ".test").exists());
+        assertEquals("value", cache.get(key));
+        assertEquals("value", createCache(10).get(key));
+
+        cache.put(key, "replaced");
+        assertEquals("replaced", cache.get(key));
+        assertEquals(1, dir.listFiles().length);
+    }
+
+    @Test
+    public void testUnreadableEntryIsDiscarded() throws IOException {
+        final ResourceRootCache<String> cache = createCache(10);
+        final String key = ResourceRootCache.key(HASH, "", null);
+        cache.put(key, "value");
+        final File file = new File(dir, key + ".test");
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(100);
+        } finally {
+            VFSUtils.safeClose(out);
+        }
+
+        assertNull(cache.get(key));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() {
+        final ResourceRootCache<String> cache = createCache(2);
+        final long now = System.currentTimeMillis();
+        cache.put("a", "a");
+        cache.put("b", "b");
+        assertTrue(new File(dir, "a.test").setLastModified(now - 20000));
+        assertTrue(new File(dir, "b.test").setLastModified(now - 10000));
+
+        cache.put("c", "c");
+        assertNull(cache.get("a"));
+        assertEquals("b", cache.get("b"));
+        assertEquals("c", cache.get("c"));
+    }
+
+    @Test
+    public void testGetRecordsUse() {
+        final ResourceRootCache<String> cache = createCache(2);
+        final long now = System.currentTimeMillis();
+        cache.put("a", "a");
+        cache.put("b", "b");
+        assertTrue(new File(dir, "a.test").setLastModified(now - 20000));
+        assertTrue(new File(dir, "b.test").setLastModified(now - 10000));
+
+        assertEquals("a", cache.get("a"));
+        cache.put("c", "c");
+        assertEquals("a", cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    private ResourceRootCache<String> createCache(final int maxEntries) {
+        return new ResourceRootCache<String>(dir, ".test", maxEntries, STRING_CODEC);
+    }
+}
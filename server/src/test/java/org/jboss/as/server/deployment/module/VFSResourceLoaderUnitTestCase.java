@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of the persistent path index used by {@link VFSResourceLoader#getPaths()}.
+ */
+public class VFSResourceLoaderUnitTestCase {
+
+    private static final String KEY = ResourceRootCache.key(new byte[] {1, 2, 3, 4}, "", null);
+
+    private File dir;
+    private File content;
+    private ResourceRootCache<List<String>> pathIndex;
+
+    @Before
+    public void createContent() throws IOException {
+        dir = File.createTempFile("vfs-resource-loader", "");
+        assertTrue(dir.delete());
+        content = new File(dir, "content");
+        assertTrue(new File(content, "org/example").mkdirs());
+        assertTrue(new File(content, "META-INF").mkdirs());
+        pathIndex = new ResourceRootCache<List<String>>(new File(dir, "path-index"), ".index", 10, VFSResourceLoader.PATH_INDEX_CODEC);
+    }
+
+    @After
+    public void deleteContent() {
+        delete(dir);
+    }
+
+    @Test
+    public void testWalkFillsIndex() throws IOException {
+        final Collection<String> paths = getPaths(pathIndex, KEY);
+        assertEquals(set("", "org", "org/example", "META-INF"), new HashSet<String>(paths));
+        assertEquals(new ArrayList<String>(paths), pathIndex.get(KEY));
+    }
+
+    @Test
+    public void testIndexIsUsedOnceFilled() throws IOException {
+        final Collection<String> walked = getPaths(pathIndex, KEY);
+        // Content under a key never changes, so a directory added behind the index's back must not be seen
+        assertTrue(new File(content, "org/other").mkdirs());
+
+        assertEquals(new ArrayList<String>(walked), new ArrayList<String>(getPaths(pathIndex, KEY)));
+        assertTrue(getPaths(null, null).contains("org/other"));
+        assertTrue(getPaths(pathIndex, ResourceRootCache.key(new byte[] {5}, "", null)).contains("org/other"));
+    }
+
+    @Test
+    public void testStoredPathsAreReturned() throws IOException {
+        final List<String> stored = Arrays.asList("", "a", "a/b", "with space");
+        pathIndex.put(KEY, stored);
+        assertEquals(stored, new ArrayList<String>(getPaths(pathIndex, KEY)));
+    }
+
+    @Test
+    public void testNoKeyIsNotIndexed() throws IOException {
+        getPaths(pathIndex, null);
+        assertFalse(new File(dir, "path-index").exists());
+    }
+
+    private Collection<String> getPaths(final ResourceRootCache<List<String>> index, final String key) throws IOException {
+        final VirtualFile root = VFS.getChild(content.getAbsolutePath());
+        return new VFSResourceLoader("content", root, index, key).getPaths();
+    }
+
+    private static Set<String> set(final String... values) {
+        return new HashSet<String>(Arrays.asList(values));
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the lookups of {@link ClassReflectionIndex}.
+ */
+public class ClassReflectionIndexUnitTestCase {
+
+    @Test
+    public void testDeclaredMethods() throws Exception {
+        final ClassReflectionIndex<Sub> index = new ClassReflectionIndex<Sub>(Sub.class);
+
+        final Method secret = index.getMethod(String.class, "secret", int.class);
+        assertEquals(Sub.class.getDeclaredMethod("secret", int.class), secret);
+        assertTrue(secret.isAccessible());
+        // the return type is part of the description
+        assertNull(index.getMethod(Object.class, "secret", int.class));
+        assertNull(index.getMethod(String.class, "secret", long.class));
+        // private methods of superclasses are not indexed
+        assertTrue(index.getAllMethods("hidden").isEmpty());
+    }
+
+    @Test
+    public void testPublicMethodsTakePrecedence() throws Exception {
+        final ClassReflectionIndex<Sub> index = new ClassReflectionIndex<Sub>(Sub.class);
+
+        // run is both declared and public, and is indexed once, as the public method
+        final Collection<Method> run = index.getAllMethods("run");
+        assertEquals(1, run.size());
+        final Method method = run.iterator().next();
+        assertEquals(Sub.class.getMethod("run"), method);
+        assertFalse(method.isAccessible());
+        assertEquals(method, index.getMethod(void.class, "run"));
+
+        // inherited public methods are indexed as well
+        assertEquals(Base.class.getMethod("describe"), index.getMethod(String.class, "describe"));
+        // the public methods and the two declared private ones
+        assertEquals(Sub.class.getMethods().length + 2, index.getMethods().size());
+    }
+
+    @Test
+    public void testMethodsByName() throws Exception {
+        final ClassReflectionIndex<Sub> index = new ClassReflectionIndex<Sub>(Sub.class);
+
+        assertEquals(2, index.getAllMethods("secret").size());
+        assertEquals(1, index.getMethods("secret", int.class).size());
+        assertEquals(Sub.class.getDeclaredMethod("secret"), index.getMethods("secret").iterator().next());
+        assertTrue(index.getMethods("secret", long.class).isEmpty());
+        assertTrue(index.getAllMethods("missing").isEmpty());
+    }
+
+    @Test
+    public void testFields() throws Exception {
+        final ClassReflectionIndex<Sub> index = new ClassReflectionIndex<Sub>(Sub.class);
+
+        final Field field = index.getField("count");
+        assertEquals(Sub.class.getDeclaredField("count"), field);
+        assertTrue(field.isAccessible());
+        // only declared fields are indexed
+        assertNull(index.getField("name"));
+        assertEquals(1, index.getFields().size());
+    }
+
+    @Test
+    public void testConstructors() throws Exception {
+        final ClassReflectionIndex<Target> index = new ClassReflectionIndex<Target>(Target.class);
+
+        assertEquals(3, index.getConstructors().size());
+        assertEquals(Target.class.getConstructor(), index.getConstructor());
+        assertEquals(Target.class.getConstructor(), index.getConstructor((Class<?>[]) null));
+        final Constructor<Target> constructor = index.getConstructor(String.class);
+        assertEquals(Target.class.getDeclaredConstructor(String.class), constructor);
+        assertTrue(constructor.isAccessible());
+        assertEquals("value", constructor.newInstance("value").value);
+        assertNotNull(index.getConstructor(int.class, String.class));
+        assertNull(index.getConstructor(String.class, int.class));
+        assertNull(index.getConstructor(Object.class));
+    }
+
+    public static class Base {
+        private String name;
+
+        public String describe() {
+            return name;
+        }
+
+        public void run() {
+        }
+
+        private void hidden() {
+        }
+    }
+
+    public static class Sub extends Base {
+        private int count;
+
+        public void run() {
+        }
+
+        private String secret() {
+            return null;
+        }
+
+        private String secret(int value) {
+            return null;
+        }
+    }
+
+    public static class Target {
+        final String value;
+
+        public Target() {
+            this(null);
+        }
+
+        private Target(final String value) {
+            this.value = value;
+        }
+
+        Target(final int ignored, final String value) {
+            this(value);
+        }
+    }
+}
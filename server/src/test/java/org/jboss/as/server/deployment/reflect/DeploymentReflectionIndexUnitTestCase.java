@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link DeploymentReflectionIndex}.
+ */
+public class DeploymentReflectionIndexUnitTestCase {
+
+    @Test
+    public void testClassIndexIsCached() {
+        final DeploymentReflectionIndex index = DeploymentReflectionIndex.create();
+        final Class<?> clazz = new IsolatedClassLoader().loadIsolated(Indexed.class);
+        assertSame(index.getClassIndex(clazz), index.getClassIndex(clazz));
+    }
+
+    @Test
+    public void testJdkClassIndexIsShared() {
+        final ClassReflectionIndex<Object> index = DeploymentReflectionIndex.create().getClassIndex(Object.class);
+        assertSame(index, DeploymentReflectionIndex.create().getClassIndex(Object.class));
+        assertSame(index, DeploymentReflectionIndex.create().getClassIndex(Object.class));
+    }
+
+    @Test
+    public void testOtherClassIndexIsNotShared() {
+        final Class<?> clazz = new IsolatedClassLoader().loadIsolated(Indexed.class);
+        final ClassReflectionIndex<?> index = DeploymentReflectionIndex.create().getClassIndex(clazz);
+        assertEquals(clazz, index.getIndexedClass());
+        // sharing it would keep the class loader reachable after the deployment is gone
+        assertNotSame(index, DeploymentReflectionIndex.create().getClassIndex(clazz));
+    }
+
+    public static class Indexed {
+    }
+
+    /**
+     * Defines a copy of a class in a class loader of its own, standing in for a module class loader.
+     */
+    private static final class IsolatedClassLoader extends ClassLoader {
+
+        IsolatedClassLoader() {
+            super(null);
+        }
+
+        Class<?> loadIsolated(final Class<?> clazz) {
+            final String resource = clazz.getName().replace('.', '/') + ".class";
+            final InputStream in = clazz.getClassLoader().getResourceAsStream(resource);
+            try {
+                try {
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    final byte[] buffer = new byte[4096];
+                    int read;
+                    while ((read = in.read(buffer)) > -1) {
+                        out.write(buffer, 0, read);
+                    }
+                    final byte[] bytes = out.toByteArray();
+                    return defineClass(clazz.getName(), bytes, 0, bytes.length);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
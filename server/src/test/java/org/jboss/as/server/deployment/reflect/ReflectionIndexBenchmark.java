@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.as.server.deployment.reflect;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Estimates the heap and time spent on reflection indexes when many deployments query the same library classes,
+ * comparing an eagerly built index per deployment with the shared, lazily built indexes of JDK classes.
+ * <p>
+ * This is not a unit test; run it manually with the test classpath:
+ * {@code java org.jboss.as.server.deployment.reflect.ReflectionIndexBenchmark [deployments]}
+ * On JDK 9 and later the indexed packages must be opened, e.g. {@code --add-opens java.base/java.lang=ALL-UNNAMED}
+ * for each package of {@link #CLASSES}.
+ * </p>
+ */
+public class ReflectionIndexBenchmark {
+
+    private static final Logger log = Logger.getLogger(ReflectionIndexBenchmark.class);
+
+    private static final Class<?>[] CLASSES = {
+            Object.class, String.class, Integer.class, Long.class, Number.class, Thread.class, ClassLoader.class,
+            java.util.ArrayList.class, java.util.AbstractList.class, java.util.AbstractCollection.class,
+            java.util.HashMap.class, java.util.AbstractMap.class, java.util.LinkedHashMap.class,
+            java.util.TreeMap.class, java.util.HashSet.class, java.util.Hashtable.class, java.util.Properties.class,
+            java.util.concurrent.ConcurrentHashMap.class, java.util.concurrent.ThreadPoolExecutor.class,
+            java.io.InputStream.class, java.io.OutputStream.class, java.io.File.class, java.net.URL.class,
+            java.lang.reflect.Method.class, java.lang.reflect.Field.class, java.util.Date.class,
+            java.math.BigDecimal.class, java.math.BigInteger.class, java.text.SimpleDateFormat.class,
+            java.util.Calendar.class, java.util.GregorianCalendar.class, StringBuilder.class,
+    };
+
+    public static void main(final String[] args) throws Exception {
+        final int deployments = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+
+        // warm up both paths once before measuring
+        runEager(deployments);
+        runShared(deployments);
+
+        final long eagerHeap = usedHeap();
+        long start = System.nanoTime();
+        List<Object> retained = runEager(deployments);
+        final long eagerTime = System.nanoTime() - start;
+        final long eagerBytes = usedHeap() - eagerHeap;
+        retained = null;
+
+        final long sharedHeap = usedHeap();
+        start = System.nanoTime();
+        retained = runShared(deployments);
+        final long sharedTime = System.nanoTime() - start;
+        final long sharedBytes = usedHeap() - sharedHeap;
+
+        log.infof("deployments=%d classes=%d eager-per-deployment=%d ms, %d KB shared-lazy=%d ms, %d KB",
+                deployments, CLASSES.length, eagerTime / 1000000L, eagerBytes / 1024, sharedTime / 1000000L, sharedBytes / 1024);
+        if (retained.isEmpty()) {
+            throw new IllegalStateException();
+        }
+    }
+
+    /** Every deployment builds and keeps a complete index of every class, as before indexes were shared. */
+    private static List<Object> runEager(final int deployments) {
+        final List<Object> retained = new ArrayList<Object>();
+        for (int i = 0; i < deployments; i++) {
+            for (Class<?> clazz : CLASSES) {
+                final ClassReflectionIndex<?> index = new ClassReflectionIndex<Object>(cast(clazz));
+                index.getFields();
+                index.getConstructors();
+                query(index);
+                retained.add(index);
+            }
+        }
+        return retained;
+    }
+
+    private static List<Object> runShared(final int deployments) {
+        final List<Object> retained = new ArrayList<Object>();
+        for (int i = 0; i < deployments; i++) {
+            final DeploymentReflectionIndex deploymentIndex = DeploymentReflectionIndex.create();
+            for (Class<?> clazz : CLASSES) {
+                query(deploymentIndex.getClassIndex(clazz));
+            }
+            retained.add(deploymentIndex);
+        }
+        return retained;
+    }
+
+    private static void query(final ClassReflectionIndex<?> index) {
+        final Method method = index.getMethod(String.class, "toString");
+        if (method == null) {
+            throw new IllegalStateException("No toString on " + index.getIndexedClass());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Object> cast(final Class<?> clazz) {
+        return (Class<Object>) clazz;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.test.surefire.xml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.jboss.as.controller.parsing.Namespace;
+import org.jboss.as.controller.parsing.StandaloneXml;
+import org.jboss.as.controller.persistence.XmlConfigurationPersister;
+import org.jboss.dmr.ModelNode;
+import org.jboss.logging.Logger;
+import org.jboss.modules.Module;
+import org.junit.Test;
+
+/**
+ * Checks that the boot snapshot written by {@link XmlConfigurationPersister} reproduces the operations parsed
+ * from standalone.xml, and compares the time taken to load the boot operations from the XML and from the snapshot.
+ */
+public class BootSnapshotTestCase {
+
+    private static final Logger log = Logger.getLogger(BootSnapshotTestCase.class);
+
+    private static final int ITERATIONS = 20;
+
+    @Test
+    public void testStandaloneXmlSnapshot() throws Exception {
+        // the snapshot is checked against the extension modules on the module path
+        if (System.getProperty("module.path") == null) {
+            System.setProperty("module.path", new File(System.getProperty("jboss.home.dir"), "modules").getAbsolutePath());
+        }
+        final File file = new File("target/standalone-snapshot.xml");
+        final File snapshotFile = new File(file.getPath() + XmlConfigurationPersister.BOOT_SNAPSHOT_SUFFIX);
+        copyFile(getOriginalStandaloneXml(), file);
+        snapshotFile.delete();
+
+        final XmlConfigurationPersister persister = createPersister(file);
+        final List<ModelNode> parsed = persister.load();
+        Assert.assertTrue(snapshotFile.exists());
+        final List<ModelNode> loaded = persister.load();
+        Assert.assertEquals(parsed, loaded);
+
+        // Warm both paths up before timing them
+        long xmlTime = 0;
+        long snapshotTime = 0;
+        for (int i = 0; i < ITERATIONS * 2; i++) {
+            final boolean timed = i >= ITERATIONS;
+            snapshotFile.delete();
+            long start = System.nanoTime();
+            createPersister(file).load();
+            if (timed) {
+                xmlTime += System.nanoTime() - start;
+            }
+            start = System.nanoTime();
+            createPersister(file).load();
+            if (timed) {
+                snapshotTime += System.nanoTime() - start;
+            }
+        }
+        log.infof("Boot operations of %s: parsing XML %.2f ms, reading snapshot %.2f ms (average of %d loads)",
+                file.getName(), xmlTime / 1000000.0 / ITERATIONS, snapshotTime / 1000000.0 / ITERATIONS, ITERATIONS);
+
+        // A configuration change must not be masked by the snapshot
+        file.setLastModified(file.lastModified() + 10000);
+        Assert.assertEquals(parsed, createPersister(file).load());
+    }
+
+    private static XmlConfigurationPersister createPersister(final File file) {
+        final QName rootElement = new QName(Namespace.CURRENT.getUriString(), "server");
+        final StandaloneXml parser = new StandaloneXml(Module.getBootModuleLoader());
+        return new XmlConfigurationPersister(file, rootElement, parser, parser);
+    }
+
+    private static File getOriginalStandaloneXml() {
+        //Get the standalone.xml from the build/src directory, since the one in the
+        //built server could have changed during running of tests
+        File f = new File(".").getAbsoluteFile();
+        f = f.getParentFile().getParentFile().getParentFile();
+        f = new File(f, "build/src/main/resources/standalone/configuration/standalone.xml");
+        Assert.assertTrue(f.exists());
+        return f;
+    }
+
+    private static void copyFile(final File src, final File dest) throws Exception {
+        final InputStream in = new BufferedInputStream(new FileInputStream(src));
+        try {
+            final OutputStream out = new BufferedOutputStream(new FileOutputStream(dest));
+            try {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+}
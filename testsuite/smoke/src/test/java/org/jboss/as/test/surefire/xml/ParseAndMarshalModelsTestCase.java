@@ -47,6 +47,7 @@ import org.jboss.as.controller.parsing.DomainXml;
 import org.jboss.as.controller.parsing.HostXml;
 import org.jboss.as.controller.parsing.Namespace;
 import org.jboss.as.controller.parsing.StandaloneXml;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ConfigurationPersisterProvider;
 import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
@@ -525,6 +526,10 @@ public class ParseAndMarshalModelsTestCase {
                 public void store(ModelNode model) throws ConfigurationPersistenceException {
                 }
 
+                @Override
+                public void store(ModelNode model, PathAddress changedAddress) throws ConfigurationPersistenceException {
+                }
+
                 @Override
                 public void marshallAsXml(ModelNode model, OutputStream output)
                         throws ConfigurationPersistenceException {